@@ -32,22 +32,43 @@ public class S3StreamConfig {
     private long networkBaselineBandwidth = 0;
     private int refillPeriodMs = 1000;
 
+    // Reads larger than the split size are served by concurrent sub-range GETs, 0 means never split.
+    private int s3ReadSplitSize = 8 * 1024 * 1024;
+    private int s3ReadSplitConcurrency = 4;
+
     private int streamObjectCompactionIntervalMinutes = 60;
     private long streamObjectCompactionMaxSizeBytes = 10737418240L;
     private int streamObjectCompactionLivingTimeMinutes = 60;
+    // Size tier factor of stream object compaction, values less than 2 keep the linear policy.
+    private int streamObjectCompactionSizeTierFactor = 0;
+    private long streamObjectCompactionSizeTierBaseSizeBytes = 16 * 1024 * 1024;
 
     private int objectBlockSize = 1048576;
+    // Number of object ids prepared in one controller request for delta WAL uploads
+    private int walUploadObjectIdBatchSize = 8;
+    // Stream large streams of the active WAL cache block to S3 before the block is full
+    private boolean walUploadStreamingEnable = false;
 
     // Cache
     private int walCacheSize = 1024 * 1024 * 1024;
     private int blockCacheSize = 1024 * 1024 * 1024;
+    private long catchUpReadOffsetLag = 100000;
+    private long catchUpReadCacheSize = 64 * 1024 * 1024;
+    private int catchUpReadInflightSize = 128 * 1024 * 1024;
+    private int catchUpReadThreadCount = 2;
+    // Max number of streams whose cache statistics are tracked individually
+    private int streamCacheStatsMaxStreams = 1024;
 
     private int streamSetObjectCompactionInterval = 20;
     private long streamSetObjectCompactionCacheSize = 200 * 1024 * 1024;
     private int streamSetObjectCompactionUploadConcurrency = 8;
     private long streamSetObjectCompactionStreamSplitSize = 16 * 1024 * 1024;
+    private long streamSetObjectCompactionHotStreamSplitSize = 4 * 1024 * 1024;
     private int streamSetObjectCompactionForceSplitPeriod = 120;
     private int streamSetObjectCompactionMaxObjectNum = 500;
+    private int streamSetObjectCompactionParallelism = 4;
+    private int streamSetObjectCompactionTriggerObjectNum = 20;
+    private long streamSetObjectCompactionBandwidth = 20 * 1024 * 1024;
     private int streamSplitSizeThreshold = 16777216;
 
     public String s3Endpoint() {
@@ -86,6 +107,14 @@ public class S3StreamConfig {
         return refillPeriodMs;
     }
 
+    public int s3ReadSplitSize() {
+        return s3ReadSplitSize;
+    }
+
+    public int s3ReadSplitConcurrency() {
+        return s3ReadSplitConcurrency;
+    }
+
     public String s3Namespace() {
         return s3Namespace;
     }
@@ -102,10 +131,26 @@ public class S3StreamConfig {
         return streamObjectCompactionLivingTimeMinutes;
     }
 
+    public int streamObjectCompactionSizeTierFactor() {
+        return streamObjectCompactionSizeTierFactor;
+    }
+
+    public long streamObjectCompactionSizeTierBaseSizeBytes() {
+        return streamObjectCompactionSizeTierBaseSizeBytes;
+    }
+
     public int objectBlockSize() {
         return objectBlockSize;
     }
 
+    public int walUploadObjectIdBatchSize() {
+        return walUploadObjectIdBatchSize;
+    }
+
+    public boolean walUploadStreamingEnable() {
+        return walUploadStreamingEnable;
+    }
+
     public int walCacheSize() {
         return walCacheSize;
     }
@@ -114,6 +159,26 @@ public class S3StreamConfig {
         return blockCacheSize;
     }
 
+    public long catchUpReadOffsetLag() {
+        return catchUpReadOffsetLag;
+    }
+
+    public long catchUpReadCacheSize() {
+        return catchUpReadCacheSize;
+    }
+
+    public int catchUpReadInflightSize() {
+        return catchUpReadInflightSize;
+    }
+
+    public int catchUpReadThreadCount() {
+        return catchUpReadThreadCount;
+    }
+
+    public int streamCacheStatsMaxStreams() {
+        return streamCacheStatsMaxStreams;
+    }
+
     public int streamSetObjectCompactionInterval() {
         return streamSetObjectCompactionInterval;
     }
@@ -130,6 +195,10 @@ public class S3StreamConfig {
         return streamSetObjectCompactionStreamSplitSize;
     }
 
+    public long streamSetObjectCompactionHotStreamSplitSize() {
+        return streamSetObjectCompactionHotStreamSplitSize;
+    }
+
     public int streamSetObjectCompactionForceSplitPeriod() {
         return streamSetObjectCompactionForceSplitPeriod;
     }
@@ -138,6 +207,18 @@ public class S3StreamConfig {
         return streamSetObjectCompactionMaxObjectNum;
     }
 
+    public int streamSetObjectCompactionParallelism() {
+        return streamSetObjectCompactionParallelism;
+    }
+
+    public int streamSetObjectCompactionTriggerObjectNum() {
+        return streamSetObjectCompactionTriggerObjectNum;
+    }
+
+    public long streamSetObjectCompactionBandwidth() {
+        return streamSetObjectCompactionBandwidth;
+    }
+
     public int streamSplitSizeThreshold() {
         return streamSplitSizeThreshold;
     }
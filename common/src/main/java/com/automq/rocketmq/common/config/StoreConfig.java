@@ -35,12 +35,63 @@ public class StoreConfig {
 
     private int fetchBatchSizeFactor = 2;
 
+    // Max bytes of a queue prefetched into the block cache from consume offsets when the queue is opened,
+    // 0 means no warm-up.
+    // Default is 8MB, unit in bytes
+    private int queueWarmUpMaxBytes = 8 * 1024 * 1024;
+
+    // Max inflight appends to the data stream of a queue, the puts exceeding it are coalesced into one batched append.
+    // 0 means every put is appended on its own.
+    // Coalesced puts are stored as size-prefixed batch records, which versions before it can not read, so it is off by
+    // default to keep rollback safe.
+    private int putMaxInflightAppends = 0;
+
+    // Max message count of a coalesced append
+    private int putMaxBatchCount = 128;
+
+    // Default is 1MB, unit in bytes
+    private int putMaxBatchBytes = 1024 * 1024;
+
+    // Max inflight ack appends to the operation stream of a queue, the acks exceeding it are group committed as one record.
+    // 0 means every ack is appended on its own.
+    private int ackMaxInflightAppends = 2;
+
+    // Max ack count of a group-committed record
+    private int ackMaxBatchCount = 256;
+
     // Used for storing KV data based on RocksDB
     private String kvPath = "/tmp/s3rocketmq/kvstore";
 
     // DEFAULT is 1000 * 1000, unit in records
     private int operationSnapshotInterval = 1000 * 1000;
 
+    // Number of delta snapshots taken between two full snapshots, 0 to always take full snapshots
+    private int operationSnapshotMaxDeltaCount = 16;
+
+    // Number of snapshots of different queues taken concurrently
+    private int operationSnapshotThreadPoolNums = 4;
+
+    // Number of operation records fetched at a time when recovering a queue
+    private int recoverOperationPageSize = 1024;
+    // Operations buffered for annihilation when recovering a queue, the oldest ones are replayed beyond this limit
+    private int recoverMaxPendingOperations = 64 * 1024;
+
+    // Timer tags due within this many milliseconds are kept in the in-memory timing wheel
+    private long timerWheelLoadAheadMillis = 5 * 60 * 1000;
+    // Time range of timer tags loaded from the KV store into the timing wheel at a time
+    private long timerWheelLoadChunkMillis = 10 * 1000;
+    // Number of records fetched at a time when recovering the delayed messages of a queue from its timer stream
+    private int timerStreamRecoverPageSize = 1024;
+    // The pending delayed messages at the head of a timer stream are moved to its tail once at least this many records
+    // can not be trimmed and at most half of them are pending, so that a few far-future messages do not pin the stream
+    private int timerStreamCompactMinRecords = 4096;
+
+    // Number of threads reviving the expired checkpoints, the checkpoints of a queue are revived by one thread at a time
+    private int reviveThreadPoolNums = 4;
+
+    // Max number of checkpoints of a queue revived as one batch
+    private int reviveMaxBatchCount = 256;
+
     private int workingThreadPoolNums = PROCESSOR_NUMBER;
     private int workingThreadQueueCapacity = 10000;
 
@@ -60,6 +111,50 @@ public class StoreConfig {
         return fetchBatchSizeFactor;
     }
 
+    public int queueWarmUpMaxBytes() {
+        return queueWarmUpMaxBytes;
+    }
+
+    public void setQueueWarmUpMaxBytes(int queueWarmUpMaxBytes) {
+        this.queueWarmUpMaxBytes = queueWarmUpMaxBytes;
+    }
+
+    public int putMaxInflightAppends() {
+        return putMaxInflightAppends;
+    }
+
+    public void setPutMaxInflightAppends(int putMaxInflightAppends) {
+        this.putMaxInflightAppends = putMaxInflightAppends;
+    }
+
+    public int putMaxBatchCount() {
+        return putMaxBatchCount;
+    }
+
+    public void setPutMaxBatchCount(int putMaxBatchCount) {
+        this.putMaxBatchCount = putMaxBatchCount;
+    }
+
+    public int putMaxBatchBytes() {
+        return putMaxBatchBytes;
+    }
+
+    public void setPutMaxBatchBytes(int putMaxBatchBytes) {
+        this.putMaxBatchBytes = putMaxBatchBytes;
+    }
+
+    public int ackMaxInflightAppends() {
+        return ackMaxInflightAppends;
+    }
+
+    public void setAckMaxInflightAppends(int ackMaxInflightAppends) {
+        this.ackMaxInflightAppends = ackMaxInflightAppends;
+    }
+
+    public int ackMaxBatchCount() {
+        return ackMaxBatchCount;
+    }
+
     public String kvPath() {
         return kvPath;
     }
@@ -72,6 +167,86 @@ public class StoreConfig {
         this.operationSnapshotInterval = operationSnapshotInterval;
     }
 
+    public int operationSnapshotMaxDeltaCount() {
+        return operationSnapshotMaxDeltaCount;
+    }
+
+    public void setOperationSnapshotMaxDeltaCount(int operationSnapshotMaxDeltaCount) {
+        this.operationSnapshotMaxDeltaCount = operationSnapshotMaxDeltaCount;
+    }
+
+    public int operationSnapshotThreadPoolNums() {
+        return operationSnapshotThreadPoolNums;
+    }
+
+    public void setOperationSnapshotThreadPoolNums(int operationSnapshotThreadPoolNums) {
+        this.operationSnapshotThreadPoolNums = operationSnapshotThreadPoolNums;
+    }
+
+    public int recoverOperationPageSize() {
+        return recoverOperationPageSize;
+    }
+
+    public void setRecoverOperationPageSize(int recoverOperationPageSize) {
+        this.recoverOperationPageSize = recoverOperationPageSize;
+    }
+
+    public int recoverMaxPendingOperations() {
+        return recoverMaxPendingOperations;
+    }
+
+    public void setRecoverMaxPendingOperations(int recoverMaxPendingOperations) {
+        this.recoverMaxPendingOperations = recoverMaxPendingOperations;
+    }
+
+    public long timerWheelLoadAheadMillis() {
+        return timerWheelLoadAheadMillis;
+    }
+
+    public void setTimerWheelLoadAheadMillis(long timerWheelLoadAheadMillis) {
+        this.timerWheelLoadAheadMillis = timerWheelLoadAheadMillis;
+    }
+
+    public long timerWheelLoadChunkMillis() {
+        return timerWheelLoadChunkMillis;
+    }
+
+    public void setTimerWheelLoadChunkMillis(long timerWheelLoadChunkMillis) {
+        this.timerWheelLoadChunkMillis = timerWheelLoadChunkMillis;
+    }
+
+    public int timerStreamRecoverPageSize() {
+        return timerStreamRecoverPageSize;
+    }
+
+    public void setTimerStreamRecoverPageSize(int timerStreamRecoverPageSize) {
+        this.timerStreamRecoverPageSize = timerStreamRecoverPageSize;
+    }
+
+    public int timerStreamCompactMinRecords() {
+        return timerStreamCompactMinRecords;
+    }
+
+    public void setTimerStreamCompactMinRecords(int timerStreamCompactMinRecords) {
+        this.timerStreamCompactMinRecords = timerStreamCompactMinRecords;
+    }
+
+    public int reviveThreadPoolNums() {
+        return reviveThreadPoolNums;
+    }
+
+    public void setReviveThreadPoolNums(int reviveThreadPoolNums) {
+        this.reviveThreadPoolNums = reviveThreadPoolNums;
+    }
+
+    public int reviveMaxBatchCount() {
+        return reviveMaxBatchCount;
+    }
+
+    public void setReviveMaxBatchCount(int reviveMaxBatchCount) {
+        this.reviveMaxBatchCount = reviveMaxBatchCount;
+    }
+
     public int workingThreadPoolNums() {
         return workingThreadPoolNums;
     }
@@ -174,6 +174,14 @@ public interface MetadataStore extends Closeable {
 
     CompletableFuture<StreamMetadata> getStream(long topicId, int queueId, Long groupId, StreamRole streamRole);
 
+    /**
+     * Look up the stream of the given role without creating it, unlike {@link #getStream}.
+     *
+     * @return Metadata of the stream, or empty if it does not exist
+     */
+    CompletableFuture<Optional<StreamMetadata>> findStream(long topicId, int queueId, Long groupId,
+        StreamRole streamRole);
+
     /**
      * Invoked when store has closed the queue.
      *
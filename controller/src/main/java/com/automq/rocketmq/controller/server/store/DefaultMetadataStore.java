@@ -638,6 +638,12 @@ public class DefaultMetadataStore implements MetadataStore {
         return streamManager.getStream(topicId, queueId, groupId, streamRole);
     }
 
+    @Override
+    public CompletableFuture<Optional<StreamMetadata>> findStream(long topicId, int queueId, Long groupId,
+        StreamRole streamRole) {
+        return streamManager.findStream(topicId, queueId, groupId, streamRole);
+    }
+
     @Override
     public CompletableFuture<Void> onQueueClosed(long topicId, int queueId) {
         CompletableFuture<Void> future = new CompletableFuture<>();
@@ -79,7 +79,8 @@ public class StreamManager {
                     .stream()
                     .filter(stream -> stream.getStreamRole() == streamRole).toList();
                 if (streams.isEmpty()) {
-                    if (streamRole == StreamRole.STREAM_ROLE_RETRY) {
+                    // Retry and timer streams are created on demand.
+                    if (streamRole == StreamRole.STREAM_ROLE_RETRY || streamRole == StreamRole.STREAM_ROLE_TIMER) {
                         QueueAssignmentMapper assignmentMapper = session.getMapper(QueueAssignmentMapper.class);
                         List<QueueAssignment> assignments = assignmentMapper
                             .list(topicId, null, null, null, null)
@@ -102,7 +103,7 @@ public class StreamManager {
                         switch (assignment.getStatus()) {
                             case ASSIGNMENT_STATUS_YIELDING -> {
                                 String msg = String.format("Queue[topic-id=%d queue-id=%d] is under migration. " +
-                                    "Please create retry stream later", topicId, queueId);
+                                    "Please create the stream later", topicId, queueId);
                                 throw new CompletionException(new ControllerException(Code.ILLEGAL_STATE_VALUE, msg));
                             }
                             case ASSIGNMENT_STATUS_DELETED -> {
@@ -121,14 +122,16 @@ public class StreamManager {
                         }
 
                         // Verify Group exists.
-                        GroupMapper groupMapper = session.getMapper(GroupMapper.class);
-                        List<Group> groups = groupMapper.byCriteria(GroupCriteria.newBuilder()
-                            .setGroupId(groupId)
-                            .setStatus(GroupStatus.GROUP_STATUS_ACTIVE)
-                            .build());
-                        if (groups.size() != 1) {
-                            String msg = String.format("Group[group-id=%d] is not found", groupId);
-                            throw new CompletionException(new ControllerException(Code.NOT_FOUND_VALUE, msg));
+                        if (streamRole == StreamRole.STREAM_ROLE_RETRY) {
+                            GroupMapper groupMapper = session.getMapper(GroupMapper.class);
+                            List<Group> groups = groupMapper.byCriteria(GroupCriteria.newBuilder()
+                                .setGroupId(groupId)
+                                .setStatus(GroupStatus.GROUP_STATUS_ACTIVE)
+                                .build());
+                            if (groups.size() != 1) {
+                                String msg = String.format("Group[group-id=%d] is not found", groupId);
+                                throw new CompletionException(new ControllerException(Code.NOT_FOUND_VALUE, msg));
+                            }
                         }
 
                         int nodeId = assignment.getDstNodeId();
@@ -418,6 +421,30 @@ public class StreamManager {
         return future;
     }
 
+    /**
+     * Look up the stream of the given role without creating it.
+     *
+     * @return {@link CompletableFuture} of the stream metadata, or empty if there is no such stream or it is deleted
+     */
+    public CompletableFuture<Optional<StreamMetadata>> findStream(long topicId, int queueId, Long groupId,
+        StreamRole streamRole) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (SqlSession session = metadataStore.openSession()) {
+                StreamMapper streamMapper = session.getMapper(StreamMapper.class);
+                StreamCriteria criteria = StreamCriteria.newBuilder()
+                    .withTopicId(topicId)
+                    .withQueueId(queueId)
+                    .withGroupId(groupId)
+                    .build();
+                List<Stream> streams = streamMapper.byCriteria(criteria)
+                    .stream()
+                    .filter(stream -> stream.getStreamRole() == streamRole && stream.getState() != StreamState.DELETED)
+                    .toList();
+                return buildStreamMetadata(streams, session).stream().findFirst();
+            }
+        }, metadataStore.asyncExecutor());
+    }
+
     public CompletableFuture<List<StreamMetadata>> getStreams(List<Long> streamIds) {
         if (null == streamIds || streamIds.isEmpty()) {
             return CompletableFuture.completedFuture(new ArrayList<>());
@@ -37,6 +37,7 @@ import com.automq.rocketmq.metadata.mapper.S3StreamObjectMapper;
 import com.automq.rocketmq.metadata.mapper.StreamMapper;
 import java.io.IOException;
 import java.util.Date;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import org.apache.ibatis.session.SqlSession;
@@ -63,6 +64,23 @@ class StreamManagerTest extends DatabaseTestBase {
         }
     }
 
+    @Test
+    public void testFindStream() throws IOException {
+        createAssignment(1, 2, 3, 4, AssignmentStatus.ASSIGNMENT_STATUS_ASSIGNED);
+        try (MetadataStore store = new DefaultMetadataStore(getControllerClient(), getSessionFactory(), config)) {
+            store.start();
+            awaitElectedAsLeader(store);
+
+            StreamManager streamManager = new StreamManager(store);
+            Assertions.assertTrue(streamManager.findStream(1, 2, null, StreamRole.STREAM_ROLE_TIMER).join().isEmpty());
+
+            StreamMetadata stream = streamManager.getStream(1, 2, null, StreamRole.STREAM_ROLE_TIMER).join();
+            Optional<StreamMetadata> found = streamManager.findStream(1, 2, null, StreamRole.STREAM_ROLE_TIMER).join();
+            Assertions.assertTrue(found.isPresent());
+            Assertions.assertEquals(stream.getStreamId(), found.get().getStreamId());
+        }
+    }
+
     @Test
     public void testGetStream_NotFound() throws IOException {
         Group group = createGroup("G1");
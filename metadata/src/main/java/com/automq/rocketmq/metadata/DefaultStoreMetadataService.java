@@ -99,6 +99,26 @@ public class DefaultStoreMetadataService implements StoreMetadataService {
             }), MoreExecutors.directExecutor());
     }
 
+    @Override
+    public CompletableFuture<StreamMetadata> timerStreamOf(long topicId, int queueId) {
+        AtomicBoolean loop = new AtomicBoolean(true);
+        return Futures.loop(loop::get, () -> metadataStore.getStream(topicId, queueId, null, StreamRole.STREAM_ROLE_TIMER)
+            .thenApply(res -> {
+                loop.set(false);
+                return res;
+            }), MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Optional<StreamMetadata>> existingTimerStreamOf(long topicId, int queueId) {
+        AtomicBoolean loop = new AtomicBoolean(true);
+        return Futures.loop(loop::get, () -> metadataStore.findStream(topicId, queueId, null, StreamRole.STREAM_ROLE_TIMER)
+            .thenApply(res -> {
+                loop.set(false);
+                return res;
+            }), MoreExecutors.directExecutor());
+    }
+
     @Override
     public CompletableFuture<StreamMetadata> retryStreamOf(long consumerGroupId, long topicId, int queueId) {
         AtomicBoolean loop = new AtomicBoolean(true);
@@ -54,6 +54,25 @@ public interface StoreMetadataService extends ResourceMetadataService {
      */
     CompletableFuture<StreamMetadata> snapshotStreamOf(long topicId, int queueId);
 
+    /**
+     * Get the timer stream metadata of the specified message queue, which holds the delayed messages of the queue.
+     * The stream is created on the first request.
+     *
+     * @param topicId topic id
+     * @param queueId the specified message queue id
+     * @return {@link CompletableFuture} of {@link StreamMetadata}
+     */
+    CompletableFuture<StreamMetadata> timerStreamOf(long topicId, int queueId);
+
+    /**
+     * Get the timer stream metadata of the specified message queue if it has been created.
+     *
+     * @param topicId topic id
+     * @param queueId the specified message queue id
+     * @return {@link CompletableFuture} of {@link StreamMetadata}, or empty if the queue has no timer stream yet
+     */
+    CompletableFuture<Optional<StreamMetadata>> existingTimerStreamOf(long topicId, int queueId);
+
     /**
      * Get the retry stream metadata of the specified message queue and consumer group.
      *
@@ -17,12 +17,16 @@
 
 package com.automq.rocketmq.proxy.grpc;
 
+import apache.rocketmq.proxy.v1.DescribeStreamCacheStatsRequest;
 import apache.rocketmq.proxy.v1.ResetConsumeOffsetByTimestampRequest;
 import apache.rocketmq.proxy.v1.ResetConsumeOffsetRequest;
+import apache.rocketmq.proxy.v1.StreamCacheStats;
 import java.io.Closeable;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public interface ProxyClient extends Closeable {
     CompletableFuture<Void> resetConsumeOffset(String target, ResetConsumeOffsetRequest request);
     CompletableFuture<Void> resetConsumeOffsetByTimestamp(String target, ResetConsumeOffsetByTimestampRequest request);
+    CompletableFuture<List<StreamCacheStats>> describeStreamCacheStats(String target, DescribeStreamCacheStatsRequest request);
 }
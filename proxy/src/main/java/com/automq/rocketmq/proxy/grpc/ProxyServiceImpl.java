@@ -18,12 +18,16 @@
 package com.automq.rocketmq.proxy.grpc;
 
 import apache.rocketmq.common.v1.Code;
+import apache.rocketmq.proxy.v1.DescribeStreamCacheStatsReply;
+import apache.rocketmq.proxy.v1.DescribeStreamCacheStatsRequest;
 import apache.rocketmq.proxy.v1.ProxyServiceGrpc;
 import apache.rocketmq.proxy.v1.ResetConsumeOffsetByTimestampRequest;
 import apache.rocketmq.proxy.v1.ResetConsumeOffsetRequest;
 import apache.rocketmq.proxy.v1.ResetConsumeOffsetReply;
 import apache.rocketmq.proxy.v1.Status;
+import apache.rocketmq.proxy.v1.StreamCacheStats;
 import com.automq.rocketmq.proxy.service.ExtendMessageService;
+import com.automq.rocketmq.store.model.stream.StreamCacheStat;
 import com.google.protobuf.TextFormat;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
@@ -78,4 +82,43 @@ public class ProxyServiceImpl extends ProxyServiceGrpc.ProxyServiceImplBase {
                 responseObserver.onCompleted();
             });
     }
+
+    @Override
+    public void describeStreamCacheStats(DescribeStreamCacheStatsRequest request,
+        StreamObserver<DescribeStreamCacheStatsReply> responseObserver) {
+        messageService.describeStreamCacheStats(request.getTopK())
+            .whenComplete((stats, e) -> {
+                if (e != null) {
+                    responseObserver.onError(e);
+                    return;
+                }
+                DescribeStreamCacheStatsReply.Builder builder = DescribeStreamCacheStatsReply.newBuilder()
+                    .setStatus(Status
+                        .newBuilder()
+                        .setCode(Code.OK)
+                        .build());
+                stats.forEach(stat -> builder.addStats(toProto(stat)));
+                responseObserver.onNext(builder.build());
+                responseObserver.onCompleted();
+            });
+    }
+
+    private static StreamCacheStats toProto(StreamCacheStat stat) {
+        com.automq.stream.s3.cache.StreamCacheStats.Snapshot snapshot = stat.stats();
+        return StreamCacheStats.newBuilder()
+            .setStreamId(snapshot.streamId())
+            .setTopicId(stat.topicId())
+            .setQueueId(stat.queueId())
+            .setLogCacheHitCount(snapshot.logCacheHitCount())
+            .setLogCacheHitBytes(snapshot.logCacheHitBytes())
+            .setBlockCacheHitCount(snapshot.blockCacheHitCount())
+            .setBlockCacheHitBytes(snapshot.blockCacheHitBytes())
+            .setBlockCacheMissCount(snapshot.blockCacheMissCount())
+            .setBlockCacheMissBytes(snapshot.blockCacheMissBytes())
+            .setS3GetCount(snapshot.s3GetCount())
+            .setS3GetBytes(snapshot.s3GetBytes())
+            .setReadAheadUsedBytes(snapshot.readAheadUsedBytes())
+            .setReadAheadWastedBytes(snapshot.readAheadWastedBytes())
+            .build();
+    }
 }
@@ -18,10 +18,13 @@
 package com.automq.rocketmq.proxy.grpc.client;
 
 import apache.rocketmq.common.v1.Code;
+import apache.rocketmq.proxy.v1.DescribeStreamCacheStatsReply;
+import apache.rocketmq.proxy.v1.DescribeStreamCacheStatsRequest;
 import apache.rocketmq.proxy.v1.ProxyServiceGrpc;
 import apache.rocketmq.proxy.v1.ResetConsumeOffsetByTimestampRequest;
 import apache.rocketmq.proxy.v1.ResetConsumeOffsetReply;
 import apache.rocketmq.proxy.v1.ResetConsumeOffsetRequest;
+import apache.rocketmq.proxy.v1.StreamCacheStats;
 import com.automq.rocketmq.common.config.GrpcClientConfig;
 import com.automq.rocketmq.proxy.grpc.ProxyClient;
 import com.google.common.base.Strings;
@@ -34,6 +37,7 @@ import io.grpc.Grpc;
 import io.grpc.InsecureChannelCredentials;
 import io.grpc.ManagedChannel;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -118,6 +122,31 @@ public class GrpcProxyClient implements ProxyClient {
         return cf;
     }
 
+    @Override
+    public CompletableFuture<List<StreamCacheStats>> describeStreamCacheStats(String target,
+        DescribeStreamCacheStatsRequest request) {
+        ProxyServiceGrpc.ProxyServiceFutureStub stub = getOrCreateStubForTarget(target);
+
+        CompletableFuture<List<StreamCacheStats>> cf = new CompletableFuture<>();
+        Futures.addCallback(stub.describeStreamCacheStats(request),
+            new FutureCallback<>() {
+                @Override
+                public void onSuccess(DescribeStreamCacheStatsReply result) {
+                    if (result.getStatus().getCode() == Code.OK) {
+                        cf.complete(result.getStatsList());
+                    } else {
+                        cf.completeExceptionally(new ProxyException(ProxyExceptionCode.INTERNAL_SERVER_ERROR, result.getStatus().getMessage()));
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    cf.completeExceptionally(t);
+                }
+            }, MoreExecutors.directExecutor());
+        return cf;
+    }
+
     @Override
     public void close() throws IOException {
         for (Map.Entry<String, ProxyServiceGrpc.ProxyServiceFutureStub> entry : stubs.entrySet()) {
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.proxy.model;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.rocketmq.client.consumer.PullResult;
+import org.apache.rocketmq.client.consumer.PullStatus;
+import org.apache.rocketmq.common.message.MessageExt;
+
+/**
+ * Pull result whose message bodies are left in the pooled stream buffers.
+ * <p>
+ * The messages in {@link #getMsgFoundList()} have empty bodies, and {@link #bodies()} holds their payloads in the
+ * same order. The payloads are valid until {@link #release()} is called, which must be done once the response is
+ * written or discarded.
+ */
+public class PooledPullResult extends PullResult {
+    private final com.automq.rocketmq.store.model.message.PullResult storeResult;
+    private final List<ByteBuffer> bodies;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    public PooledPullResult(com.automq.rocketmq.store.model.message.PullResult storeResult,
+        List<MessageExt> msgFoundList, List<ByteBuffer> bodies) {
+        super(PullStatus.FOUND, storeResult.nextBeginOffset(), storeResult.minOffset(), storeResult.maxOffset(),
+            msgFoundList);
+        this.storeResult = storeResult;
+        this.bodies = bodies;
+    }
+
+    public List<ByteBuffer> bodies() {
+        return bodies;
+    }
+
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            storeResult.release();
+        }
+    }
+}
@@ -17,7 +17,13 @@
 
 package com.automq.rocketmq.proxy.remoting;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
 import org.apache.rocketmq.common.MQVersion;
+import org.apache.rocketmq.common.message.MessageDecoder;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.sysflag.MessageSysFlag;
 import org.apache.rocketmq.proxy.common.ProxyContext;
 import org.apache.rocketmq.proxy.processor.channel.ChannelProtocolType;
 import org.apache.rocketmq.remoting.CommandCustomHeader;
@@ -29,6 +35,9 @@ public class RemotingUtil {
     // The response code that indicates that the request is not finished yet.
     public static final int REQUEST_NOT_FINISHED = -1;
 
+    // Size of the fields ahead of the body length, except the born host and the store host.
+    private static final int MESSAGE_FIXED_HEADER_SIZE = 68;
+
     /**
      * Generates a code not supported response command.
      */
@@ -73,6 +82,29 @@ public class RemotingUtil {
         return response;
     }
 
+    /**
+     * Encode the message like {@link MessageDecoder#encode(MessageExt, boolean)} without compression, but take the
+     * body from the given buffer instead of copying it. The message itself must have an empty body.
+     *
+     * @param messageExt The message with an empty body.
+     * @param body       The body of the message.
+     * @return The encoded message, which wraps the body buffer and is valid as long as it is.
+     */
+    public static ByteBuf encodeMessage(MessageExt messageExt, ByteBuffer body) throws Exception {
+        byte[] encoded = MessageDecoder.encode(messageExt, false);
+        int sysFlag = messageExt.getSysFlag();
+        int bornHostLength = (sysFlag & MessageSysFlag.BORNHOST_V6_FLAG) == 0 ? 8 : 20;
+        int storeHostLength = (sysFlag & MessageSysFlag.STOREHOSTADDRESS_V6_FLAG) == 0 ? 8 : 20;
+        int bodyLengthPosition = MESSAGE_FIXED_HEADER_SIZE + bornHostLength + storeHostLength;
+        int headerLength = bodyLengthPosition + 4;
+
+        ByteBuf header = Unpooled.wrappedBuffer(encoded, 0, headerLength);
+        header.setInt(0, encoded.length + body.remaining());
+        header.setInt(bodyLengthPosition, body.remaining());
+        ByteBuf tail = Unpooled.wrappedBuffer(encoded, headerLength, encoded.length - headerLength);
+        return Unpooled.wrappedBuffer(header, Unpooled.wrappedBuffer(body), tail);
+    }
+
     public static boolean isRemotingProtocol(ProxyContext ctx) {
         return ChannelProtocolType.REMOTING.getName().equals(ctx.getProtocolType());
     }
@@ -18,7 +18,11 @@
 package com.automq.rocketmq.proxy.remoting.activity;
 
 import com.automq.rocketmq.proxy.exception.ExceptionHandler;
+import com.automq.rocketmq.proxy.model.PooledPullResult;
 import com.automq.rocketmq.proxy.remoting.RemotingUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.FileRegion;
 import java.nio.ByteBuffer;
@@ -215,6 +219,11 @@ public class ExtendPullMessageActivity extends PullMessageActivity implements Co
                     }
                 }
 
+                if (pullResult instanceof PooledPullResult pooledPullResult) {
+                    writePooledResponse(ctx, context, request, response, pooledPullResult);
+                    return;
+                }
+
                 if (pullResult.getPullStatus() == PullStatus.FOUND) {
                     List<MessageExt> msgList = pullResult.getMsgFoundList();
 
@@ -246,6 +255,39 @@ public class ExtendPullMessageActivity extends PullMessageActivity implements Co
         return null;
     }
 
+    /**
+     * Write the messages with their bodies taken from the pooled buffers, which are released once the response is
+     * flushed.
+     */
+    private void writePooledResponse(ChannelHandlerContext ctx, ProxyContext context, RemotingCommand request,
+        RemotingCommand response, PooledPullResult pullResult) {
+        List<MessageExt> msgList = pullResult.getMsgFoundList();
+        CompositeByteBuf messages = Unpooled.compositeBuffer(msgList.size());
+        try {
+            for (int i = 0; i < msgList.size(); i++) {
+                messages.addComponent(true, RemotingUtil.encodeMessage(msgList.get(i), pullResult.bodies().get(i)));
+            }
+        } catch (Exception e) {
+            messages.release();
+            pullResult.release();
+            LOGGER.error("Encode pull message response failed", e);
+            response.setCode(ResponseCode.SYSTEM_ERROR);
+            response.setRemark("Encode pull message response failed: " + e.getMessage());
+            writeResponse(ctx, context, request, response);
+            return;
+        }
+
+        ByteBuf header = Unpooled.wrappedBuffer(response.encodeHeader(messages.readableBytes()));
+        ctx.writeAndFlush(Unpooled.wrappedBuffer(header, messages))
+            .addListener(future -> {
+                pullResult.release();
+                recordRpcLatency(context, response);
+                if (!future.isSuccess()) {
+                    LOGGER.error("Write pull message response failed", future.cause());
+                }
+            });
+    }
+
     @Override
     protected void writeErrResponse(ChannelHandlerContext ctx, ProxyContext context, RemotingCommand request,
         Throwable t) {
@@ -17,6 +17,8 @@
 
 package com.automq.rocketmq.proxy.service;
 
+import com.automq.rocketmq.store.model.stream.StreamCacheStat;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public interface ExtendMessageService {
@@ -41,4 +43,11 @@ public interface ExtendMessageService {
      */
     CompletableFuture<Void> resetConsumeOffsetByTimestamp(String topic, int queueId, String consumerGroup, long timestamp);
 
+    /**
+     * Describe the cache statistics of the streams which cost most S3 reads on this node.
+     *
+     * @param topK The max number of streams to return.
+     */
+    CompletableFuture<List<StreamCacheStat>> describeStreamCacheStats(int topK);
+
 }
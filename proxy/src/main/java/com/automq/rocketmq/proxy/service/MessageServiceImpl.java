@@ -29,6 +29,7 @@ import com.automq.rocketmq.common.util.CommonUtil;
 import com.automq.rocketmq.metadata.api.ProxyMetadataService;
 import com.automq.rocketmq.proxy.exception.ProxyException;
 import com.automq.rocketmq.proxy.metrics.ProxyMetricsManager;
+import com.automq.rocketmq.proxy.model.PooledPullResult;
 import com.automq.rocketmq.proxy.model.ProxyContextExt;
 import com.automq.rocketmq.proxy.model.VirtualQueue;
 import com.automq.rocketmq.proxy.util.ContextUtil;
@@ -42,9 +43,11 @@ import com.automq.rocketmq.store.model.message.PutResult;
 import com.automq.rocketmq.store.model.message.ResetConsumeOffsetResult;
 import com.automq.rocketmq.store.model.message.SQLFilter;
 import com.automq.rocketmq.store.model.message.TagFilter;
+import com.automq.rocketmq.store.model.stream.StreamCacheStat;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -75,6 +78,7 @@ import org.apache.rocketmq.common.message.Message;
 import org.apache.rocketmq.common.message.MessageClientIDSetter;
 import org.apache.rocketmq.common.message.MessageConst;
 import org.apache.rocketmq.common.message.MessageDecoder;
+import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.common.message.MessageQueue;
 import org.apache.rocketmq.proxy.common.ProxyContext;
 import org.apache.rocketmq.proxy.common.utils.ExceptionUtils;
@@ -399,7 +403,7 @@ public class MessageServiceImpl implements MessageService, ExtendMessageService
             filter = switch (requestHeader.getExpType()) {
                 case ExpressionType.TAG ->
                     requestHeader.getExp().contains(TagFilter.SUB_ALL) ? Filter.DEFAULT_FILTER : new TagFilter(requestHeader.getExp());
-                case ExpressionType.SQL92 -> new SQLFilter(requestHeader.getExp());
+                case ExpressionType.SQL92 -> sqlFilterOf(requestHeader.getExp());
                 default -> Filter.DEFAULT_FILTER;
             };
         } else {
@@ -603,6 +607,11 @@ public class MessageServiceImpl implements MessageService, ExtendMessageService
             return inner.maxOffset() > inner.nextBeginOffset() || !inner.messageList().isEmpty();
         }
 
+        @Override
+        public void release() {
+            inner.release();
+        }
+
     }
 
     @Override
@@ -620,7 +629,7 @@ public class MessageServiceImpl implements MessageService, ExtendMessageService
             filter = switch (requestHeader.getExpressionType()) {
                 case ExpressionType.TAG ->
                     requestHeader.getSubscription().contains(TagFilter.SUB_ALL) ? Filter.DEFAULT_FILTER : new TagFilter(requestHeader.getSubscription());
-                case ExpressionType.SQL92 -> new SQLFilter(requestHeader.getSubscription());
+                case ExpressionType.SQL92 -> sqlFilterOf(requestHeader.getSubscription());
                 default -> Filter.DEFAULT_FILTER;
             };
         } else {
@@ -649,10 +658,12 @@ public class MessageServiceImpl implements MessageService, ExtendMessageService
                     metadataService.updateConsumerOffset(group.getGroupId(), topic.getTopicId(), virtualQueue.physicalQueueId(), requestHeader.getCommitOffset());
                 }
 
-                return store.pull(group.getGroupId(), topic.getTopicId(), virtualQueue.physicalQueueId(), filter, requestHeader.getQueueOffset(), requestHeader.getMaxMsgNums(), false);
+                // Pull with pooled buffers to avoid copying the messages to heap, the messages are only read in the pull path.
+                return store.pull(group.getGroupId(), topic.getTopicId(), virtualQueue.physicalQueueId(), filter, requestHeader.getQueueOffset(), requestHeader.getMaxMsgNums(), false, true);
             })
             .thenCompose(result -> {
                 if (result.messageList().isEmpty()) {
+                    result.release();
                     if (result.maxOffset() - result.nextBeginOffset() > 0) {
                         // This means there are messages in the queue but not match the filter. So we should prevent long polling.
                         return CompletableFuture.completedFuture(new PullResult(PullStatus.NO_MATCHED_MSG, result.nextBeginOffset(), result.minOffset(), result.maxOffset(), Collections.emptyList()));
@@ -660,25 +671,40 @@ public class MessageServiceImpl implements MessageService, ExtendMessageService
                         return suspendRequestService.suspendRequest((ProxyContextExt) ctx, requestHeader.getTopic(), virtualQueue.physicalQueueId(), filter, timeoutMillis,
                                 // Function to pull message later.
                                 timeout -> store.pull(consumerGroupReference.get().getGroupId(), topicReference.get().getTopicId(), virtualQueue.physicalQueueId(), filter,
-                                        requestHeader.getQueueOffset(), requestHeader.getMaxMsgNums(), false)
+                                        requestHeader.getQueueOffset(), requestHeader.getMaxMsgNums(), false, true)
                                     .thenApply(PullResultWrapper::new))
                             .thenApply(resultWrapper -> {
-                                if (resultWrapper.isEmpty() || resultWrapper.get().inner().messageList().isEmpty()) {
+                                if (resultWrapper.isEmpty()) {
                                     return new PullResult(PullStatus.NO_MATCHED_MSG, result.nextBeginOffset(), result.minOffset(), result.maxOffset(), Collections.emptyList());
                                 }
                                 com.automq.rocketmq.store.model.message.PullResult suspendResult = resultWrapper.get().inner();
-                                return new PullResult(PullStatus.FOUND, suspendResult.nextBeginOffset(), suspendResult.minOffset(), suspendResult.maxOffset(),
-                                    FlatMessageUtil.convertTo(null, suspendResult.messageList(), requestHeader.getTopic(), 0, config.hostName(), config.remotingListenPort()));
+                                if (suspendResult.messageList().isEmpty()) {
+                                    suspendResult.release();
+                                    return new PullResult(PullStatus.NO_MATCHED_MSG, result.nextBeginOffset(), result.minOffset(), result.maxOffset(), Collections.emptyList());
+                                }
+                                return pooledPullResult(suspendResult, requestHeader.getTopic());
                             });
                     }
                 }
-                return CompletableFuture.completedFuture(
-                    new PullResult(PullStatus.FOUND, result.nextBeginOffset(), result.minOffset(), result.maxOffset(),
-                        FlatMessageUtil.convertTo(null, result.messageList(), requestHeader.getTopic(), 0, config.hostName(), config.remotingListenPort()))
-                );
+                return CompletableFuture.completedFuture(pooledPullResult(result, requestHeader.getTopic()));
             });
     }
 
+    /**
+     * Convert the messages without their bodies, which are written to the response from the pooled buffers and
+     * released after that.
+     */
+    private PooledPullResult pooledPullResult(com.automq.rocketmq.store.model.message.PullResult result,
+        String topicName) {
+        List<MessageExt> messageList = new ArrayList<>(result.messageList().size());
+        List<ByteBuffer> bodies = new ArrayList<>(result.messageList().size());
+        for (FlatMessageExt message : result.messageList()) {
+            messageList.add(FlatMessageUtil.convertTo(message, topicName, 0, config.hostName(), config.remotingListenPort(), false));
+            bodies.add(message.message().payloadAsByteBuffer());
+        }
+        return new PooledPullResult(result, messageList, bodies);
+    }
+
     @Override
     public CompletableFuture<Set<MessageQueue>> lockBatchMQ(ProxyContext ctx, AddressableMessageQueue messageQueue,
         LockBatchRequestBody requestBody, long timeoutMillis) {
@@ -763,6 +789,14 @@ public class MessageServiceImpl implements MessageService, ExtendMessageService
         });
     }
 
+    private static Filter sqlFilterOf(String expression) {
+        try {
+            return new SQLFilter(expression);
+        } catch (IllegalArgumentException e) {
+            throw new ProxyException(apache.rocketmq.v2.Code.ILLEGAL_FILTER_EXPRESSION, e.getMessage());
+        }
+    }
+
     @Override
     public CompletableFuture<Void> resetConsumeOffset(String topicName, int queueId, String consumerGroupName,
         long newConsumeOffset) {
@@ -782,4 +816,9 @@ public class MessageServiceImpl implements MessageService, ExtendMessageService
         long timestamp) {
         throw new UnsupportedOperationException("Not implemented yet");
     }
+
+    @Override
+    public CompletableFuture<List<StreamCacheStat>> describeStreamCacheStats(int topK) {
+        return store.getStreamCacheStats(topK);
+    }
 }
@@ -80,6 +80,12 @@ public class SuspendRequestService extends ServiceThread implements StartAndShut
 
     public interface GetMessageResult {
         boolean needWriteResponse();
+
+        /**
+         * Release the resources held by the result if it is discarded without writing response.
+         */
+        default void release() {
+        }
     }
 
     static class SuspendRequestTask<T extends GetMessageResult> implements Comparable<SuspendRequestTask<T>> {
@@ -158,6 +164,7 @@ public class SuspendRequestService extends ServiceThread implements StartAndShut
                             return true;
                         }
                         // Otherwise, wait for expire or notification.
+                        result.release();
                         return false;
                     })
                     .exceptionally(ex -> {
@@ -50,6 +50,8 @@ import static com.automq.rocketmq.proxy.util.ReceiptHandleUtil.encodeReceiptHand
  * An utility class to convert RocketMQ message models to {@link FlatMessage}, and vice versa.
  */
 public class FlatMessageUtil {
+    private static final byte[] EMPTY_BODY = new byte[0];
+
     private static final long[] DELAY_LEVEL_ARRAY = new long[] {
         TimeUnit.SECONDS.toMillis(1),
         TimeUnit.SECONDS.toMillis(5),
@@ -152,6 +154,15 @@ public class FlatMessageUtil {
 
     public static MessageExt convertTo(FlatMessageExt flatMessage, String topicName, long invisibleTime, String host,
         int port) {
+        return convertTo(flatMessage, topicName, invisibleTime, host, port, true);
+    }
+
+    /**
+     * Convert the message, optionally leaving the body empty if the payload is served from the buffer of the
+     * {@link FlatMessage} directly.
+     */
+    public static MessageExt convertTo(FlatMessageExt flatMessage, String topicName, long invisibleTime, String host,
+        int port, boolean copyBody) {
         MessageExt messageExt = new MessageExt();
 
         VirtualQueue virtualQueue = new VirtualQueue(flatMessage.message().topicId(), flatMessage.message().queueId());
@@ -163,12 +174,16 @@ public class FlatMessageUtil {
         messageExt.setQueueOffset(flatMessage.offset());
         messageExt.setCommitLogOffset(flatMessage.offset());
 
-        ByteBuffer payloadBuffer = flatMessage.message().payloadAsByteBuffer();
+        if (copyBody) {
+            ByteBuffer payloadBuffer = flatMessage.message().payloadAsByteBuffer();
 
-        // Convert buffer to byte array
-        byte[] payload = new byte[payloadBuffer.remaining()];
-        payloadBuffer.get(payloadBuffer.position(), payload);
-        messageExt.setBody(payload);
+            // Convert buffer to byte array
+            byte[] payload = new byte[payloadBuffer.remaining()];
+            payloadBuffer.get(payloadBuffer.position(), payload);
+            messageExt.setBody(payload);
+        } else {
+            messageExt.setBody(EMPTY_BODY);
+        }
 
         SystemProperties systemProperties = flatMessage.message().systemProperties();
         messageExt.setBornTimestamp(systemProperties.bornTimestamp());
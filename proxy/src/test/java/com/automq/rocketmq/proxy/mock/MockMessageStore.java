@@ -31,6 +31,7 @@ import com.automq.rocketmq.store.model.message.PopResult;
 import com.automq.rocketmq.store.model.message.PullResult;
 import com.automq.rocketmq.store.model.message.PutResult;
 import com.automq.rocketmq.store.model.message.ResetConsumeOffsetResult;
+import com.automq.rocketmq.store.model.stream.StreamCacheStat;
 import com.automq.rocketmq.store.service.InflightService;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -155,6 +156,11 @@ public class MockMessageStore implements MessageStore {
         return CompletableFuture.completedFuture(inflightService.getInflightCount(consumerGroupId, topicId, queueId));
     }
 
+    @Override
+    public CompletableFuture<List<StreamCacheStat>> getStreamCacheStats(int topK) {
+        return CompletableFuture.completedFuture(List.of());
+    }
+
     @Override
     public CompletableFuture<LogicQueue.QueueOffsetRange> getOffsetRange(long topicId, int queueId) {
         long startOffset = 0;
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.proxy.remoting;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.apache.rocketmq.common.message.MessageDecoder;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RemotingUtilTest {
+
+    @Test
+    void encodeMessage() throws Exception {
+        byte[] body = "Hello, world".getBytes(StandardCharsets.UTF_8);
+        MessageExt messageExt = new MessageExt();
+        messageExt.setTopic("topic");
+        messageExt.setQueueOffset(1);
+        messageExt.setBornHost(new InetSocketAddress("127.0.0.1", 0));
+        messageExt.setStoreHost(new InetSocketAddress("127.0.0.1", 8081));
+        messageExt.putUserProperty("key", "value");
+
+        messageExt.setBody(body);
+        byte[] expected = MessageDecoder.encode(messageExt, false);
+
+        messageExt.setBody(new byte[0]);
+        ByteBuffer direct = ByteBuffer.allocateDirect(body.length + 2);
+        direct.position(1);
+        direct.put(body);
+        direct.flip().position(1);
+        ByteBuf encoded = RemotingUtil.encodeMessage(messageExt, direct);
+        try {
+            assertArrayEquals(expected, ByteBufUtil.getBytes(encoded));
+        } finally {
+            encoded.release();
+        }
+
+        MessageExt decoded = MessageDecoder.decode(ByteBuffer.wrap(expected));
+        assertArrayEquals(body, decoded.getBody());
+        assertEquals("value", decoded.getUserProperty("key"));
+    }
+}
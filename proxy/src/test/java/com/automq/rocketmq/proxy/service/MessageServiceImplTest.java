@@ -23,6 +23,7 @@ import com.automq.rocketmq.metadata.api.ProxyMetadataService;
 import com.automq.rocketmq.proxy.exception.ProxyException;
 import com.automq.rocketmq.proxy.mock.MockMessageStore;
 import com.automq.rocketmq.proxy.mock.MockProxyMetadataService;
+import com.automq.rocketmq.proxy.model.PooledPullResult;
 import com.automq.rocketmq.proxy.model.ProxyContextExt;
 import com.automq.rocketmq.proxy.model.VirtualQueue;
 import com.automq.rocketmq.proxy.util.FlatMessageUtil;
@@ -216,6 +217,10 @@ class MessageServiceImplTest {
         result = messageService.pullMessage(ProxyContextExt.create(), messageQueue, header, 0L).join();
         assertEquals(PullStatus.FOUND, result.getPullStatus());
         assertEquals(2, result.getMsgFoundList().size());
+        // The bodies are served from the pooled buffers, which are held until the response is written.
+        assertInstanceOf(PooledPullResult.class, result);
+        assertEquals(2, ((PooledPullResult) result).bodies().size());
+        ((PooledPullResult) result).release();
 
         // Reject the request from the group with pop mode.
         header.setConsumerGroup("popGroup");
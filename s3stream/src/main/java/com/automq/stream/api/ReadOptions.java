@@ -24,6 +24,7 @@ public class ReadOptions {
 
     private boolean fastRead;
     private boolean pooledBuf;
+    private boolean warmUp;
 
     public boolean fastRead() {
         return fastRead;
@@ -33,6 +34,10 @@ public class ReadOptions {
         return pooledBuf;
     }
 
+    public boolean warmUp() {
+        return warmUp;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -56,6 +61,15 @@ public class ReadOptions {
             return this;
         }
 
+        /**
+         * Read only to load the data into cache. The read is left out of the read heat and the read ahead accounting
+         * of the stream, as no consumer is reading it.
+         */
+        public Builder warmUp(boolean warmUp) {
+            options.warmUp = warmUp;
+            return this;
+        }
+
         public ReadOptions build() {
             return options;
         }
@@ -38,13 +38,23 @@ public class Config {
     private long walBlockSoftLimit = 256 * 1024;
     private int walWriteRateLimit = 3000;
     private long walUploadThreshold = 100 * 1024 * 1024;
+    private int walUploadObjectIdBatchSize = 1;
+    private boolean walUploadStreamingEnable = false;
     private int streamSplitSize = 16777216;
     private int objectBlockSize = 1048576;
     private int objectPartSize = 16777216;
     private long blockCacheSize = 100 * 1024 * 1024;
+    private long catchUpReadOffsetLag = 100000;
+    private long catchUpReadCacheSize = 64 * 1024 * 1024;
+    private int catchUpReadInflightSize = 128 * 1024 * 1024;
+    private int catchUpReadThreadCount = 2;
+    private int streamCacheStatsMaxStreams = 1024;
     private int streamObjectCompactionIntervalMinutes = 60;
     private long streamObjectCompactionMaxSizeBytes = 10737418240L;
     private int streamObjectCompactionLivingTimeMinutes = 60;
+    // Size tier factor of stream object compaction, values less than 2 keep the linear policy.
+    private int streamObjectCompactionSizeTierFactor = 0;
+    private long streamObjectCompactionSizeTierBaseSizeBytes = 16 * 1024 * 1024;
     private int controllerRequestRetryMaxCount = Integer.MAX_VALUE;
     private long controllerRequestRetryBaseDelayMs = 500;
     private long nodeEpoch = 0L;
@@ -52,8 +62,12 @@ public class Config {
     private long streamSetObjectCompactionCacheSize = 200 * 1024 * 1024;
     private int streamSetObjectCompactionUploadConcurrency = 8;
     private long streamSetObjectCompactionStreamSplitSize = 16 * 1024 * 1024;
+    private long streamSetObjectCompactionHotStreamSplitSize = 4 * 1024 * 1024;
     private int streamSetObjectCompactionForceSplitPeriod = 120;
     private int streamSetObjectCompactionMaxObjectNum = 500;
+    private int streamSetObjectCompactionParallelism = 4;
+    private int streamSetObjectCompactionTriggerObjectNum = 20;
+    private long streamSetObjectCompactionBandwidth = 20 * 1024 * 1024;
     private int maxStreamNumPerStreamSetObject = 10000;
     private int maxStreamObjectNumPerCommit = 10000;
     private boolean mockEnable = false;
@@ -132,6 +146,14 @@ public class Config {
         return walUploadThreshold;
     }
 
+    public int walUploadObjectIdBatchSize() {
+        return walUploadObjectIdBatchSize;
+    }
+
+    public boolean walUploadStreamingEnable() {
+        return walUploadStreamingEnable;
+    }
+
     public int streamSplitSize() {
         return streamSplitSize;
     }
@@ -148,6 +170,26 @@ public class Config {
         return blockCacheSize;
     }
 
+    public long catchUpReadOffsetLag() {
+        return catchUpReadOffsetLag;
+    }
+
+    public long catchUpReadCacheSize() {
+        return catchUpReadCacheSize;
+    }
+
+    public int catchUpReadInflightSize() {
+        return catchUpReadInflightSize;
+    }
+
+    public int catchUpReadThreadCount() {
+        return catchUpReadThreadCount;
+    }
+
+    public int streamCacheStatsMaxStreams() {
+        return streamCacheStatsMaxStreams;
+    }
+
     public int streamObjectCompactionIntervalMinutes() {
         return streamObjectCompactionIntervalMinutes;
     }
@@ -160,6 +202,14 @@ public class Config {
         return streamObjectCompactionLivingTimeMinutes;
     }
 
+    public int streamObjectCompactionSizeTierFactor() {
+        return streamObjectCompactionSizeTierFactor;
+    }
+
+    public long streamObjectCompactionSizeTierBaseSizeBytes() {
+        return streamObjectCompactionSizeTierBaseSizeBytes;
+    }
+
     public int controllerRequestRetryMaxCount() {
         return controllerRequestRetryMaxCount;
     }
@@ -188,6 +238,10 @@ public class Config {
         return streamSetObjectCompactionStreamSplitSize;
     }
 
+    public long streamSetObjectCompactionHotStreamSplitSize() {
+        return streamSetObjectCompactionHotStreamSplitSize;
+    }
+
     public int streamSetObjectCompactionForceSplitPeriod() {
         return streamSetObjectCompactionForceSplitPeriod;
     }
@@ -196,6 +250,18 @@ public class Config {
         return streamSetObjectCompactionMaxObjectNum;
     }
 
+    public int streamSetObjectCompactionParallelism() {
+        return streamSetObjectCompactionParallelism;
+    }
+
+    public int streamSetObjectCompactionTriggerObjectNum() {
+        return streamSetObjectCompactionTriggerObjectNum;
+    }
+
+    public long streamSetObjectCompactionBandwidth() {
+        return streamSetObjectCompactionBandwidth;
+    }
+
     public int maxStreamNumPerStreamSetObject() {
         return maxStreamNumPerStreamSetObject;
     }
@@ -313,6 +379,16 @@ public class Config {
         return this;
     }
 
+    public Config walUploadObjectIdBatchSize(int walUploadObjectIdBatchSize) {
+        this.walUploadObjectIdBatchSize = walUploadObjectIdBatchSize;
+        return this;
+    }
+
+    public Config walUploadStreamingEnable(boolean walUploadStreamingEnable) {
+        this.walUploadStreamingEnable = walUploadStreamingEnable;
+        return this;
+    }
+
     public Config streamSplitSize(int s3StreamSplitSize) {
         this.streamSplitSize = s3StreamSplitSize;
         return this;
@@ -333,6 +409,31 @@ public class Config {
         return this;
     }
 
+    public Config catchUpReadOffsetLag(long catchUpReadOffsetLag) {
+        this.catchUpReadOffsetLag = catchUpReadOffsetLag;
+        return this;
+    }
+
+    public Config catchUpReadCacheSize(long catchUpReadCacheSize) {
+        this.catchUpReadCacheSize = catchUpReadCacheSize;
+        return this;
+    }
+
+    public Config catchUpReadInflightSize(int catchUpReadInflightSize) {
+        this.catchUpReadInflightSize = catchUpReadInflightSize;
+        return this;
+    }
+
+    public Config catchUpReadThreadCount(int catchUpReadThreadCount) {
+        this.catchUpReadThreadCount = catchUpReadThreadCount;
+        return this;
+    }
+
+    public Config streamCacheStatsMaxStreams(int streamCacheStatsMaxStreams) {
+        this.streamCacheStatsMaxStreams = streamCacheStatsMaxStreams;
+        return this;
+    }
+
     public Config streamObjectCompactionIntervalMinutes(int s3StreamObjectCompactionIntervalMinutes) {
         this.streamObjectCompactionIntervalMinutes = s3StreamObjectCompactionIntervalMinutes;
         return this;
@@ -348,6 +449,16 @@ public class Config {
         return this;
     }
 
+    public Config streamObjectCompactionSizeTierFactor(int streamObjectCompactionSizeTierFactor) {
+        this.streamObjectCompactionSizeTierFactor = streamObjectCompactionSizeTierFactor;
+        return this;
+    }
+
+    public Config streamObjectCompactionSizeTierBaseSizeBytes(long streamObjectCompactionSizeTierBaseSizeBytes) {
+        this.streamObjectCompactionSizeTierBaseSizeBytes = streamObjectCompactionSizeTierBaseSizeBytes;
+        return this;
+    }
+
     public Config controllerRequestRetryMaxCount(int s3ControllerRequestRetryMaxCount) {
         this.controllerRequestRetryMaxCount = s3ControllerRequestRetryMaxCount;
         return this;
@@ -383,6 +494,11 @@ public class Config {
         return this;
     }
 
+    public Config streamSetObjectCompactionHotStreamSplitSize(long streamSetObjectCompactionHotStreamSplitSize) {
+        this.streamSetObjectCompactionHotStreamSplitSize = streamSetObjectCompactionHotStreamSplitSize;
+        return this;
+    }
+
     public Config streamSetObjectCompactionForceSplitPeriod(int streamSetObjectCompactionForceSplitPeriod) {
         this.streamSetObjectCompactionForceSplitPeriod = streamSetObjectCompactionForceSplitPeriod;
         return this;
@@ -393,6 +509,21 @@ public class Config {
         return this;
     }
 
+    public Config streamSetObjectCompactionParallelism(int streamSetObjectCompactionParallelism) {
+        this.streamSetObjectCompactionParallelism = streamSetObjectCompactionParallelism;
+        return this;
+    }
+
+    public Config streamSetObjectCompactionTriggerObjectNum(int streamSetObjectCompactionTriggerObjectNum) {
+        this.streamSetObjectCompactionTriggerObjectNum = streamSetObjectCompactionTriggerObjectNum;
+        return this;
+    }
+
+    public Config streamSetObjectCompactionBandwidth(long streamSetObjectCompactionBandwidth) {
+        this.streamSetObjectCompactionBandwidth = streamSetObjectCompactionBandwidth;
+        return this;
+    }
+
     public Config maxStreamNumPerStreamSetObject(int maxStreamNumPerStreamSetObject) {
         this.maxStreamNumPerStreamSetObject = maxStreamNumPerStreamSetObject;
         return this;
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3;
+
+import com.automq.stream.s3.cache.LogCache;
+import com.automq.stream.s3.model.StreamRecordBatch;
+import com.automq.stream.s3.objects.ObjectManager;
+import com.automq.stream.s3.objects.StreamObject;
+import com.automq.stream.s3.operator.S3Operator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stream the records of the active cache block to S3 before the block is archived.
+ * <p>
+ * When the records size of a stream in the active block reaches {@link Config#streamSplitSize()}, the stream will be
+ * uploaded as a stream object by {@link DeltaWALUploadTask} anyway. So the uploader prepares the stream object in
+ * advance and writes the stream records to its multipart upload in units of {@link Config#objectBlockSize()}.
+ * After the block is archived, the upload task only needs to write the remaining records and complete the upload.
+ * <p>
+ * Not thread safe, all the methods should be called in the same thread.
+ */
+class DeltaWALStreamingUploader {
+    private final Config config;
+    private final ObjectManager objectManager;
+    private final S3Operator s3Operator;
+    /**
+     * Block id to the streaming objects of the block. The block may be archived but not taken yet.
+     */
+    private final Map<Long, Map<Long, StreamingObject>> blockObjects = new HashMap<>();
+
+    DeltaWALStreamingUploader(Config config, ObjectManager objectManager, S3Operator s3Operator) {
+        this.config = config;
+        this.objectManager = objectManager;
+        this.s3Operator = s3Operator;
+    }
+
+    /**
+     * Write the new records of large streams in the active block to their stream objects.
+     */
+    void tryUpload(LogCache.LogCacheBlock activeBlock) {
+        List<Long> streamIds = activeBlock.streamsLargerThan(config.streamSplitSize());
+        if (streamIds.isEmpty()) {
+            return;
+        }
+        Map<Long, StreamingObject> objects = blockObjects.computeIfAbsent(activeBlock.blockId(), k -> new HashMap<>());
+        for (long streamId : streamIds) {
+            StreamingObject object = objects.get(streamId);
+            if (object != null && object.objectIdCf.isCompletedExceptionally()) {
+                // retry to prepare the object in the next round
+                objects.remove(streamId);
+                continue;
+            }
+            if (object == null) {
+                object = new StreamingObject(streamId, objectManager.prepareObject(1, DeltaWALUploadTask.OBJECT_TTL));
+                objects.put(streamId, object);
+            }
+            object.write(activeBlock.records(streamId, object.nextIndex), false);
+        }
+    }
+
+    /**
+     * Take over the streaming objects of the archived block.
+     *
+     * @return stream id to the streaming object of the stream
+     */
+    Map<Long, StreamingObject> take(LogCache.LogCacheBlock archivedBlock) {
+        Map<Long, StreamingObject> objects = blockObjects.remove(archivedBlock.blockId());
+        if (objects == null) {
+            return Collections.emptyMap();
+        }
+        // the object which fails to prepare is uploaded as a normal stream object.
+        objects.values().removeIf(object -> object.objectIdCf.isCompletedExceptionally());
+        return objects;
+    }
+
+    /**
+     * A stream object whose records are written while the cache block is still active.
+     */
+    class StreamingObject {
+        private final long streamId;
+        private final CompletableFuture<Long> objectIdCf;
+        private ObjectWriter writer;
+        /**
+         * The index of the next record to write in the stream records of the block.
+         */
+        private int nextIndex;
+        private long startOffset = -1L;
+        private long endOffset = -1L;
+
+        StreamingObject(long streamId, CompletableFuture<Long> objectIdCf) {
+            this.streamId = streamId;
+            this.objectIdCf = objectIdCf;
+        }
+
+        /**
+         * Write the records to the object.
+         *
+         * @param records records after the written ones
+         * @param all     whether to write all the records, otherwise only full blocks are written.
+         */
+        void write(List<StreamRecordBatch> records, boolean all) {
+            if (records.isEmpty() || !objectIdCf.isDone()) {
+                return;
+            }
+            int count = records.size();
+            if (!all) {
+                // only write full blocks, the tail records are left to the next round to avoid small blocks.
+                long size = 0;
+                count = 0;
+                int writable = 0;
+                for (StreamRecordBatch record : records) {
+                    size += record.size();
+                    writable++;
+                    if (size >= config.objectBlockSize()) {
+                        count = writable;
+                        size = 0;
+                    }
+                }
+                if (count == 0) {
+                    return;
+                }
+                records = records.subList(0, count);
+            }
+            if (writer == null) {
+                writer = ObjectWriter.writer(objectIdCf.join(), s3Operator, config.objectBlockSize(), config.objectPartSize());
+                startOffset = records.get(0).getBaseOffset();
+            }
+            writer.write(streamId, records);
+            endOffset = records.get(records.size() - 1).getLastOffset();
+            nextIndex += count;
+        }
+
+        /**
+         * Write the remaining records and complete the upload.
+         *
+         * @param remainingRecords the records after the written ones
+         */
+        CompletableFuture<StreamObject> close(List<StreamRecordBatch> remainingRecords) {
+            return objectIdCf.thenCompose(objectId -> {
+                write(remainingRecords, true);
+                StreamObject streamObject = new StreamObject();
+                streamObject.setObjectId(objectId);
+                streamObject.setStreamId(streamId);
+                streamObject.setStartOffset(startOffset);
+                streamObject.setEndOffset(endOffset);
+                return writer.close().thenApply(nil -> {
+                    streamObject.setObjectSize(writer.size());
+                    return streamObject;
+                });
+            });
+        }
+
+        int nextIndex() {
+            return nextIndex;
+        }
+    }
+}
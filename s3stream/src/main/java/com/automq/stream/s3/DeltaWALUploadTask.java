@@ -41,6 +41,7 @@ import static com.automq.stream.s3.metadata.ObjectUtils.NOOP_OBJECT_ID;
 
 public class DeltaWALUploadTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(DeltaWALUploadTask.class);
+    static final long OBJECT_TTL = TimeUnit.MINUTES.toMillis(30);
     private long startTimestamp;
     private final Logger s3ObjectLogger;
     private final Map<Long, List<StreamRecordBatch>> streamRecordsMap;
@@ -55,9 +56,17 @@ public class DeltaWALUploadTask {
     private volatile CommitStreamSetObjectRequest commitStreamSetObjectRequest;
     private final CompletableFuture<CommitStreamSetObjectRequest> uploadCf = new CompletableFuture<>();
     private final ExecutorService executor;
+    private final ObjectIdAllocator objectIdAllocator;
+    private Map<Long, DeltaWALStreamingUploader.StreamingObject> streamingObjects = Collections.emptyMap();
 
     public DeltaWALUploadTask(Config config, Map<Long, List<StreamRecordBatch>> streamRecordsMap, ObjectManager objectManager, S3Operator s3Operator,
                               ExecutorService executor, boolean forceSplit) {
+        this(config, streamRecordsMap, objectManager, s3Operator, executor, forceSplit,
+                new ObjectIdAllocator(objectManager, 1, OBJECT_TTL));
+    }
+
+    public DeltaWALUploadTask(Config config, Map<Long, List<StreamRecordBatch>> streamRecordsMap, ObjectManager objectManager, S3Operator s3Operator,
+                              ExecutorService executor, boolean forceSplit, ObjectIdAllocator objectIdAllocator) {
         this.s3ObjectLogger = S3ObjectLogger.logger(String.format("[DeltaWALUploadTask id=%d] ", config.nodeId()));
         this.streamRecordsMap = streamRecordsMap;
         this.objectBlockSize = config.objectBlockSize();
@@ -68,10 +77,16 @@ public class DeltaWALUploadTask {
         this.s3Operator = s3Operator;
         this.forceSplit = forceSplit;
         this.executor = executor;
+        this.objectIdAllocator = objectIdAllocator;
     }
 
     public static DeltaWALUploadTask of(Config config, Map<Long, List<StreamRecordBatch>> streamRecordsMap, ObjectManager objectManager, S3Operator s3Operator,
                                         ExecutorService executor) {
+        return of(config, streamRecordsMap, objectManager, s3Operator, executor, new ObjectIdAllocator(objectManager, 1, OBJECT_TTL));
+    }
+
+    public static DeltaWALUploadTask of(Config config, Map<Long, List<StreamRecordBatch>> streamRecordsMap, ObjectManager objectManager, S3Operator s3Operator,
+                                        ExecutorService executor, ObjectIdAllocator objectIdAllocator) {
         boolean forceSplit = streamRecordsMap.size() == 1;
         if (!forceSplit) {
             Optional<Boolean> hasStreamSetData = streamRecordsMap.values()
@@ -83,7 +98,7 @@ public class DeltaWALUploadTask {
                 forceSplit = true;
             }
         }
-        return new DeltaWALUploadTask(config, streamRecordsMap, objectManager, s3Operator, executor, forceSplit);
+        return new DeltaWALUploadTask(config, streamRecordsMap, objectManager, s3Operator, executor, forceSplit, objectIdAllocator);
     }
 
     public CompletableFuture<Long> prepare() {
@@ -91,8 +106,8 @@ public class DeltaWALUploadTask {
         if (forceSplit) {
             prepareCf.complete(NOOP_OBJECT_ID);
         } else {
-            objectManager
-                    .prepareObject(1, TimeUnit.MINUTES.toMillis(30))
+            objectIdAllocator
+                    .allocate()
                     .thenAcceptAsync(prepareCf::complete, executor)
                     .exceptionally(ex -> {
                         prepareCf.completeExceptionally(ex);
@@ -102,6 +117,13 @@ public class DeltaWALUploadTask {
         return prepareCf;
     }
 
+    /**
+     * Set the stream objects which are already partially uploaded when the cache block is active.
+     */
+    void streamingObjects(Map<Long, DeltaWALStreamingUploader.StreamingObject> streamingObjects) {
+        this.streamingObjects = streamingObjects;
+    }
+
     public CompletableFuture<CommitStreamSetObjectRequest> upload() {
         prepareCf.thenAcceptAsync(objectId -> FutureUtil.exec(() -> upload0(objectId), uploadCf, LOGGER, "upload"), executor);
         return uploadCf;
@@ -125,7 +147,16 @@ public class DeltaWALUploadTask {
         for (Long streamId : streamIds) {
             List<StreamRecordBatch> streamRecords = streamRecordsMap.get(streamId);
             int streamSize = streamRecords.stream().mapToInt(StreamRecordBatch::size).sum();
-            if (forceSplit || streamSize >= streamSplitSizeThreshold) {
+            DeltaWALStreamingUploader.StreamingObject streamingObject = streamingObjects.get(streamId);
+            if (streamingObject != null) {
+                // only the records after the streamed ones are left to write
+                List<StreamRecordBatch> remainingRecords = streamRecords.subList(streamingObject.nextIndex(), streamRecords.size());
+                streamObjectCfList.add(streamingObject.close(remainingRecords).thenAccept(so -> {
+                    synchronized (request) {
+                        request.addStreamObject(so);
+                    }
+                }));
+            } else if (forceSplit || streamSize >= streamSplitSizeThreshold) {
                 streamObjectCfList.add(writeStreamObject(streamRecords).thenAccept(so -> {
                     synchronized (request) {
                         request.addStreamObject(so);
@@ -163,7 +194,7 @@ public class DeltaWALUploadTask {
     }
 
     private CompletableFuture<StreamObject> writeStreamObject(List<StreamRecordBatch> streamRecords) {
-        CompletableFuture<Long> objectIdCf = objectManager.prepareObject(1, TimeUnit.MINUTES.toMillis(30));
+        CompletableFuture<Long> objectIdCf = objectManager.prepareObject(1, OBJECT_TTL);
         return objectIdCf.thenComposeAsync(objectId -> {
             ObjectWriter streamObjectWriter = ObjectWriter.writer(objectId, s3Operator, objectBlockSize, objectPartSize);
             long streamId = streamRecords.get(0).getStreamId();
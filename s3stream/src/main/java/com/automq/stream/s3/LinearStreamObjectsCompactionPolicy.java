@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3;
+
+import com.automq.stream.s3.metadata.S3ObjectMetadata;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Linear sweep policy. It greedily merges the longest eligible run of objects whose total size does not exceed
+ * {@link #maxSize}, so a long-lived stream keeps re-copying its growing head object until it reaches the max size.
+ */
+public class LinearStreamObjectsCompactionPolicy implements StreamObjectsCompactionPolicy {
+    private final long maxSize;
+
+    public LinearStreamObjectsCompactionPolicy(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public List<List<S3ObjectMetadata>> select(List<S3ObjectMetadata> continuousObjects, Predicate<List<S3ObjectMetadata>> eligible) {
+        List<List<S3ObjectMetadata>> groups = new LinkedList<>();
+        int startIndex = 0;
+        int endIndex;
+        while (startIndex < continuousObjects.size() - 1) {
+            endIndex = startIndex + 1;
+            while (endIndex <= continuousObjects.size()) {
+                List<S3ObjectMetadata> subGroup = continuousObjects.subList(startIndex, endIndex);
+                // The subgroup is not eligible or too big, then break;
+                if (!eligible.test(subGroup) || StreamObjectsCompactionPolicy.totalSize(subGroup) > maxSize) {
+                    break;
+                }
+                endIndex += 1;
+            }
+            if (endIndex - 2 > startIndex) {
+                groups.add(continuousObjects.subList(startIndex, endIndex - 1));
+                startIndex = endIndex - 1;
+            } else {
+                startIndex += 1;
+            }
+        }
+        return groups;
+    }
+}
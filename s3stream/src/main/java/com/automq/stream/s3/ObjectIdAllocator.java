@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3;
+
+import com.automq.stream.s3.objects.ObjectManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocate object ids in batches to save controller round-trips. Ids are handed out in the order of {@link #allocate()}
+ * calls, so the earlier caller always gets the smaller object id.
+ * <p>
+ * Prepared objects expire after the ttl, so ids left in a batch are discarded once half of the ttl has passed.
+ */
+public class ObjectIdAllocator {
+    private final ObjectManager objectManager;
+    private final int batchSize;
+    private final long ttl;
+    /**
+     * Serialize the allocations. Fields below are only accessed in the chained stages.
+     */
+    private CompletableFuture<Void> lastCf = CompletableFuture.completedFuture(null);
+    private long nextObjectId;
+    private long endObjectId;
+    private long batchDeadline;
+
+    public ObjectIdAllocator(ObjectManager objectManager, int batchSize, long ttl) {
+        this.objectManager = objectManager;
+        this.batchSize = Math.max(batchSize, 1);
+        this.ttl = ttl;
+    }
+
+    public synchronized CompletableFuture<Long> allocate() {
+        CompletableFuture<Long> cf = new CompletableFuture<>();
+        lastCf = lastCf.thenCompose(nil -> {
+            if (nextObjectId < endObjectId && System.nanoTime() < batchDeadline) {
+                cf.complete(nextObjectId++);
+                return CompletableFuture.completedFuture(null);
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttl / 2);
+            return objectManager.prepareObject(batchSize, ttl).thenAccept(firstObjectId -> {
+                nextObjectId = firstObjectId;
+                endObjectId = firstObjectId + batchSize;
+                batchDeadline = deadline;
+                cf.complete(nextObjectId++);
+            });
+        }).exceptionally(ex -> {
+            // fail the current allocation only, the next allocation will retry to prepare a new batch.
+            cf.completeExceptionally(ex);
+            return null;
+        });
+        return cf;
+    }
+}
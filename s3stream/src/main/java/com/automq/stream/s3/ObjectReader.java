@@ -19,19 +19,14 @@ package com.automq.stream.s3;
 
 import com.automq.stream.s3.network.ThrottleStrategy;
 import com.automq.stream.utils.CloseableIterator;
-import com.automq.stream.api.exceptions.ErrorCode;
-import com.automq.stream.api.exceptions.StreamClientException;
 import com.automq.stream.s3.model.StreamRecordBatch;
 import com.automq.stream.s3.operator.S3Operator;
-import com.automq.stream.utils.ByteBufferInputStream;
 import com.automq.stream.utils.biniarysearch.IndexBlockOrderedBytes;
 import io.netty.buffer.ByteBuf;
 import com.automq.stream.s3.metadata.S3ObjectMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.DataInputStream;
-import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -282,24 +277,16 @@ public class ObjectReader implements AutoCloseable {
             this.recordCount = recordCount;
         }
 
+        /**
+         * Iterate the records of the data block, each record is backed by a retained slice of the data block buffer
+         * and should be released by the caller.
+         */
         public CloseableIterator<StreamRecordBatch> iterator() {
-            ByteBuf buf = this.buf.duplicate();
+            ByteBuf buf = recordsBuf();
             AtomicInteger remainingRecordCount = new AtomicInteger(recordCount);
-            // skip magic and flag
-            byte magicCode = buf.readByte();
-            buf.readByte();
-
-            if (magicCode != ObjectWriter.DATA_BLOCK_MAGIC) {
-                LOGGER.error("magic code mismatch, expected {}, actual {}", ObjectWriter.DATA_BLOCK_MAGIC, magicCode);
-                throw new RuntimeException("[FATAL] magic code mismatch, data is corrupted");
-            }
-            // TODO: check flag, use uncompressed stream or compressed stream.
-//            DataInputStream in = new DataInputStream(ZstdFactory.wrapForInput(buf.nioBuffer(), (byte) 0, BufferSupplier.NO_CACHING));
-            DataInputStream in = new DataInputStream(new ByteBufferInputStream(buf.nioBuffer()));
             return new CloseableIterator<>() {
                 @Override
                 public boolean hasNext() {
-                    // in.available() is not reliable. ZstdInputStreamNoFinalizer might return 1 when there is no more data.
                     return remainingRecordCount.get() != 0;
                 }
 
@@ -308,20 +295,36 @@ public class ObjectReader implements AutoCloseable {
                     if (remainingRecordCount.decrementAndGet() < 0) {
                         throw new NoSuchElementException();
                     }
-                    return StreamRecordBatchCodec.decode(in);
+                    return StreamRecordBatchCodec.retainedDecode(buf);
                 }
 
                 @Override
                 public void close() {
-                    try {
-                        in.close();
-                    } catch (IOException e) {
-                        throw new StreamClientException(ErrorCode.UNEXPECTED, "Failed to close object block stream ", e);
-                    }
                 }
             };
         }
 
+        /**
+         * Decode all the records of the data block, each record is backed by a retained slice of the data block buffer
+         * and should be released by the caller.
+         */
+        public List<StreamRecordBatch> records() {
+            return StreamRecordBatchCodec.decodeBatch(recordsBuf(), recordCount);
+        }
+
+        private ByteBuf recordsBuf() {
+            ByteBuf buf = this.buf.duplicate();
+            // skip magic and flag
+            byte magicCode = buf.readByte();
+            buf.readByte();
+
+            if (magicCode != ObjectWriter.DATA_BLOCK_MAGIC) {
+                LOGGER.error("magic code mismatch, expected {}, actual {}", ObjectWriter.DATA_BLOCK_MAGIC, magicCode);
+                throw new RuntimeException("[FATAL] magic code mismatch, data is corrupted");
+            }
+            return buf;
+        }
+
         public int recordCount() {
             return recordCount;
         }
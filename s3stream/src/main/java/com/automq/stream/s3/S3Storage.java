@@ -23,6 +23,7 @@ import com.automq.stream.s3.cache.CacheAccessType;
 import com.automq.stream.s3.cache.LogCache;
 import com.automq.stream.s3.cache.ReadDataBlock;
 import com.automq.stream.s3.cache.S3BlockCache;
+import com.automq.stream.s3.cache.StreamCacheStats;
 import com.automq.stream.s3.metadata.StreamMetadata;
 import com.automq.stream.s3.metrics.TimerUtil;
 import com.automq.stream.s3.metrics.operations.S3Operation;
@@ -47,7 +48,6 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
@@ -83,7 +83,6 @@ public class S3Storage implements Storage {
      */
     private final WALCallbackSequencer callbackSequencer = new WALCallbackSequencer();
     private final WALConfirmOffsetCalculator confirmOffsetCalculator = new WALConfirmOffsetCalculator();
-    private final Queue<DeltaWALUploadTaskContext> walPrepareQueue = new LinkedList<>();
     private final Queue<DeltaWALUploadTaskContext> walCommitQueue = new LinkedList<>();
     private final List<CompletableFuture<Void>> inflightWALUploadTasks = new CopyOnWriteArrayList<>();
 
@@ -100,6 +99,10 @@ public class S3Storage implements Storage {
     private final ObjectManager objectManager;
     private final S3Operator s3Operator;
     private final S3BlockCache blockCache;
+    private final StreamCacheStats streamCacheStats;
+    private final ObjectIdAllocator objectIdAllocator;
+    private final DeltaWALStreamingUploader streamingUploader;
+    private final ScheduledFuture<?> streamingUploadTask;
     private static final int NUM_STREAM_CALLBACK_LOCKS = 128;
     /**
      * Stream callback locks. Used to ensure the stream callbacks will not be called concurrently.
@@ -110,17 +113,32 @@ public class S3Storage implements Storage {
 
     public S3Storage(Config config, WriteAheadLog deltaWAL, StreamManager streamManager, ObjectManager objectManager,
                      S3BlockCache blockCache, S3Operator s3Operator) {
+        this(config, deltaWAL, streamManager, objectManager, blockCache, s3Operator,
+                new StreamCacheStats(config.streamCacheStatsMaxStreams(), false));
+    }
+
+    public S3Storage(Config config, WriteAheadLog deltaWAL, StreamManager streamManager, ObjectManager objectManager,
+                     S3BlockCache blockCache, S3Operator s3Operator, StreamCacheStats streamCacheStats) {
         this.config = config;
         this.maxDeltaWALCacheSize = config.walCacheSize();
         this.deltaWAL = deltaWAL;
         this.blockCache = blockCache;
+        this.streamCacheStats = streamCacheStats;
         this.deltaWALCache = new LogCache(config.walCacheSize(), config.walUploadThreshold(), config.maxStreamNumPerStreamSetObject());
         DirectByteBufAlloc.registerOOMHandlers(new LogCacheEvictOOMHandler());
         this.streamManager = streamManager;
         this.objectManager = objectManager;
         this.s3Operator = s3Operator;
+        this.objectIdAllocator = new ObjectIdAllocator(objectManager, config.walUploadObjectIdBatchSize(), DeltaWALUploadTask.OBJECT_TTL);
 
         this.drainBackoffTask = this.backgroundExecutor.scheduleWithFixedDelay(this::tryDrainBackoffRecords, 100, 100, TimeUnit.MILLISECONDS);
+        if (config.walUploadStreamingEnable()) {
+            this.streamingUploader = new DeltaWALStreamingUploader(config, objectManager, s3Operator);
+            this.streamingUploadTask = this.backgroundExecutor.scheduleWithFixedDelay(this::tryStreamingUpload, 100, 100, TimeUnit.MILLISECONDS);
+        } else {
+            this.streamingUploader = null;
+            this.streamingUploadTask = null;
+        }
     }
 
     @Override
@@ -233,6 +251,9 @@ public class S3Storage implements Storage {
     @Override
     public void shutdown() {
         drainBackoffTask.cancel(false);
+        if (streamingUploadTask != null) {
+            streamingUploadTask.cancel(false);
+        }
         for (WalWriteRequest request : backoffRecords) {
             request.cf.completeExceptionally(new IOException("S3Storage is shutdown"));
         }
@@ -243,17 +264,14 @@ public class S3Storage implements Storage {
 
     @Override
     public CompletableFuture<Void> append(StreamRecordBatch streamRecord) {
-        TimerUtil timerUtil = new TimerUtil();
         CompletableFuture<Void> cf = new CompletableFuture<>();
         // encoded before append to free heap ByteBuf.
         streamRecord.encoded();
         WalWriteRequest writeRequest = new WalWriteRequest(streamRecord, -1L, cf);
         handleAppendRequest(writeRequest);
         append0(writeRequest, false);
-        cf.whenComplete((nil, ex) -> {
-            streamRecord.release();
-            OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE).update(timerUtil.elapsedAs(TimeUnit.NANOSECONDS));
-        });
+        // the request releases the record and records the append latency on completion
+        cf.whenComplete(writeRequest);
         return cf;
     }
 
@@ -333,17 +351,20 @@ public class S3Storage implements Storage {
     }
 
     @Override
-    public CompletableFuture<ReadDataBlock> read(long streamId, long startOffset, long endOffset, int maxBytes, ReadOptions readOptions) {
+    public CompletableFuture<ReadDataBlock> read(long streamId, long startOffset, long endOffset, int maxBytes, long confirmOffset,
+                                                 ReadOptions readOptions) {
         TimerUtil timerUtil = new TimerUtil();
         CompletableFuture<ReadDataBlock> cf = new CompletableFuture<>();
-        FutureUtil.propagate(read0(streamId, startOffset, endOffset, maxBytes, readOptions), cf);
+        FutureUtil.propagate(read0(streamId, startOffset, endOffset, maxBytes, confirmOffset, readOptions), cf);
         cf.whenComplete((nil, ex) -> OperationMetricsStats.getHistogram(S3Operation.READ_STORAGE).update(timerUtil.elapsedAs(TimeUnit.NANOSECONDS)));
         return cf;
     }
 
-    private CompletableFuture<ReadDataBlock> read0(long streamId, long startOffset, long endOffset, int maxBytes, ReadOptions readOptions) {
+    private CompletableFuture<ReadDataBlock> read0(long streamId, long startOffset, long endOffset, int maxBytes, long confirmOffset,
+                                                   ReadOptions readOptions) {
         List<StreamRecordBatch> logCacheRecords = deltaWALCache.get(streamId, startOffset, endOffset, maxBytes);
         if (!logCacheRecords.isEmpty() && logCacheRecords.get(0).getBaseOffset() <= startOffset) {
+            streamCacheStats.recordLogCacheHit(streamId, logCacheRecords.stream().mapToInt(StreamRecordBatch::size).sum());
             return CompletableFuture.completedFuture(new ReadDataBlock(logCacheRecords, CacheAccessType.DELTA_WAL_CACHE_HIT));
         }
         if (readOptions.fastRead()) {
@@ -355,15 +376,29 @@ public class S3Storage implements Storage {
         if (!logCacheRecords.isEmpty()) {
             endOffset = logCacheRecords.get(0).getBaseOffset();
         }
-        return blockCache.read(streamId, startOffset, endOffset, maxBytes).thenApply(readDataBlock -> {
+        boolean catchUp = isCatchUpRead(startOffset, confirmOffset);
+        CompletableFuture<ReadDataBlock> blockCacheCf;
+        if (readOptions.warmUp()) {
+            blockCacheCf = blockCache.warmUp(streamId, startOffset, endOffset, maxBytes, catchUp);
+        } else {
+            blockCacheCf = catchUp
+                    ? blockCache.catchUpRead(streamId, startOffset, endOffset, maxBytes)
+                    : blockCache.read(streamId, startOffset, endOffset, maxBytes);
+        }
+        return blockCacheCf.thenApply(readDataBlock -> {
             List<StreamRecordBatch> rst = new ArrayList<>(readDataBlock.getRecords());
             int remainingBytesSize = maxBytes - rst.stream().mapToInt(StreamRecordBatch::size).sum();
             int readIndex = -1;
+            int logCacheReadSize = 0;
             for (int i = 0; i < logCacheRecords.size() && remainingBytesSize > 0; i++) {
                 readIndex = i;
                 StreamRecordBatch record = logCacheRecords.get(i);
                 rst.add(record);
                 remainingBytesSize -= record.size();
+                logCacheReadSize += record.size();
+            }
+            if (logCacheReadSize > 0) {
+                streamCacheStats.recordLogCacheHit(streamId, logCacheReadSize);
             }
             if (readIndex < logCacheRecords.size()) {
                 // release unnecessary record
@@ -380,6 +415,14 @@ public class S3Storage implements Storage {
         });
     }
 
+    /**
+     * A read is a catch-up read if it starts far behind the confirm offset of the stream.
+     */
+    private boolean isCatchUpRead(long startOffset, long confirmOffset) {
+        long catchUpReadOffsetLag = config.catchUpReadOffsetLag();
+        return catchUpReadOffsetLag > 0 && confirmOffset - startOffset >= catchUpReadOffsetLag;
+    }
+
     private void continuousCheck(List<StreamRecordBatch> records) {
         long expectStartOffset = -1L;
         for (StreamRecordBatch record : records) {
@@ -416,7 +459,7 @@ public class S3Storage implements Storage {
     }
 
     private void handleAppendCallback(WalWriteRequest request) {
-        TimerUtil timer = new TimerUtil();
+        long startNanos = System.nanoTime();
         List<WalWriteRequest> waitingAckRequests;
         Lock lock = getStreamCallbackLock(request.record.getStreamId());
         lock.lock();
@@ -435,7 +478,7 @@ public class S3Storage implements Storage {
         for (WalWriteRequest waitingAckRequest : waitingAckRequests) {
             waitingAckRequest.cf.complete(null);
         }
-        OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE_APPEND_CALLBACK).update(timer.elapsedAs(TimeUnit.NANOSECONDS));
+        OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE_APPEND_CALLBACK).update(System.nanoTime() - startNanos);
     }
 
     private Lock getStreamCallbackLock(long streamId) {
@@ -489,33 +532,32 @@ public class S3Storage implements Storage {
     }
 
     private void uploadDeltaWAL0(DeltaWALUploadTaskContext context) {
-        context.task = DeltaWALUploadTask.of(config, context.cache.records(), context.objectManager, s3Operator, uploadWALExecutor);
-        boolean walObjectPrepareQueueEmpty = walPrepareQueue.isEmpty();
-        walPrepareQueue.add(context);
-        if (!walObjectPrepareQueueEmpty) {
-            // there is another WAL upload task is preparing, just return.
-            return;
-        }
-        prepareDeltaWALUpload(context);
-    }
-
-    private void prepareDeltaWALUpload(DeltaWALUploadTaskContext context) {
-        context.task.prepare().thenAcceptAsync(nil -> {
-            // 1. poll out current task and trigger upload.
-            DeltaWALUploadTaskContext peek = walPrepareQueue.poll();
-            Objects.requireNonNull(peek).task.upload();
-            // 2. add task to commit queue.
-            boolean walObjectCommitQueueEmpty = walCommitQueue.isEmpty();
-            walCommitQueue.add(peek);
-            if (walObjectCommitQueueEmpty) {
-                commitDeltaWALUpload(peek);
-            }
-            // 3. trigger next task to prepare.
-            DeltaWALUploadTaskContext next = walPrepareQueue.peek();
-            if (next != null) {
-                prepareDeltaWALUpload(next);
-            }
-        }, backgroundExecutor);
+        context.task = DeltaWALUploadTask.of(config, context.cache.records(), context.objectManager, s3Operator, uploadWALExecutor,
+                objectIdAllocator);
+        if (streamingUploader != null) {
+            context.task.streamingObjects(streamingUploader.take(context.cache));
+        }
+        // 1. prepare and upload without waiting for the former tasks, the object id allocator ensures the earlier
+        // cache block gets the smaller object id.
+        context.task.prepare();
+        context.task.upload();
+        // 2. add task to commit queue, the tasks are committed in order.
+        boolean walObjectCommitQueueEmpty = walCommitQueue.isEmpty();
+        walCommitQueue.add(context);
+        if (walObjectCommitQueueEmpty) {
+            commitDeltaWALUpload(context);
+        }
+    }
+
+    /**
+     * Stream the records of large streams in the active cache block to S3, so the upload after archiving is lighter.
+     */
+    private void tryStreamingUpload() {
+        try {
+            streamingUploader.tryUpload(deltaWALCache.activeBlock());
+        } catch (Throwable e) {
+            LOGGER.error("streaming upload active cache block fail", e);
+        }
     }
 
     private void commitDeltaWALUpload(DeltaWALUploadTaskContext context) {
@@ -236,7 +236,7 @@ public class S3Stream implements Stream {
         if (startOffset == endOffset) {
             return CompletableFuture.completedFuture(new DefaultFetchResult(Collections.emptyList(), CacheAccessType.DELTA_WAL_CACHE_HIT, false));
         }
-        return storage.read(streamId, startOffset, endOffset, maxBytes, readOptions).thenApply(dataBlock -> {
+        return storage.read(streamId, startOffset, endOffset, maxBytes, confirmOffset, readOptions).thenApply(dataBlock -> {
             List<StreamRecordBatch> records = dataBlock.getRecords();
             if (LOGGER.isTraceEnabled()) {
                 LOGGER.trace("{} stream fetch, startOffset: {}, endOffset: {}, maxBytes: {}, records: {}", logIdent, startOffset, endOffset, maxBytes, records.size());
@@ -143,6 +143,7 @@ public class S3StreamClient implements StreamClient {
                     StreamObjectsCompactionTask.Builder builder = new StreamObjectsCompactionTask.Builder(objectManager, s3Operator)
                             .compactedStreamObjectMaxSizeInBytes(config.streamObjectCompactionMaxSizeBytes())
                             .eligibleStreamObjectLivingTimeInMs(config.streamObjectCompactionLivingTimeMinutes() * 60L * 1000)
+                            .sizeTiered(config.streamObjectCompactionSizeTierFactor(), config.streamObjectCompactionSizeTierBaseSizeBytes())
                             .s3ObjectLogEnabled(config.objectLogEnable()).executor(streamCompactionExecutor);
                     S3Stream stream = new S3Stream(
                             metadata.getStreamId(), metadata.getEpoch(),
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3;
+
+import com.automq.stream.s3.metadata.S3ObjectMetadata;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Size-tiered policy. Stream objects are bucketed into tiers by size: tier 0 holds objects smaller than
+ * {@link #baseSize}, and tier n holds objects in [baseSize * factor^(n-1), baseSize * factor^n).
+ * Only {@link #tierFactor} adjacent objects of similar size are merged together, so the smallest of them always lands
+ * in a higher tier. As a result, every byte is rewritten at most once per tier, i.e. the write amplification is bounded
+ * by log_factor(maxSize / baseSize), and the object count of a stream grows logarithmically instead of linearly.
+ */
+public class SizeTieredStreamObjectsCompactionPolicy implements StreamObjectsCompactionPolicy {
+    private final long baseSize;
+    private final int tierFactor;
+    private final long maxSize;
+
+    public SizeTieredStreamObjectsCompactionPolicy(long baseSize, int tierFactor, long maxSize) {
+        if (baseSize <= 0 || tierFactor < 2) {
+            throw new IllegalArgumentException("baseSize should be positive and tierFactor should be at least 2, but got "
+                    + baseSize + " and " + tierFactor);
+        }
+        this.baseSize = baseSize;
+        this.tierFactor = tierFactor;
+        this.maxSize = maxSize;
+    }
+
+    public int tier(long objectSize) {
+        int tier = 0;
+        long upperBound = baseSize;
+        while (objectSize >= upperBound) {
+            tier++;
+            if (upperBound > Long.MAX_VALUE / tierFactor) {
+                break;
+            }
+            upperBound *= tierFactor;
+        }
+        return tier;
+    }
+
+    @Override
+    public List<List<S3ObjectMetadata>> select(List<S3ObjectMetadata> continuousObjects, Predicate<List<S3ObjectMetadata>> eligible) {
+        List<List<S3ObjectMetadata>> groups = new LinkedList<>();
+        int index = 0;
+        while (index + tierFactor <= continuousObjects.size()) {
+            int groupEnd = index + tierFactor;
+            // objects in the top tier may not be merged by tierFactor, merge as many as possible within maxSize.
+            while (groupEnd - index > 1 && StreamObjectsCompactionPolicy.totalSize(continuousObjects.subList(index, groupEnd)) > maxSize) {
+                groupEnd--;
+            }
+            List<S3ObjectMetadata> group = continuousObjects.subList(index, groupEnd);
+            if (group.size() > 1 && isSimilarSize(group) && eligible.test(group)) {
+                groups.add(group);
+                index = groupEnd;
+            } else {
+                index++;
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Objects in the same or adjacent tiers are considered similar, so an object just below a tier boundary can still
+     * be merged with its neighbors instead of being stranded between objects of the next tier.
+     */
+    private boolean isSimilarSize(List<S3ObjectMetadata> group) {
+        int minTier = Integer.MAX_VALUE;
+        int maxTier = Integer.MIN_VALUE;
+        for (S3ObjectMetadata object : group) {
+            int tier = tier(object.objectSize());
+            minTier = Math.min(minTier, tier);
+            maxTier = Math.max(maxTier, tier);
+        }
+        return maxTier - minTier <= 1;
+    }
+}
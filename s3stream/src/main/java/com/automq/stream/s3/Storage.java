@@ -39,7 +39,13 @@ public interface Storage {
      */
     CompletableFuture<Void> append(StreamRecordBatch streamRecord);
 
-    CompletableFuture<ReadDataBlock> read(long streamId, long startOffset, long endOffset, int maxBytes, ReadOptions readOptions);
+    /**
+     * Read stream records.
+     *
+     * @param confirmOffset the confirm offset of the stream, used to tell whether the read lags far behind the stream end
+     */
+    CompletableFuture<ReadDataBlock> read(long streamId, long startOffset, long endOffset, int maxBytes, long confirmOffset,
+                                          ReadOptions readOptions);
 
     /**
      * Force stream record in WAL upload to s3
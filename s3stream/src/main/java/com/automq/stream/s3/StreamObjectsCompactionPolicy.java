@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3;
+
+import com.automq.stream.s3.metadata.S3ObjectMetadata;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Policy deciding which stream objects of a stream are merged together by {@link StreamObjectsCompactionTask}.
+ */
+public interface StreamObjectsCompactionPolicy {
+
+    /**
+     * Select groups of stream objects to compact. Each group will be compacted into one new stream object.
+     *
+     * @param continuousObjects stream objects with continuous offsets, ordered by offset.
+     * @param eligible          whether a candidate group is allowed to be compacted, e.g. all its objects are old enough.
+     * @return selected groups, each one is a continuous sub list of {@code continuousObjects} with more than one object.
+     */
+    List<List<S3ObjectMetadata>> select(List<S3ObjectMetadata> continuousObjects, Predicate<List<S3ObjectMetadata>> eligible);
+
+    static long totalSize(List<S3ObjectMetadata> streamObjects) {
+        return streamObjects.stream().mapToLong(S3ObjectMetadata::objectSize).sum();
+    }
+}
@@ -56,6 +56,7 @@ public class StreamObjectsCompactionTask {
     private Queue<List<S3StreamObjectMetadataSplitWrapper>> compactGroups;
     private final long compactedStreamObjectMaxSizeInBytes;
     private final long eligibleStreamObjectLivingTimeInMs;
+    private final StreamObjectsCompactionPolicy compactionPolicy;
     private final boolean s3ObjectLogEnabled;
     private long nextStartSearchingOffset;
     private final S3Stream stream;
@@ -94,11 +95,40 @@ public class StreamObjectsCompactionTask {
     public StreamObjectsCompactionTask(ObjectManager objectManager, S3Operator s3Operator, S3Stream stream,
                                        long compactedStreamObjectMaxSizeInBytes, long eligibleStreamObjectLivingTimeInMs,
                                        boolean s3ObjectLogEnabled, ExecutorService executor) {
+        this(objectManager, s3Operator, stream, compactedStreamObjectMaxSizeInBytes, eligibleStreamObjectLivingTimeInMs,
+            s3ObjectLogEnabled, executor, 0, 0);
+    }
+
+    /**
+     * Constructor of StreamObjectsCompactionTask.
+     * @param objectManager object manager.
+     * @param s3Operator s3 operator.
+     * @param stream stream.
+     * @param compactedStreamObjectMaxSizeInBytes compacted stream object max size in bytes.
+     * If it is bigger than {@link Writer#MAX_OBJECT_SIZE},
+     * it will be set to {@link Writer#MAX_OBJECT_SIZE}.
+     * @param eligibleStreamObjectLivingTimeInMs eligible stream object living time in ms.
+     * @param s3ObjectLogEnabled is s3 object log enabled.
+     * @param executor executor.
+     * @param sizeTierFactor size tier factor of {@link SizeTieredStreamObjectsCompactionPolicy}.
+     * If it is less than 2, {@link LinearStreamObjectsCompactionPolicy} will be used.
+     * @param sizeTierBaseSizeInBytes base size of {@link SizeTieredStreamObjectsCompactionPolicy}.
+     */
+    public StreamObjectsCompactionTask(ObjectManager objectManager, S3Operator s3Operator, S3Stream stream,
+                                       long compactedStreamObjectMaxSizeInBytes, long eligibleStreamObjectLivingTimeInMs,
+                                       boolean s3ObjectLogEnabled, ExecutorService executor,
+                                       int sizeTierFactor, long sizeTierBaseSizeInBytes) {
         this.objectManager = objectManager;
         this.s3Operator = s3Operator;
         this.stream = stream;
         this.compactedStreamObjectMaxSizeInBytes = Math.min(compactedStreamObjectMaxSizeInBytes, Writer.MAX_OBJECT_SIZE);
         this.eligibleStreamObjectLivingTimeInMs = eligibleStreamObjectLivingTimeInMs;
+        if (sizeTierFactor >= 2 && sizeTierBaseSizeInBytes > 0) {
+            this.compactionPolicy = new SizeTieredStreamObjectsCompactionPolicy(sizeTierBaseSizeInBytes, sizeTierFactor,
+                this.compactedStreamObjectMaxSizeInBytes);
+        } else {
+            this.compactionPolicy = new LinearStreamObjectsCompactionPolicy(this.compactedStreamObjectMaxSizeInBytes);
+        }
         this.s3ObjectLogEnabled = s3ObjectLogEnabled;
         this.nextStartSearchingOffset = stream.startOffset();
         this.compactionResults = Collections.emptyList();
@@ -452,9 +482,9 @@ public class StreamObjectsCompactionTask {
     }
 
     /**
-     * Further split the stream object group.
-     * It tries to filter some subgroups which just have a size less than {@link #compactedStreamObjectMaxSizeInBytes} and have
-     * a living time more than {@link #eligibleStreamObjectLivingTimeInMs}.
+     * Further split the stream object group with {@link #compactionPolicy}.
+     * A subgroup is eligible only if all its objects have a living time more than {@link #eligibleStreamObjectLivingTimeInMs}
+     * and it can be copied within the limit of S3 multipart upload.
      *
      * @param streamObjects stream objects.
      * @return stream object subgroups.
@@ -464,33 +494,12 @@ public class StreamObjectsCompactionTask {
             return new LinkedList<>();
         }
 
-        Queue<List<S3StreamObjectMetadataSplitWrapper>> groups = new LinkedList<>();
-
-        int startIndex = 0;
-        int endIndex;
-        while (startIndex < streamObjects.size() - 1) {
-            endIndex = startIndex + 1;
-            while (endIndex <= streamObjects.size()) {
-                List<S3ObjectMetadata> subGroup = streamObjects.subList(startIndex, endIndex);
-                // The subgroup is too new or too big, then break;
-                if (calculateTimePassedInMs(subGroup) < eligibleStreamObjectLivingTimeInMs ||
-                    S3StreamObjectMetadataSplitWrapper.calculateSplitCopyCount(subGroup) > MAX_COMPACT_GROUPS ||
-                    calculateTotalSize(subGroup) > compactedStreamObjectMaxSizeInBytes) {
-                    break;
-                }
-                endIndex += 1;
-            }
-            if (endIndex - 2 > startIndex) {
-                List<S3StreamObjectMetadataSplitWrapper> finalGroup = streamObjects.subList(startIndex, endIndex - 1)
-                    .stream()
-                    .map(S3StreamObjectMetadataSplitWrapper::parse)
-                    .collect(Collectors.toList());
-                groups.add(finalGroup);
-                startIndex = endIndex - 1;
-            } else {
-                startIndex += 1;
-            }
-        }
+        Queue<List<S3StreamObjectMetadataSplitWrapper>> groups = compactionPolicy.select(streamObjects, subGroup ->
+                calculateTimePassedInMs(subGroup) >= eligibleStreamObjectLivingTimeInMs
+                    && S3StreamObjectMetadataSplitWrapper.calculateSplitCopyCount(subGroup) <= MAX_COMPACT_GROUPS)
+            .stream()
+            .map(group -> group.stream().map(S3StreamObjectMetadataSplitWrapper::parse).collect(Collectors.toList()))
+            .collect(Collectors.toCollection(LinkedList::new));
         if (groups.isEmpty()) {
             long startOffset = streamObjects.get(0).getOffsetRanges().get(0).getStartOffset();
             long endOffset = streamObjects.get(streamObjects.size() - 1).getOffsetRanges().get(0).getEndOffset();
@@ -575,10 +584,6 @@ public class StreamObjectsCompactionTask {
         return System.currentTimeMillis() - streamObjects.stream().mapToLong(S3ObjectMetadata::committedTimestamp).max().orElse(0L);
     }
 
-    private long calculateTotalSize(List<S3ObjectMetadata> streamObjects) {
-        return streamObjects.stream().mapToLong(S3ObjectMetadata::objectSize).sum();
-    }
-
     public static class HaltException extends RuntimeException {
         public HaltException(String message) {
             super(message);
@@ -593,6 +598,8 @@ public class StreamObjectsCompactionTask {
         private long eligibleStreamObjectLivingTimeInMs;
         private boolean s3ObjectLogEnabled;
         private ExecutorService executor;
+        private int sizeTierFactor;
+        private long sizeTierBaseSizeInBytes;
 
         public Builder(ObjectManager objectManager, S3Operator s3Operator) {
             this.objectManager = objectManager;
@@ -628,9 +635,21 @@ public class StreamObjectsCompactionTask {
             return this;
         }
 
+        /**
+         * Use {@link SizeTieredStreamObjectsCompactionPolicy} to select stream objects to compact.
+         * @param sizeTierFactor size tier factor. If it is less than 2, {@link LinearStreamObjectsCompactionPolicy} will be used.
+         * @param sizeTierBaseSizeInBytes objects smaller than it are in the lowest tier.
+         * @return builder.
+         */
+        public Builder sizeTiered(int sizeTierFactor, long sizeTierBaseSizeInBytes) {
+            this.sizeTierFactor = sizeTierFactor;
+            this.sizeTierBaseSizeInBytes = sizeTierBaseSizeInBytes;
+            return this;
+        }
+
         public StreamObjectsCompactionTask build() {
             return new StreamObjectsCompactionTask(objectManager, s3Operator, stream, compactedStreamObjectMaxSizeInBytes,
-                eligibleStreamObjectLivingTimeInMs, s3ObjectLogEnabled, executor);
+                eligibleStreamObjectLivingTimeInMs, s3ObjectLogEnabled, executor, sizeTierFactor, sizeTierBaseSizeInBytes);
         }
     }
 }
@@ -22,18 +22,20 @@ import io.netty.buffer.ByteBuf;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class StreamRecordBatchCodec {
     public static final byte MAGIC_V0 = 0x22;
+    public static final int HEADER_SIZE = 1 // magic
+            + 8 // streamId
+            + 8 // epoch
+            + 8 // baseOffset
+            + 4 // lastOffsetDelta
+            + 4; // payload length
 
     public static ByteBuf encode(StreamRecordBatch streamRecord) {
-        int totalLength = 1 // magic
-                + 8 // streamId
-                + 8 // epoch
-                + 8 // baseOffset
-                + 4 // lastOffsetDelta
-                + 4 // payload length
-                + streamRecord.size(); // payload
+        int totalLength = HEADER_SIZE + streamRecord.size();
 
         ByteBuf buf = DirectByteBufAlloc.byteBuffer(totalLength);
         buf.writeByte(MAGIC_V0);
@@ -47,7 +49,8 @@ public class StreamRecordBatchCodec {
     }
 
     /**
-     * Decode a stream record batch from a byte buffer and move the reader index.
+     * Decode a stream record batch from an input stream, the payload is copied to a new direct buffer.
+     * Prefer {@link #retainedDecode(ByteBuf)} when the data is already in a {@link ByteBuf}.
      */
     public static StreamRecordBatch decode(DataInputStream in) {
         try {
@@ -81,4 +84,42 @@ public class StreamRecordBatchCodec {
         buf.skipBytes(payloadLength);
         return new StreamRecordBatch(streamId, epoch, baseOffset, lastOffsetDelta, payload);
     }
+
+    /**
+     * Decode a stream record batch from a byte buffer and move the reader index. The payload is a retained slice of
+     * the buffer, so the record holds its own reference to the buffer and must be released by the caller.
+     */
+    public static StreamRecordBatch retainedDecode(ByteBuf buf) {
+        byte magic = buf.readByte();
+        if (magic != MAGIC_V0) {
+            throw new RuntimeException("Invalid magic byte " + magic);
+        }
+        long streamId = buf.readLong();
+        long epoch = buf.readLong();
+        long baseOffset = buf.readLong();
+        int lastOffsetDelta = buf.readInt();
+        int payloadLength = buf.readInt();
+        ByteBuf payload = buf.retainedSlice(buf.readerIndex(), payloadLength);
+        buf.skipBytes(payloadLength);
+        return new StreamRecordBatch(streamId, epoch, baseOffset, lastOffsetDelta, payload);
+    }
+
+    /**
+     * Decode {@code count} stream record batches from the readable bytes of the buffer without moving its reader index.
+     * Each record is backed by a retained slice of the buffer, the buffer is freed once the caller releases its own
+     * reference and all the records.
+     */
+    public static List<StreamRecordBatch> decodeBatch(ByteBuf buf, int count) {
+        ByteBuf in = buf.duplicate();
+        List<StreamRecordBatch> records = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                records.add(retainedDecode(in));
+            }
+        } catch (Throwable e) {
+            records.forEach(StreamRecordBatch::release);
+            throw e;
+        }
+        return records;
+    }
 }
@@ -18,20 +18,37 @@
 package com.automq.stream.s3;
 
 
+import com.automq.stream.s3.metrics.operations.S3Operation;
+import com.automq.stream.s3.metrics.stats.OperationMetricsStats;
 import com.automq.stream.s3.model.StreamRecordBatch;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
-public class WalWriteRequest implements Comparable<WalWriteRequest> {
+/**
+ * A record append request of {@link S3Storage}. The request itself is the completion callback of the append, which
+ * releases the record and records the append latency, so that no extra callback or timer object is allocated per append.
+ * Requests are not pooled, as the append future handed to the caller and the confirm offset calculator may still refer to
+ * a request after it completes.
+ */
+public class WalWriteRequest implements Comparable<WalWriteRequest>, BiConsumer<Void, Throwable> {
     final StreamRecordBatch record;
     long offset;
     final CompletableFuture<Void> cf;
+    final long startNanos;
     boolean persisted;
 
     public WalWriteRequest(StreamRecordBatch record, long offset, CompletableFuture<Void> cf) {
         this.record = record;
         this.offset = offset;
         this.cf = cf;
+        this.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void accept(Void nil, Throwable ex) {
+        record.release();
+        OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE).update(System.nanoTime() - startNanos);
     }
 
     @Override
@@ -70,22 +70,29 @@ public class DataBlockReadAccumulator {
         return reserveResults;
     }
 
-    public void readDataBlock(ObjectReader reader, ObjectReader.DataBlockIndex blockIndex) {
+    /**
+     * Issue the range read of the reserved data block.
+     *
+     * @return true if a range read is issued, false if the data block is not reserved
+     */
+    public boolean readDataBlock(ObjectReader reader, ObjectReader.DataBlockIndex blockIndex) {
         Pair<String, Integer> key = Pair.of(reader.objectKey(), blockIndex.blockId());
         synchronized (inflightDataBlockReads) {
             DataBlockRecords records = inflightDataBlockReads.get(key);
-            if (records != null) {
-                reader.read(blockIndex).whenComplete((dataBlock, ex) -> {
-                    try (dataBlock) {
-                        synchronized (inflightDataBlockReads) {
-                            inflightDataBlockReads.remove(key, records);
-                        }
-                        records.complete(dataBlock, ex);
-                    } finally {
-                        records.release();
-                    }
-                });
+            if (records == null) {
+                return false;
             }
+            reader.read(blockIndex).whenComplete((dataBlock, ex) -> {
+                try (dataBlock) {
+                    synchronized (inflightDataBlockReads) {
+                        inflightDataBlockReads.remove(key, records);
+                    }
+                    records.complete(dataBlock, ex);
+                } finally {
+                    records.release();
+                }
+            });
+            return true;
         }
     }
 
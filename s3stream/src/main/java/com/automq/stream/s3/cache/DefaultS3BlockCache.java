@@ -20,6 +20,7 @@ package com.automq.stream.s3.cache;
 import com.automq.stream.s3.Config;
 import com.automq.stream.s3.metrics.TimerUtil;
 import com.automq.stream.s3.metrics.operations.S3Operation;
+import com.automq.stream.s3.metrics.stats.BlockCacheMetricsStats;
 import com.automq.stream.s3.metrics.stats.OperationMetricsStats;
 import com.automq.stream.s3.model.StreamRecordBatch;
 import com.automq.stream.s3.objects.ObjectManager;
@@ -43,32 +44,157 @@ import static com.automq.stream.s3.metadata.ObjectUtils.NOOP_OFFSET;
 
 public class DefaultS3BlockCache implements S3BlockCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultS3BlockCache.class);
+    /**
+     * At most 1/2 of the block cache is planned for read ahead data, the rest is left for data which is being read.
+     */
+    private static final int READ_AHEAD_BUDGET_DIVISOR = 2;
     private final Map<ReadAheadTaskKey, CompletableFuture<Void>> inflightReadAheadTasks = new ConcurrentHashMap<>();
     private final BlockCache cache;
     private final ExecutorService mainExecutor;
     private final ReadAheadManager readAheadManager;
     private final StreamReader streamReader;
     private final InflightReadThrottle inflightReadThrottle;
+    private final StreamReadStats readStats;
+    private final StreamCacheStats streamCacheStats;
+    /**
+     * Isolated block cache for catch-up reads, with its own cache capacity, executor and inflight read budget.
+     * Null if catch-up reads share the main path.
+     */
+    private final DefaultS3BlockCache catchUpBlockCache;
 
     public DefaultS3BlockCache(Config config, ObjectManager objectManager, S3Operator s3Operator) {
-        int blockSize = config.objectBlockSize();
+        this(config, objectManager, s3Operator, new StreamCacheStats(config.streamCacheStatsMaxStreams(), false));
+    }
+
+    public DefaultS3BlockCache(Config config, ObjectManager objectManager, S3Operator s3Operator,
+                               StreamCacheStats streamCacheStats) {
+        this(config, objectManager, s3Operator, streamCacheStats, new StreamReadStats());
+    }
+
+    public DefaultS3BlockCache(Config config, ObjectManager objectManager, S3Operator s3Operator,
+                               StreamCacheStats streamCacheStats, StreamReadStats readStats) {
+        this(config.blockCacheSize(), config.objectBlockSize(), objectManager, s3Operator, 2, "s3-block-cache-main",
+                new InflightReadThrottle(), readStats,
+                new ReadAheadPlanner(config.blockCacheSize() / READ_AHEAD_BUDGET_DIVISOR, BlockCacheMetricsStats::registerReadAheadPlannedSize,
+                        streamCacheStats.exportMetrics() ? "main" : null),
+                streamCacheStats, newCatchUpBlockCache(config, objectManager, s3Operator, streamCacheStats, readStats));
+    }
 
-        this.cache = new BlockCache(config.blockCacheSize());
-        this.readAheadManager = new ReadAheadManager(blockSize, this.cache);
+    private DefaultS3BlockCache(long cacheSize, int blockSize, ObjectManager objectManager, S3Operator s3Operator,
+                                int threadCount, String threadNamePrefix, InflightReadThrottle inflightReadThrottle,
+                                StreamReadStats readStats, ReadAheadPlanner readAheadPlanner,
+                                StreamCacheStats streamCacheStats, DefaultS3BlockCache catchUpBlockCache) {
+        this.cache = new BlockCache(cacheSize);
+        this.readAheadManager = new ReadAheadManager(blockSize, this.cache, readAheadPlanner);
         this.mainExecutor = Threads.newFixedThreadPoolWithMonitor(
-                2,
-                "s3-block-cache-main",
+                threadCount,
+                threadNamePrefix,
                 false,
                 LOGGER);
-        this.inflightReadThrottle = new InflightReadThrottle();
-        this.streamReader = new StreamReader(s3Operator, objectManager, cache, inflightReadAheadTasks, inflightReadThrottle);
+        this.inflightReadThrottle = inflightReadThrottle;
+        this.streamReader = new StreamReader(s3Operator, objectManager, cache, inflightReadAheadTasks, inflightReadThrottle,
+                streamCacheStats, readStats);
+        this.readStats = readStats;
+        this.streamCacheStats = streamCacheStats;
+        this.catchUpBlockCache = catchUpBlockCache;
+    }
+
+    private static DefaultS3BlockCache newCatchUpBlockCache(Config config, ObjectManager objectManager, S3Operator s3Operator,
+                                                            StreamCacheStats streamCacheStats, StreamReadStats readStats) {
+        if (config.catchUpReadCacheSize() <= 0 || config.catchUpReadInflightSize() <= 0) {
+            return null;
+        }
+        InflightReadThrottle throttle = new InflightReadThrottle(config.catchUpReadInflightSize(),
+                BlockCacheMetricsStats::registerAvailableCatchUpInflightReadSize);
+        return new DefaultS3BlockCache(config.catchUpReadCacheSize(), config.objectBlockSize(), objectManager, s3Operator,
+                Math.max(1, config.catchUpReadThreadCount()), "s3-block-cache-catch-up", throttle, readStats,
+                new ReadAheadPlanner(config.catchUpReadCacheSize() / READ_AHEAD_BUDGET_DIVISOR, gauge -> {
+                }, streamCacheStats.exportMetrics() ? "catch_up" : null), streamCacheStats, null);
+    }
+
+    public StreamReadStats readStats() {
+        return readStats;
+    }
+
+    public ReadAheadPlanner readAheadPlanner() {
+        return readAheadManager.planner();
+    }
+
+    /**
+     * Get the cache statistics of the top k streams which cost most S3 reads, with the read ahead accuracy of both
+     * the main and the catch-up read path.
+     */
+    public List<StreamCacheStats.Snapshot> topStreamCacheStats(int k) {
+        List<StreamCacheStats.Snapshot> snapshots = new ArrayList<>();
+        for (StreamCacheStats.Snapshot snapshot : streamCacheStats.topK(k)) {
+            ReadAheadPlanner.ReadAheadAccuracy accuracy = readAheadPlanner().accuracy(snapshot.streamId());
+            long used = accuracy.usedBytes();
+            long wasted = accuracy.wastedBytes();
+            if (catchUpBlockCache != null) {
+                ReadAheadPlanner.ReadAheadAccuracy catchUpAccuracy = catchUpBlockCache.readAheadPlanner().accuracy(snapshot.streamId());
+                used += catchUpAccuracy.usedBytes();
+                wasted += catchUpAccuracy.wastedBytes();
+            }
+            snapshots.add(snapshot.withReadAhead(used, wasted));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Drop the per stream statistics and read ahead accuracy of the closed stream.
+     */
+    public void onStreamClose(long streamId) {
+        streamCacheStats.remove(streamId);
+        readAheadPlanner().removeStream(streamId);
+        if (catchUpBlockCache != null) {
+            catchUpBlockCache.readAheadPlanner().removeStream(streamId);
+        }
     }
 
     public void shutdown() {
         this.mainExecutor.shutdown();
         this.streamReader.shutdown();
         this.inflightReadThrottle.shutdown();
+        if (this.catchUpBlockCache != null) {
+            this.catchUpBlockCache.shutdown();
+        }
+    }
+
+    /**
+     * Serve the read from the main cache if it is already cached, otherwise read it through the isolated catch-up
+     * path, so that the data is not loaded into the main cache.
+     */
+    @Override
+    public CompletableFuture<ReadDataBlock> catchUpRead(long streamId, long startOffset, long endOffset, int maxBytes) {
+        if (catchUpBlockCache == null || cache.checkRange(streamId, startOffset, maxBytes)) {
+            return read(streamId, startOffset, endOffset, maxBytes);
+        }
+        OperationMetricsStats.getCounter(S3Operation.READ_STORAGE_CATCH_UP).inc();
+        return catchUpBlockCache.read(streamId, startOffset, endOffset, maxBytes);
+    }
 
+    /**
+     * Read without a read ahead agent, so that the read neither moves the read progress of the stream nor counts in
+     * its read heat, and triggers no further read ahead.
+     */
+    @Override
+    public CompletableFuture<ReadDataBlock> warmUp(long streamId, long startOffset, long endOffset, int maxBytes,
+        boolean catchUp) {
+        if (catchUp && catchUpBlockCache != null && !cache.checkRange(streamId, startOffset, maxBytes)) {
+            return catchUpBlockCache.warmUp(streamId, startOffset, endOffset, maxBytes, false);
+        }
+        CompletableFuture<ReadDataBlock> readCf = new CompletableFuture<>();
+        UUID uuid = UUID.randomUUID();
+        mainExecutor.execute(() -> FutureUtil.exec(() -> read0(streamId, startOffset, endOffset, maxBytes, null, uuid)
+            .whenComplete((ret, ex) -> {
+                this.inflightReadThrottle.release(uuid);
+                if (ex != null) {
+                    readCf.completeExceptionally(ex);
+                } else {
+                    readCf.complete(ret);
+                }
+            }), readCf, LOGGER, "warmUp"));
+        return readCf;
     }
 
     @Override
@@ -92,13 +218,16 @@ public class DefaultS3BlockCache implements S3BlockCache {
                         return;
                     }
                     int totalReturnedSize = ret.getRecords().stream().mapToInt(StreamRecordBatch::size).sum();
-                    this.readAheadManager.updateReadResult(streamId, startOffset,
-                            ret.getRecords().get(ret.getRecords().size() - 1).getLastOffset(), totalReturnedSize);
+                    long lastOffset = ret.getRecords().get(ret.getRecords().size() - 1).getLastOffset();
+                    this.readAheadManager.updateReadResult(streamId, startOffset, lastOffset, totalReturnedSize);
+                    this.readStats.recordRead(streamId, startOffset, lastOffset);
 
                     if (ret.getCacheAccessType() == CacheAccessType.BLOCK_CACHE_HIT) {
                         OperationMetricsStats.getCounter(S3Operation.READ_STORAGE_BLOCK_CACHE).inc();
+                        this.streamCacheStats.recordBlockCacheHit(streamId, totalReturnedSize);
                     } else {
                         OperationMetricsStats.getCounter(S3Operation.READ_STORAGE_BLOCK_CACHE_MISS).inc();
+                        this.streamCacheStats.recordBlockCacheMiss(streamId, totalReturnedSize);
                     }
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("[S3BlockCache] read data complete, cache hit: {}, stream={}, {}-{}, total bytes: {} ",
@@ -113,6 +242,9 @@ public class DefaultS3BlockCache implements S3BlockCache {
         return readCf;
     }
 
+    /**
+     * @param agent read ahead agent of the stream, null for a warm-up read, which triggers no read ahead
+     */
     public CompletableFuture<ReadDataBlock> read0(long streamId, long startOffset, long endOffset, int maxBytes, ReadAheadAgent agent, UUID uuid) {
         if (startOffset >= endOffset || maxBytes <= 0) {
             return CompletableFuture.completedFuture(new ReadDataBlock(Collections.emptyList(), CacheAccessType.BLOCK_CACHE_MISS));
@@ -132,7 +264,9 @@ public class DefaultS3BlockCache implements S3BlockCache {
         BlockCache.GetCacheResult cacheRst = cache.get(streamId, nextStartOffset, endOffset, nextMaxBytes);
         List<StreamRecordBatch> cacheRecords = cacheRst.getRecords();
         if (!cacheRecords.isEmpty()) {
-            asyncReadAhead(streamId, agent, cacheRst.getReadAheadRecords());
+            if (agent != null) {
+                asyncReadAhead(streamId, agent, cacheRst.getReadAheadRecords());
+            }
             nextStartOffset = cacheRecords.get(cacheRecords.size() - 1).getLastOffset();
             nextMaxBytes -= Math.min(nextMaxBytes, cacheRecords.stream().mapToInt(StreamRecordBatch::size).sum());
             if (nextStartOffset >= endOffset || nextMaxBytes == 0) {
@@ -17,6 +17,7 @@
 
 package com.automq.stream.s3.cache;
 
+import com.automq.stream.s3.metrics.Gauge;
 import com.automq.stream.s3.metrics.stats.BlockCacheMetricsStats;
 import com.automq.stream.utils.ThreadUtils;
 import com.automq.stream.utils.Threads;
@@ -31,6 +32,7 @@ import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -53,10 +55,14 @@ public class InflightReadThrottle implements Runnable {
     }
 
     public InflightReadThrottle(int maxInflightReadBytes) {
+        this(maxInflightReadBytes, BlockCacheMetricsStats::registerAvailableInflightReadSize);
+    }
+
+    public InflightReadThrottle(int maxInflightReadBytes, Consumer<Gauge> gaugeRegister) {
         this.maxInflightReadBytes = maxInflightReadBytes;
         this.remainingInflightReadBytes = maxInflightReadBytes;
         executorService.execute(this);
-        BlockCacheMetricsStats.registerAvailableInflightReadSize(this::getRemainingInflightReadBytes);
+        gaugeRegister.accept(this::getRemainingInflightReadBytes);
     }
 
     public void shutdown() {
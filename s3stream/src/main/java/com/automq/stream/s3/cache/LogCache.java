@@ -81,11 +81,11 @@ public class LogCache {
      * record batched in the same stream should be put in order.
      */
     public boolean put(StreamRecordBatch recordBatch) {
-        TimerUtil timerUtil = new TimerUtil();
+        long startNanos = System.nanoTime();
         tryRealFree();
         size.addAndGet(recordBatch.size());
         boolean full = activeBlock.put(recordBatch);
-        OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE_LOG_CACHE).update(timerUtil.elapsedAs(TimeUnit.NANOSECONDS));
+        OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE_LOG_CACHE).update(System.nanoTime() - startNanos);
         return full;
     }
 
@@ -177,6 +177,18 @@ public class LogCache {
         }
     }
 
+    /**
+     * Get the active block which is still receiving records.
+     */
+    public LogCacheBlock activeBlock() {
+        readLock.lock();
+        try {
+            return activeBlock;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
     public LogCacheBlock archiveCurrentBlock() {
         writeLock.lock();
         try {
@@ -335,6 +347,30 @@ public class LogCache {
             }
         }
 
+        /**
+         * Get the streams whose records size in the block is not less than {@code size}.
+         */
+        public List<Long> streamsLargerThan(long size) {
+            List<Long> streamIds = new ArrayList<>();
+            map.forEach((streamId, cache) -> {
+                if (cache.size() >= size) {
+                    streamIds.add(streamId);
+                }
+            });
+            return streamIds;
+        }
+
+        /**
+         * Get the records of the stream in the block from the {@code fromIndex}-th record.
+         */
+        public List<StreamRecordBatch> records(long streamId, int fromIndex) {
+            StreamCache cache = map.get(streamId);
+            if (cache == null) {
+                return Collections.emptyList();
+            }
+            return cache.records(fromIndex);
+        }
+
         public Map<Long, List<StreamRecordBatch>> records() {
             return map.entrySet().stream()
                     .map(e -> Map.entry(e.getKey(), e.getValue().records))
@@ -374,10 +410,12 @@ public class LogCache {
         List<StreamRecordBatch> records = new ArrayList<>();
         long startOffset = NOOP_OFFSET;
         long endOffset = NOOP_OFFSET;
+        long size = 0;
         Map<Long, IndexAndCount> offsetIndexMap = new HashMap<>();
 
         synchronized void add(StreamRecordBatch recordBatch) {
             records.add(recordBatch);
+            size += recordBatch.size();
             if (startOffset == NOOP_OFFSET) {
                 startOffset = recordBatch.getBaseOffset();
             }
@@ -440,6 +478,17 @@ public class LogCache {
             }
         }
 
+        synchronized long size() {
+            return size;
+        }
+
+        synchronized List<StreamRecordBatch> records(int fromIndex) {
+            if (fromIndex >= records.size()) {
+                return Collections.emptyList();
+            }
+            return new ArrayList<>(records.subList(fromIndex, records.size()));
+        }
+
         synchronized StreamRange range() {
             return new StreamRange(startOffset, endOffset);
         }
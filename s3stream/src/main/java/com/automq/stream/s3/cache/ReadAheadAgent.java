@@ -32,12 +32,11 @@ import java.util.concurrent.locks.ReentrantLock;
 
 public class ReadAheadAgent {
     private final Logger logger;
-    private static final Integer MAX_READ_AHEAD_SIZE = 40 * 1024 * 1024; // 40MB
-    private static final Integer S3_OPERATION_DELAY_MS = 400; // 400ms
     private final Lock lock = new ReentrantLock();
     private final TimerUtil timer;
     private final long streamId;
     private final int dataBlockSize;
+    private final ReadAheadPlanner planner;
     private final List<Pair<Long, Long>> evictedOffsetRanges = new ArrayList<>();
     private double bytePerSecond;
     private long readCount;
@@ -47,9 +46,14 @@ public class ReadAheadAgent {
     private int lastReadAheadSize;
 
     public ReadAheadAgent(int dataBlockSize, long streamId, long startOffset) {
+        this(dataBlockSize, streamId, startOffset, new ReadAheadPlanner(Integer.MAX_VALUE));
+    }
+
+    public ReadAheadAgent(int dataBlockSize, long streamId, long startOffset, ReadAheadPlanner planner) {
         this.logger = new LogContext(String.format("[S3BlockCache] stream=%d ", streamId)).logger(ReadAheadAgent.class);
         this.timer = new TimerUtil();
         this.dataBlockSize = dataBlockSize;
+        this.planner = planner;
         this.streamId = streamId;
         this.lastReadOffset = startOffset;
         this.readCount = 0;
@@ -83,6 +87,11 @@ public class ReadAheadAgent {
                 logger.error("update read result for stream={} failed, offset not match: expected offset {}, but get {}", streamId, lastReadOffset, startOffset);
                 return;
             }
+            if (startOffset < readAheadEndOffset && endOffset > startOffset) {
+                // the read is served by the data read ahead before
+                long usedSize = endOffset <= readAheadEndOffset ? size : (long) ((double) size * (readAheadEndOffset - startOffset) / (endOffset - startOffset));
+                planner.recordUsed(streamId, usedSize);
+            }
             this.lastReadSize = size;
             this.lastReadOffset = endOffset;
             timer.reset();
@@ -94,6 +103,11 @@ public class ReadAheadAgent {
         }
     }
 
+    public void updateReadAheadResult(long readAheadEndOffset, int readAheadSize, long costNanos) {
+        planner.recordReadAheadLatency(costNanos);
+        updateReadAheadResult(readAheadEndOffset, readAheadSize);
+    }
+
     public void updateReadAheadResult(long readAheadEndOffset, int readAheadSize) {
         try {
             lock.lock();
@@ -132,9 +146,7 @@ public class ReadAheadAgent {
             return right - left;
         }).sum();
         double evictedFraction = (double) totalEvictedSize / (readAheadEndOffset - lastReadOffset);
-        int nextSize = (int) (bytePerSecond * ((double) S3_OPERATION_DELAY_MS / TimeUnit.SECONDS.toMillis(1)) * (1 - evictedFraction));
-        nextSize = Math.max(dataBlockSize, Math.min(nextSize, MAX_READ_AHEAD_SIZE));
-        return nextSize;
+        return planner.plan(this, bytePerSecond, evictedFraction, dataBlockSize);
     }
 
     public long getStreamId() {
@@ -187,6 +199,15 @@ public class ReadAheadAgent {
     }
 
     public void evict(long startOffset, long endOffset) {
+        evict(startOffset, endOffset, 0);
+    }
+
+    /**
+     * Record the evicted range if it is read ahead but not read yet.
+     *
+     * @param size the size of the evicted range
+     */
+    public void evict(long startOffset, long endOffset, int size) {
         try {
             lock.lock();
             if (startOffset >= endOffset
@@ -201,6 +222,11 @@ public class ReadAheadAgent {
             }
 
             this.evictedOffsetRanges.add(Pair.of(startOffset, endOffset));
+            if (size > 0) {
+                long left = Math.max(startOffset, lastReadOffset);
+                long right = Math.min(endOffset, readAheadEndOffset);
+                planner.recordWasted(streamId, (long) ((double) size * (right - left) / (endOffset - startOffset)));
+            }
         } finally {
             lock.unlock();
         }
@@ -35,9 +35,15 @@ public class ReadAheadManager implements BlockCache.CacheEvictListener {
     private final LRUCache<ReadAheadAgent, Void> readAheadAgentLRUCache = new LRUCache<>();
     private final int dataBlockSize;
     private final BlockCache blockCache;
+    private final ReadAheadPlanner planner;
 
     public ReadAheadManager(int dataBlockSize, BlockCache blockCache) {
+        this(dataBlockSize, blockCache, new ReadAheadPlanner(Integer.MAX_VALUE));
+    }
+
+    public ReadAheadManager(int dataBlockSize, BlockCache blockCache, ReadAheadPlanner planner) {
         this.dataBlockSize = dataBlockSize;
+        this.planner = planner;
         this.readAheadAgentMap = new ConcurrentHashMap<>();
         this.blockCache = blockCache;
         this.blockCache.registerListener(this);
@@ -99,10 +105,11 @@ public class ReadAheadManager implements BlockCache.CacheEvictListener {
                 }
                 ReadAheadAgent agent = entry.getKey();
                 agentMap.remove(agent.getLastReadOffset());
+                planner.remove(agent);
                 LOGGER.info("evict read ahead agent for stream={}, startOffset={}", agent.getStreamId(), agent.getLastReadOffset());
             }
             return agentMap.computeIfAbsent(startOffset, k -> {
-                ReadAheadAgent agent = new ReadAheadAgent(dataBlockSize, streamId, k);
+                ReadAheadAgent agent = new ReadAheadAgent(dataBlockSize, streamId, k, planner);
                 readAheadAgentLRUCache.put(agent, null);
                 LOGGER.info("put read ahead agent for stream={}, startOffset={}, total agent num={}", agent.getStreamId(), agent.getLastReadOffset(), readAheadAgentLRUCache.size());
                 return agent;
@@ -110,6 +117,10 @@ public class ReadAheadManager implements BlockCache.CacheEvictListener {
         }
     }
 
+    public ReadAheadPlanner planner() {
+        return planner;
+    }
+
     Set<ReadAheadAgent> getReadAheadAgents() {
         return readAheadAgentLRUCache.cache.keySet();
     }
@@ -130,7 +141,7 @@ public class ReadAheadManager implements BlockCache.CacheEvictListener {
                 NavigableMap<Long, ReadAheadAgent> subMap = agentMap.subMap(floor, true, ceil, Objects.equals(ceil, agentMap.lastKey()));
                 for (Map.Entry<Long, ReadAheadAgent> entry : subMap.entrySet()) {
                     ReadAheadAgent agent = entry.getValue();
-                    agent.evict(startOffset, endOffset);
+                    agent.evict(startOffset, endOffset, size);
                 }
             }
         }
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3.cache;
+
+import com.automq.stream.s3.metrics.Gauge;
+import com.automq.stream.s3.metrics.stats.BlockCacheMetricsStats;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Global read ahead planner shared by all {@link ReadAheadAgent}s of a block cache.
+ * <p>
+ * Each agent demands {@code consume rate * read ahead latency} bytes, which is the amount of data its consumer reads
+ * while the next read ahead is in flight. The latency is the moving average of the measured read ahead latency.
+ * When the total demand exceeds the read ahead budget, every agent gets a share of the budget proportional to its demand.
+ * A single agent never reads ahead more than {@link #MAX_READ_AHEAD_SIZE} at a time.
+ * <p>
+ * The demand of an agent is dropped when the agent is evicted, when its stream is closed, or when the agent has not
+ * planned for {@link #DEMAND_EXPIRE_NANOS}, so that idle consumers do not shrink the share of the active ones.
+ * <p>
+ * The read ahead accuracy is tracked for at most {@link #MAX_TRACKED_STREAMS} streams until they are closed.
+ */
+public class ReadAheadPlanner {
+    static final long DEFAULT_READ_AHEAD_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(400);
+    static final int MAX_TRACKED_STREAMS = StreamCacheStats.DEFAULT_MAX_STREAMS;
+    static final int MAX_READ_AHEAD_SIZE = 40 * 1024 * 1024;
+    static final long DEMAND_EXPIRE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+    private final long budget;
+    private final int maxReadAheadSize;
+    private final Map<ReadAheadAgent, Demand> demands = new ConcurrentHashMap<>();
+    private final AtomicLong totalDemand = new AtomicLong();
+    private final Map<Long, Accuracy> accuracies = new ConcurrentHashMap<>();
+    private final String cacheName;
+    private volatile double readAheadLatencyNanos = DEFAULT_READ_AHEAD_LATENCY_NANOS;
+    private volatile long lastExpireNanos = System.nanoTime();
+
+    public ReadAheadPlanner(long budget) {
+        this(budget, gauge -> {
+        }, null);
+    }
+
+    /**
+     * @param gaugeRegister register of the planned read ahead size gauge
+     * @param cacheName     name of the block cache, which tags the per stream accuracy metrics, null to not export them
+     */
+    public ReadAheadPlanner(long budget, Consumer<Gauge> gaugeRegister, String cacheName) {
+        this.budget = budget;
+        this.maxReadAheadSize = (int) Math.min(budget, MAX_READ_AHEAD_SIZE);
+        this.cacheName = cacheName;
+        gaugeRegister.accept(totalDemand::get);
+    }
+
+    /**
+     * Plan the next read ahead size of the agent.
+     *
+     * @param agent          the read ahead agent
+     * @param bytePerSecond  the consume rate of the agent
+     * @param evictedFraction fraction of the previous read ahead data which is evicted before being read
+     * @param minSize        the minimum read ahead size
+     * @return the next read ahead size
+     */
+    public int plan(ReadAheadAgent agent, double bytePerSecond, double evictedFraction, int minSize) {
+        return plan(agent, bytePerSecond, evictedFraction, minSize, System.nanoTime());
+    }
+
+    int plan(ReadAheadAgent agent, double bytePerSecond, double evictedFraction, int minSize, long nowNanos) {
+        expireDemands(nowNanos);
+        long demand = (long) (bytePerSecond * readAheadLatencyNanos / TimeUnit.SECONDS.toNanos(1) * (1 - evictedFraction));
+        demand = Math.max(0, demand);
+        Demand prev = demands.put(agent, new Demand(demand, nowNanos));
+        long total = totalDemand.addAndGet(demand - (prev == null ? 0 : prev.size()));
+        long size = demand;
+        if (total > budget) {
+            size = (long) ((double) demand / total * budget);
+        }
+        return (int) Math.max(minSize, Math.min(size, maxReadAheadSize));
+    }
+
+    public void remove(ReadAheadAgent agent) {
+        Demand prev = demands.remove(agent);
+        if (prev != null) {
+            totalDemand.addAndGet(-prev.size());
+        }
+    }
+
+    private void expireDemands(long nowNanos) {
+        if (nowNanos - lastExpireNanos < DEMAND_EXPIRE_NANOS / 2) {
+            return;
+        }
+        lastExpireNanos = nowNanos;
+        demands.forEach((agent, demand) -> {
+            if (nowNanos - demand.timestampNanos() >= DEMAND_EXPIRE_NANOS && demands.remove(agent, demand)) {
+                totalDemand.addAndGet(-demand.size());
+            }
+        });
+    }
+
+    public void recordReadAheadLatency(long latencyNanos) {
+        readAheadLatencyNanos = (1 - LATENCY_SMOOTHING_FACTOR) * readAheadLatencyNanos + LATENCY_SMOOTHING_FACTOR * latencyNanos;
+    }
+
+    /**
+     * Record the size of read ahead data which is read by the consumer.
+     */
+    public void recordUsed(long streamId, long size) {
+        Accuracy accuracy = accuracyOf(streamId);
+        if (accuracy != null) {
+            accuracy.used.add(size);
+        }
+        BlockCacheMetricsStats.getOrCreateReadAheadUsedSizeCounter().inc(size);
+    }
+
+    /**
+     * Record the size of read ahead data which is evicted before being read by the consumer.
+     */
+    public void recordWasted(long streamId, long size) {
+        Accuracy accuracy = accuracyOf(streamId);
+        if (accuracy != null) {
+            accuracy.wasted.add(size);
+        }
+        BlockCacheMetricsStats.getOrCreateReadAheadWastedSizeCounter().inc(size);
+    }
+
+    /**
+     * Drop the demands of the agents of the stream and stop tracking its read ahead accuracy, it is called when the
+     * stream is closed.
+     */
+    public void removeStream(long streamId) {
+        demands.forEach((agent, demand) -> {
+            if (agent.getStreamId() == streamId && demands.remove(agent, demand)) {
+                totalDemand.addAndGet(-demand.size());
+            }
+        });
+        if (accuracies.remove(streamId) != null && cacheName != null) {
+            BlockCacheMetricsStats.unregisterStreamReadAheadAccuracy(Long.toString(streamId), cacheName);
+        }
+    }
+
+    private Accuracy accuracyOf(long streamId) {
+        Accuracy accuracy = accuracies.get(streamId);
+        if (accuracy != null || accuracies.size() >= MAX_TRACKED_STREAMS) {
+            return accuracy;
+        }
+        return accuracies.computeIfAbsent(streamId, k -> {
+            Accuracy newAccuracy = new Accuracy();
+            if (cacheName != null) {
+                BlockCacheMetricsStats.registerStreamReadAheadAccuracy(Long.toString(k), cacheName,
+                        () -> Math.round(newAccuracy.get().ratio() * 100));
+            }
+            return newAccuracy;
+        });
+    }
+
+    public ReadAheadAccuracy accuracy(long streamId) {
+        Accuracy accuracy = accuracies.get(streamId);
+        return accuracy == null ? new ReadAheadAccuracy(0, 0) : accuracy.get();
+    }
+
+    public Map<Long, ReadAheadAccuracy> accuracies() {
+        Map<Long, ReadAheadAccuracy> snapshot = new HashMap<>();
+        accuracies.forEach((streamId, accuracy) -> snapshot.put(streamId, accuracy.get()));
+        return snapshot;
+    }
+
+    public long budget() {
+        return budget;
+    }
+
+    public long totalDemand() {
+        return totalDemand.get();
+    }
+
+    double readAheadLatencyNanos() {
+        return readAheadLatencyNanos;
+    }
+
+    public record ReadAheadAccuracy(long usedBytes, long wastedBytes) {
+        /**
+         * @return fraction of read ahead data which is read by the consumer, 1 if nothing is read ahead
+         */
+        public double ratio() {
+            long total = usedBytes + wastedBytes;
+            return total == 0 ? 1 : (double) usedBytes / total;
+        }
+    }
+
+    private record Demand(long size, long timestampNanos) {
+    }
+
+    private static class Accuracy {
+        private final LongAdder used = new LongAdder();
+        private final LongAdder wasted = new LongAdder();
+
+        ReadAheadAccuracy get() {
+            return new ReadAheadAccuracy(used.sum(), wasted.sum());
+        }
+    }
+}
@@ -27,4 +27,21 @@ import java.util.concurrent.CompletableFuture;
 public interface S3BlockCache {
 
     CompletableFuture<ReadDataBlock> read(long streamId, long startOffset, long endOffset, int maxBytes);
+
+    /**
+     * Read for a consumer lagging far behind the stream end. Implementations may serve it from an isolated path,
+     * so that cold reads neither pollute the cache nor starve the reads of tailing consumers.
+     */
+    default CompletableFuture<ReadDataBlock> catchUpRead(long streamId, long startOffset, long endOffset, int maxBytes) {
+        return read(streamId, startOffset, endOffset, maxBytes);
+    }
+
+    /**
+     * Read only to load the data into cache, through the catch-up path if catchUp is true. Implementations may leave
+     * it out of the read statistics and read ahead of the stream, as no consumer is reading it yet.
+     */
+    default CompletableFuture<ReadDataBlock> warmUp(long streamId, long startOffset, long endOffset, int maxBytes,
+        boolean catchUp) {
+        return catchUp ? catchUpRead(streamId, startOffset, endOffset, maxBytes) : read(streamId, startOffset, endOffset, maxBytes);
+    }
 }
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3.cache;
+
+import com.automq.stream.s3.metrics.stats.BlockCacheMetricsStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per stream read statistics of the cache tiers: delta WAL cache, block cache and S3.
+ * <p>
+ * At most {@link #maxStreams} streams are tracked individually, reads of the other streams are accumulated to
+ * {@link #OTHER_STREAMS}, so the memory and metrics cardinality are bounded no matter how many streams are read.
+ * Closed streams and streams without reads for {@link #idleTimeoutMillis} are evicted with their metrics, to make room
+ * for the streams being read.
+ */
+public class StreamCacheStats {
+    public static final long OTHER_STREAMS = -1L;
+    public static final int DEFAULT_MAX_STREAMS = 1024;
+    static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long EVICT_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final Comparator<Snapshot> BY_S3_COST = Comparator.comparingLong(Snapshot::s3GetBytes)
+            .thenComparingLong(Snapshot::s3GetCount)
+            .thenComparingLong(Snapshot::blockCacheMissCount)
+            .reversed();
+    private final int maxStreams;
+    private final boolean exportMetrics;
+    private final long idleTimeoutMillis;
+    private final Map<Long, Stats> streams = new ConcurrentHashMap<>();
+    private final Stats others;
+    private final AtomicLong nextEvictTimeMillis = new AtomicLong();
+
+    public StreamCacheStats() {
+        this(DEFAULT_MAX_STREAMS, false);
+    }
+
+    /**
+     * @param maxStreams    max number of streams tracked individually
+     * @param exportMetrics whether to export the statistics of each tracked stream as metrics
+     */
+    public StreamCacheStats(int maxStreams, boolean exportMetrics) {
+        this(maxStreams, exportMetrics, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    StreamCacheStats(int maxStreams, boolean exportMetrics, long idleTimeoutMillis) {
+        this.maxStreams = maxStreams;
+        this.exportMetrics = exportMetrics;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.others = newStats(OTHER_STREAMS, System.currentTimeMillis());
+    }
+
+    public void recordLogCacheHit(long streamId, long size) {
+        Stats stats = stats(streamId);
+        stats.logCacheHitCount.increment();
+        stats.logCacheHitBytes.add(size);
+    }
+
+    public void recordBlockCacheHit(long streamId, long size) {
+        Stats stats = stats(streamId);
+        stats.blockCacheHitCount.increment();
+        stats.blockCacheHitBytes.add(size);
+    }
+
+    public void recordBlockCacheMiss(long streamId, long size) {
+        Stats stats = stats(streamId);
+        stats.blockCacheMissCount.increment();
+        stats.blockCacheMissBytes.add(size);
+    }
+
+    /**
+     * Record a S3 GET request issued to read the data block of the stream.
+     */
+    public void recordS3Get(long streamId, long size) {
+        Stats stats = stats(streamId);
+        stats.s3GetCount.increment();
+        stats.s3GetBytes.add(size);
+    }
+
+    public Snapshot snapshot(long streamId) {
+        Stats stats = streamId == OTHER_STREAMS ? others : streams.get(streamId);
+        return stats == null ? new Snapshot(streamId, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0) : stats.snapshot();
+    }
+
+    /**
+     * Get the statistics of the top k streams which cost most S3 reads, the accumulated statistics of the untracked
+     * streams are included if they are in the top k.
+     */
+    public List<Snapshot> topK(int k) {
+        List<Snapshot> snapshots = new ArrayList<>(streams.size() + 1);
+        streams.values().forEach(stats -> snapshots.add(stats.snapshot()));
+        Snapshot othersSnapshot = others.snapshot();
+        if (!othersSnapshot.isEmpty()) {
+            snapshots.add(othersSnapshot);
+        }
+        snapshots.sort(BY_S3_COST);
+        return snapshots.size() > k ? new ArrayList<>(snapshots.subList(0, Math.max(0, k))) : snapshots;
+    }
+
+    public int size() {
+        return streams.size();
+    }
+
+    public boolean exportMetrics() {
+        return exportMetrics;
+    }
+
+    /**
+     * Stop tracking the stream, it is called when the stream is closed.
+     */
+    public void remove(long streamId) {
+        Stats stats = streams.remove(streamId);
+        if (stats != null) {
+            unregisterMetrics(streamId);
+        }
+    }
+
+    /**
+     * Stop tracking the streams which have not been read since {@code now - idleTimeoutMillis}.
+     */
+    void evictIdle(long now) {
+        streams.forEach((streamId, stats) -> {
+            if (now - stats.lastRecordTimeMillis >= idleTimeoutMillis && streams.remove(streamId, stats)) {
+                unregisterMetrics(streamId);
+            }
+        });
+    }
+
+    private Stats stats(long streamId) {
+        long now = System.currentTimeMillis();
+        Stats stats = streams.get(streamId);
+        if (stats == null && streams.size() >= maxStreams) {
+            long nextEvictTime = nextEvictTimeMillis.get();
+            if (now >= nextEvictTime && nextEvictTimeMillis.compareAndSet(nextEvictTime, now + EVICT_INTERVAL_MILLIS)) {
+                evictIdle(now);
+            }
+            if (streams.size() >= maxStreams) {
+                return others;
+            }
+        }
+        if (stats == null) {
+            stats = streams.computeIfAbsent(streamId, k -> newStats(k, now));
+        }
+        stats.lastRecordTimeMillis = now;
+        return stats;
+    }
+
+    private void unregisterMetrics(long streamId) {
+        if (exportMetrics) {
+            BlockCacheMetricsStats.unregisterStreamCacheStats(Long.toString(streamId));
+        }
+    }
+
+    private Stats newStats(long streamId, long now) {
+        Stats stats = new Stats(streamId, now);
+        if (exportMetrics) {
+            String stream = streamId == OTHER_STREAMS ? "others" : Long.toString(streamId);
+            BlockCacheMetricsStats.registerStreamLogCacheHitSize(stream, stats.logCacheHitBytes::sum);
+            BlockCacheMetricsStats.registerStreamBlockCacheHitSize(stream, stats.blockCacheHitBytes::sum);
+            BlockCacheMetricsStats.registerStreamBlockCacheMissSize(stream, stats.blockCacheMissBytes::sum);
+            BlockCacheMetricsStats.registerStreamS3GetCount(stream, stats.s3GetCount::sum);
+            BlockCacheMetricsStats.registerStreamS3GetSize(stream, stats.s3GetBytes::sum);
+        }
+        return stats;
+    }
+
+    /**
+     * @param readAheadUsedBytes   size of read ahead data which is read by the consumer
+     * @param readAheadWastedBytes size of read ahead data which is evicted before being read
+     */
+    public record Snapshot(long streamId, long logCacheHitCount, long logCacheHitBytes, long blockCacheHitCount,
+                           long blockCacheHitBytes, long blockCacheMissCount, long blockCacheMissBytes,
+                           long s3GetCount, long s3GetBytes, long readAheadUsedBytes, long readAheadWastedBytes) {
+
+        public Snapshot withReadAhead(long usedBytes, long wastedBytes) {
+            return new Snapshot(streamId, logCacheHitCount, logCacheHitBytes, blockCacheHitCount, blockCacheHitBytes,
+                    blockCacheMissCount, blockCacheMissBytes, s3GetCount, s3GetBytes, usedBytes, wastedBytes);
+        }
+
+        /**
+         * @return fraction of reads served by the delta WAL cache or the block cache, 1 if there is no read
+         */
+        public double cacheHitRatio() {
+            long hits = logCacheHitCount + blockCacheHitCount;
+            long total = hits + blockCacheMissCount;
+            return total == 0 ? 1 : (double) hits / total;
+        }
+
+        boolean isEmpty() {
+            return logCacheHitCount == 0 && blockCacheHitCount == 0 && blockCacheMissCount == 0 && s3GetCount == 0;
+        }
+    }
+
+    private static class Stats {
+        private final long streamId;
+        private final LongAdder logCacheHitCount = new LongAdder();
+        private final LongAdder logCacheHitBytes = new LongAdder();
+        private final LongAdder blockCacheHitCount = new LongAdder();
+        private final LongAdder blockCacheHitBytes = new LongAdder();
+        private final LongAdder blockCacheMissCount = new LongAdder();
+        private final LongAdder blockCacheMissBytes = new LongAdder();
+        private final LongAdder s3GetCount = new LongAdder();
+        private final LongAdder s3GetBytes = new LongAdder();
+        private volatile long lastRecordTimeMillis;
+
+        Stats(long streamId, long now) {
+            this.streamId = streamId;
+            this.lastRecordTimeMillis = now;
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(streamId, logCacheHitCount.sum(), logCacheHitBytes.sum(), blockCacheHitCount.sum(),
+                    blockCacheHitBytes.sum(), blockCacheMissCount.sum(), blockCacheMissBytes.sum(), s3GetCount.sum(),
+                    s3GetBytes.sum(), 0, 0);
+        }
+    }
+}
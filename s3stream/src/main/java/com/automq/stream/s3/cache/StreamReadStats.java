@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.automq.stream.s3.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-read frequency statistics of streams served by block cache.
+ * <p>
+ * Consumer reads and read ahead loads are tracked separately. A consumer read that starts before the end of a previous
+ * consumer read of the stream, e.g. another consumer reading the same data or a consumer rewinding, is a re-read. So is
+ * a read ahead load of data that has been loaded before and was evicted since. Each re-read adds one to the heat of the
+ * stream, and the heat decays exponentially with {@link #HALF_LIFE_MS}, so the heat approximates the number of recent
+ * re-reads.
+ */
+public class StreamReadStats {
+    static final long HALF_LIFE_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final double MIN_HEAT = 0.01;
+    private final Map<Long, Heat> heats = new ConcurrentHashMap<>();
+
+    /**
+     * Record a consumer read of [startOffset, endOffset) of the stream.
+     */
+    public void recordRead(long streamId, long startOffset, long endOffset) {
+        recordRead(streamId, startOffset, endOffset, System.currentTimeMillis());
+    }
+
+    void recordRead(long streamId, long startOffset, long endOffset, long now) {
+        heats.computeIfAbsent(streamId, k -> new Heat(now)).read(startOffset, endOffset, now);
+    }
+
+    /**
+     * Record a read ahead load of [startOffset, endOffset) of the stream from S3.
+     */
+    public void recordReadAhead(long streamId, long startOffset, long endOffset) {
+        recordReadAhead(streamId, startOffset, endOffset, System.currentTimeMillis());
+    }
+
+    void recordReadAhead(long streamId, long startOffset, long endOffset, long now) {
+        heats.computeIfAbsent(streamId, k -> new Heat(now)).readAhead(startOffset, endOffset, now);
+    }
+
+    public double heat(long streamId) {
+        Heat heat = heats.get(streamId);
+        return heat == null ? 0 : heat.get(System.currentTimeMillis());
+    }
+
+    /**
+     * Get the heat of all streams which are re-read recently. Streams that have cooled down and have not been read for
+     * a half-life are removed.
+     *
+     * @return key: stream id, value: heat of the stream
+     */
+    public Map<Long, Double> snapshot() {
+        return snapshot(System.currentTimeMillis());
+    }
+
+    Map<Long, Double> snapshot(long now) {
+        Map<Long, Double> snapshot = new HashMap<>();
+        Iterator<Map.Entry<Long, Heat>> it = heats.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Heat> entry = it.next();
+            Heat heat = entry.getValue();
+            double value = heat.get(now);
+            if (value >= MIN_HEAT) {
+                snapshot.put(entry.getKey(), value);
+            } else if (heat.idle(now)) {
+                it.remove();
+            }
+        }
+        return snapshot;
+    }
+
+    static class Heat {
+        private double value;
+        private long timestamp;
+        private long lastAccessTimestamp;
+        private long readEndOffset = -1;
+        private long readAheadEndOffset = -1;
+
+        Heat(long now) {
+            this.timestamp = now;
+            this.lastAccessTimestamp = now;
+        }
+
+        synchronized void read(long startOffset, long endOffset, long now) {
+            if (startOffset < readEndOffset) {
+                add(now);
+            }
+            readEndOffset = Math.max(readEndOffset, endOffset);
+            lastAccessTimestamp = Math.max(lastAccessTimestamp, now);
+        }
+
+        synchronized void readAhead(long startOffset, long endOffset, long now) {
+            if (startOffset < readAheadEndOffset) {
+                add(now);
+            }
+            readAheadEndOffset = Math.max(readAheadEndOffset, endOffset);
+            lastAccessTimestamp = Math.max(lastAccessTimestamp, now);
+        }
+
+        private void add(long now) {
+            value = get(now) + 1;
+            timestamp = Math.max(timestamp, now);
+        }
+
+        synchronized double get(long now) {
+            long elapsed = Math.max(0, now - timestamp);
+            return value * Math.pow(0.5, (double) elapsed / HALF_LIFE_MS);
+        }
+
+        synchronized boolean idle(long now) {
+            return now - lastAccessTimestamp >= HALF_LIFE_MS;
+        }
+    }
+}
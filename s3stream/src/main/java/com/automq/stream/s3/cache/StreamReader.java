@@ -53,6 +53,8 @@ public class StreamReader {
     private final BlockCache blockCache;
     private final Map<DefaultS3BlockCache.ReadAheadTaskKey, CompletableFuture<Void>> inflightReadAheadTaskMap;
     private final InflightReadThrottle inflightReadThrottle;
+    private final StreamCacheStats streamCacheStats;
+    private final StreamReadStats readStats;
     private final ExecutorService streamReaderExecutor = Threads.newFixedThreadPoolWithMonitor(
             2,
             "s3-stream-reader",
@@ -67,6 +69,13 @@ public class StreamReader {
     public StreamReader(S3Operator operator, ObjectManager objectManager, BlockCache blockCache,
                         Map<DefaultS3BlockCache.ReadAheadTaskKey, CompletableFuture<Void>> inflightReadAheadTaskMap,
                         InflightReadThrottle inflightReadThrottle) {
+        this(operator, objectManager, blockCache, inflightReadAheadTaskMap, inflightReadThrottle, new StreamCacheStats(),
+                new StreamReadStats());
+    }
+
+    public StreamReader(S3Operator operator, ObjectManager objectManager, BlockCache blockCache,
+                        Map<DefaultS3BlockCache.ReadAheadTaskKey, CompletableFuture<Void>> inflightReadAheadTaskMap,
+                        InflightReadThrottle inflightReadThrottle, StreamCacheStats streamCacheStats, StreamReadStats readStats) {
         this.s3Operator = operator;
         this.objectManager = objectManager;
         this.objectReaders = new ObjectReaderLRUCache(MAX_OBJECT_READER_SIZE);
@@ -74,6 +83,8 @@ public class StreamReader {
         this.blockCache = blockCache;
         this.inflightReadAheadTaskMap = inflightReadAheadTaskMap;
         this.inflightReadThrottle = inflightReadThrottle;
+        this.streamCacheStats = streamCacheStats;
+        this.readStats = readStats;
     }
 
     public void shutdown() {
@@ -81,6 +92,10 @@ public class StreamReader {
         backgroundExecutor.shutdown();
     }
 
+    /**
+     * @param agent read ahead agent of the stream, null for a warm-up read, which is left out of the read heat and the
+     *              read ahead accounting of the stream
+     */
     public CompletableFuture<List<StreamRecordBatch>> syncReadAhead(long streamId, long startOffset, long endOffset,
                                                                     int maxBytes, ReadAheadAgent agent, UUID uuid) {
         if (LOGGER.isDebugEnabled()) {
@@ -157,7 +172,7 @@ public class StreamReader {
                         }
                     }));
                     if (reserveResult.reserveSize() > 0) {
-                        dataBlockReadAccumulator.readDataBlock(objectReader, streamDataBlock.dataBlockIndex());
+                        readDataBlock(streamId, objectReader, streamDataBlock);
                     }
                 }
                 return CompletableFuture.allOf(cfList.toArray(CompletableFuture[]::new)).thenApply(vv -> {
@@ -167,6 +182,9 @@ public class StreamReader {
                                 startOffset, context.lastOffset, context.totalReadSize, timer.elapsedAs(TimeUnit.MILLISECONDS));
                     }
                     context.releaseReader();
+                    if (agent != null) {
+                        readStats.recordReadAhead(streamId, startOffset, context.lastOffset);
+                    }
 
                     List<StreamRecordBatch> recordsToReturn = new LinkedList<>();
                     List<StreamRecordBatch> totalRecords = new ArrayList<>();
@@ -190,7 +208,9 @@ public class StreamReader {
                     long lastReadOffset = recordsToReturn.isEmpty() ? totalRecords.get(0).getBaseOffset()
                             : recordsToReturn.get(recordsToReturn.size() - 1).getLastOffset();
                     blockCache.setReadAheadRecord(streamId, lastReadOffset, context.lastOffset);
-                    agent.updateReadAheadResult(context.lastOffset, context.totalReadSize);
+                    if (agent != null) {
+                        agent.updateReadAheadResult(context.lastOffset, context.totalReadSize, timer.elapsedAs(TimeUnit.NANOSECONDS));
+                    }
                     return recordsToReturn;
                 });
             }, streamReaderExecutor);
@@ -268,7 +288,7 @@ public class StreamReader {
                 if (reserveResult.reserveSize() > 0) {
                     inflightReadThrottle.acquire(uuid, reserveResult.reserveSize()).thenAcceptAsync(nil -> {
                         // read data block
-                        dataBlockReadAccumulator.readDataBlock(objectReader, streamDataBlock.dataBlockIndex());
+                        readDataBlock(streamId, objectReader, streamDataBlock);
                     }, streamReaderExecutor);
                 }
             }
@@ -279,11 +299,18 @@ public class StreamReader {
                             startOffset, context.lastOffset, context.totalReadSize, timer.elapsedAs(TimeUnit.MILLISECONDS));
                 }
                 context.releaseReader();
-                agent.updateReadAheadResult(context.lastOffset, context.totalReadSize);
+                readStats.recordReadAhead(streamId, startOffset, context.lastOffset);
+                agent.updateReadAheadResult(context.lastOffset, context.totalReadSize, timer.elapsedAs(TimeUnit.NANOSECONDS));
             });
         }, streamReaderExecutor);
     }
 
+    private void readDataBlock(long streamId, ObjectReader objectReader, StreamDataBlock streamDataBlock) {
+        if (dataBlockReadAccumulator.readDataBlock(objectReader, streamDataBlock.dataBlockIndex())) {
+            streamCacheStats.recordS3Get(streamId, streamDataBlock.getBlockSize());
+        }
+    }
+
     private CompletableFuture<Void> getDataBlockIndices(long streamId, long endOffset, ReadContext context) {
         CompletableFuture<Boolean /* empty objects */> getObjectsCf = CompletableFuture.completedFuture(false);
         if (context.objectIndex >= context.objects.size()) {
@@ -21,6 +21,8 @@ import com.automq.stream.s3.compact.objects.CompactedObject;
 import com.automq.stream.s3.compact.objects.CompactedObjectBuilder;
 import com.automq.stream.s3.compact.objects.CompactionType;
 import com.automq.stream.s3.StreamDataBlock;
+import com.automq.stream.s3.cache.StreamReadStats;
+import com.automq.stream.s3.metrics.stats.CompactionMetricsStats;
 import com.automq.stream.utils.LogContext;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -44,6 +46,10 @@ public class CompactionAnalyzer {
     private final long streamSplitSize;
     private final int maxStreamNumInStreamSet;
     private final int maxStreamObjectNum;
+    private final long hotStreamSplitSize;
+    private final StreamReadStats readStats;
+    // heat of streams re-read recently, refreshed at the beginning of each analysis
+    private Map<Long, Double> streamHeats = Collections.emptyMap();
 
     public CompactionAnalyzer(long compactionCacheSize, long streamSplitSize, int maxStreamNumInStreamSet, int maxStreamObjectNum) {
         this(compactionCacheSize, streamSplitSize, maxStreamNumInStreamSet, maxStreamObjectNum, new LogContext("[CompactionAnalyzer]"));
@@ -51,11 +57,22 @@ public class CompactionAnalyzer {
 
     public CompactionAnalyzer(long compactionCacheSize, long streamSplitSize,
                               int maxStreamNumInStreamSet, int maxStreamObjectNum, LogContext logContext) {
+        this(compactionCacheSize, streamSplitSize, maxStreamNumInStreamSet, maxStreamObjectNum, streamSplitSize, null, logContext);
+    }
+
+    /**
+     * @param hotStreamSplitSize split size of hot streams, hot streams are split into stream objects earlier for sequential reads
+     * @param readStats          read frequency statistics of streams, null means all streams are treated as cold
+     */
+    public CompactionAnalyzer(long compactionCacheSize, long streamSplitSize, int maxStreamNumInStreamSet, int maxStreamObjectNum,
+                              long hotStreamSplitSize, StreamReadStats readStats, LogContext logContext) {
         this.logger = logContext.logger(CompactionAnalyzer.class);
         this.compactionCacheSize = compactionCacheSize;
         this.streamSplitSize = streamSplitSize;
         this.maxStreamNumInStreamSet = maxStreamNumInStreamSet;
         this.maxStreamObjectNum = maxStreamObjectNum;
+        this.hotStreamSplitSize = Math.min(hotStreamSplitSize, streamSplitSize);
+        this.readStats = readStats;
     }
 
     public List<CompactionPlan> analyze(Map<Long, List<StreamDataBlock>> streamDataBlockMap, Set<Long> excludedObjectIds) {
@@ -67,9 +84,17 @@ public class CompactionAnalyzer {
         if (streamDataBlockMap.isEmpty()) {
             return Collections.emptyList();
         }
+        if (readStats != null) {
+            streamHeats = readStats.snapshot();
+        }
         try {
             List<CompactedObjectBuilder> compactedObjectBuilders = groupObjectWithLimits(streamDataBlockMap, excludedObjectIds);
-            return generatePlanWithCacheLimit(compactedObjectBuilders);
+            List<CompactionPlan> compactionPlans = generatePlanWithCacheLimit(compactedObjectBuilders);
+            double expectedGetReduction = expectedGetReduction(compactionPlans);
+            CompactionMetricsStats.getOrCreateCompactionExpectedGetReductionHist().update(Math.round(expectedGetReduction));
+            logger.info("Expected GET reduction of compaction plans: {}, hot streams: {}", String.format("%.2f", expectedGetReduction),
+                    streamHeats.values().stream().filter(h -> h >= CompactionConstants.HOT_STREAM_MIN_HEAT).count());
+            return compactionPlans;
         } catch (Exception e) {
             logger.error("Error while analyzing compaction plan", e);
         }
@@ -213,6 +238,11 @@ public class CompactionAnalyzer {
                         compactedStreamSetObjectBuilder = addOrMergeCompactedObject(builder, compactedObjects, compactedStreamSetObjectBuilder);
                     }
                 }
+                if (compactedObjects.isEmpty() && compactedStreamSetObjectBuilder == null) {
+                    // object alone exceeds cache size and cannot be split further, put it into a dedicated plan to make progress
+                    compactedStreamSetObjectBuilder = addOrMergeCompactedObject(compactedObjectBuilder, compactedObjects, compactedStreamSetObjectBuilder);
+                    i++;
+                }
                 compactionPlans.add(generateCompactionPlan(compactedObjects, compactedStreamSetObjectBuilder));
                 compactedObjects.clear();
                 compactedStreamSetObjectBuilder = null;
@@ -257,7 +287,8 @@ public class CompactionAnalyzer {
         }
         Map<Long, List<StreamDataBlock>> streamDataBlockMap = new HashMap<>();
         for (CompactedObject compactedObject : compactedObjects) {
-            for (StreamDataBlock streamDataBlock : compactedObject.streamDataBlocks()) {
+            // large runs of adjacent data blocks are copied on server side, no need to read them
+            for (StreamDataBlock streamDataBlock : CompactionUtils.dataBlocksToRead(compactedObject.streamDataBlocks())) {
                 streamDataBlockMap.computeIfAbsent(streamDataBlock.getObjectId(), k -> new ArrayList<>()).add(streamDataBlock);
             }
         }
@@ -299,7 +330,7 @@ public class CompactionAnalyzer {
                 builder = splitAndAddBlock(builder, streamDataBlock, compactedObjectBuilders);
             }
         }
-        if (builder.currStreamBlockSize() > streamSplitSize) {
+        if (builder.currStreamBlockSize() > streamSplitSize(builder.lastStreamId())) {
             splitObject(builder, compactedObjectBuilders);
         } else {
             compactedObjectBuilders.add(builder);
@@ -331,7 +362,7 @@ public class CompactionAnalyzer {
     private CompactedObjectBuilder splitAndAddBlock(CompactedObjectBuilder builder,
                                                     StreamDataBlock streamDataBlock,
                                                     List<CompactedObjectBuilder> compactedObjectBuilders) {
-        if (builder.currStreamBlockSize() > streamSplitSize) {
+        if (builder.currStreamBlockSize() > streamSplitSize(builder.lastStreamId())) {
             builder = splitObject(builder, compactedObjectBuilders);
         }
         builder.addStreamDataBlock(streamDataBlock);
@@ -350,6 +381,52 @@ public class CompactionAnalyzer {
         return builder;
     }
 
+    /**
+     * Hot streams which are frequently re-read are split with a smaller split size, so that they can be read sequentially
+     * from their own stream objects, while cold streams are kept packed in stream set object.
+     */
+    long streamSplitSize(long streamId) {
+        return streamHeats.getOrDefault(streamId, 0.0) >= CompactionConstants.HOT_STREAM_MIN_HEAT ? hotStreamSplitSize : streamSplitSize;
+    }
+
+    /**
+     * Estimate the number of GET requests saved by compaction plans. Reading a stream needs at least one GET for each object
+     * that contains the stream, and each stream is expected to be read once plus {@code heat} re-reads.
+     *
+     * @param compactionPlans compaction plans
+     * @return expected GET reduction
+     */
+    double expectedGetReduction(List<CompactionPlan> compactionPlans) {
+        // key: stream id, value: ids of source objects that contain the stream
+        Map<Long, Set<Long>> sourceObjects = new HashMap<>();
+        // key: stream id, value: number of objects that contain the stream after compaction
+        Map<Long, Integer> targetObjectNums = new HashMap<>();
+        Set<Long> streamsInStreamSetObject = new HashSet<>();
+        for (CompactionPlan compactionPlan : compactionPlans) {
+            for (CompactedObject compactedObject : compactionPlan.compactedObjects()) {
+                Set<Long> streamIds = new HashSet<>();
+                for (StreamDataBlock streamDataBlock : compactedObject.streamDataBlocks()) {
+                    sourceObjects.computeIfAbsent(streamDataBlock.getStreamId(), k -> new HashSet<>()).add(streamDataBlock.getObjectId());
+                    streamIds.add(streamDataBlock.getStreamId());
+                }
+                if (compactedObject.type() == CompactionType.SPLIT) {
+                    streamIds.forEach(streamId -> targetObjectNums.merge(streamId, 1, Integer::sum));
+                } else {
+                    streamsInStreamSetObject.addAll(streamIds);
+                }
+            }
+        }
+        // all compacted parts are written into one stream set object
+        streamsInStreamSetObject.forEach(streamId -> targetObjectNums.merge(streamId, 1, Integer::sum));
+        double reduction = 0;
+        for (Map.Entry<Long, Set<Long>> entry : sourceObjects.entrySet()) {
+            long streamId = entry.getKey();
+            double expectedReads = 1 + streamHeats.getOrDefault(streamId, 0.0);
+            reduction += expectedReads * (entry.getValue().size() - targetObjectNums.getOrDefault(streamId, 0));
+        }
+        return reduction;
+    }
+
     /**
      * Sort stream data blocks by stream id and {@code startOffset).
      *
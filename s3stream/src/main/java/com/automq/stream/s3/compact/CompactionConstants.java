@@ -17,7 +17,13 @@
 
 package com.automq.stream.s3.compact;
 
+import com.automq.stream.s3.operator.Writer;
+
 public class CompactionConstants {
     public static final int S3_OBJECT_TTL_MINUTES = 24 * 60;
     public static final int S3_OBJECT_MAX_READ_BATCH = 16 * 1024 * 1024; // 16MB
+    public static final long COMPACTION_CHECK_INTERVAL_MS = 10 * 1000; // 10s
+    public static final int S3_OBJECT_MIN_COPY_WRITE_SIZE = Writer.MIN_PART_SIZE; // 5MB
+    // streams re-read more than this number of times in recent half life of read stats are treated as hot streams
+    public static final double HOT_STREAM_MIN_HEAT = 64;
 }
@@ -21,12 +21,15 @@ import com.automq.stream.s3.S3ObjectLogger;
 import com.automq.stream.s3.compact.objects.CompactedObject;
 import com.automq.stream.s3.compact.objects.CompactionType;
 import com.automq.stream.s3.StreamDataBlock;
+import com.automq.stream.s3.cache.StreamReadStats;
 import com.automq.stream.s3.compact.operator.DataBlockReader;
 import com.automq.stream.s3.compact.operator.DataBlockWriter;
 import com.automq.stream.s3.metadata.S3ObjectMetadata;
+import com.automq.stream.s3.metadata.S3StreamConstant;
 import com.automq.stream.s3.metadata.StreamMetadata;
 import com.automq.stream.s3.metadata.StreamOffsetRange;
 import com.automq.stream.s3.metrics.TimerUtil;
+import com.automq.stream.s3.metrics.stats.CompactionMetricsStats;
 import com.automq.stream.s3.objects.CommitStreamSetObjectRequest;
 import com.automq.stream.s3.objects.ObjectManager;
 import com.automq.stream.s3.objects.ObjectStreamRange;
@@ -40,9 +43,12 @@ import io.github.bucket4j.Bucket;
 import io.netty.util.concurrent.DefaultThreadFactory;
 
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -50,10 +56,13 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -71,6 +80,7 @@ public class CompactionManager {
     private final ScheduledExecutorService bucketCallbackScheduledExecutor;
     private final ExecutorService compactThreadPool;
     private final ExecutorService forceSplitThreadPool;
+    private final ExecutorService splitObjectThreadPool;
     private final CompactionUploader uploader;
     private final Config config;
     private final int maxObjectNumToCompact;
@@ -81,9 +91,29 @@ public class CompactionManager {
     private final long networkBandwidth;
     private final boolean s3ObjectLogEnable;
     private final long compactionCacheSize;
-    private Bucket compactionBucket = null;
+    private final int compactionParallelism;
+    private final long compactionCacheSizePerTask;
+    private final AtomicLong compactionInflightSize = new AtomicLong(0L);
+    private final AtomicLong compactionRemainingSize = new AtomicLong(0L);
+    private final int compactionTriggerObjectNum;
+    private final long compactionBandwidth;
+    private final Bucket compactionBucket;
+    private final AtomicLong compactionBacklogSize = new AtomicLong(0L);
+    private final AtomicInteger compactionBacklogObjectNum = new AtomicInteger(0);
+    // stream set objects output by previous compactions, which are left to the interval-triggered compaction
+    private final Set<Long> compactedObjectIds = ConcurrentHashMap.newKeySet();
+    // the last compaction covering all the stream set objects
+    private long lastCompactionTimestamp = System.currentTimeMillis();
 
     public CompactionManager(Config config, ObjectManager objectManager, StreamManager streamManager, S3Operator s3Operator) {
+        this(config, objectManager, streamManager, s3Operator, null);
+    }
+
+    /**
+     * @param readStats read frequency statistics of streams from block cache, used to split hot streams earlier, nullable
+     */
+    public CompactionManager(Config config, ObjectManager objectManager, StreamManager streamManager, S3Operator s3Operator,
+                             StreamReadStats readStats) {
         String logPrefix = String.format("[CompactionManager id=%d] ", config.nodeId());
         this.logger = new LogContext(logPrefix).logger(CompactionManager.class);
         this.s3ObjectLogger = S3ObjectLogger.logger(logPrefix);
@@ -98,123 +128,199 @@ public class CompactionManager {
         this.networkBandwidth = config.networkBaselineBandwidth();
         this.uploader = new CompactionUploader(objectManager, s3Operator, config);
         this.compactionCacheSize = config.streamSetObjectCompactionCacheSize();
+        this.compactionParallelism = Math.max(1, config.streamSetObjectCompactionParallelism());
+        // each concurrent compaction task (plan or force split batch) gets an equal share of the compaction cache
+        this.compactionCacheSizePerTask = compactionCacheSize / compactionParallelism;
+        this.compactionTriggerObjectNum = Math.max(1, config.streamSetObjectCompactionTriggerObjectNum());
+        this.compactionBandwidth = config.streamSetObjectCompactionBandwidth();
+        if (compactionBandwidth > 0) {
+            // the bucket is shared by all compaction tasks so that reads are smoothed over time instead of bursting per run,
+            // capacity is at least one read batch so that a single batch read can always be satisfied
+            long capacity = Math.max(compactionBandwidth, CompactionConstants.S3_OBJECT_MAX_READ_BATCH);
+            this.compactionBucket = Bucket.builder().addLimit(limit -> limit
+                    .capacity(capacity)
+                    .refillGreedy(compactionBandwidth, Duration.ofSeconds(1))).build();
+        } else {
+            this.compactionBucket = null;
+        }
         long streamSplitSize = config.streamSetObjectCompactionStreamSplitSize();
         maxStreamNumPerStreamSetObject = config.maxStreamNumPerStreamSetObject();
         maxStreamObjectNumPerCommit = config.maxStreamObjectNumPerCommit();
-        this.compactionAnalyzer = new CompactionAnalyzer(compactionCacheSize, streamSplitSize, maxStreamNumPerStreamSetObject,
-                maxStreamObjectNumPerCommit, new LogContext(String.format("[CompactionAnalyzer id=%d] ", config.nodeId())));
+        long hotStreamSplitSize = config.streamSetObjectCompactionHotStreamSplitSize() > 0
+                ? config.streamSetObjectCompactionHotStreamSplitSize() : streamSplitSize;
+        this.compactionAnalyzer = new CompactionAnalyzer(compactionCacheSizePerTask, streamSplitSize, maxStreamNumPerStreamSetObject,
+                maxStreamObjectNumPerCommit, hotStreamSplitSize, readStats, new LogContext(String.format("[CompactionAnalyzer id=%d] ", config.nodeId())));
         this.compactScheduledExecutor = Threads.newSingleThreadScheduledExecutor(
                 ThreadUtils.createThreadFactory("schedule-compact-executor-%d", true), logger);
         this.bucketCallbackScheduledExecutor = Threads.newSingleThreadScheduledExecutor(
                 ThreadUtils.createThreadFactory("s3-data-block-reader-bucket-cb-%d", true), logger);
         this.compactThreadPool = Executors.newFixedThreadPool(1, new DefaultThreadFactory("object-compaction-manager"));
         this.forceSplitThreadPool = Executors.newFixedThreadPool(1, new DefaultThreadFactory("force-split-executor"));
+        this.splitObjectThreadPool = Executors.newFixedThreadPool(compactionParallelism, new DefaultThreadFactory("split-object-executor"));
+        CompactionMetricsStats.registerCompactionInflightSize(compactionInflightSize::get);
+        CompactionMetricsStats.registerCompactionRemainingSize(compactionRemainingSize::get);
+        CompactionMetricsStats.registerCompactionBacklogSize(compactionBacklogSize::get);
+        CompactionMetricsStats.registerCompactionBacklogObjectNum(compactionBacklogObjectNum::get);
         this.logger.info("Compaction manager initialized with config: compactionInterval: {} min, compactionCacheSize: {} bytes, " +
-                        "streamSplitSize: {} bytes, forceSplitObjectPeriod: {} min, maxObjectNumToCompact: {}, maxStreamNumInStreamSet: {}, maxStreamObjectNum: {}",
-                compactionInterval, compactionCacheSize, streamSplitSize, forceSplitObjectPeriod, maxObjectNumToCompact, maxStreamNumPerStreamSetObject, maxStreamObjectNumPerCommit);
+                        "streamSplitSize: {} bytes, forceSplitObjectPeriod: {} min, maxObjectNumToCompact: {}, maxStreamNumInStreamSet: {}, maxStreamObjectNum: {}, " +
+                        "compactionParallelism: {}, compactionTriggerObjectNum: {}, compactionBandwidth: {} bytes/s",
+                compactionInterval, compactionCacheSize, streamSplitSize, forceSplitObjectPeriod, maxObjectNumToCompact, maxStreamNumPerStreamSetObject, maxStreamObjectNumPerCommit,
+                compactionParallelism, compactionTriggerObjectNum, compactionBandwidth);
     }
 
     public void start() {
-        scheduleNextCompaction((long) this.compactionInterval * 60 * 1000);
+        this.compactScheduledExecutor.scheduleWithFixedDelay(this::runCompactionCheck, CompactionConstants.COMPACTION_CHECK_INTERVAL_MS,
+                CompactionConstants.COMPACTION_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
 
-    private void scheduleNextCompaction(long delayMillis) {
-        logger.info("Next Compaction started in {} ms", delayMillis);
-        this.compactScheduledExecutor.schedule(() -> {
-            TimerUtil timerUtil = new TimerUtil();
-            try {
-                logger.info("Compaction started");
-                this.compact()
-                        .thenAccept(result -> logger.info("Compaction complete, total cost {} ms", timerUtil.elapsedAs(TimeUnit.MILLISECONDS)))
-                        .exceptionally(ex -> {
-                            logger.error("Compaction failed, cost {} ms, ", timerUtil.elapsedAs(TimeUnit.MILLISECONDS), ex);
-                            return null;
-                        })
-                        .join();
-            } catch (Exception ex) {
-                logger.error("Error while compacting objects ", ex);
-            }
-            long nextDelay = Math.max(0, (long) this.compactionInterval * 60 * 1000 - timerUtil.elapsedAs(TimeUnit.MILLISECONDS));
-            scheduleNextCompaction(nextDelay);
-        }, delayMillis, TimeUnit.MILLISECONDS);
+    private void runCompactionCheck() {
+        TimerUtil timerUtil = new TimerUtil();
+        try {
+            this.compact()
+                    .thenAccept(compacted -> {
+                        if (compacted) {
+                            logger.info("Compaction complete, total cost {} ms", timerUtil.elapsedAs(TimeUnit.MILLISECONDS));
+                        }
+                    })
+                    .exceptionally(ex -> {
+                        logger.error("Compaction failed, cost {} ms, ", timerUtil.elapsedAs(TimeUnit.MILLISECONDS), ex);
+                        return null;
+                    })
+                    .join();
+        } catch (Exception ex) {
+            logger.error("Error while compacting objects ", ex);
+        }
     }
 
     public void shutdown() {
         this.compactScheduledExecutor.shutdown();
         this.bucketCallbackScheduledExecutor.shutdown();
+        this.compactThreadPool.shutdown();
+        this.forceSplitThreadPool.shutdown();
+        this.splitObjectThreadPool.shutdown();
         this.uploader.stop();
     }
 
-    private CompletableFuture<Void> compact() {
+    /**
+     * Check the pending stream set objects and compact a small unit of them if needed. Overdue objects are force split at most
+     * {@code compactionParallelism} objects per check, and the rest are compacted once {@code compactionTriggerObjectNum} objects
+     * have accumulated or {@code compactionInterval} has elapsed since the last compaction, see {@link #selectObjectsToCompact}.
+     *
+     * @return true if any object was compacted or split in this check
+     */
+    CompletableFuture<Boolean> compact() {
         return this.objectManager.getServerObjects().thenComposeAsync(objectMetadataList -> {
+            compactionBacklogSize.set(objectMetadataList.stream().mapToLong(S3ObjectMetadata::objectSize).sum());
+            compactionBacklogObjectNum.set(objectMetadataList.size());
+            if (objectMetadataList.isEmpty()) {
+                return CompletableFuture.completedFuture(false);
+            }
+            Set<Long> objectIds = objectMetadataList.stream().map(S3ObjectMetadata::objectId).collect(Collectors.toSet());
+            compactedObjectIds.retainAll(objectIds);
+            Map<Boolean, List<S3ObjectMetadata>> objectMetadataFilterMap = convertS3Objects(objectMetadataList);
+            List<S3ObjectMetadata> objectsToForceSplit = objectMetadataFilterMap.get(true);
+            List<S3ObjectMetadata> pendingObjects = objectMetadataFilterMap.get(false);
+            if (objectsToForceSplit.size() > compactionParallelism) {
+                // split the oldest objects first
+                objectsToForceSplit.sort(Comparator.comparingLong(S3ObjectMetadata::dataTimeInMs));
+                objectsToForceSplit = objectsToForceSplit.subList(0, compactionParallelism);
+            }
+            List<S3ObjectMetadata> objectsToCompact = selectObjectsToCompact(pendingObjects, System.currentTimeMillis());
+            if (objectsToForceSplit.isEmpty() && objectsToCompact.isEmpty()) {
+                return CompletableFuture.completedFuture(false);
+            }
+            List<S3ObjectMetadata> finalObjectsToForceSplit = objectsToForceSplit;
+            List<S3ObjectMetadata> finalObjectsToCompact = new ArrayList<>(objectsToCompact);
+            boolean compactAll = objectsToCompact.size() == pendingObjects.size();
             List<Long> streamIds = objectMetadataList.stream().flatMap(e -> e.getOffsetRanges().stream())
                     .map(StreamOffsetRange::getStreamId).distinct().toList();
-            return this.streamManager.getStreams(streamIds).thenAcceptAsync(streamMetadataList ->
-                    this.compact(streamMetadataList, objectMetadataList), compactThreadPool);
+            return this.streamManager.getStreams(streamIds).thenApplyAsync(streamMetadataList -> {
+                logger.info("Compaction started, backlog: {} stream set objects with size {}, {} objects to force split, {} objects to compact",
+                        objectMetadataList.size(), compactionBacklogSize.get(), finalObjectsToForceSplit.size(), finalObjectsToCompact.size());
+                if (!finalObjectsToForceSplit.isEmpty()) {
+                    // split stream set objects to seperated stream objects
+                    forceSplitObjects(streamMetadataList, finalObjectsToForceSplit);
+                }
+                if (!finalObjectsToCompact.isEmpty()) {
+                    if (compactAll) {
+                        lastCompactionTimestamp = System.currentTimeMillis();
+                    }
+                    // compact stream set objects
+                    compactObjects(streamMetadataList, finalObjectsToCompact);
+                }
+                return true;
+            }, compactThreadPool);
         }, compactThreadPool);
     }
 
-    private void compact(List<StreamMetadata> streamMetadataList, List<S3ObjectMetadata> objectMetadataList) {
-        logger.info("Get {} stream set objects from metadata", objectMetadataList.size());
-        if (objectMetadataList.isEmpty()) {
-            return;
+    /**
+     * Select the stream set objects to compact. All the objects are compacted once {@code compactionInterval} has elapsed
+     * since the last compaction covering all of them. Before that, only the objects not output by previous compactions are
+     * compacted once {@code compactionTriggerObjectNum} of them have accumulated, so the compacted objects are not rewritten
+     * by every early compaction.
+     */
+    List<S3ObjectMetadata> selectObjectsToCompact(List<S3ObjectMetadata> objects, long now) {
+        if (objects.isEmpty()) {
+            return Collections.emptyList();
         }
-        Map<Boolean, List<S3ObjectMetadata>> objectMetadataFilterMap = convertS3Objects(objectMetadataList);
-        List<S3ObjectMetadata> objectsToForceSplit = objectMetadataFilterMap.get(true);
-        List<S3ObjectMetadata> objectsToCompact = objectMetadataFilterMap.get(false);
-
-        long totalSize = objectsToForceSplit.stream().mapToLong(S3ObjectMetadata::objectSize).sum();
-        totalSize += objectsToCompact.stream().mapToLong(S3ObjectMetadata::objectSize).sum();
-        // throttle compaction read to half of compaction interval because of write overhead
-        int expectCompleteTime = compactionInterval / 2;
-        long expectReadBytesPerSec;
-        if (expectCompleteTime > 0) {
-            expectReadBytesPerSec = totalSize / expectCompleteTime / 60;
-            compactionBucket = Bucket.builder().addLimit(limit -> limit
-                    .capacity(expectReadBytesPerSec)
-                    .refillIntervally(expectReadBytesPerSec, Duration.ofSeconds(1))).build();
-            logger.info("Throttle compaction read to {} bytes/s, expect to complete in no less than {}min",
-                    expectReadBytesPerSec, expectCompleteTime);
-        } else {
-            logger.warn("Compaction interval {}min is too small, there will be no throttle for compaction", compactionInterval);
+        if (now - lastCompactionTimestamp >= TimeUnit.MINUTES.toMillis(compactionInterval)) {
+            return objects;
         }
+        List<S3ObjectMetadata> uncompactedObjects = objects.stream()
+                .filter(o -> !compactedObjectIds.contains(o.objectId()))
+                .collect(Collectors.toList());
+        return uncompactedObjects.size() >= compactionTriggerObjectNum ? uncompactedObjects : Collections.emptyList();
+    }
 
-        if (!objectsToForceSplit.isEmpty()) {
-            // split stream set objects to seperated stream objects
-            forceSplitObjects(streamMetadataList, objectsToForceSplit);
+    void onObjectCompacted(long objectId) {
+        if (objectId != S3StreamConstant.INVALID_OBJECT_ID) {
+            compactedObjectIds.add(objectId);
         }
-        // compact stream set objects
-        compactObjects(streamMetadataList, objectsToCompact);
     }
 
     private void forceSplitObjects(List<StreamMetadata> streamMetadataList, List<S3ObjectMetadata> objectsToForceSplit) {
-        logger.info("Force split {} stream set objects", objectsToForceSplit.size());
+        forceSplitObjectsAsync(streamMetadataList, objectsToForceSplit).join();
+    }
+
+    private CompletableFuture<Void> forceSplitObjectsAsync(List<StreamMetadata> streamMetadataList, List<S3ObjectMetadata> objectsToForceSplit) {
+        logger.info("Force split {} stream set objects with parallelism {}", objectsToForceSplit.size(), compactionParallelism);
+        // each object is split and committed independently, so objects can be split concurrently
+        AtomicInteger progress = new AtomicInteger(0);
+        List<CompletableFuture<Void>> cfs = new ArrayList<>();
+        for (S3ObjectMetadata objectToForceSplit : objectsToForceSplit) {
+            cfs.add(CompletableFuture.runAsync(() -> forceSplitObject(streamMetadataList, objectToForceSplit,
+                    progress.incrementAndGet(), objectsToForceSplit.size()), splitObjectThreadPool));
+        }
+        return CompletableFuture.allOf(cfs.toArray(new CompletableFuture[0])).exceptionally(ex -> {
+            logger.error("Force split stream set objects failed, ex: ", ex);
+            return null;
+        });
+    }
+
+    private void forceSplitObject(List<StreamMetadata> streamMetadataList, S3ObjectMetadata objectToForceSplit, int index, int total) {
         TimerUtil timerUtil = new TimerUtil();
-        for (int i = 0; i < objectsToForceSplit.size(); i++) {
-            timerUtil.reset();
-            S3ObjectMetadata objectToForceSplit = objectsToForceSplit.get(i);
-            logger.info("Force split progress {}/{}, splitting object {}, object size {}", i + 1, objectsToForceSplit.size(),
-                    objectToForceSplit.objectId(), objectToForceSplit.objectSize());
-            CommitStreamSetObjectRequest request = buildSplitRequest(streamMetadataList, objectToForceSplit);
-            if (request == null) {
-                continue;
-            }
-            logger.info("Build force split request for object {} complete, generated {} stream objects, time cost: {} ms, start committing objects",
-                    objectToForceSplit.objectId(), request.getStreamObjects().size(), timerUtil.elapsedAs(TimeUnit.MILLISECONDS));
-            timerUtil.reset();
-            objectManager.commitStreamSetObject(request)
-                    .thenAccept(resp -> {
-                        logger.info("Commit force split request succeed, time cost: {} ms", timerUtil.elapsedAs(TimeUnit.MILLISECONDS));
-                        if (s3ObjectLogEnable) {
-                            s3ObjectLogger.trace("[Compact] {}", request);
-                        }
-                    })
-                    .exceptionally(ex -> {
-                        logger.error("Commit force split request failed, ex: ", ex);
-                        return null;
-                    })
-                    .join();
+        logger.info("Force split progress {}/{}, splitting object {}, object size {}", index, total,
+                objectToForceSplit.objectId(), objectToForceSplit.objectSize());
+        CommitStreamSetObjectRequest request = buildSplitRequest(streamMetadataList, objectToForceSplit);
+        if (request == null) {
+            return;
         }
+        logger.info("Build force split request for object {} complete, generated {} stream objects, time cost: {} ms, start committing objects",
+                objectToForceSplit.objectId(), request.getStreamObjects().size(), timerUtil.elapsedAs(TimeUnit.MILLISECONDS));
+        timerUtil.reset();
+        objectManager.commitStreamSetObject(request)
+                .thenAccept(resp -> {
+                    logger.info("Commit force split request for object {} succeed, time cost: {} ms", objectToForceSplit.objectId(),
+                            timerUtil.elapsedAs(TimeUnit.MILLISECONDS));
+                    if (s3ObjectLogEnable) {
+                        s3ObjectLogger.trace("[Compact] {}", request);
+                    }
+                })
+                .exceptionally(ex -> {
+                    logger.error("Commit force split request for object {} failed, ex: ", objectToForceSplit.objectId(), ex);
+                    return null;
+                })
+                .join();
     }
 
     private void compactObjects(List<StreamMetadata> streamMetadataList, List<S3ObjectMetadata> objectsToCompact) {
@@ -243,6 +349,7 @@ public class CompactionManager {
         objectManager.commitStreamSetObject(request)
                 .thenAccept(resp -> {
                     logger.info("Commit compact request succeed, time cost: {} ms", timerUtil.elapsedAs(TimeUnit.MILLISECONDS));
+                    onObjectCompacted(request.getObjectId());
                     if (s3ObjectLogEnable) {
                         s3ObjectLogger.trace("[Compact] {}", request);
                     }
@@ -276,26 +383,22 @@ public class CompactionManager {
     }
 
     public CompletableFuture<Void> forceSplitAll() {
-        CompletableFuture<Void> cf = new CompletableFuture<>();
         //TODO: deal with metadata delay
-        this.compactScheduledExecutor.execute(() -> this.objectManager.getServerObjects().thenAcceptAsync(objectMetadataList -> {
+        // objects are split on the split object executor, so a running compaction never delays force split
+        return this.objectManager.getServerObjects().thenCompose(objectMetadataList -> {
+            if (objectMetadataList.isEmpty()) {
+                logger.info("No stream set objects to force split");
+                return CompletableFuture.completedFuture(null);
+            }
             List<Long> streamIds = objectMetadataList.stream().flatMap(e -> e.getOffsetRanges().stream())
                     .map(StreamOffsetRange::getStreamId).distinct().toList();
-            this.streamManager.getStreams(streamIds).thenAcceptAsync(streamMetadataList -> {
-                if (objectMetadataList.isEmpty()) {
-                    logger.info("No stream set objects to force split");
-                    return;
-                }
-                forceSplitObjects(streamMetadataList, objectMetadataList);
-                cf.complete(null);
-            }, forceSplitThreadPool);
-        }, forceSplitThreadPool).exceptionally(ex -> {
-            logger.error("Error while force split all stream set objects ", ex);
-            cf.completeExceptionally(ex);
-            return null;
-        }));
-
-        return cf;
+            return this.streamManager.getStreams(streamIds)
+                    .thenCompose(streamMetadataList -> forceSplitObjectsAsync(streamMetadataList, objectMetadataList));
+        }).whenComplete((nil, ex) -> {
+            if (ex != null) {
+                logger.error("Error while force split all stream set objects ", ex);
+            }
+        });
     }
 
     /**
@@ -337,10 +440,9 @@ public class CompactionManager {
             long readSize = 0;
             while (index < groupedDataBlocks.size()) {
                 Pair<List<StreamDataBlock>, CompletableFuture<StreamObject>> group = groupedDataBlocks.get(index);
-                List<StreamDataBlock> groupedStreamDataBlock = group.getLeft();
-                long size = groupedStreamDataBlock.get(groupedStreamDataBlock.size() - 1).getBlockEndPosition() -
-                        groupedStreamDataBlock.get(0).getBlockStartPosition();
-                if (readSize + size > compactionCacheSize) {
+                // large runs of adjacent data blocks are copied on server side and take no compaction cache
+                long size = CompactionUtils.dataBlocksToRead(group.getLeft()).stream().mapToLong(StreamDataBlock::getBlockSize).sum();
+                if (readSize + size > compactionCacheSizePerTask) {
                     break;
                 }
                 readSize += size;
@@ -348,24 +450,27 @@ public class CompactionManager {
                 index++;
             }
             if (batchGroup.isEmpty()) {
-                logger.error("Force split object failed, not be able to read any data block, maybe compactionCacheSize is too small");
+                logger.error("Force split object failed, not be able to read any data block, maybe compactionCacheSize is too small or compactionParallelism is too large");
                 return new ArrayList<>();
             }
             // prepare N stream objects at one time
+            List<StreamDataBlock> blocksToRead = batchGroup.stream().flatMap(p -> CompactionUtils.dataBlocksToRead(p.getLeft()).stream()).toList();
+            long batchReadSize = readSize;
             objectManager.prepareObject(batchGroup.size(), TimeUnit.MINUTES.toMillis(CompactionConstants.S3_OBJECT_TTL_MINUTES))
-                    .thenComposeAsync(objectId -> {
-                        List<StreamDataBlock> blocksToRead = batchGroup.stream().flatMap(p -> p.getLeft().stream()).toList();
+                    .thenCompose(objectId -> {
                         DataBlockReader reader = new DataBlockReader(objectMetadata, s3Operator, compactionBucket, bucketCallbackScheduledExecutor);
                         // batch read
                         reader.readBlocks(blocksToRead, Math.min(CompactionConstants.S3_OBJECT_MAX_READ_BATCH, networkBandwidth));
-
+                        // wait for the whole batch to be read, so that objects split concurrently never block each other on the write executor
+                        return CompletableFuture.allOf(blocksToRead.stream().map(StreamDataBlock::getDataCf).toArray(CompletableFuture[]::new))
+                                .thenApply(v -> objectId);
+                    })
+                    .thenComposeAsync(objectId -> {
                         List<CompletableFuture<Void>> cfs = new ArrayList<>();
                         for (Pair<List<StreamDataBlock>, CompletableFuture<StreamObject>> pair : batchGroup) {
                             List<StreamDataBlock> blocks = pair.getLeft();
                             DataBlockWriter writer = new DataBlockWriter(objectId, s3Operator, config.objectPartSize());
-                            for (StreamDataBlock block : blocks) {
-                                writer.write(block);
-                            }
+                            CompactionUtils.writeDataBlocks(writer, blocks);
                             long finalObjectId = objectId;
                             cfs.add(writer.close().thenAccept(v -> {
                                 StreamObject streamObject = new StreamObject();
@@ -374,11 +479,13 @@ public class CompactionManager {
                                 streamObject.setStartOffset(blocks.get(0).getStartOffset());
                                 streamObject.setEndOffset(blocks.get(blocks.size() - 1).getEndOffset());
                                 streamObject.setObjectSize(writer.size());
+                                CompactionMetricsStats.getOrCreateCompactionWriteSizeCounter().inc(writer.size());
                                 pair.getValue().complete(streamObject);
                             }));
                             objectId++;
                         }
-                        return CompletableFuture.allOf(cfs.toArray(new CompletableFuture[0]));
+                        return CompletableFuture.allOf(cfs.toArray(new CompletableFuture[0]))
+                                .thenAccept(v -> CompactionMetricsStats.getOrCreateCompactionReadSizeCounter().inc(batchReadSize));
                     }, forceSplitThreadPool)
                     .exceptionally(ex -> {
                         //TODO: clean up buffer
@@ -435,7 +542,8 @@ public class CompactionManager {
         logCompactionPlans(compactionPlans, excludedObjectIds);
         objectsToCompact = objectsToCompact.stream().filter(e -> !excludedObjectIds.contains(e.objectId())).collect(Collectors.toList());
         executeCompactionPlans(request, compactionPlans, objectsToCompact);
-        compactionPlans.forEach(c -> c.streamDataBlocksMap().values().forEach(v -> v.forEach(b -> compactedObjectIds.add(b.getObjectId()))));
+        // collect from all compacted objects rather than the blocks to read, as blocks copied on server side are not read
+        compactionPlans.forEach(c -> c.compactedObjects().forEach(o -> o.streamDataBlocks().forEach(b -> compactedObjectIds.add(b.getObjectId()))));
 
         request.setCompactedObjectIds(new ArrayList<>(compactedObjectIds));
         List<S3ObjectMetadata> compactedObjectMetadata = objectsToCompact.stream()
@@ -524,6 +632,15 @@ public class CompactionManager {
                         >= TimeUnit.MINUTES.toMillis(this.forceSplitObjectPeriod))));
     }
 
+    /**
+     * Execute compaction plans concurrently. Plans are read, merged and uploaded in parallel as long as the total size
+     * of inflight plans does not exceed {@code compactionCacheSize}. Parts of the stream set object are still written in
+     * plan order, and all results are committed with one single request.
+     *
+     * @param request commit request to fill
+     * @param compactionPlans compaction plans to execute
+     * @param s3ObjectMetadata metadata of objects to compact
+     */
     void executeCompactionPlans(CommitStreamSetObjectRequest request, List<CompactionPlan> compactionPlans, List<S3ObjectMetadata> s3ObjectMetadata)
             throws IllegalArgumentException {
         if (compactionPlans.isEmpty()) {
@@ -532,43 +649,62 @@ public class CompactionManager {
         Map<Long, S3ObjectMetadata> s3ObjectMetadataMap = s3ObjectMetadata.stream()
                 .collect(Collectors.toMap(S3ObjectMetadata::objectId, e -> e));
         List<StreamDataBlock> sortedStreamDataBlocks = new ArrayList<>();
-        for (int i = 0; i < compactionPlans.size(); i++) {
-            // iterate over each compaction plan
-            CompactionPlan compactionPlan = compactionPlans.get(i);
-            long totalSize = compactionPlan.streamDataBlocksMap().values().stream().flatMap(List::stream)
-                    .mapToLong(StreamDataBlock::getBlockSize).sum();
-            logger.info("Compaction progress {}/{}, read from {} stream set objects, total size: {}", i + 1, compactionPlans.size(),
-                    compactionPlan.streamDataBlocksMap().size(), totalSize);
-            for (Map.Entry<Long, List<StreamDataBlock>> streamDataBlocEntry : compactionPlan.streamDataBlocksMap().entrySet()) {
-                S3ObjectMetadata metadata = s3ObjectMetadataMap.get(streamDataBlocEntry.getKey());
-                List<StreamDataBlock> streamDataBlocks = streamDataBlocEntry.getValue();
-                DataBlockReader reader = new DataBlockReader(metadata, s3Operator, compactionBucket, bucketCallbackScheduledExecutor);
-                reader.readBlocks(streamDataBlocks, Math.min(CompactionConstants.S3_OBJECT_MAX_READ_BATCH, networkBandwidth));
-            }
-            List<CompletableFuture<StreamObject>> streamObjectCFList = new ArrayList<>();
-            CompletableFuture<Void> streamSetObjectCF = null;
-            for (CompactedObject compactedObject : compactionPlan.compactedObjects()) {
-                if (compactedObject.type() == CompactionType.COMPACT) {
-                    sortedStreamDataBlocks.addAll(compactedObject.streamDataBlocks());
-                    streamSetObjectCF = uploader.chainWriteStreamSetObject(streamSetObjectCF, compactedObject);
-                } else {
-                    streamObjectCFList.add(uploader.writeStreamObject(compactedObject));
+        List<CompletableFuture<StreamObject>> streamObjectCFList = new ArrayList<>();
+        // inflight plans in submission order, key: plan size, value: future completed when the plan releases its memory
+        Deque<Pair<Long, CompletableFuture<Void>>> inflightPlans = new ArrayDeque<>();
+        CompletableFuture<Void> streamSetObjectCF = null;
+        compactionRemainingSize.set(compactionPlans.stream().mapToLong(CompactionManager::planSize).sum());
+        try {
+            for (int i = 0; i < compactionPlans.size(); i++) {
+                // iterate over each compaction plan
+                CompactionPlan compactionPlan = compactionPlans.get(i);
+                long totalSize = planSize(compactionPlan);
+                // wait for earlier plans to release memory before reading more data
+                while (!inflightPlans.isEmpty() && compactionInflightSize.get() + totalSize > compactionCacheSize) {
+                    releasePlan(inflightPlans.poll());
+                }
+                logger.info("Compaction progress {}/{}, read from {} stream set objects, total size: {}, inflight plans: {}", i + 1, compactionPlans.size(),
+                        compactionPlan.streamDataBlocksMap().size(), totalSize, inflightPlans.size());
+                compactionInflightSize.addAndGet(totalSize);
+                for (Map.Entry<Long, List<StreamDataBlock>> streamDataBlocEntry : compactionPlan.streamDataBlocksMap().entrySet()) {
+                    S3ObjectMetadata metadata = s3ObjectMetadataMap.get(streamDataBlocEntry.getKey());
+                    List<StreamDataBlock> streamDataBlocks = streamDataBlocEntry.getValue();
+                    DataBlockReader reader = new DataBlockReader(metadata, s3Operator, compactionBucket, bucketCallbackScheduledExecutor);
+                    reader.readBlocks(streamDataBlocks, Math.min(CompactionConstants.S3_OBJECT_MAX_READ_BATCH, networkBandwidth));
+                }
+                List<CompletableFuture<?>> planCFList = new ArrayList<>();
+                boolean hasStreamSetObjectPart = false;
+                for (CompactedObject compactedObject : compactionPlan.compactedObjects()) {
+                    if (compactedObject.type() == CompactionType.COMPACT) {
+                        sortedStreamDataBlocks.addAll(compactedObject.streamDataBlocks());
+                        streamSetObjectCF = uploader.chainWriteStreamSetObject(streamSetObjectCF, compactedObject);
+                        hasStreamSetObjectPart = true;
+                    } else {
+                        CompletableFuture<StreamObject> streamObjectCF = uploader.writeStreamObject(compactedObject);
+                        streamObjectCFList.add(streamObjectCF);
+                        planCFList.add(streamObjectCF);
+                    }
+                }
+                if (hasStreamSetObjectPart) {
+                    // upload stream set object part of current plan to release memory, following parts are chained after it
+                    streamSetObjectCF = streamSetObjectCF.thenCompose(v -> uploader.forceUploadStreamSetObject());
+                    planCFList.add(streamSetObjectCF);
                 }
+                inflightPlans.add(new ImmutablePair<>(totalSize, CompletableFuture.allOf(planCFList.toArray(new CompletableFuture[0]))));
             }
-
             // wait for all stream objects and stream set object part to be uploaded
-            try {
-                if (streamSetObjectCF != null) {
-                    // wait for all writes done
-                    streamSetObjectCF.thenAccept(v -> uploader.forceUploadStreamSetObject()).join();
-                }
-                streamObjectCFList.stream().map(CompletableFuture::join).forEach(request::addStreamObject);
-            } catch (Exception ex) {
-                //TODO: clean up buffer
-                logger.error("Error while uploading compaction objects", ex);
-                uploader.reset();
-                throw new IllegalArgumentException("Error while uploading compaction objects", ex);
+            while (!inflightPlans.isEmpty()) {
+                releasePlan(inflightPlans.poll());
             }
+            streamObjectCFList.stream().map(CompletableFuture::join).forEach(request::addStreamObject);
+        } catch (Exception ex) {
+            //TODO: clean up buffer
+            logger.error("Error while uploading compaction objects", ex);
+            uploader.reset();
+            throw new IllegalArgumentException("Error while uploading compaction objects", ex);
+        } finally {
+            compactionInflightSize.set(0);
+            compactionRemainingSize.set(0);
         }
         List<ObjectStreamRange> objectStreamRanges = CompactionUtils.buildObjectStreamRange(sortedStreamDataBlocks);
         objectStreamRanges.forEach(request::addStreamRange);
@@ -578,4 +714,19 @@ public class CompactionManager {
         request.setObjectSize(uploader.complete());
         uploader.reset();
     }
+
+    private void releasePlan(Pair<Long, CompletableFuture<Void>> inflightPlan) {
+        try {
+            inflightPlan.getRight().join();
+        } finally {
+            compactionInflightSize.addAndGet(-inflightPlan.getLeft());
+        }
+        compactionRemainingSize.addAndGet(-inflightPlan.getLeft());
+        CompactionMetricsStats.getOrCreateCompactionReadSizeCounter().inc(inflightPlan.getLeft());
+    }
+
+    private static long planSize(CompactionPlan compactionPlan) {
+        return compactionPlan.streamDataBlocksMap().values().stream().flatMap(List::stream)
+                .mapToLong(StreamDataBlock::getBlockSize).sum();
+    }
 }
@@ -22,6 +22,7 @@ import com.automq.stream.s3.compact.objects.CompactedObject;
 import com.automq.stream.s3.compact.objects.CompactionType;
 import com.automq.stream.s3.StreamDataBlock;
 import com.automq.stream.s3.compact.operator.DataBlockWriter;
+import com.automq.stream.s3.metrics.stats.CompactionMetricsStats;
 import com.automq.stream.s3.objects.ObjectManager;
 import com.automq.stream.s3.objects.StreamObject;
 import com.automq.stream.s3.operator.S3Operator;
@@ -30,6 +31,7 @@ import com.automq.stream.utils.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -63,15 +65,16 @@ public class CompactionUploader {
         if (compactedObject.type() != CompactionType.COMPACT) {
             return CompletableFuture.failedFuture(new IllegalArgumentException("wrong compacted object type, expected COMPACT"));
         }
+        List<StreamDataBlock> dataBlocksToRead = CompactionUtils.dataBlocksToRead(compactedObject.streamDataBlocks());
         if (prev == null) {
-            return CompletableFuture.allOf(compactedObject.streamDataBlocks()
+            return CompletableFuture.allOf(dataBlocksToRead
                             .stream()
                             .map(StreamDataBlock::getDataCf)
                             .toArray(CompletableFuture[]::new))
                     .thenComposeAsync(v -> prepareObjectAndWrite(compactedObject), streamSetObjectUploadPool);
         }
         return prev.thenComposeAsync(v ->
-                CompletableFuture.allOf(compactedObject.streamDataBlocks()
+                CompletableFuture.allOf(dataBlocksToRead
                         .stream()
                         .map(StreamDataBlock::getDataCf)
                         .toArray(CompletableFuture[]::new))
@@ -86,9 +89,7 @@ public class CompactionUploader {
             if (streamSetObjectWriter == null) {
                 streamSetObjectWriter = new DataBlockWriter(objectId, s3Operator, config.objectPartSize());
             }
-            for (StreamDataBlock streamDataBlock : compactedObject.streamDataBlocks()) {
-                streamSetObjectWriter.write(streamDataBlock);
-            }
+            CompactionUtils.writeDataBlocks(streamSetObjectWriter, compactedObject.streamDataBlocks());
         }, streamObjectUploadPool).exceptionally(ex -> {
             LOGGER.error("prepare and write stream set object failed", ex);
             return null;
@@ -99,16 +100,14 @@ public class CompactionUploader {
         if (compactedObject.type() != CompactionType.SPLIT) {
             return CompletableFuture.failedFuture(new IllegalArgumentException("wrong compacted object type, expected SPLIT"));
         }
-        return CompletableFuture.allOf(compactedObject.streamDataBlocks()
+        return CompletableFuture.allOf(CompactionUtils.dataBlocksToRead(compactedObject.streamDataBlocks())
                         .stream()
                         .map(StreamDataBlock::getDataCf)
                         .toArray(CompletableFuture[]::new))
                 .thenComposeAsync(v -> objectManager.prepareObject(1, TimeUnit.MINUTES.toMillis(CompactionConstants.S3_OBJECT_TTL_MINUTES))
                                 .thenComposeAsync(objectId -> {
                                     DataBlockWriter dataBlockWriter = new DataBlockWriter(objectId, s3Operator, config.objectPartSize());
-                                    for (StreamDataBlock streamDataBlock : compactedObject.streamDataBlocks()) {
-                                        dataBlockWriter.write(streamDataBlock);
-                                    }
+                                    CompactionUtils.writeDataBlocks(dataBlockWriter, compactedObject.streamDataBlocks());
                                     long streamId = compactedObject.streamDataBlocks().get(0).getStreamId();
                                     long startOffset = compactedObject.streamDataBlocks().get(0).getStartOffset();
                                     long endOffset = compactedObject.streamDataBlocks().get(compactedObject.streamDataBlocks().size() - 1).getEndOffset();
@@ -119,6 +118,7 @@ public class CompactionUploader {
                                     streamObject.setEndOffset(endOffset);
                                     return dataBlockWriter.close().thenApply(nil -> {
                                         streamObject.setObjectSize(dataBlockWriter.size());
+                                        CompactionMetricsStats.getOrCreateCompactionWriteSizeCounter().inc(dataBlockWriter.size());
                                         return streamObject;
                                     });
                                 }, streamObjectUploadPool),
@@ -141,6 +141,7 @@ public class CompactionUploader {
             return 0L;
         }
         streamSetObjectWriter.close().join();
+        CompactionMetricsStats.getOrCreateCompactionWriteSizeCounter().inc(streamSetObjectWriter.size());
         return streamSetObjectWriter.size();
     }
 
@@ -20,6 +20,8 @@ package com.automq.stream.s3.compact;
 import com.automq.stream.s3.compact.objects.CompactedObjectBuilder;
 import com.automq.stream.s3.StreamDataBlock;
 import com.automq.stream.s3.compact.operator.DataBlockReader;
+import com.automq.stream.s3.compact.operator.DataBlockWriter;
+import com.automq.stream.s3.metrics.stats.CompactionMetricsStats;
 import com.automq.stream.s3.metadata.StreamMetadata;
 import com.automq.stream.s3.objects.ObjectStreamRange;
 import com.automq.stream.s3.operator.S3Operator;
@@ -122,6 +124,67 @@ public class CompactionUtils {
         return groupedStreamDataBlocks;
     }
 
+    /**
+     * Group stream data blocks into runs of data blocks that are physically adjacent in the same source object.
+     *
+     * @param streamDataBlocks stream data blocks in write order
+     * @return list of adjacent data block runs, in write order
+     */
+    public static List<List<StreamDataBlock>> groupAdjacentDataBlocks(List<StreamDataBlock> streamDataBlocks) {
+        List<List<StreamDataBlock>> groupedStreamDataBlocks = new ArrayList<>();
+        List<StreamDataBlock> currGroup = new ArrayList<>();
+        for (StreamDataBlock streamDataBlock : streamDataBlocks) {
+            if (!currGroup.isEmpty()) {
+                StreamDataBlock last = currGroup.get(currGroup.size() - 1);
+                if (last.getObjectId() != streamDataBlock.getObjectId()
+                        || last.getBlockEndPosition() != streamDataBlock.getBlockStartPosition()) {
+                    groupedStreamDataBlocks.add(currGroup);
+                    currGroup = new ArrayList<>();
+                }
+            }
+            currGroup.add(streamDataBlock);
+        }
+        if (!currGroup.isEmpty()) {
+            groupedStreamDataBlocks.add(currGroup);
+        }
+        return groupedStreamDataBlocks;
+    }
+
+    /**
+     * Whether a run of adjacent data blocks is large enough to be copied on server side with upload part copy.
+     */
+    public static boolean shouldCopyWrite(List<StreamDataBlock> adjacentDataBlocks) {
+        return adjacentDataBlocks.stream().mapToLong(StreamDataBlock::getBlockSize).sum() >= CompactionConstants.S3_OBJECT_MIN_COPY_WRITE_SIZE;
+    }
+
+    /**
+     * Filter out data blocks that will be copied on server side, the rest of data blocks need to be read before written.
+     */
+    public static List<StreamDataBlock> dataBlocksToRead(List<StreamDataBlock> streamDataBlocks) {
+        return groupAdjacentDataBlocks(streamDataBlocks).stream()
+                .filter(group -> !shouldCopyWrite(group))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Write data blocks in order, large runs of adjacent data blocks are copied from source object on server side
+     * and the rest are uploaded from the data read.
+     */
+    public static void writeDataBlocks(DataBlockWriter writer, List<StreamDataBlock> streamDataBlocks) {
+        for (List<StreamDataBlock> group : groupAdjacentDataBlocks(streamDataBlocks)) {
+            if (shouldCopyWrite(group)) {
+                writer.copyWrite(group);
+                CompactionMetricsStats.getOrCreateCompactionCopySizeCounter()
+                        .inc(group.stream().mapToLong(StreamDataBlock::getBlockSize).sum());
+            } else {
+                for (StreamDataBlock streamDataBlock : group) {
+                    writer.write(streamDataBlock);
+                }
+            }
+        }
+    }
+
     public static int getTotalObjectStats(CompactedObjectBuilder o, Map<Long, Integer> objectStatsMap) {
         int totalCompactedObjects = 0;
         for (Long objectId : o.uniqueObjectIds()) {
@@ -76,6 +76,10 @@ public class DataBlockWriter {
         if (dataBlock.isEmpty()) {
             return;
         }
+        if (!waitingUploadBlocks.isEmpty()) {
+            // keep data blocks in write order
+            uploadWaitingList();
+        }
         StreamDataBlock first = dataBlock.get(0);
         StreamDataBlock end = dataBlock.get(dataBlock.size() - 1);
         // size of data block is always smaller than MAX_PART_SIZE, no need to split into multiple parts
@@ -48,7 +48,7 @@ public class MemoryMetadataManager implements StreamManager, ObjectManager {
 
     @Override
     public synchronized CompletableFuture<Long> prepareObject(int count, long ttl) {
-        return CompletableFuture.completedFuture(objectIdAlloc.getAndIncrement());
+        return CompletableFuture.completedFuture(objectIdAlloc.getAndAdd(count));
     }
 
     @Override
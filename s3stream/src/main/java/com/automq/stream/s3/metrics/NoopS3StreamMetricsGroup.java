@@ -35,5 +35,10 @@ public class NoopS3StreamMetricsGroup implements S3StreamMetricsGroup {
 
     }
 
+    @Override
+    public void removeGauge(String name, Map<String, String> tags) {
+
+    }
+
 
 }
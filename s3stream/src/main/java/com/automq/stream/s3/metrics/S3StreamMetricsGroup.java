@@ -25,4 +25,6 @@ public interface S3StreamMetricsGroup {
     Histogram newHistogram(String name, Map<String, String> tags);
 
     void newGauge(String name, Map<String, String> tags, Gauge gauge);
+
+    void removeGauge(String name, Map<String, String> tags);
 }
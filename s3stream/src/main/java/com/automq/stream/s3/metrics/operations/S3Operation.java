@@ -47,6 +47,7 @@ public enum S3Operation {
     READ_STORAGE_LOG_CACHE_MISS(S3MetricsType.S3Storage, "read_log_cache_miss"),
     READ_STORAGE_BLOCK_CACHE(S3MetricsType.S3Storage, "read_block_cache"),
     READ_STORAGE_BLOCK_CACHE_MISS(S3MetricsType.S3Storage, "read_block_cache_miss"),
+    READ_STORAGE_CATCH_UP(S3MetricsType.S3Storage, "read_catch_up"),
     /* S3 storage operations end */
 
     /* S3 request operations start */
@@ -17,15 +17,27 @@
 
 package com.automq.stream.s3.metrics.stats;
 
+import com.automq.stream.s3.metrics.Counter;
 import com.automq.stream.s3.metrics.Gauge;
 import com.automq.stream.s3.metrics.Histogram;
+import com.automq.stream.s3.metrics.NoopCounter;
 import com.automq.stream.s3.metrics.NoopHistogram;
 import com.automq.stream.s3.metrics.S3StreamMetricsRegistry;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class BlockCacheMetricsStats {
+    private static final String STREAM_LOG_CACHE_HIT_SIZE = "stream_log_cache_hit_size";
+    private static final String STREAM_BLOCK_CACHE_HIT_SIZE = "stream_block_cache_hit_size";
+    private static final String STREAM_BLOCK_CACHE_MISS_SIZE = "stream_block_cache_miss_size";
+    private static final String STREAM_S3_GET_COUNT = "stream_s3_get_count";
+    private static final String STREAM_S3_GET_SIZE = "stream_s3_get_size";
+    private static final String STREAM_READ_AHEAD_ACCURACY = "stream_read_ahead_accuracy_percent";
     private static Histogram readAheadSizeHistogram = null;
+    private static Counter readAheadUsedSizeCounter = null;
+    private static Counter readAheadWastedSizeCounter = null;
 
     public static Histogram getOrCreateReadAheadSizeHist() {
         if (readAheadSizeHistogram == null) {
@@ -35,8 +47,82 @@ public class BlockCacheMetricsStats {
         return readAheadSizeHistogram == null ? new NoopHistogram() : readAheadSizeHistogram;
     }
 
+    public static Counter getOrCreateReadAheadUsedSizeCounter() {
+        if (readAheadUsedSizeCounter == null) {
+            readAheadUsedSizeCounter = S3StreamMetricsRegistry.getMetricsGroup()
+                    .newCounter("read_ahead_used_size" + Counter.SUFFIX, Collections.emptyMap());
+        }
+        return readAheadUsedSizeCounter == null ? new NoopCounter() : readAheadUsedSizeCounter;
+    }
+
+    public static Counter getOrCreateReadAheadWastedSizeCounter() {
+        if (readAheadWastedSizeCounter == null) {
+            readAheadWastedSizeCounter = S3StreamMetricsRegistry.getMetricsGroup()
+                    .newCounter("read_ahead_wasted_size" + Counter.SUFFIX, Collections.emptyMap());
+        }
+        return readAheadWastedSizeCounter == null ? new NoopCounter() : readAheadWastedSizeCounter;
+    }
+
+    public static void registerReadAheadPlannedSize(Gauge gauge) {
+        S3StreamMetricsRegistry.getMetricsGroup().newGauge("read_ahead_planned_size", Collections.emptyMap(), gauge);
+    }
+
     public static void registerAvailableInflightReadSize(Gauge gauge) {
         S3StreamMetricsRegistry.getMetricsGroup().newGauge("available_inflight_read_size", Collections.emptyMap(), gauge);
     }
 
+    public static void registerAvailableCatchUpInflightReadSize(Gauge gauge) {
+        S3StreamMetricsRegistry.getMetricsGroup().newGauge("available_catch_up_inflight_read_size", Collections.emptyMap(), gauge);
+    }
+
+    public static void registerStreamLogCacheHitSize(String streamId, Gauge gauge) {
+        S3StreamMetricsRegistry.getMetricsGroup().newGauge(STREAM_LOG_CACHE_HIT_SIZE, streamTags(streamId), gauge);
+    }
+
+    public static void registerStreamBlockCacheHitSize(String streamId, Gauge gauge) {
+        S3StreamMetricsRegistry.getMetricsGroup().newGauge(STREAM_BLOCK_CACHE_HIT_SIZE, streamTags(streamId), gauge);
+    }
+
+    public static void registerStreamBlockCacheMissSize(String streamId, Gauge gauge) {
+        S3StreamMetricsRegistry.getMetricsGroup().newGauge(STREAM_BLOCK_CACHE_MISS_SIZE, streamTags(streamId), gauge);
+    }
+
+    public static void registerStreamS3GetCount(String streamId, Gauge gauge) {
+        S3StreamMetricsRegistry.getMetricsGroup().newGauge(STREAM_S3_GET_COUNT, streamTags(streamId), gauge);
+    }
+
+    public static void registerStreamS3GetSize(String streamId, Gauge gauge) {
+        S3StreamMetricsRegistry.getMetricsGroup().newGauge(STREAM_S3_GET_SIZE, streamTags(streamId), gauge);
+    }
+
+    /**
+     * Unregister all the cache statistics gauges of the stream.
+     */
+    public static void unregisterStreamCacheStats(String streamId) {
+        Map<String, String> tags = streamTags(streamId);
+        for (String name : List.of(STREAM_LOG_CACHE_HIT_SIZE, STREAM_BLOCK_CACHE_HIT_SIZE, STREAM_BLOCK_CACHE_MISS_SIZE,
+                STREAM_S3_GET_COUNT, STREAM_S3_GET_SIZE)) {
+            S3StreamMetricsRegistry.getMetricsGroup().removeGauge(name, tags);
+        }
+    }
+
+    /**
+     * Register the fraction of the read ahead data of the stream which is read by the consumer, in percent.
+     */
+    public static void registerStreamReadAheadAccuracy(String streamId, String cacheName, Gauge gauge) {
+        S3StreamMetricsRegistry.getMetricsGroup().newGauge(STREAM_READ_AHEAD_ACCURACY, readAheadTags(streamId, cacheName), gauge);
+    }
+
+    public static void unregisterStreamReadAheadAccuracy(String streamId, String cacheName) {
+        S3StreamMetricsRegistry.getMetricsGroup().removeGauge(STREAM_READ_AHEAD_ACCURACY, readAheadTags(streamId, cacheName));
+    }
+
+    private static Map<String, String> readAheadTags(String streamId, String cacheName) {
+        return Map.of("stream_id", streamId, "cache", cacheName);
+    }
+
+    private static Map<String, String> streamTags(String streamId) {
+        return Map.of("stream_id", streamId);
+    }
+
 }
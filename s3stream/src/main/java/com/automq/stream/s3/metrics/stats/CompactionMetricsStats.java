@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3.metrics.stats;
+
+import com.automq.stream.s3.metrics.Counter;
+import com.automq.stream.s3.metrics.Gauge;
+import com.automq.stream.s3.metrics.Histogram;
+import com.automq.stream.s3.metrics.NoopCounter;
+import com.automq.stream.s3.metrics.NoopHistogram;
+import com.automq.stream.s3.metrics.S3StreamMetricsGroup;
+import com.automq.stream.s3.metrics.S3StreamMetricsRegistry;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CompactionMetricsStats {
+    public static Counter compactionReadSizeCounter = null;
+    public static Counter compactionWriteSizeCounter = null;
+    public static Counter compactionCopySizeCounter = null;
+    public static Histogram compactionExpectedGetReductionHistogram = null;
+    private static final Gauge NOOP_GAUGE = () -> 0L;
+    private static final AtomicBoolean GAUGES_REGISTERED = new AtomicBoolean(false);
+    private static volatile Gauge compactionInflightSizeGauge = NOOP_GAUGE;
+    private static volatile Gauge compactionRemainingSizeGauge = NOOP_GAUGE;
+    private static volatile Gauge compactionBacklogSizeGauge = NOOP_GAUGE;
+    private static volatile Gauge compactionBacklogObjectNumGauge = NOOP_GAUGE;
+
+    public static Counter getOrCreateCompactionReadSizeCounter() {
+        if (compactionReadSizeCounter == null) {
+            compactionReadSizeCounter = S3StreamMetricsRegistry.getMetricsGroup()
+                    .newCounter("compaction_read_size" + Counter.SUFFIX, Collections.emptyMap());
+        }
+        return compactionReadSizeCounter == null ? new NoopCounter() : compactionReadSizeCounter;
+    }
+
+    public static Counter getOrCreateCompactionWriteSizeCounter() {
+        if (compactionWriteSizeCounter == null) {
+            compactionWriteSizeCounter = S3StreamMetricsRegistry.getMetricsGroup()
+                    .newCounter("compaction_write_size" + Counter.SUFFIX, Collections.emptyMap());
+        }
+        return compactionWriteSizeCounter == null ? new NoopCounter() : compactionWriteSizeCounter;
+    }
+
+    public static Counter getOrCreateCompactionCopySizeCounter() {
+        if (compactionCopySizeCounter == null) {
+            compactionCopySizeCounter = S3StreamMetricsRegistry.getMetricsGroup()
+                    .newCounter("compaction_copy_size" + Counter.SUFFIX, Collections.emptyMap());
+        }
+        return compactionCopySizeCounter == null ? new NoopCounter() : compactionCopySizeCounter;
+    }
+
+    public static Histogram getOrCreateCompactionExpectedGetReductionHist() {
+        if (compactionExpectedGetReductionHistogram == null) {
+            compactionExpectedGetReductionHistogram = S3StreamMetricsRegistry.getMetricsGroup()
+                    .newHistogram("compaction_expected_get_reduction", Collections.emptyMap());
+        }
+        return compactionExpectedGetReductionHistogram == null ? new NoopHistogram() : compactionExpectedGetReductionHistogram;
+    }
+
+    public static void registerCompactionInflightSize(Gauge gauge) {
+        compactionInflightSizeGauge = gauge;
+        registerOnce();
+    }
+
+    public static void registerCompactionRemainingSize(Gauge gauge) {
+        compactionRemainingSizeGauge = gauge;
+        registerOnce();
+    }
+
+    public static void registerCompactionBacklogSize(Gauge gauge) {
+        compactionBacklogSizeGauge = gauge;
+        registerOnce();
+    }
+
+    public static void registerCompactionBacklogObjectNum(Gauge gauge) {
+        compactionBacklogObjectNumGauge = gauge;
+        registerOnce();
+    }
+
+    /**
+     * The gauges are registered once and read from the latest registered compaction manager, so that re-creating the
+     * manager never registers duplicated gauges.
+     */
+    private static void registerOnce() {
+        if (!GAUGES_REGISTERED.compareAndSet(false, true)) {
+            return;
+        }
+        S3StreamMetricsGroup metricsGroup = S3StreamMetricsRegistry.getMetricsGroup();
+        metricsGroup.newGauge("compaction_inflight_size", Collections.emptyMap(), () -> compactionInflightSizeGauge.value());
+        metricsGroup.newGauge("compaction_remaining_size", Collections.emptyMap(), () -> compactionRemainingSizeGauge.value());
+        metricsGroup.newGauge("compaction_backlog_size", Collections.emptyMap(), () -> compactionBacklogSizeGauge.value());
+        metricsGroup.newGauge("compaction_backlog_object_num", Collections.emptyMap(), () -> compactionBacklogObjectNumGauge.value());
+    }
+}
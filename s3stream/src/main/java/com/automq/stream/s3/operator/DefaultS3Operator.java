@@ -72,6 +72,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
@@ -83,6 +84,14 @@ import static com.automq.stream.utils.FutureUtil.cause;
 public class DefaultS3Operator implements S3Operator {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultS3Operator.class);
     public final float maxMergeReadSparsityRate;
+    /**
+     * Merged reads larger than this size are split into several concurrent sub-range GETs, 0 means never split.
+     */
+    private final int readSplitSize;
+    /**
+     * Max inflight sub-range GETs of one split read.
+     */
+    private final int readSplitConcurrency;
     private final String bucket;
     private final S3AsyncClient writeS3Client;
     private final S3AsyncClient readS3Client;
@@ -108,7 +117,16 @@ public class DefaultS3Operator implements S3Operator {
 
     public DefaultS3Operator(String endpoint, String region, String bucket, boolean forcePathStyle, String accessKey, String secretKey,
                              AsyncNetworkBandwidthLimiter networkInboundBandwidthLimiter, AsyncNetworkBandwidthLimiter networkOutboundBandwidthLimiter, boolean readWriteIsolate) {
+        this(endpoint, region, bucket, forcePathStyle, accessKey, secretKey, networkInboundBandwidthLimiter, networkOutboundBandwidthLimiter,
+                readWriteIsolate, 0, 1);
+    }
+
+    public DefaultS3Operator(String endpoint, String region, String bucket, boolean forcePathStyle, String accessKey, String secretKey,
+                             AsyncNetworkBandwidthLimiter networkInboundBandwidthLimiter, AsyncNetworkBandwidthLimiter networkOutboundBandwidthLimiter, boolean readWriteIsolate,
+                             int readSplitSize, int readSplitConcurrency) {
         this.maxMergeReadSparsityRate = Utils.getMaxMergeReadSparsityRate();
+        this.readSplitSize = readSplitSize;
+        this.readSplitConcurrency = Math.max(1, readSplitConcurrency);
         this.networkInboundBandwidthLimiter = networkInboundBandwidthLimiter;
         this.networkOutboundBandwidthLimiter = networkOutboundBandwidthLimiter;
         this.writeS3Client = newS3Client(endpoint, region, forcePathStyle, accessKey, secretKey);
@@ -119,7 +137,8 @@ public class DefaultS3Operator implements S3Operator {
         scheduler.scheduleWithFixedDelay(this::tryMergeRead, 1, 1, TimeUnit.MILLISECONDS);
         checkConfig();
         checkAvailable();
-        LOGGER.info("S3Operator init with endpoint={} region={} bucket={}, read data sparsity rate={}", endpoint, region, bucket, this.maxMergeReadSparsityRate);
+        LOGGER.info("S3Operator init with endpoint={} region={} bucket={}, read data sparsity rate={}, read split size={}, read split concurrency={}",
+                endpoint, region, bucket, this.maxMergeReadSparsityRate, this.readSplitSize, this.readSplitConcurrency);
     }
 
     public static Builder builder() {
@@ -133,7 +152,14 @@ public class DefaultS3Operator implements S3Operator {
 
     // used for test only.
     DefaultS3Operator(S3AsyncClient s3Client, String bucket, boolean manualMergeRead) {
+        this(s3Client, bucket, manualMergeRead, 0, 1);
+    }
+
+    // used for test only.
+    DefaultS3Operator(S3AsyncClient s3Client, String bucket, boolean manualMergeRead, int readSplitSize, int readSplitConcurrency) {
         this.maxMergeReadSparsityRate = Utils.getMaxMergeReadSparsityRate();
+        this.readSplitSize = readSplitSize;
+        this.readSplitConcurrency = Math.max(1, readSplitConcurrency);
         this.writeS3Client = s3Client;
         this.readS3Client = s3Client;
         this.bucket = bucket;
@@ -259,20 +285,30 @@ public class DefaultS3Operator implements S3Operator {
     }
 
     void mergedRangeRead0(String path, long start, long end, CompletableFuture<ByteBuf> cf) {
+        if (readSplitSize > 0 && end - start + 1 > readSplitSize) {
+            new SplitReadTask(path, start, (int) (end - start + 1), cf).start();
+            return;
+        }
         TimerUtil timerUtil = new TimerUtil();
         GetObjectRequest request = GetObjectRequest.builder().bucket(bucket).key(path).range(range(start, end)).build();
         readS3Client.getObject(request, AsyncResponseTransformer.toPublisher())
-                .thenAccept(responsePublisher -> {
+                .thenCompose(responsePublisher -> {
                     long size = end - start + 1;
                     S3ObjectMetricsStats.getOrCreates3ObjectDownloadSizeHist().update(size);
                     ByteBuf buf = DirectByteBufAlloc.byteBuffer((int) size, "merge_read");
-                    responsePublisher.subscribe(buf::writeBytes).thenAccept(v -> {
+                    // the body may fail in the middle, e.g. on a connection reset, which is retried as a failed request
+                    return responsePublisher.subscribe(buf::writeBytes).handle((v, ex) -> {
+                        if (ex != null) {
+                            buf.release();
+                            throw new CompletionException(ex);
+                        }
                         if (LOGGER.isDebugEnabled()) {
                             LOGGER.debug("[S3BlockCache] getObject from path: {}, {}-{}, size: {}, cost: {} ms",
                                     path, start, end, size, timerUtil.elapsedAs(TimeUnit.MILLISECONDS));
                         }
                         OperationMetricsStats.getHistogram(S3Operation.GET_OBJECT).update(timerUtil.elapsedAs(TimeUnit.NANOSECONDS));
                         cf.complete(buf);
+                        return null;
                     });
                 })
                 .exceptionally(ex -> {
@@ -288,6 +324,46 @@ public class DefaultS3Operator implements S3Operator {
                 });
     }
 
+    /**
+     * Read [start, end] of the object into buf from the index, recoverable failures are retried.
+     */
+    CompletableFuture<Void> rangeReadPart(String path, long start, long end, ByteBuf buf, int index) {
+        CompletableFuture<Void> cf = new CompletableFuture<>();
+        rangeReadPart0(path, start, end, buf, index, cf);
+        return cf;
+    }
+
+    private void rangeReadPart0(String path, long start, long end, ByteBuf buf, int index, CompletableFuture<Void> cf) {
+        TimerUtil timerUtil = new TimerUtil();
+        GetObjectRequest request = GetObjectRequest.builder().bucket(bucket).key(path).range(range(start, end)).build();
+        readS3Client.getObject(request, AsyncResponseTransformer.toPublisher())
+                .thenCompose(responsePublisher -> {
+                    int[] writeIndex = new int[]{index};
+                    // the body may fail in the middle, e.g. on a connection reset, the retry rewrites the part from
+                    // its start
+                    return responsePublisher.subscribe(byteBuffer -> {
+                        int length = byteBuffer.remaining();
+                        buf.setBytes(writeIndex[0], byteBuffer);
+                        writeIndex[0] += length;
+                    });
+                })
+                .thenAccept(v -> {
+                    OperationMetricsStats.getHistogram(S3Operation.GET_OBJECT).update(timerUtil.elapsedAs(TimeUnit.NANOSECONDS));
+                    cf.complete(null);
+                })
+                .exceptionally(ex -> {
+                    OperationMetricsStats.getHistogram(S3Operation.GET_OBJECT_FAIL).update(timerUtil.elapsedAs(TimeUnit.NANOSECONDS));
+                    if (isUnrecoverable(ex)) {
+                        LOGGER.error("GetObject for object {} [{}, {}) fail", path, start, end, ex);
+                        cf.completeExceptionally(ex);
+                    } else {
+                        LOGGER.warn("GetObject for object {} [{}, {}) fail, retry later", path, start, end, ex);
+                        scheduler.schedule(() -> rangeReadPart0(path, start, end, buf, index, cf), 100, TimeUnit.MILLISECONDS);
+                    }
+                    return null;
+                });
+    }
+
     @Override
     public CompletableFuture<Void> write(String path, ByteBuf data, ThrottleStrategy throttleStrategy) {
         CompletableFuture<Void> cf = new CompletableFuture<>();
@@ -651,6 +727,78 @@ public class DefaultS3Operator implements S3Operator {
         }
     }
 
+    /**
+     * Read a large range by several concurrent sub-range GETs, each sub-range is written to its position in one buffer,
+     * so the parts are reassembled in order without extra copy.
+     */
+    class SplitReadTask {
+        final String path;
+        final long start;
+        final int size;
+        final int partCount;
+        final CompletableFuture<ByteBuf> cf;
+        final ByteBuf buf;
+        final TimerUtil timer = new TimerUtil();
+        int nextPart;
+        int inflightParts;
+        int completedParts;
+        Throwable failure;
+
+        SplitReadTask(String path, long start, int size, CompletableFuture<ByteBuf> cf) {
+            this.path = path;
+            this.start = start;
+            this.size = size;
+            this.partCount = (size + readSplitSize - 1) / readSplitSize;
+            this.cf = cf;
+            this.buf = DirectByteBufAlloc.byteBuffer(size, "merge_read");
+            this.buf.writerIndex(size);
+        }
+
+        void start() {
+            S3ObjectMetricsStats.getOrCreates3ObjectDownloadSizeHist().update(size);
+            synchronized (this) {
+                while (failure == null && nextPart < partCount && inflightParts < readSplitConcurrency) {
+                    readNextPart();
+                }
+            }
+        }
+
+        // must be called with the lock held
+        private void readNextPart() {
+            int part = nextPart++;
+            int index = part * readSplitSize;
+            int partSize = Math.min(readSplitSize, size - index);
+            inflightParts++;
+            rangeReadPart(path, start + index, start + index + partSize - 1, buf, index)
+                    .whenComplete((nil, ex) -> onPartCompleted(ex));
+        }
+
+        private synchronized void onPartCompleted(Throwable ex) {
+            inflightParts--;
+            if (ex != null && failure == null) {
+                failure = ex;
+            }
+            if (failure != null) {
+                // wait for the inflight parts to finish writing the buffer before releasing it
+                if (inflightParts == 0) {
+                    buf.release();
+                    cf.completeExceptionally(failure);
+                }
+                return;
+            }
+            completedParts++;
+            if (completedParts == partCount) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("[S3BlockCache] split getObject from path: {}, {}-{}, size: {}, parts: {}, cost: {} ms",
+                            path, start, start + size - 1, size, partCount, timer.elapsedAs(TimeUnit.MILLISECONDS));
+                }
+                cf.complete(buf);
+            } else if (nextPart < partCount) {
+                readNextPart();
+            }
+        }
+    }
+
     static class MergedReadTask {
         static final int MAX_MERGE_READ_SIZE = 32 * 1024 * 1024;
         final String path;
@@ -747,6 +895,8 @@ public class DefaultS3Operator implements S3Operator {
         private AsyncNetworkBandwidthLimiter inboundLimiter;
         private AsyncNetworkBandwidthLimiter outboundLimiter;
         private boolean readWriteIsolate;
+        private int readSplitSize;
+        private int readSplitConcurrency = 1;
 
         public Builder endpoint(String endpoint) {
             this.endpoint = endpoint;
@@ -793,9 +943,19 @@ public class DefaultS3Operator implements S3Operator {
             return this;
         }
 
+        public Builder readSplitSize(int readSplitSize) {
+            this.readSplitSize = readSplitSize;
+            return this;
+        }
+
+        public Builder readSplitConcurrency(int readSplitConcurrency) {
+            this.readSplitConcurrency = readSplitConcurrency;
+            return this;
+        }
+
         public DefaultS3Operator build() {
             return new DefaultS3Operator(endpoint, region, bucket, forcePathStyle, accessKey, secretKey,
-                    inboundLimiter, outboundLimiter, readWriteIsolate);
+                    inboundLimiter, outboundLimiter, readWriteIsolate, readSplitSize, readSplitConcurrency);
         }
     }
 }
@@ -20,10 +20,10 @@ package com.automq.stream.s3.wal;
 
 import com.automq.stream.s3.wal.util.WALUtil;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
 
 import static com.automq.stream.s3.wal.WriteAheadLog.AppendResult;
 
@@ -41,12 +41,11 @@ public interface Block {
      * Append a record to this block.
      * Cannot be called after {@link #data()} is called.
      *
-     * @param recordSize     The size of this record.
-     * @param recordSupplier The supplier of this record which receives the start offset of this record as the parameter.
-     * @param future         The future of this record, which will be completed when the record is written to the WAL.
+     * @param record The record, which will be encoded into the data of this block.
+     * @param future The future of this record, which will be completed when the record is written to the WAL.
      * @return The start offset of this record. If the size of this block exceeds the limit, return -1.
      */
-    long addRecord(long recordSize, Function<Long, ByteBuf> recordSupplier, CompletableFuture<AppendResult.CallbackResult> future);
+    long addRecord(Record record, CompletableFuture<AppendResult.CallbackResult> future);
 
     /**
      * Futures of all records in this block.
@@ -69,6 +68,24 @@ public interface Block {
      */
     long size();
 
+    /**
+     * A record in a block.
+     */
+    interface Record {
+        /**
+         * The size of this record.
+         */
+        long size();
+
+        /**
+         * Encode this record into the data of a block.
+         *
+         * @param data The data of the block.
+         * @param recordOffset The start offset of this record.
+         */
+        void encode(CompositeByteBuf data, long recordOffset);
+    }
+
     default void release() {
         ByteBuf data = data();
         if (null != data) {
@@ -30,8 +30,6 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
-import java.util.function.Supplier;
 
 public class BlockImpl implements Block {
 
@@ -48,7 +46,7 @@ public class BlockImpl implements Block {
      */
     private final long softLimit;
     private final List<CompletableFuture<WriteAheadLog.AppendResult.CallbackResult>> futures = new LinkedList<>();
-    private final List<Supplier<ByteBuf>> records = new LinkedList<>();
+    private final List<Record> records = new LinkedList<>();
     private final TimerUtil timer;
     /**
      * The next offset to write in this block.
@@ -77,8 +75,9 @@ public class BlockImpl implements Block {
      * Note: this method is NOT thread safe.
      */
     @Override
-    public long addRecord(long recordSize, Function<Long, ByteBuf> recordSupplier, CompletableFuture<WriteAheadLog.AppendResult.CallbackResult> future) {
+    public long addRecord(Record record, CompletableFuture<WriteAheadLog.AppendResult.CallbackResult> future) {
         assert data == null;
+        long recordSize = record.size();
         long requiredCapacity = nextOffset + recordSize;
         if (requiredCapacity > maxSize) {
             return -1;
@@ -89,7 +88,7 @@ public class BlockImpl implements Block {
         }
 
         long recordOffset = startOffset + nextOffset;
-        records.add(() -> recordSupplier.apply(recordOffset));
+        records.add(record);
         nextOffset += recordSize;
         futures.add(future);
 
@@ -111,10 +110,12 @@ public class BlockImpl implements Block {
         }
 
         data = DirectByteBufAlloc.compositeByteBuffer();
-        for (Supplier<ByteBuf> supplier : records) {
-            ByteBuf record = supplier.get();
-            ByteBufMetricsStats.getHistogram("wal_record").update(record.readableBytes());
-            data.addComponent(true, record);
+        // records are encoded straight into the block data in the order they were added
+        long recordOffset = startOffset;
+        for (Record record : records) {
+            record.encode(data, recordOffset);
+            ByteBufMetricsStats.getHistogram("wal_record").update(record.size());
+            recordOffset += record.size();
         }
         ByteBufMetricsStats.getHistogram("wal_block").update(data.readableBytes());
         return data;
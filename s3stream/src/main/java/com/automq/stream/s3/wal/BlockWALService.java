@@ -19,7 +19,6 @@ package com.automq.stream.s3.wal;
 
 import com.automq.stream.s3.Config;
 import com.automq.stream.s3.DirectByteBufAlloc;
-import com.automq.stream.s3.metrics.TimerUtil;
 import com.automq.stream.s3.metrics.operations.S3Operation;
 import com.automq.stream.s3.metrics.stats.OperationMetricsStats;
 import com.automq.stream.s3.wal.util.WALChannel;
@@ -377,37 +376,35 @@ public class BlockWALService implements WriteAheadLog {
     }
 
     private AppendResult append0(ByteBuf body, int crc) throws OverCapacityException {
-        TimerUtil timerUtil = new TimerUtil();
+        final long startNanos = System.nanoTime();
         checkStarted();
         checkWriteMode();
         checkResetFinished();
 
-        final long recordSize = RECORD_HEADER_SIZE + body.readableBytes();
-        final CompletableFuture<AppendResult.CallbackResult> appendResultFuture = new CompletableFuture<>();
+        final AppendRecord record = new AppendRecord(body, crc, startNanos);
         long expectedWriteOffset;
 
         Lock lock = slidingWindowService.getBlockLock();
         lock.lock();
         try {
             Block block = slidingWindowService.getCurrentBlockLocked();
-            expectedWriteOffset = block.addRecord(recordSize, (offset) -> record(body, crc, offset), appendResultFuture);
+            expectedWriteOffset = block.addRecord(record, record);
             if (expectedWriteOffset < 0) {
                 // this block is full, create a new one
-                block = slidingWindowService.sealAndNewBlockLocked(block, recordSize, walHeader.getFlushedTrimOffset(), walHeader.getCapacity() - WAL_HEADER_TOTAL_CAPACITY);
-                expectedWriteOffset = block.addRecord(recordSize, (offset) -> record(body, crc, offset), appendResultFuture);
+                block = slidingWindowService.sealAndNewBlockLocked(block, record.size(), walHeader.getFlushedTrimOffset(), walHeader.getCapacity() - WAL_HEADER_TOTAL_CAPACITY);
+                expectedWriteOffset = block.addRecord(record, record);
             }
         } finally {
             lock.unlock();
         }
         slidingWindowService.tryWriteBlock();
 
-        final AppendResult appendResult = new AppendResultImpl(expectedWriteOffset, appendResultFuture);
-        appendResult.future().whenComplete((nil, ex) -> OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE_WAL).update(timerUtil.elapsedAs(TimeUnit.NANOSECONDS)));
-        OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE_WAL_BEFORE).update(timerUtil.elapsedAs(TimeUnit.NANOSECONDS));
+        final AppendResult appendResult = new AppendResultImpl(expectedWriteOffset, record);
+        OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE_WAL_BEFORE).update(System.nanoTime() - startNanos);
         return appendResult;
     }
 
-    private ByteBuf recordHeader(ByteBuf body, int crc, long start) {
+    private static ByteBuf recordHeader(ByteBuf body, int crc, long start) {
         return new SlidingWindowService.RecordHeaderCoreData()
                 .setMagicCode(RECORD_HEADER_MAGIC_CODE)
                 .setRecordBodyLength(body.readableBytes())
@@ -416,13 +413,6 @@ public class BlockWALService implements WriteAheadLog {
                 .marshal();
     }
 
-    private ByteBuf record(ByteBuf body, int crc, long start) {
-        CompositeByteBuf record = DirectByteBufAlloc.compositeByteBuffer();
-        crc = 0 == crc ? WALUtil.crc32(body) : crc;
-        record.addComponents(true, recordHeader(body, crc, start), body);
-        return record;
-    }
-
     @Override
     public Iterator<RecoverResult> recover() {
         checkStarted();
@@ -682,6 +672,52 @@ public class BlockWALService implements WriteAheadLog {
         }
     }
 
+    /**
+     * A record appended to the WAL. Its header and body are added to the block data directly rather than composed into a
+     * record buffer first. It is also the future of the append, which records the append latency once completed, so that
+     * no callback is allocated per append.
+     */
+    static final class AppendRecord extends CompletableFuture<AppendResult.CallbackResult> implements Block.Record {
+        private final ByteBuf body;
+        private final int crc;
+        private final long startNanos;
+
+        AppendRecord(ByteBuf body, int crc, long startNanos) {
+            this.body = body;
+            this.crc = crc;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public long size() {
+            return RECORD_HEADER_SIZE + body.readableBytes();
+        }
+
+        @Override
+        public void encode(CompositeByteBuf data, long recordOffset) {
+            int bodyCrc = 0 == crc ? WALUtil.crc32(body) : crc;
+            data.addComponents(true, recordHeader(body, bodyCrc, recordOffset), body);
+        }
+
+        @Override
+        public boolean complete(AppendResult.CallbackResult value) {
+            boolean completed = super.complete(value);
+            if (completed) {
+                OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE_WAL).update(System.nanoTime() - startNanos);
+            }
+            return completed;
+        }
+
+        @Override
+        public boolean completeExceptionally(Throwable ex) {
+            boolean completed = super.completeExceptionally(ex);
+            if (completed) {
+                OperationMetricsStats.getHistogram(S3Operation.APPEND_STORAGE_WAL).update(System.nanoTime() - startNanos);
+            }
+            return completed;
+        }
+    }
+
     record AppendResultImpl(long recordOffset, CompletableFuture<CallbackResult> future) implements AppendResult {
 
         @Override
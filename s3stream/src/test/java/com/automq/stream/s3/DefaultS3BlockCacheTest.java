@@ -17,8 +17,11 @@
 
 package com.automq.stream.s3;
 
+import com.automq.stream.s3.cache.CacheAccessType;
 import com.automq.stream.s3.cache.DefaultS3BlockCache;
 import com.automq.stream.s3.cache.ReadDataBlock;
+import com.automq.stream.s3.cache.StreamCacheStats;
+import com.automq.stream.s3.cache.StreamReadStats;
 import com.automq.stream.s3.model.StreamRecordBatch;
 import com.automq.stream.s3.objects.ObjectManager;
 import com.automq.stream.s3.operator.MemoryS3Operator;
@@ -134,6 +137,64 @@ public class DefaultS3BlockCacheTest {
         assertEquals(20L, records.get(0).getBaseOffset());
     }
 
+    @Test
+    public void testCatchUpRead() throws Exception {
+        config.blockCacheSize(1024 * 1024);
+        s3BlockCache = new DefaultS3BlockCache(config, objectManager, s3Operator);
+
+        ObjectWriter objectWriter = ObjectWriter.writer(0, s3Operator, 1024, 1024);
+        objectWriter.write(233, List.of(newRecord(233, 10, 5, 512)));
+        objectWriter.close();
+        S3ObjectMetadata metadata = new S3ObjectMetadata(0, objectWriter.size(), S3ObjectType.STREAM_SET);
+        when(objectManager.getObjects(eq(233L), eq(10L), ArgumentMatchers.anyLong(), eq(2))).thenReturn(CompletableFuture.completedFuture(List.of(metadata)));
+
+        ReadDataBlock rst = s3BlockCache.catchUpRead(233L, 10L, 15L, 10000).get();
+        assertEquals(1, rst.getRecords().size());
+        assertEquals(10L, rst.getRecords().get(0).getBaseOffset());
+        rst.getRecords().forEach(StreamRecordBatch::release);
+
+        // catch-up read does not load data into the main cache
+        rst = s3BlockCache.read(233L, 10L, 15L, 10000).get();
+        assertEquals(CacheAccessType.BLOCK_CACHE_MISS, rst.getCacheAccessType());
+        rst.getRecords().forEach(StreamRecordBatch::release);
+
+        // but it is served from the main cache once cached
+        rst = s3BlockCache.catchUpRead(233L, 10L, 15L, 10000).get();
+        assertEquals(CacheAccessType.BLOCK_CACHE_HIT, rst.getCacheAccessType());
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        config.blockCacheSize(1024 * 1024);
+        StreamReadStats readStats = Mockito.spy(new StreamReadStats());
+        s3BlockCache = new DefaultS3BlockCache(config, objectManager, s3Operator,
+                new StreamCacheStats(config.streamCacheStatsMaxStreams(), false), readStats);
+
+        ObjectWriter objectWriter = ObjectWriter.writer(0, s3Operator, 1024, 1024);
+        objectWriter.write(233, List.of(newRecord(233, 10, 5, 512)));
+        objectWriter.write(234, List.of(newRecord(234, 10, 5, 512)));
+        objectWriter.close();
+        S3ObjectMetadata metadata = new S3ObjectMetadata(0, objectWriter.size(), S3ObjectType.STREAM_SET);
+        when(objectManager.getObjects(ArgumentMatchers.anyLong(), eq(10L), ArgumentMatchers.anyLong(), eq(2))).thenReturn(CompletableFuture.completedFuture(List.of(metadata)));
+
+        ReadDataBlock rst = s3BlockCache.warmUp(233L, 10L, 15L, 10000, false).get();
+        assertEquals(1, rst.getRecords().size());
+        rst.getRecords().forEach(StreamRecordBatch::release);
+        // warm-up is left out of the read heat and the read ahead of the stream
+        verify(readStats, Mockito.never()).recordRead(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+        verify(readStats, Mockito.never()).recordReadAhead(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+
+        // but the data is cached for the following reads
+        rst = s3BlockCache.read(233L, 10L, 15L, 10000).get();
+        assertEquals(CacheAccessType.BLOCK_CACHE_HIT, rst.getCacheAccessType());
+        rst.getRecords().forEach(StreamRecordBatch::release);
+
+        // while a normal read is accounted
+        rst = s3BlockCache.read(234L, 10L, 15L, 10000).get();
+        rst.getRecords().forEach(StreamRecordBatch::release);
+        verify(readStats).recordReadAhead(eq(234L), eq(10L), ArgumentMatchers.anyLong());
+    }
+
     StreamRecordBatch newRecord(long streamId, long offset, int count, int payloadSize) {
         return new StreamRecordBatch(streamId, 0, offset, count, TestUtils.random(payloadSize));
     }
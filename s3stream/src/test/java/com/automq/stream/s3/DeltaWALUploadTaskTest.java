@@ -17,6 +17,7 @@
 
 package com.automq.stream.s3;
 
+import com.automq.stream.s3.cache.LogCache;
 import com.automq.stream.s3.metadata.S3ObjectMetadata;
 import com.automq.stream.s3.metadata.S3ObjectType;
 import com.automq.stream.s3.model.StreamRecordBatch;
@@ -149,6 +150,70 @@ public class DeltaWALUploadTaskTest {
         }
     }
 
+    @Test
+    public void testUpload_streamingObject() throws Exception {
+        AtomicLong objectIdAlloc = new AtomicLong(10);
+        doAnswer(invocation -> CompletableFuture.completedFuture(objectIdAlloc.getAndIncrement())).when(objectManager).prepareObject(anyInt(), anyLong());
+        when(objectManager.commitStreamSetObject(any())).thenReturn(CompletableFuture.completedFuture(new CommitStreamSetObjectResponse()));
+
+        Config config = new Config()
+                .objectBlockSize(600)
+                .objectPartSize(16 * 1024 * 1024)
+                .streamSplitSize(1000);
+        LogCache.LogCacheBlock block = new LogCache.LogCacheBlock(1024 * 1024);
+        block.put(new StreamRecordBatch(233, 0, 10, 2, random(512)));
+        block.put(new StreamRecordBatch(233, 0, 12, 2, random(128)));
+        block.put(new StreamRecordBatch(233, 0, 14, 2, random(512)));
+        block.put(new StreamRecordBatch(234, 0, 20, 2, random(128)));
+
+        // stream233 reaches the split size, the full block [10, 14) is written when the cache block is active
+        DeltaWALStreamingUploader streamingUploader = new DeltaWALStreamingUploader(config, objectManager, s3Operator);
+        streamingUploader.tryUpload(block);
+        block.put(new StreamRecordBatch(233, 0, 16, 2, random(128)));
+        Map<Long, DeltaWALStreamingUploader.StreamingObject> streamingObjects = streamingUploader.take(block);
+        assertEquals(1, streamingObjects.size());
+        assertEquals(2, streamingObjects.get(233L).nextIndex());
+
+        deltaWALUploadTask = DeltaWALUploadTask.of(config, block.records(), objectManager, s3Operator, ForkJoinPool.commonPool());
+        deltaWALUploadTask.streamingObjects(streamingObjects);
+        deltaWALUploadTask.prepare().get();
+        deltaWALUploadTask.upload().get();
+        deltaWALUploadTask.commit().get();
+
+        ArgumentCaptor<CommitStreamSetObjectRequest> reqArg = ArgumentCaptor.forClass(CommitStreamSetObjectRequest.class);
+        verify(objectManager, times(1)).commitStreamSetObject(reqArg.capture());
+        CommitStreamSetObjectRequest request = reqArg.getValue();
+        assertEquals(11, request.getObjectId());
+        assertEquals(1, request.getStreamRanges().size());
+        assertEquals(234, request.getStreamRanges().get(0).getStreamId());
+
+        assertEquals(1, request.getStreamObjects().size());
+        StreamObject streamObject = request.getStreamObjects().get(0);
+        assertEquals(233, streamObject.getStreamId());
+        assertEquals(10, streamObject.getObjectId());
+        assertEquals(10, streamObject.getStartOffset());
+        assertEquals(18, streamObject.getEndOffset());
+
+        S3ObjectMetadata streamObjectMetadata = new S3ObjectMetadata(10, streamObject.getObjectSize(), S3ObjectType.STREAM);
+        ObjectReader objectReader = new ObjectReader(streamObjectMetadata, s3Operator);
+        List<StreamDataBlock> streamDataBlocks = objectReader.find(233, 10, 18).get().streamDataBlocks();
+        assertEquals(2, streamDataBlocks.size());
+        long nextOffset = 10;
+        for (StreamDataBlock streamDataBlock : streamDataBlocks) {
+            ObjectReader.DataBlock dataBlock = objectReader.read(streamDataBlock.dataBlockIndex()).get();
+            try (CloseableIterator<StreamRecordBatch> it = dataBlock.iterator()) {
+                while (it.hasNext()) {
+                    StreamRecordBatch record = it.next();
+                    assertEquals(nextOffset, record.getBaseOffset());
+                    nextOffset = record.getLastOffset();
+                    record.release();
+                }
+            }
+        }
+        assertEquals(18, nextOffset);
+        block.free();
+    }
+
     @Test
     public void testUpload_oneStream() throws Exception {
         AtomicLong objectIdAlloc = new AtomicLong(10);
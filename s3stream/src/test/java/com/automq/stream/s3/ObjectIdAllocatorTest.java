@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3;
+
+import com.automq.stream.s3.objects.ObjectManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@Tag("S3Unit")
+public class ObjectIdAllocatorTest {
+
+    @Test
+    public void testAllocateInBatch() {
+        ObjectManager objectManager = mock(ObjectManager.class);
+        List<CompletableFuture<Long>> prepareCfList = List.of(new CompletableFuture<>(), new CompletableFuture<>());
+        AtomicInteger prepareIndex = new AtomicInteger();
+        doAnswer(invocation -> prepareCfList.get(prepareIndex.getAndIncrement())).when(objectManager).prepareObject(eq(3), anyLong());
+        ObjectIdAllocator allocator = new ObjectIdAllocator(objectManager, 3, 60000);
+
+        List<CompletableFuture<Long>> cfList = List.of(allocator.allocate(), allocator.allocate(), allocator.allocate(), allocator.allocate());
+        verify(objectManager, times(1)).prepareObject(eq(3), anyLong());
+        assertFalse(cfList.get(0).isDone());
+
+        prepareCfList.get(0).complete(10L);
+        assertEquals(10L, cfList.get(0).join());
+        assertEquals(11L, cfList.get(1).join());
+        assertEquals(12L, cfList.get(2).join());
+        verify(objectManager, times(2)).prepareObject(eq(3), anyLong());
+        assertFalse(cfList.get(3).isDone());
+
+        prepareCfList.get(1).complete(20L);
+        assertEquals(20L, cfList.get(3).join());
+        assertEquals(21L, allocator.allocate().join());
+    }
+
+    @Test
+    public void testAllocateRetryAfterFailure() {
+        ObjectManager objectManager = mock(ObjectManager.class);
+        List<CompletableFuture<Long>> prepareCfList = List.of(
+                CompletableFuture.failedFuture(new IllegalStateException("mock prepare failure")),
+                CompletableFuture.completedFuture(30L));
+        AtomicInteger prepareIndex = new AtomicInteger();
+        doAnswer(invocation -> prepareCfList.get(prepareIndex.getAndIncrement())).when(objectManager).prepareObject(eq(2), anyLong());
+        ObjectIdAllocator allocator = new ObjectIdAllocator(objectManager, 2, 60000);
+
+        assertTrue(allocator.allocate().isCompletedExceptionally());
+        assertEquals(30L, allocator.allocate().join());
+        assertEquals(31L, allocator.allocate().join());
+    }
+}
@@ -127,4 +127,31 @@ public class ObjectReaderTest {
         }
     }
 
+    @Test
+    public void testDataBlockRecords() {
+        StreamRecordBatch record = new StreamRecordBatch(233L, 0, 10, 1, TestUtils.random(100));
+        ByteBuf encoded = record.encoded();
+        ByteBuf merged = Unpooled.directBuffer(1024);
+        merged.writeZero(100);
+        int start = merged.writerIndex();
+        merged.writeByte(ObjectWriter.DATA_BLOCK_MAGIC);
+        merged.writeByte(0);
+        merged.writeBytes(encoded, encoded.readerIndex(), encoded.readableBytes());
+        int size = merged.writerIndex() - start;
+        merged.writeZero(100);
+
+        // the records are retained slices of the buffer the data block is sliced from, without copy
+        ObjectReader.DataBlock dataBlock = new ObjectReader.DataBlock(merged.retainedSlice(start, size), 1);
+        merged.release();
+        List<StreamRecordBatch> records = dataBlock.records();
+        dataBlock.close();
+        assertEquals(1, records.size());
+        assertEquals(10, records.get(0).getBaseOffset());
+        assertEquals(record.getPayload(), records.get(0).getPayload());
+        assertEquals(1, merged.refCnt());
+        records.forEach(StreamRecordBatch::release);
+        assertEquals(0, merged.refCnt());
+        record.release();
+    }
+
 }
@@ -18,9 +18,11 @@
 package com.automq.stream.s3;
 
 import com.automq.stream.api.ReadOptions;
+import com.automq.stream.s3.cache.CacheAccessType;
 import com.automq.stream.s3.cache.DefaultS3BlockCache;
 import com.automq.stream.s3.cache.LogCache;
 import com.automq.stream.s3.cache.ReadDataBlock;
+import com.automq.stream.s3.cache.S3BlockCache;
 import com.automq.stream.s3.metadata.StreamMetadata;
 import com.automq.stream.s3.metadata.StreamState;
 import com.automq.stream.s3.model.StreamRecordBatch;
@@ -96,9 +98,9 @@ public class S3StorageTest {
         cf2.get(3, TimeUnit.SECONDS);
         cf3.get(3, TimeUnit.SECONDS);
 
-        ReadDataBlock readRst = storage.read(233, 10, 13, 90, ReadOptions.DEFAULT).get();
+        ReadDataBlock readRst = storage.read(233, 10, 13, 90, 13, ReadOptions.DEFAULT).get();
         assertEquals(1, readRst.getRecords().size());
-        readRst = storage.read(233, 10, 13, 200, ReadOptions.DEFAULT).get();
+        readRst = storage.read(233, 10, 13, 200, 13, ReadOptions.DEFAULT).get();
         assertEquals(2, readRst.getRecords().size());
 
         storage.forceUpload(233L).get();
@@ -116,6 +118,34 @@ public class S3StorageTest {
         assertEquals(101, streamRanges.get(1).getEndOffset());
     }
 
+    @Test
+    public void testCatchUpRead() throws Exception {
+        config.catchUpReadOffsetLag(100);
+        S3BlockCache blockCache = mock(S3BlockCache.class);
+        Mockito.when(blockCache.read(anyLong(), anyLong(), anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new ReadDataBlock(Collections.emptyList(), CacheAccessType.BLOCK_CACHE_HIT)));
+        Mockito.when(blockCache.catchUpRead(anyLong(), anyLong(), anyLong(), ArgumentMatchers.anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new ReadDataBlock(Collections.emptyList(), CacheAccessType.BLOCK_CACHE_MISS)));
+        S3Operator s3Operator = new MemoryS3Operator();
+        S3Storage storage = new S3Storage(config, new MemoryWriteAheadLog(), streamManager, objectManager, blockCache, s3Operator);
+
+        storage.append(new StreamRecordBatch(233, 1, 1000, 10, random(100))).get(3, TimeUnit.SECONDS);
+
+        // far behind the stream end
+        storage.read(233, 0, 100, 1000, 1010, ReadOptions.DEFAULT).get();
+        verify(blockCache).catchUpRead(eq(233L), eq(0L), eq(100L), eq(1000));
+
+        // close to the stream end
+        storage.read(233, 950, 1000, 1000, 1010, ReadOptions.DEFAULT).get();
+        verify(blockCache).read(eq(233L), eq(950L), eq(1000L), eq(1000));
+
+        // no records in the delta WAL cache, still far behind the stream end
+        storage.read(234, 0, 100, 1000, 500, ReadOptions.DEFAULT).get();
+        verify(blockCache).catchUpRead(eq(234L), eq(0L), eq(100L), eq(1000));
+        verify(blockCache, Mockito.times(2)).catchUpRead(anyLong(), anyLong(), anyLong(), ArgumentMatchers.anyInt());
+        verify(blockCache, Mockito.times(1)).read(anyLong(), anyLong(), anyLong(), ArgumentMatchers.anyInt());
+    }
+
     @Test
     public void testWALConfirmOffsetCalculator() {
         S3Storage.WALConfirmOffsetCalculator calc = new S3Storage.WALConfirmOffsetCalculator();
@@ -209,6 +239,46 @@ public class S3StorageTest {
         cf2.get(1, TimeUnit.SECONDS);
     }
 
+    @Test
+    public void testUploadWALObject_batchPrepare() throws ExecutionException, InterruptedException, TimeoutException {
+        config.walUploadObjectIdBatchSize(2);
+        S3Operator s3Operator = new MemoryS3Operator();
+        storage = new S3Storage(config, new MemoryWriteAheadLog(),
+                streamManager, objectManager, new DefaultS3BlockCache(config, objectManager, s3Operator), s3Operator);
+        CompletableFuture<Long> objectIdCf = new CompletableFuture<>();
+        Mockito.when(objectManager.prepareObject(eq(2), anyLong())).thenReturn(objectIdCf);
+        List<CompletableFuture<CommitStreamSetObjectResponse>> commitCfList = List.of(new CompletableFuture<>(), new CompletableFuture<>());
+        AtomicInteger commitCfIndex = new AtomicInteger();
+        Mockito.doAnswer(invocation -> commitCfList.get(commitCfIndex.getAndIncrement())).when(objectManager).commitStreamSetObject(any());
+
+        LogCache.LogCacheBlock logCacheBlock1 = new LogCache.LogCacheBlock(1024);
+        logCacheBlock1.put(newRecord(233L, 10L));
+        logCacheBlock1.put(newRecord(234L, 10L));
+        logCacheBlock1.confirmOffset(10L);
+        CompletableFuture<Void> cf1 = storage.uploadDeltaWAL(logCacheBlock1);
+
+        LogCache.LogCacheBlock logCacheBlock2 = new LogCache.LogCacheBlock(1024);
+        logCacheBlock2.put(newRecord(233L, 20L));
+        logCacheBlock2.put(newRecord(234L, 20L));
+        logCacheBlock2.confirmOffset(20L);
+        CompletableFuture<Void> cf2 = storage.uploadDeltaWAL(logCacheBlock2);
+
+        // one controller round-trip prepares the object ids of both blocks
+        objectIdCf.complete(100L);
+        ArgumentCaptor<CommitStreamSetObjectRequest> commitRequestCaptor = ArgumentCaptor.forClass(CommitStreamSetObjectRequest.class);
+        verify(objectManager, Mockito.timeout(1000).times(1)).commitStreamSetObject(commitRequestCaptor.capture());
+        assertEquals(100L, commitRequestCaptor.getValue().getObjectId());
+
+        // the later block is committed after the former one
+        commitCfList.get(0).complete(new CommitStreamSetObjectResponse());
+        verify(objectManager, Mockito.timeout(1000).times(2)).commitStreamSetObject(commitRequestCaptor.capture());
+        assertEquals(101L, commitRequestCaptor.getValue().getObjectId());
+        commitCfList.get(1).complete(new CommitStreamSetObjectResponse());
+        cf1.get(1, TimeUnit.SECONDS);
+        cf2.get(1, TimeUnit.SECONDS);
+        verify(objectManager, Mockito.times(1)).prepareObject(ArgumentMatchers.anyInt(), anyLong());
+    }
+
     @Test
     public void testRecoverContinuousRecords() {
         List<WriteAheadLog.RecoverResult> recoverResults = List.of(
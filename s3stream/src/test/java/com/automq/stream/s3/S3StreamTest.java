@@ -56,7 +56,7 @@ public class S3StreamTest {
     @Test
     public void testFetch() throws Throwable {
         stream.confirmOffset.set(120L);
-        Mockito.when(storage.read(eq(233L), eq(110L), eq(120L), eq(100), any()))
+        Mockito.when(storage.read(eq(233L), eq(110L), eq(120L), eq(100), eq(120L), any()))
                 .thenReturn(CompletableFuture.completedFuture(newReadDataBlock(110, 115, 110)));
         FetchResult rst = stream.fetch(110, 120, 100).get(1, TimeUnit.SECONDS);
         assertEquals(1, rst.recordBatchList().size());
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3;
+
+import com.automq.stream.s3.benchmark.StreamObjectsCompactionSimulator;
+import com.automq.stream.s3.metadata.S3ObjectMetadata;
+import com.automq.stream.s3.metadata.S3ObjectType;
+import com.automq.stream.s3.metadata.S3StreamConstant;
+import com.automq.stream.s3.metadata.StreamOffsetRange;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("S3Unit")
+public class SizeTieredStreamObjectsCompactionPolicyTest {
+
+    private static List<S3ObjectMetadata> prepareStreamObjects(long... sizes) {
+        List<S3ObjectMetadata> objects = new ArrayList<>();
+        long offset = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            objects.add(new S3ObjectMetadata(i, S3ObjectType.STREAM, List.of(new StreamOffsetRange(1, offset, offset + 10)),
+                    0, 0, sizes[i], S3StreamConstant.INVALID_ORDER_ID));
+            offset += 10;
+        }
+        return objects;
+    }
+
+    @Test
+    public void testTier() {
+        SizeTieredStreamObjectsCompactionPolicy policy = new SizeTieredStreamObjectsCompactionPolicy(10, 4, 1000);
+        assertEquals(0, policy.tier(1));
+        assertEquals(0, policy.tier(9));
+        assertEquals(1, policy.tier(10));
+        assertEquals(1, policy.tier(39));
+        assertEquals(2, policy.tier(40));
+        assertEquals(3, policy.tier(160));
+    }
+
+    @Test
+    public void testSelect() {
+        SizeTieredStreamObjectsCompactionPolicy policy = new SizeTieredStreamObjectsCompactionPolicy(10, 4, 1000);
+        List<S3ObjectMetadata> objects = prepareStreamObjects(200, 5, 5, 5, 5, 5, 160, 10, 10, 10, 5);
+        List<List<S3ObjectMetadata>> groups = policy.select(objects, group -> true);
+        assertEquals(2, groups.size());
+        assertEquals(objects.subList(1, 5), groups.get(0));
+        // objects in adjacent tiers are merged together, but not with objects two tiers away.
+        assertEquals(objects.subList(7, 11), groups.get(1));
+
+        // ineligible objects are skipped
+        groups = policy.select(objects, group -> !group.contains(objects.get(1)));
+        assertEquals(2, groups.size());
+        assertEquals(objects.subList(2, 6), groups.get(0));
+        assertEquals(objects.subList(7, 11), groups.get(1));
+    }
+
+    @Test
+    public void testSelectTopTier() {
+        SizeTieredStreamObjectsCompactionPolicy policy = new SizeTieredStreamObjectsCompactionPolicy(10, 4, 1000);
+        List<S3ObjectMetadata> objects = prepareStreamObjects(400, 400, 400, 400);
+        List<List<S3ObjectMetadata>> groups = policy.select(objects, group -> true);
+        assertEquals(1, groups.size());
+        assertEquals(objects.subList(0, 2), groups.get(0));
+    }
+
+    @Test
+    public void testSimulateWriteAmplification() {
+        // upload 1MiB stream objects every minute for 3 days, and compact them every hour.
+        StreamObjectsCompactionSimulator.Config config = new StreamObjectsCompactionSimulator.Config(
+                3 * 24 * 60, 1024 * 1024, 256 * 1024, 60, 60, 1024L * 1024 * 1024, 16 * 1024 * 1024, 4, 0);
+        StreamObjectsCompactionSimulator.Result linear = StreamObjectsCompactionSimulator.simulate(config,
+                new LinearStreamObjectsCompactionPolicy(1024L * 1024 * 1024));
+        StreamObjectsCompactionSimulator.Result sizeTiered = StreamObjectsCompactionSimulator.simulate(config,
+                new SizeTieredStreamObjectsCompactionPolicy(16 * 1024 * 1024, 4, 1024L * 1024 * 1024));
+        assertTrue(sizeTiered.writeAmplification() < linear.writeAmplification(), linear + " vs " + sizeTiered);
+        // log_4(1GiB / 1MiB) = 5 tiers in total, plus the upload itself.
+        assertTrue(sizeTiered.writeAmplification() <= 7, sizeTiered.toString());
+        assertTrue(sizeTiered.objectCount() <= linear.objectCount() * 2, linear + " vs " + sizeTiered);
+    }
+}
@@ -325,4 +325,27 @@ class StreamObjectsCompactionTaskTest {
                 Objects.requireNonNull(wrappers).stream().map(StreamObjectsCompactionTask.S3StreamObjectMetadataSplitWrapper::splitCopyCount).collect(Collectors.toList()));
         assertEquals(5, task3.getNextStartSearchingOffset());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testPrepareCompactGroupsWithSizeTieredPolicy() throws ExecutionException, InterruptedException {
+        StreamObjectsCompactionTask task = new StreamObjectsCompactionTask(objectManager, s3Operator, stream, 1000, 0,
+                false, ForkJoinPool.commonPool(), 2, 10);
+
+        long currentTimestamp = System.currentTimeMillis();
+        when(objectManager.getStreamObjects(anyLong(), anyLong(), anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(
+                        new S3ObjectMetadata(1, S3ObjectType.STREAM, List.of(new StreamOffsetRange(1, 5, 10)), 0, currentTimestamp, 150,
+                                S3StreamConstant.INVALID_ORDER_ID),
+                        new S3ObjectMetadata(2, S3ObjectType.STREAM, List.of(new StreamOffsetRange(1, 10, 20)), 0, currentTimestamp, 5,
+                                S3StreamConstant.INVALID_ORDER_ID),
+                        new S3ObjectMetadata(3, S3ObjectType.STREAM, List.of(new StreamOffsetRange(1, 20, 30)), 0, currentTimestamp, 5,
+                                S3StreamConstant.INVALID_ORDER_ID),
+                        new S3ObjectMetadata(4, S3ObjectType.STREAM, List.of(new StreamOffsetRange(1, 30, 40)), 0, currentTimestamp, 5,
+                                S3StreamConstant.INVALID_ORDER_ID))));
+        // the big object is not re-copied with the small ones
+        Queue<List<StreamObjectsCompactionTask.S3StreamObjectMetadataSplitWrapper>> compactGroups = task.prepareCompactGroups(0);
+        assertEquals(1, compactGroups.size());
+        assertEquals(List.of(2L, 3L), Objects.requireNonNull(compactGroups.poll()).stream()
+                .map(wrapper -> wrapper.s3StreamObjectMetadata().objectId()).collect(Collectors.toList()));
+    }
+}
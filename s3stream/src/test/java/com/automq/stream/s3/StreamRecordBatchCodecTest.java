@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3;
+
+import com.automq.stream.s3.model.StreamRecordBatch;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("S3Unit")
+public class StreamRecordBatchCodecTest {
+
+    @Test
+    public void testRetainedDecode() {
+        ByteBuf buf = encode(newRecord(233L, 10L, "hello"));
+        StreamRecordBatch record = StreamRecordBatchCodec.retainedDecode(buf);
+        assertEquals(0, buf.readableBytes());
+        assertEquals(233L, record.getStreamId());
+        assertEquals(10L, record.getBaseOffset());
+        assertEquals(11L, record.getLastOffset());
+        assertEquals("hello", payload(record));
+        assertEquals(2, buf.refCnt());
+
+        buf.release();
+        assertEquals("hello", payload(record));
+        record.release();
+        assertEquals(0, buf.refCnt());
+    }
+
+    @Test
+    public void testDecodeBatchFromComposite() {
+        CompositeByteBuf buf = Unpooled.compositeBuffer();
+        buf.addComponent(true, encode(newRecord(233L, 10L, "a")));
+        buf.addComponent(true, encode(newRecord(233L, 11L, "bb")));
+        buf.addComponent(true, encode(newRecord(234L, 20L, "ccc")));
+
+        List<StreamRecordBatch> records = StreamRecordBatchCodec.decodeBatch(buf, 3);
+        // the reader index of the parent buffer is not moved
+        assertEquals(0, buf.readerIndex());
+        assertEquals(3, records.size());
+        assertEquals(11L, records.get(1).getBaseOffset());
+        assertEquals(234L, records.get(2).getStreamId());
+        assertEquals("a", payload(records.get(0)));
+        assertEquals("bb", payload(records.get(1)));
+        assertEquals("ccc", payload(records.get(2)));
+
+        buf.release();
+        assertEquals(3, buf.refCnt());
+        records.forEach(StreamRecordBatch::release);
+        assertEquals(0, buf.refCnt());
+    }
+
+    @Test
+    public void testDecodeBatchCorrupted() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes(encode(newRecord(233L, 10L, "a")));
+        buf.writeByte(0);
+        assertThrows(RuntimeException.class, () -> StreamRecordBatchCodec.decodeBatch(buf, 2));
+        // the decoded records are released on failure
+        assertEquals(1, buf.refCnt());
+    }
+
+    private static StreamRecordBatch newRecord(long streamId, long offset, String payload) {
+        return new StreamRecordBatch(streamId, 0, offset, 1, Unpooled.wrappedBuffer(payload.getBytes()));
+    }
+
+    private static ByteBuf encode(StreamRecordBatch record) {
+        ByteBuf encoded = StreamRecordBatchCodec.encode(record);
+        record.release();
+        return encoded;
+    }
+
+    private static String payload(StreamRecordBatch record) {
+        byte[] bytes = new byte[record.size()];
+        record.getPayload().getBytes(record.getPayload().readerIndex(), bytes);
+        return new String(bytes);
+    }
+}
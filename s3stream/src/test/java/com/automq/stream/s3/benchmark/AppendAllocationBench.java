@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3.benchmark;
+
+import com.automq.stream.s3.Config;
+import com.automq.stream.s3.S3Storage;
+import com.automq.stream.s3.cache.DefaultS3BlockCache;
+import com.automq.stream.s3.memory.MemoryMetadataManager;
+import com.automq.stream.s3.model.StreamRecordBatch;
+import com.automq.stream.s3.operator.MemoryS3Operator;
+import com.automq.stream.s3.operator.S3Operator;
+import com.automq.stream.s3.wal.MemoryWriteAheadLog;
+import io.netty.buffer.Unpooled;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.helper.HelpScreenException;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AppendAllocationBench measures the heap allocation of {@link S3Storage#append} on the caller thread, which is the
+ * main source of young GC at high message rates. Delta WAL upload runs in background threads and is not measured.
+ */
+public class AppendAllocationBench {
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final MemoryMetadataManager metadataManager = new MemoryMetadataManager();
+    private final S3Storage storage;
+    private final byte[] payload;
+    private long nextOffset = 0;
+
+    public AppendAllocationBench(BenchConfig config) {
+        Config s3Config = new Config()
+                .walCacheSize(config.walCacheSize)
+                .walUploadThreshold(config.walCacheSize / 2);
+        S3Operator s3Operator = new MemoryS3Operator();
+        this.storage = new S3Storage(s3Config, new MemoryWriteAheadLog(), metadataManager, metadataManager,
+                new DefaultS3BlockCache(s3Config, metadataManager, s3Operator), s3Operator);
+        this.payload = new byte[config.recordSizeBytes];
+    }
+
+    public static void main(String[] args) {
+        Namespace ns = null;
+        ArgumentParser parser = BenchConfig.parser();
+        try {
+            ns = parser.parseArgs(args);
+        } catch (HelpScreenException e) {
+            System.exit(0);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+        BenchConfig config = new BenchConfig(ns);
+
+        AppendAllocationBench bench = new AppendAllocationBench(config);
+        bench.storage.startup();
+        // S3Storage doesn't check stream state on append, so a fixed stream id is enough
+        long streamId = 0;
+
+        System.out.println("Warming up");
+        bench.run(streamId, config.warmupRecords);
+        System.out.println("Running");
+        long start = System.nanoTime();
+        long allocatedBytes = bench.run(streamId, config.records);
+        long elapsedNanos = System.nanoTime() - start;
+        System.out.printf("Append %d records of %d bytes | %.1f bytes allocated per append | %.0f ns per append\n",
+                config.records, config.recordSizeBytes, (double) allocatedBytes / config.records,
+                (double) elapsedNanos / config.records);
+        bench.storage.shutdown();
+        // background executors of the block cache are not daemon threads
+        System.exit(0);
+    }
+
+    /**
+     * Append records and wait for them to complete.
+     *
+     * @return bytes allocated by the current thread
+     */
+    long run(long streamId, int count) {
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < count; i++) {
+            StreamRecordBatch record = new StreamRecordBatch(streamId, 0, nextOffset, 1, Unpooled.wrappedBuffer(payload));
+            nextOffset++;
+            last = storage.append(record);
+        }
+        last.join();
+        return threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    }
+
+    static class BenchConfig {
+        final int records;
+        final int warmupRecords;
+        final int recordSizeBytes;
+        final long walCacheSize;
+
+        BenchConfig(Namespace ns) {
+            this.records = ns.getInt("records");
+            this.warmupRecords = ns.getInt("warmup");
+            this.recordSizeBytes = ns.getInt("recordSize");
+            this.walCacheSize = ns.getLong("walCacheSize");
+        }
+
+        static ArgumentParser parser() {
+            ArgumentParser parser = ArgumentParsers
+                    .newFor("AppendAllocationBench")
+                    .build()
+                    .defaultHelp(true)
+                    .description("Benchmark heap allocation per append of S3Storage");
+            parser.addArgument("--records")
+                    .type(Integer.class)
+                    .setDefault(1_000_000)
+                    .help("Number of records to append");
+            parser.addArgument("--warmup")
+                    .type(Integer.class)
+                    .setDefault(200_000)
+                    .help("Number of records to append before measuring");
+            parser.addArgument("--record-size")
+                    .dest("recordSize")
+                    .type(Integer.class)
+                    .setDefault(64)
+                    .help("Size of each record in bytes");
+            parser.addArgument("--wal-cache-size")
+                    .dest("walCacheSize")
+                    .type(Long.class)
+                    .setDefault(256L * 1024 * 1024)
+                    .help("Size of the delta WAL cache in bytes");
+            return parser;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3.benchmark;
+
+import com.automq.stream.s3.LinearStreamObjectsCompactionPolicy;
+import com.automq.stream.s3.SizeTieredStreamObjectsCompactionPolicy;
+import com.automq.stream.s3.StreamObjectsCompactionPolicy;
+import com.automq.stream.s3.metadata.S3ObjectMetadata;
+import com.automq.stream.s3.metadata.S3ObjectType;
+import com.automq.stream.s3.metadata.S3StreamConstant;
+import com.automq.stream.s3.metadata.StreamOffsetRange;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.helper.HelpScreenException;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StreamObjectsCompactionSimulator is a tool for estimating the write amplification and the object count of a
+ * {@link StreamObjectsCompactionPolicy} for a single stream with a given ingest profile, without touching S3.
+ */
+public class StreamObjectsCompactionSimulator {
+    private static final long STREAM_ID = 0L;
+
+    public static void main(String[] args) {
+        Namespace ns = null;
+        ArgumentParser parser = Config.parser();
+        try {
+            ns = parser.parseArgs(args);
+        } catch (HelpScreenException e) {
+            System.exit(0);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+        Config config = new Config(ns);
+        System.out.printf("Linear     | %s\n", simulate(config, new LinearStreamObjectsCompactionPolicy(config.maxSizeBytes)));
+        System.out.printf("SizeTiered | %s\n", simulate(config, new SizeTieredStreamObjectsCompactionPolicy(
+                config.tierBaseSizeBytes, config.tierFactor, config.maxSizeBytes)));
+    }
+
+    /**
+     * Simulate that the stream uploads a stream object every minute, and a stream objects compaction runs every
+     * {@link Config#intervalMinutes} minutes with the given policy.
+     */
+    public static Result simulate(Config config, StreamObjectsCompactionPolicy policy) {
+        Random random = new Random(config.seed);
+        List<S3ObjectMetadata> objects = new ArrayList<>();
+        long nextObjectId = 0;
+        long nextOffset = 0;
+        long ingestedBytes = 0;
+        long compactedBytes = 0;
+        long compactionCount = 0;
+        int maxObjectCount = 0;
+        for (long minute = 1; minute <= config.durationMinutes; minute++) {
+            long now = TimeUnit.MINUTES.toMillis(minute);
+            long jitter = config.objectSizeJitterBytes > 0 ? (long) (random.nextDouble() * 2 * config.objectSizeJitterBytes) - config.objectSizeJitterBytes : 0;
+            long size = Math.max(1, config.objectSizeBytes + jitter);
+            objects.add(newObject(nextObjectId++, nextOffset, nextOffset + size, size, now));
+            nextOffset += size;
+            ingestedBytes += size;
+            maxObjectCount = Math.max(maxObjectCount, objects.size());
+            if (minute % config.intervalMinutes != 0) {
+                continue;
+            }
+
+            List<S3ObjectMetadata> compacted = new ArrayList<>(objects.size());
+            int runStart = 0;
+            while (runStart < objects.size()) {
+                // objects reaching the max size break the continuous range, same as StreamObjectsCompactionTask
+                if (objects.get(runStart).objectSize() >= config.maxSizeBytes) {
+                    compacted.add(objects.get(runStart++));
+                    continue;
+                }
+                int runEnd = runStart + 1;
+                while (runEnd < objects.size() && objects.get(runEnd).objectSize() < config.maxSizeBytes) {
+                    runEnd++;
+                }
+                List<S3ObjectMetadata> run = objects.subList(runStart, runEnd);
+                List<List<S3ObjectMetadata>> groups = run.size() > 1
+                        ? policy.select(run, group -> group.stream().allMatch(o -> now - o.committedTimestamp() >= config.livingTimeMs))
+                        : List.of();
+                int index = 0;
+                for (List<S3ObjectMetadata> group : groups) {
+                    S3ObjectMetadata first = group.get(0);
+                    S3ObjectMetadata last = group.get(group.size() - 1);
+                    while (run.get(index) != first) {
+                        compacted.add(run.get(index++));
+                    }
+                    long groupSize = StreamObjectsCompactionPolicy.totalSize(group);
+                    compacted.add(newObject(nextObjectId++, first.startOffset(), last.endOffset(), groupSize, now));
+                    compactedBytes += groupSize;
+                    compactionCount++;
+                    index += group.size();
+                }
+                while (index < run.size()) {
+                    compacted.add(run.get(index++));
+                }
+                runStart = runEnd;
+            }
+            objects = compacted;
+        }
+        return new Result(ingestedBytes, compactedBytes, compactionCount, objects.size(), maxObjectCount);
+    }
+
+    private static S3ObjectMetadata newObject(long objectId, long startOffset, long endOffset, long size, long committedTimestamp) {
+        return new S3ObjectMetadata(objectId, S3ObjectType.STREAM, List.of(new StreamOffsetRange(STREAM_ID, startOffset, endOffset)),
+                0, committedTimestamp, size, S3StreamConstant.INVALID_ORDER_ID);
+    }
+
+    public static class Result {
+        private final long ingestedBytes;
+        private final long compactedBytes;
+        private final long compactionCount;
+        private final int objectCount;
+        private final int maxObjectCount;
+
+        public Result(long ingestedBytes, long compactedBytes, long compactionCount, int objectCount, int maxObjectCount) {
+            this.ingestedBytes = ingestedBytes;
+            this.compactedBytes = compactedBytes;
+            this.compactionCount = compactionCount;
+            this.objectCount = objectCount;
+            this.maxObjectCount = maxObjectCount;
+        }
+
+        /**
+         * Bytes written to S3 (uploaded and rewritten by compaction) divided by bytes uploaded.
+         */
+        public double writeAmplification() {
+            return ingestedBytes == 0 ? 0 : (double) (ingestedBytes + compactedBytes) / ingestedBytes;
+        }
+
+        public long compactionCount() {
+            return compactionCount;
+        }
+
+        public int objectCount() {
+            return objectCount;
+        }
+
+        public int maxObjectCount() {
+            return maxObjectCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Ingested %d MB | Compacted %d MB | Write Amplification %.2f | Compactions %d | Objects %d | Max Objects %d",
+                    ingestedBytes >> 20, compactedBytes >> 20, writeAmplification(), compactionCount, objectCount, maxObjectCount);
+        }
+    }
+
+    public static class Config {
+        final long durationMinutes;
+        final long objectSizeBytes;
+        final long objectSizeJitterBytes;
+        final long intervalMinutes;
+        final long livingTimeMs;
+        final long maxSizeBytes;
+        final long tierBaseSizeBytes;
+        final int tierFactor;
+        final long seed;
+
+        public Config(long durationMinutes, long objectSizeBytes, long objectSizeJitterBytes, long intervalMinutes,
+                      long livingTimeMinutes, long maxSizeBytes, long tierBaseSizeBytes, int tierFactor, long seed) {
+            this.durationMinutes = durationMinutes;
+            this.objectSizeBytes = objectSizeBytes;
+            this.objectSizeJitterBytes = objectSizeJitterBytes;
+            this.intervalMinutes = Math.max(1, intervalMinutes);
+            this.livingTimeMs = TimeUnit.MINUTES.toMillis(livingTimeMinutes);
+            this.maxSizeBytes = maxSizeBytes;
+            this.tierBaseSizeBytes = tierBaseSizeBytes;
+            this.tierFactor = tierFactor;
+            this.seed = seed;
+        }
+
+        Config(Namespace ns) {
+            this(ns.getLong("duration"), ns.getLong("objectSize"), ns.getLong("objectSizeJitter"), ns.getLong("interval"),
+                    ns.getLong("livingTime"), ns.getLong("maxSize"), ns.getLong("tierBaseSize"), ns.getInt("tierFactor"),
+                    ns.getLong("seed"));
+        }
+
+        static ArgumentParser parser() {
+            ArgumentParser parser = ArgumentParsers
+                    .newFor("StreamObjectsCompactionSimulator")
+                    .build()
+                    .defaultHelp(true)
+                    .description("Simulate write amplification and object count of stream objects compaction policies");
+            parser.addArgument("--duration")
+                    .type(Long.class)
+                    .setDefault(TimeUnit.DAYS.toMinutes(7))
+                    .help("Simulated duration in minutes, the stream uploads one stream object per minute");
+            parser.addArgument("--object-size")
+                    .dest("objectSize")
+                    .type(Long.class)
+                    .setDefault(16L << 20)
+                    .help("Average size of each uploaded stream object in bytes");
+            parser.addArgument("--object-size-jitter")
+                    .dest("objectSizeJitter")
+                    .type(Long.class)
+                    .setDefault(0L)
+                    .help("Max deviation of the uploaded stream object size in bytes");
+            parser.addArgument("--interval")
+                    .type(Long.class)
+                    .setDefault(60L)
+                    .help("Stream objects compaction interval in minutes");
+            parser.addArgument("--living-time")
+                    .dest("livingTime")
+                    .type(Long.class)
+                    .setDefault(60L)
+                    .help("Min living time in minutes of stream objects to compact");
+            parser.addArgument("--max-size")
+                    .dest("maxSize")
+                    .type(Long.class)
+                    .setDefault(10L << 30)
+                    .help("Max size of compacted stream objects in bytes");
+            parser.addArgument("--tier-base-size")
+                    .dest("tierBaseSize")
+                    .type(Long.class)
+                    .setDefault(16L << 20)
+                    .help("Base size of the lowest tier in bytes");
+            parser.addArgument("--tier-factor")
+                    .dest("tierFactor")
+                    .type(Integer.class)
+                    .setDefault(4)
+                    .help("Size ratio between adjacent tiers");
+            parser.addArgument("--seed")
+                    .type(Long.class)
+                    .setDefault(0L)
+                    .help("Random seed of the object size jitter");
+            return parser;
+        }
+    }
+}
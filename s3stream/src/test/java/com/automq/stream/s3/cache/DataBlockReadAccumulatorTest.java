@@ -61,7 +61,7 @@ public class DataBlockReadAccumulatorTest {
         Assertions.assertEquals(1, reserveResults2.size());
         Assertions.assertEquals(0, reserveResults2.get(0).reserveSize());
 
-        accumulator.readDataBlock(reader, dataBlockIndex);
+        Assertions.assertTrue(accumulator.readDataBlock(reader, dataBlockIndex));
 
         ObjectReader.DataBlock dataBlock = mock(ObjectReader.DataBlock.class);
         List<StreamRecordBatch> records = List.of(
@@ -92,6 +92,9 @@ public class DataBlockReadAccumulatorTest {
         when(dataBlock.recordCount()).thenReturn(2);
         readerCf.complete(dataBlock);
 
+        verify(reader, times(1)).read(any());
+        // the data block is not reserved any more
+        Assertions.assertFalse(accumulator.readDataBlock(reader, dataBlockIndex));
         verify(reader, times(1)).read(any());
 
         CompletableFuture<DataBlockRecords> dataBlockCf1 = reserveResults.get(0).cf();
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+@Tag("S3Unit")
+public class ReadAheadPlannerTest {
+
+    @Test
+    public void testPlanWithinBudget() {
+        ReadAheadPlanner planner = new ReadAheadPlanner(1024 * 1024);
+        ReadAheadAgent agent = new ReadAheadAgent(10, 233L, 0, planner);
+        // 400ms * 1000 bytes/s
+        Assertions.assertEquals(400, planner.plan(agent, 1000, 0, 10));
+        Assertions.assertEquals(200, planner.plan(agent, 1000, 0.5, 10));
+        Assertions.assertEquals(10, planner.plan(agent, 1, 0, 10));
+        Assertions.assertEquals(0, planner.totalDemand());
+    }
+
+    @Test
+    public void testShareBudget() {
+        ReadAheadPlanner planner = new ReadAheadPlanner(1000);
+        ReadAheadAgent agent1 = new ReadAheadAgent(10, 1L, 0, planner);
+        ReadAheadAgent agent2 = new ReadAheadAgent(10, 2L, 0, planner);
+        Assertions.assertEquals(400, planner.plan(agent1, 1000, 0, 10));
+        // total demand 400 + 1200 exceeds the budget, share the budget in proportion to demand
+        Assertions.assertEquals(750, planner.plan(agent2, 3000, 0, 10));
+        Assertions.assertEquals(250, planner.plan(agent1, 1000, 0, 10));
+        Assertions.assertEquals(1600, planner.totalDemand());
+
+        planner.remove(agent2);
+        Assertions.assertEquals(400, planner.totalDemand());
+        Assertions.assertEquals(400, planner.plan(agent1, 1000, 0, 10));
+    }
+
+    @Test
+    public void testMaxReadAheadSize() {
+        ReadAheadPlanner planner = new ReadAheadPlanner(1024L * 1024 * 1024);
+        ReadAheadAgent agent = new ReadAheadAgent(10, 233L, 0, planner);
+        // a single fast consumer does not take the whole budget
+        Assertions.assertEquals(ReadAheadPlanner.MAX_READ_AHEAD_SIZE, planner.plan(agent, 1024L * 1024 * 1024, 0, 10));
+    }
+
+    @Test
+    public void testDemandExpire() {
+        ReadAheadPlanner planner = new ReadAheadPlanner(1000);
+        ReadAheadAgent idle = new ReadAheadAgent(10, 1L, 0, planner);
+        ReadAheadAgent active = new ReadAheadAgent(10, 2L, 0, planner);
+        long now = System.nanoTime();
+        planner.plan(idle, 3000, 0, 10, now);
+        Assertions.assertEquals(250, planner.plan(active, 1000, 0, 10, now));
+
+        // the idle agent stops planning, and its demand expires
+        now += ReadAheadPlanner.DEMAND_EXPIRE_NANOS;
+        Assertions.assertEquals(400, planner.plan(active, 1000, 0, 10, now));
+        Assertions.assertEquals(400, planner.totalDemand());
+    }
+
+    @Test
+    public void testRemoveStream() {
+        ReadAheadPlanner planner = new ReadAheadPlanner(1000);
+        planner.plan(new ReadAheadAgent(10, 1L, 0, planner), 1000, 0, 10);
+        planner.plan(new ReadAheadAgent(10, 1L, 100, planner), 1000, 0, 10);
+        planner.plan(new ReadAheadAgent(10, 2L, 0, planner), 1000, 0, 10);
+        Assertions.assertEquals(1200, planner.totalDemand());
+
+        planner.removeStream(1L);
+        Assertions.assertEquals(400, planner.totalDemand());
+    }
+
+    @Test
+    public void testReadAheadLatency() {
+        ReadAheadPlanner planner = new ReadAheadPlanner(1024 * 1024);
+        ReadAheadAgent agent = new ReadAheadAgent(10, 233L, 0, planner);
+        for (int i = 0; i < 100; i++) {
+            agent.updateReadAheadResult(1024, 1024, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), planner.readAheadLatencyNanos(), TimeUnit.MILLISECONDS.toNanos(1));
+        Assertions.assertEquals(100, planner.plan(agent, 1000, 0, 10), 1);
+    }
+
+    @Test
+    public void testAccuracy() {
+        BlockCache blockCache = new BlockCache(1024 * 1024);
+        ReadAheadPlanner planner = new ReadAheadPlanner(1024 * 1024);
+        ReadAheadManager manager = new ReadAheadManager(10, blockCache, planner);
+        ReadAheadAgent agent = manager.getOrCreateReadAheadAgent(233L, 0);
+        agent.updateReadAheadResult(100, 1000);
+
+        // read [0, 50) is served by read ahead
+        manager.updateReadResult(233L, 0, 50, 500);
+        // [50, 60) is evicted before being read, [100, 120) is out of read ahead range
+        manager.onCacheEvict(233L, 50, 60, 100);
+        manager.onCacheEvict(233L, 100, 120, 200);
+        // [60, 120) is partly served by read ahead
+        manager.updateReadResult(233L, 50, 120, 700);
+
+        ReadAheadPlanner.ReadAheadAccuracy accuracy = planner.accuracy(233L);
+        Assertions.assertEquals(500 + 500, accuracy.usedBytes());
+        Assertions.assertEquals(100, accuracy.wastedBytes());
+        Assertions.assertEquals(1000.0 / 1100, accuracy.ratio(), 0.001);
+        Assertions.assertEquals(1, planner.accuracy(234L).ratio());
+        Assertions.assertEquals(accuracy, planner.accuracies().get(233L));
+
+        planner.removeStream(233L);
+        Assertions.assertTrue(planner.accuracies().isEmpty());
+    }
+
+    @Test
+    public void testBoundedAccuracies() {
+        ReadAheadPlanner planner = new ReadAheadPlanner(1024 * 1024);
+        for (int i = 0; i < ReadAheadPlanner.MAX_TRACKED_STREAMS + 10; i++) {
+            planner.recordUsed(i, 100);
+        }
+        Assertions.assertEquals(ReadAheadPlanner.MAX_TRACKED_STREAMS, planner.accuracies().size());
+        Assertions.assertEquals(0, planner.accuracy(ReadAheadPlanner.MAX_TRACKED_STREAMS).usedBytes());
+
+        planner.removeStream(0);
+        planner.recordWasted(ReadAheadPlanner.MAX_TRACKED_STREAMS, 100);
+        Assertions.assertEquals(100, planner.accuracy(ReadAheadPlanner.MAX_TRACKED_STREAMS).wastedBytes());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+@Tag("S3Unit")
+public class StreamCacheStatsTest {
+
+    @Test
+    public void testRecord() {
+        StreamCacheStats stats = new StreamCacheStats();
+        stats.recordLogCacheHit(1, 100);
+        stats.recordLogCacheHit(1, 50);
+        stats.recordBlockCacheHit(1, 200);
+        stats.recordBlockCacheMiss(1, 300);
+        stats.recordS3Get(1, 1024);
+
+        StreamCacheStats.Snapshot snapshot = stats.snapshot(1);
+        Assertions.assertEquals(2, snapshot.logCacheHitCount());
+        Assertions.assertEquals(150, snapshot.logCacheHitBytes());
+        Assertions.assertEquals(1, snapshot.blockCacheHitCount());
+        Assertions.assertEquals(200, snapshot.blockCacheHitBytes());
+        Assertions.assertEquals(1, snapshot.blockCacheMissCount());
+        Assertions.assertEquals(300, snapshot.blockCacheMissBytes());
+        Assertions.assertEquals(1, snapshot.s3GetCount());
+        Assertions.assertEquals(1024, snapshot.s3GetBytes());
+        Assertions.assertEquals(0.75, snapshot.cacheHitRatio());
+
+        Assertions.assertEquals(0, stats.snapshot(2).logCacheHitCount());
+        Assertions.assertEquals(1, stats.snapshot(2).cacheHitRatio());
+    }
+
+    @Test
+    public void testBoundedStreams() {
+        StreamCacheStats stats = new StreamCacheStats(2, false);
+        stats.recordS3Get(1, 100);
+        stats.recordS3Get(2, 100);
+        stats.recordS3Get(3, 100);
+        stats.recordS3Get(4, 200);
+        stats.recordS3Get(1, 100);
+
+        Assertions.assertEquals(2, stats.size());
+        Assertions.assertEquals(200, stats.snapshot(1).s3GetBytes());
+        Assertions.assertEquals(0, stats.snapshot(3).s3GetBytes());
+        StreamCacheStats.Snapshot others = stats.snapshot(StreamCacheStats.OTHER_STREAMS);
+        Assertions.assertEquals(2, others.s3GetCount());
+        Assertions.assertEquals(300, others.s3GetBytes());
+    }
+
+    @Test
+    public void testEvict() {
+        StreamCacheStats stats = new StreamCacheStats(2, false, 1000);
+        stats.recordS3Get(1, 100);
+        stats.recordS3Get(2, 100);
+
+        stats.remove(1);
+        Assertions.assertEquals(1, stats.size());
+        Assertions.assertEquals(0, stats.snapshot(1).s3GetBytes());
+
+        stats.recordS3Get(3, 100);
+        Assertions.assertEquals(2, stats.size());
+        stats.evictIdle(System.currentTimeMillis() + 1000);
+        Assertions.assertEquals(0, stats.size());
+
+        stats.recordS3Get(4, 100);
+        Assertions.assertEquals(100, stats.snapshot(4).s3GetBytes());
+        Assertions.assertEquals(0, stats.snapshot(StreamCacheStats.OTHER_STREAMS).s3GetBytes());
+    }
+
+    @Test
+    public void testTopK() {
+        StreamCacheStats stats = new StreamCacheStats();
+        stats.recordS3Get(1, 100);
+        stats.recordS3Get(2, 300);
+        stats.recordS3Get(3, 200);
+        stats.recordLogCacheHit(4, 1000);
+
+        List<StreamCacheStats.Snapshot> top = stats.topK(2);
+        Assertions.assertEquals(2, top.size());
+        Assertions.assertEquals(2, top.get(0).streamId());
+        Assertions.assertEquals(3, top.get(1).streamId());
+
+        top = stats.topK(10);
+        Assertions.assertEquals(4, top.size());
+        Assertions.assertEquals(4, top.get(3).streamId());
+
+        StreamCacheStats.Snapshot withReadAhead = top.get(0).withReadAhead(10, 20);
+        Assertions.assertEquals(300, withReadAhead.s3GetBytes());
+        Assertions.assertEquals(10, withReadAhead.readAheadUsedBytes());
+        Assertions.assertEquals(20, withReadAhead.readAheadWastedBytes());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.stream.s3.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+@Tag("S3Unit")
+public class StreamReadStatsTest {
+    @Test
+    public void testHeatDecay() {
+        StreamReadStats readStats = new StreamReadStats();
+        long now = System.currentTimeMillis();
+        // the first read is not a re-read
+        for (int i = 0; i < 9; i++) {
+            readStats.recordRead(233, 0, 10, now);
+        }
+        readStats.recordRead(234, 0, 10, now);
+        readStats.recordRead(234, 5, 15, now);
+        Map<Long, Double> snapshot = readStats.snapshot(now);
+        Assertions.assertEquals(8, snapshot.get(233L), 0.001);
+        Assertions.assertEquals(1, snapshot.get(234L), 0.001);
+
+        snapshot = readStats.snapshot(now + StreamReadStats.HALF_LIFE_MS);
+        Assertions.assertEquals(4, snapshot.get(233L), 0.001);
+        Assertions.assertEquals(0.5, snapshot.get(234L), 0.001);
+
+        // cooled down streams are removed
+        snapshot = readStats.snapshot(now + StreamReadStats.HALF_LIFE_MS * 8);
+        Assertions.assertEquals(1, snapshot.size());
+        Assertions.assertEquals(0, readStats.heat(234));
+    }
+
+    @Test
+    public void testReRead() {
+        StreamReadStats readStats = new StreamReadStats();
+        long now = System.currentTimeMillis();
+        // sequential reads and read aheads are not re-reads
+        readStats.recordRead(233, 0, 10, now);
+        readStats.recordRead(233, 10, 20, now);
+        readStats.recordReadAhead(233, 0, 100, now);
+        readStats.recordReadAhead(233, 100, 200, now);
+        Assertions.assertTrue(readStats.snapshot(now).isEmpty());
+
+        // another consumer reads from the beginning
+        readStats.recordRead(233, 0, 10, now);
+        // evicted data is loaded again by read ahead
+        readStats.recordReadAhead(233, 50, 150, now);
+        Assertions.assertEquals(2, readStats.snapshot(now).get(233L), 0.001);
+
+        // streams which are read but never re-read are kept until idle
+        readStats.recordRead(234, 0, 10, now);
+        readStats.snapshot(now);
+        readStats.recordRead(234, 0, 10, now);
+        Assertions.assertEquals(1, readStats.snapshot(now).get(234L), 0.001);
+    }
+}
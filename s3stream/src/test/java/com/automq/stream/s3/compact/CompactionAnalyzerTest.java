@@ -21,11 +21,13 @@ import com.automq.stream.s3.compact.objects.CompactedObject;
 import com.automq.stream.s3.compact.objects.CompactedObjectBuilder;
 import com.automq.stream.s3.compact.objects.CompactionType;
 import com.automq.stream.s3.StreamDataBlock;
+import com.automq.stream.s3.cache.StreamReadStats;
 import com.automq.stream.s3.metadata.S3ObjectMetadata;
 import com.automq.stream.s3.metadata.S3ObjectType;
 import com.automq.stream.s3.metadata.StreamMetadata;
 import com.automq.stream.s3.metadata.StreamOffsetRange;
 import com.automq.stream.s3.metadata.StreamState;
+import com.automq.stream.utils.LogContext;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -185,6 +187,35 @@ public class CompactionAnalyzerTest extends CompactionTestBase {
         }
     }
 
+    @Test
+    public void testSplitHotStream() {
+        StreamReadStats readStats = new StreamReadStats();
+        for (int i = 0; i < CompactionConstants.HOT_STREAM_MIN_HEAT * 2; i++) {
+            // read the same range again and again
+            readStats.recordRead(STREAM_0, 0, 20);
+        }
+        List<StreamMetadata> streamMetadataList = this.streamManager.getStreams(Collections.emptyList()).join();
+        CompactionAnalyzer coldAnalyzer = new CompactionAnalyzer(CACHE_SIZE, 100, MAX_STREAM_NUM_IN_WAL, MAX_STREAM_OBJECT_NUM);
+        List<CompactionPlan> coldPlans = coldAnalyzer.analyze(CompactionUtils.blockWaitObjectIndices(streamMetadataList,
+                S3_WAL_OBJECT_METADATA_LIST, s3Operator), new HashSet<>());
+        Assertions.assertTrue(coldPlans.stream().flatMap(p -> p.compactedObjects().stream())
+                .filter(o -> o.type() == CompactionType.SPLIT)
+                .noneMatch(o -> o.streamDataBlocks().get(0).getStreamId() == STREAM_0));
+
+        CompactionAnalyzer hotAnalyzer = new CompactionAnalyzer(CACHE_SIZE, 100, MAX_STREAM_NUM_IN_WAL, MAX_STREAM_OBJECT_NUM,
+                1, readStats, new LogContext("[CompactionAnalyzer]"));
+        List<CompactionPlan> hotPlans = hotAnalyzer.analyze(CompactionUtils.blockWaitObjectIndices(streamMetadataList,
+                S3_WAL_OBJECT_METADATA_LIST, s3Operator), new HashSet<>());
+        List<CompactedObject> streamObjects = hotPlans.stream().flatMap(p -> p.compactedObjects().stream())
+                .filter(o -> o.type() == CompactionType.SPLIT)
+                .filter(o -> o.streamDataBlocks().get(0).getStreamId() == STREAM_0)
+                .toList();
+        Assertions.assertEquals(1, streamObjects.size());
+        Assertions.assertEquals(2, streamObjects.get(0).streamDataBlocks().size());
+        // stream 0 was spread over two objects, and the hot stream is expected to be read many times
+        Assertions.assertTrue(hotAnalyzer.expectedGetReduction(hotPlans) > coldAnalyzer.expectedGetReduction(coldPlans));
+    }
+
     @Test
     public void testGroupObjectWithLimit2() {
         CompactionAnalyzer compactionAnalyzer = new CompactionAnalyzer(CACHE_SIZE, 30, MAX_STREAM_NUM_IN_WAL, MAX_STREAM_OBJECT_NUM);
@@ -18,17 +18,21 @@
 package com.automq.stream.s3.compact;
 
 import com.automq.stream.s3.Config;
+import com.automq.stream.s3.ObjectWriter;
 import com.automq.stream.s3.StreamDataBlock;
+import com.automq.stream.s3.TestUtils;
 import com.automq.stream.s3.compact.operator.DataBlockReader;
 import com.automq.stream.s3.metadata.StreamMetadata;
 import com.automq.stream.s3.metadata.StreamState;
 import com.automq.stream.s3.objects.CommitStreamSetObjectRequest;
+import com.automq.stream.s3.objects.CommitStreamSetObjectResponse;
 import com.automq.stream.s3.objects.ObjectStreamRange;
 import com.automq.stream.s3.objects.StreamObject;
 import com.automq.stream.s3.metadata.S3ObjectMetadata;
 import com.automq.stream.s3.metadata.S3ObjectType;
 import com.automq.stream.s3.metadata.S3StreamConstant;
 import com.automq.stream.s3.metadata.StreamOffsetRange;
+import com.automq.stream.s3.model.StreamRecordBatch;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -46,6 +50,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -253,6 +258,149 @@ public class CompactionManagerTest extends CompactionTestBase {
         Assertions.assertTrue(checkDataIntegrity(streamMetadataList, s3ObjectMetadata, request));
     }
 
+    @Test
+    public void testCompactWithCopyWrittenObject() {
+        // object 3 holds a single data block of stream 2 large enough to be copied on server side, so none of its blocks is read
+        long objectId = objectManager.prepareObject(1, TimeUnit.MINUTES.toMillis(30)).join();
+        assertEquals(OBJECT_3, objectId);
+        ObjectWriter objectWriter = ObjectWriter.writer(OBJECT_3, s3Operator, 1024, 1024);
+        StreamRecordBatch record = new StreamRecordBatch(STREAM_2, 0, 270, 10, TestUtils.random(CompactionConstants.S3_OBJECT_MIN_COPY_WRITE_SIZE + 1024));
+        objectWriter.write(STREAM_2, List.of(record));
+        objectWriter.close().join();
+        record.release();
+        S3ObjectMetadata objectMetadata = new S3ObjectMetadata(OBJECT_3, S3ObjectType.STREAM_SET, List.of(new StreamOffsetRange(STREAM_2, 270, 280)),
+                System.currentTimeMillis(), System.currentTimeMillis(), objectWriter.size(), OBJECT_3);
+        S3_WAL_OBJECT_METADATA_LIST.add(objectMetadata);
+        when(streamManager.getStreams(Mockito.anyList())).thenReturn(CompletableFuture.completedFuture(
+                List.of(new StreamMetadata(STREAM_0, 0, 0, 20, StreamState.OPENED),
+                        new StreamMetadata(STREAM_1, 0, 25, 500, StreamState.OPENED),
+                        new StreamMetadata(STREAM_2, 0, 30, 280, StreamState.OPENED))));
+
+        List<S3ObjectMetadata> s3ObjectMetadata = this.objectManager.getServerObjects().join();
+        compactionManager = new CompactionManager(config, objectManager, streamManager, s3Operator);
+        List<StreamMetadata> streamMetadataList = this.streamManager.getStreams(Collections.emptyList()).join();
+        CommitStreamSetObjectRequest request = compactionManager.buildCompactRequest(streamMetadataList, s3ObjectMetadata);
+
+        assertTrue(request.getCompactedObjectIds().contains(OBJECT_3));
+        assertTrue(request.getStreamObjects().stream().anyMatch(s -> s.getStreamId() == STREAM_2 && s.getEndOffset() == 280));
+    }
+
+    @Test
+    public void testCompactWithParallelism() {
+        when(config.streamSetObjectCompactionParallelism()).thenReturn(3);
+        List<S3ObjectMetadata> s3ObjectMetadata = this.objectManager.getServerObjects().join();
+        compactionManager = new CompactionManager(config, objectManager, streamManager, s3Operator);
+        List<StreamMetadata> streamMetadataList = this.streamManager.getStreams(Collections.emptyList()).join();
+        CommitStreamSetObjectRequest request = compactionManager.buildCompactRequest(streamMetadataList, s3ObjectMetadata);
+
+        assertEquals(List.of(OBJECT_0, OBJECT_1, OBJECT_2), request.getCompactedObjectIds());
+        assertEquals(OBJECT_0, request.getOrderId());
+        assertTrue(request.getObjectId() > OBJECT_2);
+        request.getStreamObjects().forEach(s -> assertTrue(s.getObjectId() > OBJECT_2));
+
+        Assertions.assertTrue(checkDataIntegrity(streamMetadataList, s3ObjectMetadata, request));
+    }
+
+    @Test
+    public void testForceSplitWithParallelism() {
+        when(config.streamSetObjectCompactionParallelism()).thenReturn(2);
+        when(config.streamSetObjectCompactionForceSplitPeriod()).thenReturn(0);
+        List<CommitStreamSetObjectRequest> requests = Collections.synchronizedList(new ArrayList<>());
+        Mockito.doAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(new CommitStreamSetObjectResponse());
+        }).when(objectManager).commitStreamSetObject(Mockito.any());
+        compactionManager = new CompactionManager(config, objectManager, streamManager, s3Operator);
+        compactionManager.forceSplitAll().join();
+
+        assertEquals(3, requests.size());
+        Set<Long> splitObjectIds = new HashSet<>();
+        for (CommitStreamSetObjectRequest request : requests) {
+            assertEquals(1, request.getCompactedObjectIds().size());
+            assertTrue(request.getStreamRanges().isEmpty());
+            assertTrue(request.getStreamObjects().size() > 0);
+            splitObjectIds.addAll(request.getCompactedObjectIds());
+        }
+        assertEquals(Set.of(OBJECT_0, OBJECT_1, OBJECT_2), splitObjectIds);
+    }
+
+    @Test
+    public void testCompactUntilTriggerObjectNum() {
+        when(config.streamSetObjectCompactionInterval()).thenReturn(60);
+        when(config.streamSetObjectCompactionTriggerObjectNum()).thenReturn(4);
+        List<CommitStreamSetObjectRequest> requests = Collections.synchronizedList(new ArrayList<>());
+        Mockito.doAnswer(invocation -> {
+            requests.add(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(new CommitStreamSetObjectResponse());
+        }).when(objectManager).commitStreamSetObject(Mockito.any());
+        compactionManager = new CompactionManager(config, objectManager, streamManager, s3Operator);
+        Assertions.assertFalse(compactionManager.compact().join());
+        assertTrue(requests.isEmpty());
+
+        when(config.streamSetObjectCompactionTriggerObjectNum()).thenReturn(3);
+        compactionManager.shutdown();
+        compactionManager = new CompactionManager(config, objectManager, streamManager, s3Operator);
+        assertTrue(compactionManager.compact().join());
+        assertEquals(1, requests.size());
+        assertEquals(List.of(OBJECT_0, OBJECT_1, OBJECT_2), requests.get(0).getCompactedObjectIds());
+    }
+
+    @Test
+    public void testSelectObjectsToCompact() {
+        when(config.streamSetObjectCompactionInterval()).thenReturn(1);
+        when(config.streamSetObjectCompactionTriggerObjectNum()).thenReturn(10);
+        compactionManager = new CompactionManager(config, objectManager, streamManager, s3Operator);
+        long now = System.currentTimeMillis();
+        long later = now + TimeUnit.MINUTES.toMillis(2);
+        assertTrue(compactionManager.selectObjectsToCompact(Collections.emptyList(), later).isEmpty());
+        assertTrue(compactionManager.selectObjectsToCompact(buildObjects(0, 5, 1), now).isEmpty());
+        assertEquals(10, compactionManager.selectObjectsToCompact(buildObjects(0, 10, 1), now).size());
+        assertEquals(5, compactionManager.selectObjectsToCompact(buildObjects(0, 5, 1), later).size());
+
+        // compacted objects are left to the interval-triggered compaction
+        compactionManager.onObjectCompacted(100);
+        List<S3ObjectMetadata> objects = buildObjects(0, 10, 1);
+        objects.add(new S3ObjectMetadata(100, 10, S3ObjectType.STREAM_SET));
+        List<S3ObjectMetadata> selected = compactionManager.selectObjectsToCompact(objects, now);
+        assertEquals(10, selected.size());
+        assertTrue(selected.stream().noneMatch(o -> o.objectId() == 100));
+        assertEquals(11, compactionManager.selectObjectsToCompact(objects, later).size());
+    }
+
+    @Test
+    public void testCompactedBytesNotGrowBeforeInterval() {
+        int triggerObjectNum = 4;
+        long objectSize = 100;
+        when(config.streamSetObjectCompactionInterval()).thenReturn(60);
+        when(config.streamSetObjectCompactionTriggerObjectNum()).thenReturn(triggerObjectNum);
+        compactionManager = new CompactionManager(config, objectManager, streamManager, s3Operator);
+        long now = System.currentTimeMillis();
+        List<S3ObjectMetadata> objects = new ArrayList<>();
+        long nextObjectId = 0;
+        for (int round = 0; round < 10; round++) {
+            objects.addAll(buildObjects(nextObjectId, triggerObjectNum, objectSize));
+            nextObjectId += triggerObjectNum;
+            List<S3ObjectMetadata> selected = compactionManager.selectObjectsToCompact(objects, now);
+            // only the objects uploaded in this round are rewritten, not the output of the previous rounds
+            long rewrittenBytes = selected.stream().mapToLong(S3ObjectMetadata::objectSize).sum();
+            assertEquals(triggerObjectNum * objectSize, rewrittenBytes);
+            objects.removeAll(selected);
+            long compactedObjectId = nextObjectId++;
+            objects.add(new S3ObjectMetadata(compactedObjectId, rewrittenBytes, S3ObjectType.STREAM_SET));
+            compactionManager.onObjectCompacted(compactedObjectId);
+        }
+        assertEquals(10, objects.size());
+        assertTrue(compactionManager.selectObjectsToCompact(objects, now).isEmpty());
+    }
+
+    private List<S3ObjectMetadata> buildObjects(long startObjectId, int count, long objectSize) {
+        List<S3ObjectMetadata> objects = new ArrayList<>();
+        for (long objectId = startObjectId; objectId < startObjectId + count; objectId++) {
+            objects.add(new S3ObjectMetadata(objectId, objectSize, S3ObjectType.STREAM_SET));
+        }
+        return objects;
+    }
+
     private boolean checkDataIntegrity(List<StreamMetadata> streamMetadataList, List<S3ObjectMetadata> s3ObjectMetadata, CommitStreamSetObjectRequest request) {
         Map<Long, S3ObjectMetadata> s3WALObjectMetadataMap = s3ObjectMetadata.stream()
                 .collect(Collectors.toMap(S3ObjectMetadata::objectId, e -> e));
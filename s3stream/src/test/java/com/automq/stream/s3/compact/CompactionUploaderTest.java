@@ -26,8 +26,11 @@ import com.automq.stream.s3.compact.operator.DataBlockReader;
 import com.automq.stream.s3.memory.MemoryMetadataManager;
 import com.automq.stream.s3.objects.StreamObject;
 import com.automq.stream.s3.operator.MemoryS3Operator;
+import com.automq.stream.s3.network.ThrottleStrategy;
+import com.automq.stream.s3.metadata.ObjectUtils;
 import com.automq.stream.s3.metadata.S3ObjectMetadata;
 import com.automq.stream.s3.metadata.S3ObjectType;
+import io.netty.buffer.ByteBuf;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -167,4 +170,36 @@ public class CompactionUploaderTest extends CompactionTestBase {
             compare(streamDataBlocksFromS3.get(i), streamDataBlocks.get(i));
         }
     }
+
+    @Test
+    public void testWriteStreamObjectWithCopyWrite() {
+        long sourceObjectId = 100;
+        int blockSize = 3 * 1024 * 1024;
+        ByteBuf sourceData = TestUtils.random(3 * blockSize);
+        s3Operator.write(ObjectUtils.genKey(0, sourceObjectId), sourceData.retainedSlice(), ThrottleStrategy.BYPASS).join();
+        List<StreamDataBlock> streamDataBlocks = List.of(
+                new StreamDataBlock(STREAM_0, 0, 60, 0, sourceObjectId, 0, blockSize, 1),
+                new StreamDataBlock(STREAM_0, 60, 120, 1, sourceObjectId, blockSize, blockSize, 1),
+                new StreamDataBlock(STREAM_0, 120, 150, 3, sourceObjectId, 3L * blockSize + 100, 30, 1));
+        CompactedObject compactedObject = new CompactedObject(CompactionType.SPLIT, streamDataBlocks);
+        assertEquals(List.of(streamDataBlocks.get(2)), CompactionUtils.dataBlocksToRead(streamDataBlocks));
+
+        CompactionUploader uploader = new CompactionUploader(objectManager, s3Operator, config);
+        CompletableFuture<StreamObject> cf = uploader.writeStreamObject(compactedObject);
+        // only the data block which is not copied on server side needs to be read
+        ByteBuf data = TestUtils.random(30);
+        streamDataBlocks.get(2).getDataCf().complete(data.copy());
+        StreamObject streamObject = cf.join();
+        assertEquals(streamObject.getObjectSize(), calculateObjectSize(streamDataBlocks));
+
+        //check s3 object
+        DataBlockReader reader = new DataBlockReader(new S3ObjectMetadata(OBJECT_0, streamObject.getObjectSize(), S3ObjectType.STREAM), s3Operator);
+        reader.parseDataBlockIndex();
+        List<StreamDataBlock> streamDataBlocksFromS3 = reader.getDataBlockIndex().join();
+        assertEquals(streamDataBlocks.size(), streamDataBlocksFromS3.size());
+        reader.readBlocks(streamDataBlocksFromS3);
+        assertEquals(0, sourceData.slice(0, blockSize).compareTo(streamDataBlocksFromS3.get(0).getDataCf().join()));
+        assertEquals(0, sourceData.slice(blockSize, blockSize).compareTo(streamDataBlocksFromS3.get(1).getDataCf().join()));
+        assertEquals(0, data.compareTo(streamDataBlocksFromS3.get(2).getDataCf().join()));
+    }
 }
@@ -66,4 +66,24 @@ public class CompactionUtilTest extends CompactionTestBase {
         Assertions.assertEquals(List.of(streamDataBlocks.get(3)), result.get(1));
         Assertions.assertEquals(List.of(streamDataBlocks.get(4)), result.get(2));
     }
+
+    @Test
+    public void testGroupAdjacentDataBlocks() {
+        int blockSize = CompactionConstants.S3_OBJECT_MIN_COPY_WRITE_SIZE / 2;
+        List<StreamDataBlock> streamDataBlocks = List.of(
+                new StreamDataBlock(STREAM_0, 0, 15, 0, 1, 0, blockSize, 1),
+                new StreamDataBlock(STREAM_0, 15, 30, 1, 1, blockSize, blockSize, 1),
+                new StreamDataBlock(STREAM_0, 30, 100, 2, 2, 0, blockSize, 1),
+                new StreamDataBlock(STREAM_2, 40, 100, 3, 1, 3L * blockSize, 80, 1),
+                new StreamDataBlock(STREAM_2, 100, 150, 4, 1, 3L * blockSize + 80, 30, 1));
+        List<List<StreamDataBlock>> result = CompactionUtils.groupAdjacentDataBlocks(streamDataBlocks);
+        assertEquals(3, result.size());
+        Assertions.assertEquals(List.of(streamDataBlocks.get(0), streamDataBlocks.get(1)), result.get(0));
+        Assertions.assertEquals(List.of(streamDataBlocks.get(2)), result.get(1));
+        Assertions.assertEquals(List.of(streamDataBlocks.get(3), streamDataBlocks.get(4)), result.get(2));
+        Assertions.assertTrue(CompactionUtils.shouldCopyWrite(result.get(0)));
+        Assertions.assertFalse(CompactionUtils.shouldCopyWrite(result.get(1)));
+        Assertions.assertEquals(List.of(streamDataBlocks.get(2), streamDataBlocks.get(3), streamDataBlocks.get(4)),
+                CompactionUtils.dataBlocksToRead(streamDataBlocks));
+    }
 }
@@ -19,22 +19,37 @@ package com.automq.stream.s3.operator;
 
 import com.automq.stream.s3.TestUtils;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.ResponsePublisher;
+import software.amazon.awssdk.core.async.SdkPublisher;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.DeletedObject;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -161,4 +176,79 @@ class DefaultS3OperatorTest {
         assertEquals(512, buf.readableBytes());
         buf.release();
     }
+
+    @Test
+    void testSplitRead() throws ExecutionException, InterruptedException {
+        AtomicInteger inflight = new AtomicInteger();
+        AtomicInteger maxInflight = new AtomicInteger();
+        List<Long> partStarts = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        operator = new DefaultS3Operator(s3, "test-bucket", true, 1024, 2) {
+            @Override
+            CompletableFuture<Void> rangeReadPart(String path, long start, long end, ByteBuf buf, int index) {
+                partStarts.add(start);
+                maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+                return CompletableFuture.runAsync(() -> {
+                    for (long position = start; position <= end; position++) {
+                        buf.setByte(index + (int) (position - start), (byte) position);
+                    }
+                    inflight.decrementAndGet();
+                }, executor);
+            }
+        };
+        try {
+            ByteBuf buf = operator.mergedRangeRead("obj0", 100, 5100).get();
+            assertEquals(5000, buf.readableBytes());
+            for (int i = 0; i < 5000; i++) {
+                assertEquals((byte) (100 + i), buf.getByte(i));
+            }
+            buf.release();
+            assertEquals(List.of(100L, 1124L, 2148L, 3172L, 4196L), partStarts.stream().sorted().toList());
+            assertTrue(maxInflight.get() <= 2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testSplitReadFail() {
+        operator = new DefaultS3Operator(s3, "test-bucket", true, 1024, 2) {
+            @Override
+            CompletableFuture<Void> rangeReadPart(String path, long start, long end, ByteBuf buf, int index) {
+                if (start == 1024) {
+                    return CompletableFuture.failedFuture(new IllegalStateException("mock read fail"));
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        CompletableFuture<ByteBuf> cf = operator.mergedRangeRead("obj0", 0, 4096);
+        assertThrows(ExecutionException.class, () -> cf.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRangeReadPartRetryBodyFail() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        when(s3.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class))).thenAnswer(invocation -> {
+            boolean fail = requests.getAndIncrement() == 0;
+            SdkPublisher<ByteBuffer> body = subscriber -> {
+                subscriber.onSubscribe(mock(Subscription.class));
+                // the first response fails in the middle of the body
+                subscriber.onNext(ByteBuffer.wrap(new byte[] {0, 1}));
+                if (fail) {
+                    subscriber.onError(new IOException("Connection reset"));
+                    return;
+                }
+                subscriber.onNext(ByteBuffer.wrap(new byte[] {2, 3}));
+                subscriber.onComplete();
+            };
+            return CompletableFuture.completedFuture(new ResponsePublisher<>(GetObjectResponse.builder().build(), body));
+        });
+        ByteBuf buf = Unpooled.buffer(4);
+        operator.rangeReadPart("obj0", 0, 3, buf, 0).get(1, TimeUnit.SECONDS);
+        assertEquals(2, requests.get());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, buf.getByte(i));
+        }
+        buf.release();
+    }
 }
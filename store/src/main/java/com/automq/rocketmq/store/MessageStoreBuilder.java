@@ -50,16 +50,16 @@ public class MessageStoreBuilder {
         StreamStore streamStore = new S3StreamStore(storeConfig, s3StreamConfig, metadataService);
         KVService kvService = new RocksDBKVService(storeConfig.kvPath());
         InflightService inflightService = new InflightService();
-        SnapshotService snapshotService = new SnapshotService(streamStore, kvService);
+        SnapshotService snapshotService = new SnapshotService(streamStore, kvService, storeConfig);
         OperationLogService operationLogService = new StreamOperationLogService(streamStore, snapshotService, storeConfig);
         StreamReclaimService streamReclaimService = new StreamReclaimService(streamStore);
         // TODO: We may have multiple timer service in the future.
-        TimerService timerService = new TimerService("timer_tag_0", kvService);
+        TimerService timerService = new TimerService("timer_tag_0", kvService, storeConfig);
         LogicQueueManager logicQueueManager = new DefaultLogicQueueManager(storeConfig, streamStore, kvService, timerService,
             metadataService, operationLogService, inflightService, streamReclaimService);
         MessageArrivalNotificationService messageArrivalNotificationService = new MessageArrivalNotificationService();
         ReviveService reviveService = new ReviveService(KV_NAMESPACE_CHECK_POINT, kvService, timerService,
-            metadataService, messageArrivalNotificationService, logicQueueManager, deadLetterSender);
+            metadataService, messageArrivalNotificationService, logicQueueManager, deadLetterSender, storeConfig);
 
         // S3 object manager, such as trim expired messages, etc.
         S3Operator operator = new DefaultS3Operator(s3StreamConfig.s3Endpoint(), s3StreamConfig.s3Region(), s3StreamConfig.s3Bucket(),
@@ -30,6 +30,8 @@ import com.automq.rocketmq.store.exception.StoreException;
 import com.automq.rocketmq.store.model.StoreContext;
 import com.automq.rocketmq.store.model.generated.ReceiptHandle;
 import com.automq.rocketmq.store.model.generated.TimerHandlerType;
+import com.automq.rocketmq.store.model.generated.TimerMessageRef;
+import com.automq.rocketmq.store.model.generated.TimerTag;
 import com.automq.rocketmq.store.model.message.AckResult;
 import com.automq.rocketmq.store.model.message.ChangeInvisibleDurationResult;
 import com.automq.rocketmq.store.model.message.ClearRetryMessagesResult;
@@ -38,22 +40,29 @@ import com.automq.rocketmq.store.model.message.PopResult;
 import com.automq.rocketmq.store.model.message.PullResult;
 import com.automq.rocketmq.store.model.message.PutResult;
 import com.automq.rocketmq.store.model.message.ResetConsumeOffsetResult;
+import com.automq.rocketmq.store.model.stream.StreamCacheStat;
 import com.automq.rocketmq.store.service.InflightService;
 import com.automq.rocketmq.store.service.MessageArrivalNotificationService;
 import com.automq.rocketmq.store.service.ReviveService;
 import com.automq.rocketmq.store.service.SnapshotService;
 import com.automq.rocketmq.store.service.TimerService;
 import com.automq.rocketmq.store.service.api.KVService;
-import com.automq.rocketmq.store.util.FlatMessageUtil;
+import com.automq.rocketmq.store.util.SerializeUtil;
+import com.automq.stream.utils.FutureUtil;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.rocketmq.logging.org.slf4j.Logger;
+import org.apache.rocketmq.logging.org.slf4j.LoggerFactory;
 
 import static com.automq.rocketmq.store.util.SerializeUtil.decodeReceiptHandle;
 
 public class MessageStoreImpl implements MessageStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageStoreImpl.class);
+
     public static final String KV_NAMESPACE_CHECK_POINT = "check_point";
     public static final String KV_NAMESPACE_FIFO_INDEX = "fifo_index";
 
@@ -98,6 +107,10 @@ public class MessageStoreImpl implements MessageStore {
         return streamStore;
     }
 
+    public SnapshotService snapshotService() {
+        return snapshotService;
+    }
+
     /**
      * @return {@link S3ObjectOperator} instance
      */
@@ -112,7 +125,7 @@ public class MessageStoreImpl implements MessageStore {
         }
         clearStateMachineData();
         streamStore.start();
-        timerService.registerHandler(TimerHandlerType.TIMER_MESSAGE, timerTag -> put(StoreContext.EMPTY, FlatMessage.getRootAsFlatMessage(timerTag.payloadAsByteBuffer())));
+        timerService.registerHandler(TimerHandlerType.TIMER_MESSAGE, this::deliverTimerMessage);
         timerService.start();
         snapshotService.start();
         logicQueueManager.start();
@@ -130,6 +143,45 @@ public class MessageStoreImpl implements MessageStore {
         clearStateMachineData();
     }
 
+    /**
+     * Put a due delayed message to its queue and mark it as delivered in the timer stream. The delivery is retried
+     * later on failure, and dropped if the queue is no longer served by this node, as the node that opens the queue
+     * recovers the message from the timer stream.
+     */
+    private void deliverTimerMessage(TimerTag timerTag) {
+        TimerMessageRef ref = SerializeUtil.decodeTimerMessageRef(timerTag.payloadAsByteBuffer());
+        logicQueueManager.get(ref.topicId(), ref.queueId())
+            .thenCompose(optionalQueue -> {
+                if (optionalQueue.isEmpty()) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                LogicQueue queue = optionalQueue.get();
+                return queue.fetchTimer(ref)
+                    .thenCompose(optionalMessage -> {
+                        if (optionalMessage.isEmpty()) {
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        FlatMessage message = optionalMessage.get();
+                        return put(StoreContext.EMPTY, message)
+                            .thenCompose(result -> queue.commitTimer(ref, message.systemProperties().deliveryTimestamp()));
+                    });
+            })
+            .exceptionally(e -> {
+                LOGGER.warn("Failed to deliver delayed message {} of topic: {}, queue: {}, retry later", ref.offset(),
+                    ref.topicId(), ref.queueId(), FutureUtil.cause(e));
+                try {
+                    timerService.enqueue(System.currentTimeMillis() + 1000,
+                        SerializeUtil.buildTimerMessageKey(ref.topicId(), ref.queueId(), ref.epoch(), ref.offset()),
+                        TimerHandlerType.TIMER_MESSAGE,
+                        SerializeUtil.buildTimerMessageRef(ref.topicId(), ref.queueId(), ref.epoch(), ref.offset()));
+                } catch (StoreException ex) {
+                    LOGGER.error("Failed to retry delayed message {} of topic: {}, queue: {}", ref.offset(),
+                        ref.topicId(), ref.queueId(), ex);
+                }
+                return null;
+            });
+    }
+
     private void clearStateMachineData() throws StoreException {
         // clear all statemachine related data in rocksdb
         kvService.clear(KV_NAMESPACE_CHECK_POINT);
@@ -168,12 +220,18 @@ public class MessageStoreImpl implements MessageStore {
     @Override
     public CompletableFuture<PullResult> pull(long consumerGroupId, long topicId, int queueId, Filter filter,
         long offset, int batchSize, boolean retry) {
+        return pull(consumerGroupId, topicId, queueId, filter, offset, batchSize, retry, false);
+    }
+
+    @Override
+    public CompletableFuture<PullResult> pull(long consumerGroupId, long topicId, int queueId, Filter filter,
+        long offset, int batchSize, boolean retry, boolean pooledBuf) {
         return logicQueueManager.getOrCreate(StoreContext.EMPTY, topicId, queueId)
             .thenCompose(topicQueue -> {
                 if (retry) {
-                    return topicQueue.pullRetry(consumerGroupId, filter, offset, batchSize);
+                    return topicQueue.pullRetry(consumerGroupId, filter, offset, batchSize, pooledBuf);
                 }
-                return topicQueue.pullNormal(consumerGroupId, filter, offset, batchSize);
+                return topicQueue.pullNormal(consumerGroupId, filter, offset, batchSize, pooledBuf);
             });
     }
 
@@ -181,12 +239,8 @@ public class MessageStoreImpl implements MessageStore {
     public CompletableFuture<PutResult> put(StoreContext context, FlatMessage message) {
         long deliveryTimestamp = message.systemProperties().deliveryTimestamp();
         if (deliveryTimestamp > 0 && deliveryTimestamp - System.currentTimeMillis() > 1000) {
-            try {
-                timerService.enqueue(deliveryTimestamp, TimerHandlerType.TIMER_MESSAGE, FlatMessageUtil.flatBufferToByteArray(message));
-                return CompletableFuture.completedFuture(new PutResult(PutResult.Status.PUT_DELAYED, -1));
-            } catch (Exception e) {
-                return CompletableFuture.failedFuture(e);
-            }
+            return logicQueueManager.getOrCreate(context, message.topicId(), message.queueId())
+                .thenCompose(topicQueue -> topicQueue.putTimer(context, message));
         }
 
         return logicQueueManager.getOrCreate(context, message.topicId(), message.queueId())
@@ -237,6 +291,16 @@ public class MessageStoreImpl implements MessageStore {
             .thenApply(topicQueue -> topicQueue.getInflightStats(consumerGroupId));
     }
 
+    @Override
+    public CompletableFuture<List<StreamCacheStat>> getStreamCacheStats(int topK) {
+        List<StreamCacheStat> stats = streamStore.streamCacheStats(topK).stream()
+            .map(snapshot -> logicQueueManager.findByStreamId(snapshot.streamId())
+                .map(queue -> new StreamCacheStat(queue.topicId(), queue.queueId(), snapshot))
+                .orElseGet(() -> new StreamCacheStat(StreamCacheStat.UNKNOWN, StreamCacheStat.UNKNOWN, snapshot)))
+            .toList();
+        return CompletableFuture.completedFuture(stats);
+    }
+
     @Override
     public CompletableFuture<LogicQueue.QueueOffsetRange> getOffsetRange(long topicId, int queueId) {
         return logicQueueManager.getOrCreate(StoreContext.EMPTY, topicId, queueId)
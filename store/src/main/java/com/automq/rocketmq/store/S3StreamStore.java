@@ -25,6 +25,7 @@ import com.automq.rocketmq.store.model.StoreContext;
 import com.automq.stream.api.AppendResult;
 import com.automq.stream.api.FetchResult;
 import com.automq.stream.api.OpenStreamOptions;
+import com.automq.stream.api.ReadOptions;
 import com.automq.stream.api.RecordBatch;
 import com.automq.stream.api.Stream;
 import com.automq.stream.api.StreamClient;
@@ -33,7 +34,7 @@ import com.automq.stream.s3.S3Storage;
 import com.automq.stream.s3.S3StreamClient;
 import com.automq.stream.s3.Storage;
 import com.automq.stream.s3.cache.DefaultS3BlockCache;
-import com.automq.stream.s3.cache.S3BlockCache;
+import com.automq.stream.s3.cache.StreamCacheStats;
 import com.automq.stream.s3.compact.CompactionManager;
 import com.automq.stream.s3.network.AsyncNetworkBandwidthLimiter;
 import com.automq.stream.s3.objects.ObjectManager;
@@ -61,6 +62,7 @@ public class S3StreamStore implements StreamStore {
     private final StreamClient streamClient;
     private final Storage storage;
     private final CompactionManager compactionManager;
+    private final DefaultS3BlockCache blockCache;
     private final ThreadPoolExecutor storeWorkingThreadPool;
 
     public S3StreamStore(StoreConfig storeConfig, S3StreamConfig streamConfig, StoreMetadataService metadataService) {
@@ -89,18 +91,21 @@ public class S3StreamStore implements StreamStore {
         }
 
         S3Operator defaultOperator = new DefaultS3Operator(streamConfig.s3Endpoint(), streamConfig.s3Region(), streamConfig.s3Bucket(),
-            streamConfig.s3ForcePathStyle(), streamConfig.s3AccessKey(), streamConfig.s3SecretKey(), networkInboundLimiter, networkOutboundLimiter, true);
+            streamConfig.s3ForcePathStyle(), streamConfig.s3AccessKey(), streamConfig.s3SecretKey(), networkInboundLimiter, networkOutboundLimiter, true,
+            streamConfig.s3ReadSplitSize(), streamConfig.s3ReadSplitConcurrency());
 
         WriteAheadLog writeAheadLog = BlockWALService.builder(s3Config.walPath(), s3Config.walCapacity()).config(s3Config).build();
-        S3BlockCache blockCache = new DefaultS3BlockCache(s3Config, objectManager, defaultOperator);
+        StreamCacheStats streamCacheStats = new StreamCacheStats(s3Config.streamCacheStatsMaxStreams(), true);
+        this.blockCache = new DefaultS3BlockCache(s3Config, objectManager, defaultOperator, streamCacheStats);
 
         // Build the s3 storage
-        this.storage = new S3Storage(s3Config, writeAheadLog, streamManager, objectManager, blockCache, defaultOperator);
+        this.storage = new S3Storage(s3Config, writeAheadLog, streamManager, objectManager, blockCache, defaultOperator,
+            streamCacheStats);
 
         // Build the compaction manager
         S3Operator compactionOperator = new DefaultS3Operator(streamConfig.s3Endpoint(), streamConfig.s3Region(), streamConfig.s3Bucket(),
             streamConfig.s3ForcePathStyle(), streamConfig.s3AccessKey(), streamConfig.s3SecretKey(), networkInboundLimiter, networkOutboundLimiter, true);
-        this.compactionManager = new CompactionManager(s3Config, objectManager, streamManager, compactionOperator);
+        this.compactionManager = new CompactionManager(s3Config, objectManager, streamManager, compactionOperator, blockCache.readStats());
 
         this.streamClient = new S3StreamClient(streamManager, storage, objectManager, defaultOperator, s3Config, networkInboundLimiter, networkOutboundLimiter);
         this.storeWorkingThreadPool = ThreadPoolMonitor.createAndMonitor(
@@ -118,6 +123,13 @@ public class S3StreamStore implements StreamStore {
     @WithSpan(kind = SpanKind.SERVER)
     public CompletableFuture<FetchResult> fetch(StoreContext context, @SpanAttribute long streamId,
         @SpanAttribute long startOffset, @SpanAttribute int maxCount) {
+        return fetch(context, streamId, startOffset, maxCount, ReadOptions.DEFAULT);
+    }
+
+    @Override
+    @WithSpan(kind = SpanKind.SERVER)
+    public CompletableFuture<FetchResult> fetch(StoreContext context, @SpanAttribute long streamId,
+        @SpanAttribute long startOffset, @SpanAttribute int maxCount, ReadOptions readOptions) {
 
         if (maxCount <= 0) {
             return CompletableFuture.completedFuture(new EmptyFetchResult());
@@ -127,7 +139,7 @@ public class S3StreamStore implements StreamStore {
         if (stream.isEmpty()) {
             throw new IllegalStateException("Stream " + streamId + " is not opened.");
         }
-        return stream.get().fetch(startOffset, startOffset + maxCount, Integer.MAX_VALUE)
+        return stream.get().fetch(startOffset, startOffset + maxCount, Integer.MAX_VALUE, readOptions)
             .thenApplyAsync(result -> {
                 context.span().ifPresent(span -> {
                     span.setAttribute("messageCount", result.recordBatchList().size());
@@ -137,6 +149,19 @@ public class S3StreamStore implements StreamStore {
             }, storeWorkingThreadPool);
     }
 
+    @Override
+    public CompletableFuture<Void> warmUp(long streamId, long startOffset, int maxBytes) {
+        Optional<Stream> stream = streamClient.getStream(streamId);
+        if (stream.isEmpty() || maxBytes <= 0 || startOffset >= stream.get().confirmOffset()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Fetch through the normal read path to load the data blocks and the object indexes into cache,
+        // the records are released immediately.
+        ReadOptions readOptions = ReadOptions.builder().pooledBuf(true).warmUp(true).build();
+        return stream.get().fetch(startOffset, stream.get().confirmOffset(), maxBytes, readOptions)
+            .thenAccept(FetchResult::free);
+    }
+
     @Override
     @WithSpan(kind = SpanKind.SERVER)
     public CompletableFuture<AppendResult> append(StoreContext context, long streamId, RecordBatch recordBatch) {
@@ -163,7 +188,7 @@ public class S3StreamStore implements StreamStore {
         List<CompletableFuture<Void>> futureList = streamIds.stream()
             .map(streamId -> {
                 Optional<Stream> stream = streamClient.getStream(streamId);
-                return stream.map(Stream::close).orElse(null);
+                return stream.map(s -> s.close().whenComplete((nil, ex) -> blockCache.onStreamClose(streamId))).orElse(null);
             })
             .filter(Objects::nonNull)
             .toList();
@@ -256,15 +281,24 @@ public class S3StreamStore implements StreamStore {
         config.refillPeriodMs(streamConfig.refillPeriodMs());
 
         config.objectBlockSize(streamConfig.objectBlockSize());
+        config.walUploadObjectIdBatchSize(streamConfig.walUploadObjectIdBatchSize());
+        config.walUploadStreamingEnable(streamConfig.walUploadStreamingEnable());
 
         // Cache
         config.walCacheSize(streamConfig.walCacheSize());
         config.blockCacheSize(streamConfig.blockCacheSize());
+        config.catchUpReadOffsetLag(streamConfig.catchUpReadOffsetLag());
+        config.catchUpReadCacheSize(streamConfig.catchUpReadCacheSize());
+        config.catchUpReadInflightSize(streamConfig.catchUpReadInflightSize());
+        config.catchUpReadThreadCount(streamConfig.catchUpReadThreadCount());
+        config.streamCacheStatsMaxStreams(streamConfig.streamCacheStatsMaxStreams());
 
         // Compaction config
         config.streamObjectCompactionIntervalMinutes(streamConfig.streamObjectCompactionIntervalMinutes());
         config.streamObjectCompactionMaxSizeBytes(streamConfig.streamObjectCompactionMaxSizeBytes());
         config.streamObjectCompactionLivingTimeMinutes(streamConfig.streamObjectCompactionLivingTimeMinutes());
+        config.streamObjectCompactionSizeTierFactor(streamConfig.streamObjectCompactionSizeTierFactor());
+        config.streamObjectCompactionSizeTierBaseSizeBytes(streamConfig.streamObjectCompactionSizeTierBaseSizeBytes());
 
         config.streamSetObjectCompactionInterval(streamConfig.streamSetObjectCompactionInterval());
         config.streamSetObjectCompactionCacheSize(streamConfig.streamSetObjectCompactionCacheSize());
@@ -272,6 +306,10 @@ public class S3StreamStore implements StreamStore {
         config.streamSetObjectCompactionMaxObjectNum(streamConfig.streamSetObjectCompactionMaxObjectNum());
         config.streamSetObjectCompactionForceSplitPeriod(streamConfig.streamSetObjectCompactionForceSplitPeriod());
         config.streamSetObjectCompactionStreamSplitSize(streamConfig.streamSetObjectCompactionStreamSplitSize());
+        config.streamSetObjectCompactionHotStreamSplitSize(streamConfig.streamSetObjectCompactionHotStreamSplitSize());
+        config.streamSetObjectCompactionParallelism(streamConfig.streamSetObjectCompactionParallelism());
+        config.streamSetObjectCompactionTriggerObjectNum(streamConfig.streamSetObjectCompactionTriggerObjectNum());
+        config.streamSetObjectCompactionBandwidth(streamConfig.streamSetObjectCompactionBandwidth());
         config.streamSplitSize(streamConfig.streamSplitSizeThreshold());
         return config;
     }
@@ -19,6 +19,7 @@ package com.automq.rocketmq.store.api;
 
 import com.automq.rocketmq.common.model.generated.FlatMessage;
 import com.automq.rocketmq.store.model.StoreContext;
+import com.automq.rocketmq.store.model.generated.TimerMessageRef;
 import com.automq.rocketmq.store.model.message.AckResult;
 import com.automq.rocketmq.store.model.message.ChangeInvisibleDurationResult;
 import com.automq.rocketmq.store.model.message.Filter;
@@ -26,6 +27,8 @@ import com.automq.rocketmq.store.model.message.PopResult;
 import com.automq.rocketmq.store.model.message.PullResult;
 import com.automq.rocketmq.store.model.message.PutResult;
 import com.automq.rocketmq.store.model.message.ResetConsumeOffsetResult;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 public abstract class LogicQueue {
@@ -54,6 +57,29 @@ public abstract class LogicQueue {
     public abstract CompletableFuture<PutResult> putRetry(StoreContext context, long consumerGroupId,
         FlatMessage flatMessage);
 
+    /**
+     * Append the messages to the retry stream of the consumer group as one record.
+     *
+     * @return {@link CompletableFuture} of the result, whose offset is the offset of the first message
+     */
+    public abstract CompletableFuture<PutResult> putRetry(StoreContext context, long consumerGroupId,
+        List<FlatMessage> flatMessages);
+
+    /**
+     * Persist a delayed message in the timer stream of the queue, it is put to the queue once it is due.
+     */
+    public abstract CompletableFuture<PutResult> putTimer(StoreContext context, FlatMessage flatMessage);
+
+    /**
+     * Fetch the delayed message referred to by a timer tag, empty if it has been delivered.
+     */
+    public abstract CompletableFuture<Optional<FlatMessage>> fetchTimer(TimerMessageRef ref);
+
+    /**
+     * Mark the delayed message referred to by a timer tag as delivered.
+     */
+    public abstract CompletableFuture<Void> commitTimer(TimerMessageRef ref, long deliveryTimestamp);
+
     public abstract CompletableFuture<PopResult> popNormal(StoreContext context, long consumerGroup, Filter filter,
         int batchSize, long invisibleDuration);
 
@@ -82,6 +108,16 @@ public abstract class LogicQueue {
     public abstract CompletableFuture<PullResult> pullRetry(long consumerGroupId, Filter filter, long startOffset,
         int batchSize);
 
+    public CompletableFuture<PullResult> pullNormal(long consumerGroupId, Filter filter, long startOffset,
+        int batchSize, boolean pooledBuf) {
+        return pullNormal(consumerGroupId, filter, startOffset, batchSize);
+    }
+
+    public CompletableFuture<PullResult> pullRetry(long consumerGroupId, Filter filter, long startOffset,
+        int batchSize, boolean pooledBuf) {
+        return pullRetry(consumerGroupId, filter, startOffset, batchSize);
+    }
+
     public abstract long getConsumeOffset(long consumerGroupId);
 
     public abstract long getAckOffset(long consumerGroupId);
@@ -94,6 +130,11 @@ public abstract class LogicQueue {
 
     public abstract int getConsumeTimes(long consumerGroupId, long offset);
 
+    /**
+     * Check whether the stream is one of the data, operation, snapshot or retry streams of this queue.
+     */
+    public abstract boolean ownsStream(long streamId);
+
     public enum State {
         INIT,
         OPENING,
@@ -44,4 +44,12 @@ public interface LogicQueueManager extends Lifecycle {
     CompletableFuture<Optional<LogicQueue>> get(long topicId, int queueId);
 
     CompletableFuture<Void> close(long topicId, int queueId);
+
+    /**
+     * Find the opened logic queue which owns the specified stream.
+     *
+     * @param streamId stream id
+     * @return the logic queue if the stream belongs to an opened queue of this node
+     */
+    Optional<LogicQueue> findByStreamId(long streamId);
 }
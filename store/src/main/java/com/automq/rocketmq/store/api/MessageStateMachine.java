@@ -20,11 +20,14 @@ package com.automq.rocketmq.store.api;
 import com.automq.rocketmq.store.exception.StoreException;
 import com.automq.rocketmq.store.model.generated.CheckPoint;
 import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.rocketmq.store.model.operation.BatchAckOperation;
+import com.automq.rocketmq.store.model.operation.BatchPopOperation;
 import com.automq.rocketmq.store.model.operation.ChangeInvisibleDurationOperation;
 import com.automq.rocketmq.store.model.operation.OperationSnapshot;
 import com.automq.rocketmq.store.model.operation.PopOperation;
 import com.automq.rocketmq.store.model.operation.ResetConsumeOffsetOperation;
 import java.util.List;
+import java.util.Set;
 
 public interface MessageStateMachine {
     long topicId();
@@ -35,18 +38,42 @@ public interface MessageStateMachine {
 
     ReplayPopResult replayPopOperation(long operationOffset, PopOperation operation) throws StoreException;
 
+    /**
+     * Replay a batch pop, the i-th popped message takes the operation id {@code operationOffset + i}.
+     *
+     * @return the replay result of each popped message
+     */
+    List<ReplayPopResult> replayBatchPopOperation(long operationOffset, BatchPopOperation operation) throws StoreException;
+
     void replayAckOperation(long operationOffset, AckOperation operation) throws StoreException;
 
+    /**
+     * Replay acks committed together, the check points of all acks are deleted in one KV batch.
+     *
+     * @return whether each ack is applied, an ack is not applied if its check point is not found
+     */
+    boolean[] replayBatchAckOperation(long operationOffset, BatchAckOperation operation) throws StoreException;
+
     void replayChangeInvisibleDurationOperation(long operationOffset, ChangeInvisibleDurationOperation operation);
 
     void replayResetConsumeOffsetOperation(long operationOffset, ResetConsumeOffsetOperation operation);
 
     OperationSnapshot takeSnapshot() throws StoreException;
 
+    /**
+     * Take a snapshot of the consumer groups changed since the last snapshot, along with the keys of the changed check points.
+     */
+    OperationSnapshot takeDeltaSnapshot() throws StoreException;
+
     void loadSnapshot(OperationSnapshot snapshot);
 
     void clear() throws StoreException;
 
+    /**
+     * Get the consumer groups which have consumed this queue.
+     */
+    Set<Long> consumerGroups();
+
     long consumeOffset(long consumerGroupId);
 
     long ackOffset(long consumerGroupId);
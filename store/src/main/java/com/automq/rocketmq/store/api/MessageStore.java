@@ -28,6 +28,8 @@ import com.automq.rocketmq.store.model.message.PopResult;
 import com.automq.rocketmq.store.model.message.PullResult;
 import com.automq.rocketmq.store.model.message.PutResult;
 import com.automq.rocketmq.store.model.message.ResetConsumeOffsetResult;
+import com.automq.rocketmq.store.model.stream.StreamCacheStat;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public interface MessageStore extends Lifecycle {
@@ -63,6 +65,19 @@ public interface MessageStore extends Lifecycle {
     CompletableFuture<PullResult> pull(long consumerGroupId, long topicId, int queueId, Filter filter, long offset,
         int batchSize, boolean retry);
 
+    /**
+     * Pull messages from the specified topic and queue, the messages are optionally backed by pooled buffers
+     * without being copied to heap.
+     *
+     * @param pooledBuf whether to back the messages by pooled buffers, if true the caller must call
+     *                  {@link PullResult#release()} after the messages are consumed and must not mutate the messages
+     * @return pull result, see {@link PullResult}
+     */
+    default CompletableFuture<PullResult> pull(long consumerGroupId, long topicId, int queueId, Filter filter,
+        long offset, int batchSize, boolean retry, boolean pooledBuf) {
+        return pull(consumerGroupId, topicId, queueId, filter, offset, batchSize, retry);
+    }
+
     /**
      * Put a message to the specified topic and queue.
      *
@@ -102,6 +117,14 @@ public interface MessageStore extends Lifecycle {
 
     CompletableFuture<Integer> getInflightStats(long consumerGroupId, long topicId, int queueId);
 
+    /**
+     * Get cache statistics of the streams which cost most S3 reads on this node.
+     *
+     * @param topK max number of streams to return
+     * @return cache statistics sorted by S3 read cost in descending order, see {@link StreamCacheStat}
+     */
+    CompletableFuture<List<StreamCacheStat>> getStreamCacheStats(int topK);
+
     /**
      * Get offset range in queue.
      *
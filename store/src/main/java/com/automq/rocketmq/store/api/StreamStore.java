@@ -21,7 +21,10 @@ import com.automq.rocketmq.common.util.Lifecycle;
 import com.automq.rocketmq.store.model.StoreContext;
 import com.automq.stream.api.AppendResult;
 import com.automq.stream.api.FetchResult;
+import com.automq.stream.api.ReadOptions;
 import com.automq.stream.api.RecordBatch;
+import com.automq.stream.s3.cache.StreamCacheStats;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -57,6 +60,46 @@ public interface StreamStore extends Lifecycle {
      */
     CompletableFuture<FetchResult> fetch(StoreContext context, long streamId, long startOffset, int maxCount);
 
+    /**
+     * Fetch records from stream store with read options.
+     * <p>
+     * If {@link ReadOptions#pooledBuf()} is set, the payloads of the records are backed by the pooled buffers of the
+     * stream and the caller must call {@link FetchResult#free()} after the records are consumed.
+     *
+     * @param streamId    the target stream id.
+     * @param startOffset the start offset of the fetch.
+     * @param maxCount    the max return count of the fetch.
+     * @param readOptions the read options.
+     * @return the future of fetch result.
+     */
+    default CompletableFuture<FetchResult> fetch(StoreContext context, long streamId, long startOffset, int maxCount,
+        ReadOptions readOptions) {
+        return fetch(context, streamId, startOffset, maxCount);
+    }
+
+    /**
+     * Prefetch records from the start offset into the cache of stream store, so that the following fetches are
+     * served from cache.
+     *
+     * @param streamId    the target stream id.
+     * @param startOffset the start offset to warm up.
+     * @param maxBytes    the max bytes to warm up.
+     * @return the future of warm-up result.
+     */
+    default CompletableFuture<Void> warmUp(long streamId, long startOffset, int maxBytes) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Get the cache statistics of the streams which cost most S3 reads.
+     *
+     * @param topK the max number of streams to return.
+     * @return the cache statistics sorted by S3 read cost in descending order.
+     */
+    default List<StreamCacheStats.Snapshot> streamCacheStats(int topK) {
+        return Collections.emptyList();
+    }
+
     /**
      * Append record batch to stream store.
      *
@@ -24,6 +24,9 @@ public class StoreMetricsConstant {
     public static final String GAUGE_CONSUMER_READY_MESSAGES = "rocketmq_consumer_ready_messages";
     public static final String COUNTER_CONSUMER_SEND_TO_DLQ_MESSAGES_TOTAL = "rocketmq_send_to_dlq_messages_total";
     public static final String HISTOGRAM_STREAM_OPERATION_TIME = "rocketmq_stream_operation_time";
+    public static final String COUNTER_ACK_RECORDS_TOTAL = "rocketmq_ack_records_total";
+    public static final String COUNTER_ACK_OPERATIONS_TOTAL = "rocketmq_ack_operations_total";
+    public static final String GAUGE_SNAPSHOT_LAG_OPERATIONS = "rocketmq_snapshot_lag_operations";
 
     public static final String LABEL_TOPIC = "topic";
     public static final String LABEL_QUEUE_ID = "queue_id";
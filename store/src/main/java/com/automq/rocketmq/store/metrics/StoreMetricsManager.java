@@ -23,8 +23,10 @@ import com.automq.rocketmq.common.config.MetricsConfig;
 import com.automq.rocketmq.store.MessageStoreImpl;
 import com.automq.rocketmq.store.api.LogicQueue;
 import com.automq.rocketmq.store.api.StreamStore;
+import com.automq.rocketmq.store.model.message.TopicQueueId;
 import com.automq.rocketmq.store.queue.DefaultLogicQueueManager;
 import com.automq.rocketmq.store.queue.StreamLogicQueue;
+import com.automq.rocketmq.store.service.SnapshotService;
 import com.google.common.collect.Sets;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.common.AttributesBuilder;
@@ -35,7 +37,9 @@ import io.opentelemetry.sdk.metrics.InstrumentSelector;
 import io.opentelemetry.sdk.metrics.View;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.rocketmq.common.metrics.NopLongCounter;
@@ -43,11 +47,14 @@ import org.apache.rocketmq.common.metrics.NopObservableLongGauge;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.COUNTER_ACK_OPERATIONS_TOTAL;
+import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.COUNTER_ACK_RECORDS_TOTAL;
 import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.GAUGE_CONSUMER_INFLIGHT_MESSAGES;
 import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.GAUGE_CONSUMER_LAG_LATENCY;
 import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.GAUGE_CONSUMER_LAG_MESSAGES;
 import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.GAUGE_CONSUMER_QUEUEING_LATENCY;
 import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.GAUGE_CONSUMER_READY_MESSAGES;
+import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.GAUGE_SNAPSHOT_LAG_OPERATIONS;
 import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.LABEL_CONSUMER_GROUP;
 import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.LABEL_IS_RETRY;
 import static com.automq.rocketmq.store.metrics.StoreMetricsConstant.LABEL_QUEUE_ID;
@@ -69,11 +76,19 @@ public class StoreMetricsManager extends ServiceThread implements MetricsManager
     public static LongCounter retryMessages = new NopLongCounter();
     public static LongCounter deadLetterMessages = new NopLongCounter();
 
+    // The ratio of ack operations to ack records is the batching efficiency of group-committed acks
+    public static LongCounter ackRecords = new NopLongCounter();
+    public static LongCounter ackOperations = new NopLongCounter();
+
+    // Operations to replay on recovery of each queue, which are not covered by a snapshot yet
+    public static ObservableLongGauge snapshotLagOperations = new NopObservableLongGauge();
+
     private static Supplier<AttributesBuilder> attributesBuilderSupplier;
 
     private final MetricsConfig config;
     private final MessageStoreImpl messageStore;
     private static Set<LagRecord> lagRecordSet = Sets.newConcurrentHashSet();
+    private static Map<TopicQueueId, Long> snapshotLagMap = new ConcurrentHashMap<>();
 
     public static AttributesBuilder newAttributesBuilder() {
         if (attributesBuilderSupplier == null) {
@@ -99,7 +114,9 @@ public class StoreMetricsManager extends ServiceThread implements MetricsManager
 
             StreamStore streamStore = messageStore.streamStore();
             DefaultLogicQueueManager manager = (DefaultLogicQueueManager) messageStore.topicQueueManager();
+            SnapshotService snapshotService = messageStore.snapshotService();
             Set<LagRecord> newLagRecordSet = Sets.newConcurrentHashSet();
+            Map<TopicQueueId, Long> newSnapshotLagMap = new ConcurrentHashMap<>();
             manager.logicQueueMap().forEach((topicQueueId, logicQueueFuture) -> {
                 if (!logicQueueFuture.isDone() || logicQueueFuture.isCompletedExceptionally()) {
                     return;
@@ -119,11 +136,13 @@ public class StoreMetricsManager extends ServiceThread implements MetricsManager
                             confirmOffset - consumeOffset + inflightCount, 0, inflightCount, 0, confirmOffset - consumeOffset);
                         newLagRecordSet.add(record);
                     });
+                    newSnapshotLagMap.put(topicQueueId, snapshotService.getSnapshotStatus(logicQueue.topicId(), logicQueue.queueId()).lag());
                 } catch (Exception e) {
                     LOGGER.error("Failed to update metrics for logic queue {}", topicQueueId, e);
                 }
             });
             lagRecordSet = newLagRecordSet;
+            snapshotLagMap = newSnapshotLagMap;
         }
     }
 
@@ -143,7 +162,13 @@ public class StoreMetricsManager extends ServiceThread implements MetricsManager
 
     @Override
     public void initStaticMetrics(Meter meter) {
+        ackRecords = meter.counterBuilder(COUNTER_ACK_RECORDS_TOTAL)
+            .setDescription("Total number of operation log records appended for acks")
+            .build();
 
+        ackOperations = meter.counterBuilder(COUNTER_ACK_OPERATIONS_TOTAL)
+            .setDescription("Total number of acks appended to operation log")
+            .build();
     }
 
     @Override
@@ -170,6 +195,14 @@ public class StoreMetricsManager extends ServiceThread implements MetricsManager
             .ofLongs()
             .buildWithCallback(measurement -> lagRecordSet.forEach(record -> measurement.record(record.queueingLatency(), buildLagAttributes(record))));
 
+        snapshotLagOperations = meter.gaugeBuilder(GAUGE_SNAPSHOT_LAG_OPERATIONS)
+            .setDescription("Operations not covered by a snapshot of the queue")
+            .ofLongs()
+            .buildWithCallback(measurement -> snapshotLagMap.forEach((topicQueueId, lag) -> measurement.record(lag, newAttributesBuilder()
+                .put(LABEL_TOPIC, topicQueueId.topicId())
+                .put(LABEL_QUEUE_ID, topicQueueId.queueId())
+                .build())));
+
         consumerReadyMessages = meter.gaugeBuilder(GAUGE_CONSUMER_READY_MESSAGES)
             .setDescription("Consumer ready messages")
             .ofLongs()
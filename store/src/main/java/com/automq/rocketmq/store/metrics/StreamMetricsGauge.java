@@ -20,16 +20,25 @@ package com.automq.rocketmq.store.metrics;
 import com.automq.stream.s3.metrics.Gauge;
 import io.opentelemetry.api.common.AttributesBuilder;
 import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
 import java.util.Map;
 import java.util.function.Supplier;
 
 public class StreamMetricsGauge extends BaseStreamMetrics {
+    private final ObservableLongGauge observableGauge;
 
     public StreamMetricsGauge(String name, Map<String, String> tags,
         Meter meter, Supplier<AttributesBuilder> attributesBuilderSupplier, Gauge gauge) {
         super(name, tags, meter, attributesBuilderSupplier);
-        this.meter.gaugeBuilder(this.metricsName)
+        this.observableGauge = this.meter.gaugeBuilder(this.metricsName)
             .ofLongs()
             .buildWithCallback(measurement -> measurement.record(gauge.value(), newAttributesBuilder().build()));
     }
+
+    /**
+     * Stop reporting the gauge.
+     */
+    public void close() {
+        observableGauge.close();
+    }
 }
@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -42,6 +43,7 @@ public class StreamMetricsManager implements MetricsManager, S3StreamMetricsGrou
     private static Supplier<AttributesBuilder> attributesBuilderSupplier;
     private static Meter meter;
     private static NoopS3StreamMetricsGroup noopS3StreamMetricsGroup = new NoopS3StreamMetricsGroup();
+    private static final Map<Pair<String, Map<String, String>>, StreamMetricsGauge> GAUGES = new ConcurrentHashMap<>();
 
     @Override
     public void initAttributesBuilder(Supplier<AttributesBuilder> attributesBuilderSupplier) {
@@ -111,9 +113,21 @@ public class StreamMetricsManager implements MetricsManager, S3StreamMetricsGrou
     @Override
     public void newGauge(String name, Map<String, String> tags, Gauge gauge) {
         if (meter != null && attributesBuilderSupplier != null) {
-            new StreamMetricsGauge(name, tags, meter, attributesBuilderSupplier, gauge);
+            StreamMetricsGauge prev = GAUGES.put(Pair.of(name, tags),
+                new StreamMetricsGauge(name, tags, meter, attributesBuilderSupplier, gauge));
+            if (prev != null) {
+                prev.close();
+            }
             return;
         }
         noopS3StreamMetricsGroup.newGauge(name, tags, gauge);
     }
+
+    @Override
+    public void removeGauge(String name, Map<String, String> tags) {
+        StreamMetricsGauge gauge = GAUGES.remove(Pair.of(name, tags));
+        if (gauge != null) {
+            gauge.close();
+        }
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.automq.rocketmq.store.model.message;
+
+import com.automq.rocketmq.common.model.generated.FlatMessage;
+import com.automq.rocketmq.common.model.generated.KeyValue;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.filter.expression.EvaluationContext;
+
+/**
+ * FlatMessageEvaluationContext resolves the properties referenced by a SQL92 expression straight from the flatbuffer.
+ * <p>
+ * User property keys are compared as UTF-8 bytes, so only the value of a matched property is decoded into a string,
+ * and no property map is built. The context is meant to be reset and reused across the messages of one fetch.
+ */
+class FlatMessageEvaluationContext implements EvaluationContext {
+    private final KeyValue keyValue = new KeyValue();
+    private final Map<String, byte[]> encodedNames = new HashMap<>();
+    private FlatMessage message;
+
+    FlatMessageEvaluationContext reset(FlatMessage message) {
+        this.message = message;
+        return this;
+    }
+
+    @Override
+    public Object get(String name) {
+        // Tags and keys live in dedicated fields of the flat message, use the property names of RocketMQ for them.
+        if (MessageConst.PROPERTY_TAGS.equals(name)) {
+            return message.tag();
+        }
+        if (MessageConst.PROPERTY_KEYS.equals(name)) {
+            return message.keys();
+        }
+
+        byte[] encodedName = encodedNames.computeIfAbsent(name, key -> key.getBytes(StandardCharsets.UTF_8));
+        int length = message.userPropertiesLength();
+        for (int i = 0; i < length; i++) {
+            message.userProperties(keyValue, i);
+            if (keyEquals(keyValue.keyAsByteBuffer(), encodedName)) {
+                return keyValue.value();
+            }
+        }
+        return null;
+    }
+
+    private static boolean keyEquals(ByteBuffer key, byte[] name) {
+        if (key == null || key.remaining() != name.length) {
+            return false;
+        }
+        int position = key.position();
+        for (int i = 0; i < name.length; i++) {
+            if (key.get(position + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Only used by the bloom filter of RocketMQ, which is not supported in the store, so the map is built on demand.
+     */
+    @Override
+    public Map<String, Object> keyValues() {
+        Map<String, Object> keyValues = new HashMap<>();
+        int length = message.userPropertiesLength();
+        for (int i = 0; i < length; i++) {
+            message.userProperties(keyValue, i);
+            keyValues.put(keyValue.key(), keyValue.value());
+        }
+        if (message.tag() != null) {
+            keyValues.put(MessageConst.PROPERTY_TAGS, message.tag());
+        }
+        if (message.keys() != null) {
+            keyValues.put(MessageConst.PROPERTY_KEYS, message.keys());
+        }
+        return keyValues;
+    }
+}
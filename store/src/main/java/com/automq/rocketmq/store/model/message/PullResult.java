@@ -18,9 +18,30 @@
 package com.automq.rocketmq.store.model.message;
 
 import com.automq.rocketmq.common.model.FlatMessageExt;
+import com.automq.stream.api.FetchResult;
+import java.util.Collections;
 import java.util.List;
 
-public record PullResult(Status status, long nextBeginOffset, long minOffset, long maxOffset, List<FlatMessageExt> messageList) {
+/**
+ * Result of pull.
+ * <p>
+ * If pulled with pooled buffer, the messages are backed by {@link #pooledFetchResults} and the caller must call
+ * {@link #release()} once it is done with the messages. The messages must not be mutated since the buffers are
+ * shared with the stream cache.
+ */
+public record PullResult(Status status, long nextBeginOffset, long minOffset, long maxOffset, List<FlatMessageExt> messageList,
+                         List<FetchResult> pooledFetchResults) {
+    public PullResult(Status status, long nextBeginOffset, long minOffset, long maxOffset, List<FlatMessageExt> messageList) {
+        this(status, nextBeginOffset, minOffset, maxOffset, messageList, Collections.emptyList());
+    }
+
+    /**
+     * Release the pooled buffers backing the messages.
+     */
+    public void release() {
+        pooledFetchResults.forEach(FetchResult::free);
+    }
+
     public enum Status {
         FOUND,
         NO_NEW_MSG,
@@ -18,21 +18,87 @@
 package com.automq.rocketmq.store.model.message;
 
 import com.automq.rocketmq.common.model.FlatMessageExt;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.apache.rocketmq.filter.expression.BooleanExpression;
+import org.apache.rocketmq.filter.parser.SelectorParser;
+
+/**
+ * SQLFilter evaluates a SQL92 expression of RocketMQ against the tag, keys and user properties of flat messages.
+ * <p>
+ * Expressions are compiled once per distinct text and shared by all the subscriptions using it.
+ */
+public class SQLFilter implements Filter {
+    private static final Cache<String, BooleanExpression> COMPILED_EXPRESSIONS = CacheBuilder.newBuilder()
+        .maximumSize(1024)
+        .build();
+
+    private final String expression;
+    private final BooleanExpression compiledExpression;
+
+    public SQLFilter(String expression) {
+        if (Strings.isNullOrEmpty(expression)) {
+            throw new IllegalArgumentException("Expression can not be null or empty");
+        }
+        this.expression = expression;
+        this.compiledExpression = compile(expression);
+    }
+
+    private static BooleanExpression compile(String expression) {
+        try {
+            return COMPILED_EXPRESSIONS.get(expression, () -> SelectorParser.parse(expression));
+        } catch (ExecutionException e) {
+            throw new IllegalArgumentException("Invalid SQL92 expression: " + expression, e.getCause());
+        }
+    }
 
-public record SQLFilter(String expression) implements Filter {
     @Override
     public FilterType type() {
         return FilterType.SQL;
     }
 
+    @Override
+    public String expression() {
+        return expression;
+    }
+
     @Override
     public List<FlatMessageExt> doFilter(List<FlatMessageExt> messageList) {
-        return messageList;
+        FlatMessageEvaluationContext context = new FlatMessageEvaluationContext();
+        List<FlatMessageExt> result = new ArrayList<>(messageList.size());
+        for (FlatMessageExt messageExt : messageList) {
+            if (matches(context.reset(messageExt.message()))) {
+                result.add(messageExt);
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(FlatMessageEvaluationContext context) {
+        try {
+            return compiledExpression.matches(context);
+        } catch (Exception e) {
+            // Same as the broker of RocketMQ, a message the expression fails to evaluate on is filtered out.
+            return false;
+        }
     }
 
+    /**
+     * The expression may refer to properties other than the tag, so any arrival may match.
+     */
     @Override
     public boolean doFilter(String tag) {
         return true;
     }
+
+    @Override
+    public String toString() {
+        return "SQLFilter{" +
+            "expression='" + expression + '\'' +
+            '}';
+    }
 }
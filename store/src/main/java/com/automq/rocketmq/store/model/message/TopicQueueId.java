@@ -33,6 +33,14 @@ public class TopicQueueId {
         return new TopicQueueId(topicId, queueId);
     }
 
+    public long topicId() {
+        return topicId;
+    }
+
+    public int queueId() {
+        return queueId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
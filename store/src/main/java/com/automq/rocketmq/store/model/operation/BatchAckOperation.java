@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.model.operation;
+
+import com.automq.rocketmq.store.api.MessageStateMachine;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Acks of a queue committed together as one record of the operation stream.
+ */
+public class BatchAckOperation extends Operation {
+    private final List<AckOperation> ackOperations;
+
+    public BatchAckOperation(long topicId, int queueId, long operationStreamId, long snapshotStreamId,
+        MessageStateMachine stateMachine, List<AckOperation> ackOperations) {
+        this.topicId = topicId;
+        this.queueId = queueId;
+        this.operationStreamId = operationStreamId;
+        this.snapshotStreamId = snapshotStreamId;
+        this.stateMachine = stateMachine;
+        this.ackOperations = ackOperations;
+    }
+
+    public List<AckOperation> ackOperations() {
+        return ackOperations;
+    }
+
+    @Override
+    public OperationType operationType() {
+        return OperationType.BATCH_ACK;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        BatchAckOperation that = (BatchAckOperation) o;
+        return topicId == that.topicId && queueId == that.queueId && Objects.equals(ackOperations, that.ackOperations);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(topicId, queueId, ackOperations);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchAckOperation{" +
+            "topicId=" + topicId +
+            ", queueId=" + queueId +
+            ", ackCount=" + ackOperations.size() +
+            '}';
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.model.operation;
+
+import com.automq.rocketmq.store.api.MessageStateMachine;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Pop of a batch of messages, logged as one record of the operation stream.
+ * <p>
+ * The record takes one offset of the operation stream for each popped message, so the i-th message in
+ * {@link #offsets()} is identified by the operation id {@code baseOffset + i}.
+ */
+public class BatchPopOperation extends Operation {
+    private final long consumerGroupId;
+    private final long startOffset;
+    private final long endOffset;
+    private final long[] offsets;
+    private final long invisibleDuration;
+    private final PopOperation.PopOperationType popOperationType;
+
+    public BatchPopOperation(long topicId, int queueId, long operationStreamId, long snapshotStreamId,
+        MessageStateMachine stateMachine, long consumerGroupId, long startOffset, long endOffset, long[] offsets,
+        long invisibleDuration, long operationTimestamp, PopOperation.PopOperationType popOperationType) {
+        this.topicId = topicId;
+        this.queueId = queueId;
+        this.operationStreamId = operationStreamId;
+        this.snapshotStreamId = snapshotStreamId;
+        this.stateMachine = stateMachine;
+        this.consumerGroupId = consumerGroupId;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.offsets = offsets;
+        this.invisibleDuration = invisibleDuration;
+        this.operationTimestamp = operationTimestamp;
+        this.popOperationType = popOperationType;
+    }
+
+    public long consumerGroupId() {
+        return consumerGroupId;
+    }
+
+    public long startOffset() {
+        return startOffset;
+    }
+
+    /**
+     * The consume offset after this pop, messages in [startOffset, endOffset) not in {@link #offsets()} are filtered.
+     */
+    public long endOffset() {
+        return endOffset;
+    }
+
+    public long[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * The number of offsets this operation takes in the operation stream.
+     */
+    public int operationCount() {
+        return Math.max(1, offsets.length);
+    }
+
+    public long invisibleDuration() {
+        return invisibleDuration;
+    }
+
+    public PopOperation.PopOperationType popOperationType() {
+        return popOperationType;
+    }
+
+    @Override
+    public OperationType operationType() {
+        return OperationType.BATCH_POP;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        BatchPopOperation that = (BatchPopOperation) o;
+        return consumerGroupId == that.consumerGroupId && topicId == that.topicId && queueId == that.queueId
+            && startOffset == that.startOffset && endOffset == that.endOffset && Arrays.equals(offsets, that.offsets)
+            && invisibleDuration == that.invisibleDuration && operationTimestamp == that.operationTimestamp
+            && popOperationType == that.popOperationType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(consumerGroupId, topicId, queueId, startOffset, endOffset, Arrays.hashCode(offsets),
+            invisibleDuration, operationTimestamp, popOperationType);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchPopOperation{" +
+            "consumerGroupId=" + consumerGroupId +
+            ", startOffset=" + startOffset +
+            ", endOffset=" + endOffset +
+            ", offsets=" + Arrays.toString(offsets) +
+            ", invisibleDuration=" + invisibleDuration +
+            ", popOperationType=" + popOperationType +
+            '}';
+    }
+}
@@ -31,7 +31,9 @@ public abstract class Operation {
 
     public enum OperationType {
         POP,
+        BATCH_POP,
         ACK,
+        BATCH_ACK,
         CHANGE_INVISIBLE_DURATION,
         RESET_CONSUME_OFFSET
     }
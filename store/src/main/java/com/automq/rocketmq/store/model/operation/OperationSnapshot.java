@@ -19,7 +19,11 @@ package com.automq.rocketmq.store.model.operation;
 
 import com.automq.rocketmq.store.model.generated.CheckPoint;
 import com.automq.rocketmq.store.model.metadata.ConsumerGroupMetadata;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentSkipListMap;
 
@@ -29,6 +33,11 @@ public class OperationSnapshot {
     private List<CheckPoint> checkPoints;
     private long kvServiceSnapshotVersion;
     private final List<ConsumerGroupMetadataSnapshot> consumerGroupMetadataList;
+    // Offset of the full snapshot in the snapshot stream that this delta snapshot is based on, -1 for a full snapshot
+    private long baseSnapshotOffset = -1;
+    private List<CheckPointId> deletedCheckPoints = Collections.emptyList();
+    // Keys of the check points changed since the previous snapshot, only set by the state machine for a delta snapshot
+    private List<byte[]> changedCheckPointKeys;
 
     public OperationSnapshot(long snapshotEndOffset, long kvServiceSnapshotVersion, List<ConsumerGroupMetadataSnapshot> consumerGroupMetadataList) {
         this.snapshotEndOffset = snapshotEndOffset;
@@ -62,6 +71,56 @@ public class OperationSnapshot {
         return consumerGroupMetadataList;
     }
 
+    public long getBaseSnapshotOffset() {
+        return baseSnapshotOffset;
+    }
+
+    public void setBaseSnapshotOffset(long baseSnapshotOffset) {
+        this.baseSnapshotOffset = baseSnapshotOffset;
+    }
+
+    public boolean isDelta() {
+        return baseSnapshotOffset >= 0;
+    }
+
+    public List<CheckPointId> getDeletedCheckPoints() {
+        return deletedCheckPoints;
+    }
+
+    public void setDeletedCheckPoints(List<CheckPointId> deletedCheckPoints) {
+        this.deletedCheckPoints = deletedCheckPoints;
+    }
+
+    public List<byte[]> getChangedCheckPointKeys() {
+        return changedCheckPointKeys;
+    }
+
+    public void setChangedCheckPointKeys(List<byte[]> changedCheckPointKeys) {
+        this.changedCheckPointKeys = changedCheckPointKeys;
+    }
+
+    /**
+     * Apply the delta snapshots to the full snapshot in order.
+     *
+     * @return a full snapshot ending at the snapshot end offset of the last delta
+     */
+    public static OperationSnapshot merge(OperationSnapshot base, List<OperationSnapshot> deltas) {
+        Map<Long, ConsumerGroupMetadataSnapshot> metadataMap = new LinkedHashMap<>();
+        Map<CheckPointId, CheckPoint> checkPointMap = new LinkedHashMap<>();
+        long snapshotEndOffset = base.getSnapshotEndOffset();
+        List<OperationSnapshot> snapshots = new ArrayList<>(deltas.size() + 1);
+        snapshots.add(base);
+        snapshots.addAll(deltas);
+        for (OperationSnapshot snapshot : snapshots) {
+            snapshot.getConsumerGroupMetadataList().forEach(metadata -> metadataMap.put(metadata.getConsumerGroupId(), metadata));
+            snapshot.getDeletedCheckPoints().forEach(checkPointMap::remove);
+            snapshot.getCheckPoints().forEach(checkPoint ->
+                checkPointMap.put(new CheckPointId(checkPoint.consumerGroupId(), checkPoint.operationId()), checkPoint));
+            snapshotEndOffset = snapshot.getSnapshotEndOffset();
+        }
+        return new OperationSnapshot(snapshotEndOffset, new ArrayList<>(metadataMap.values()), new ArrayList<>(checkPointMap.values()));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -69,21 +128,25 @@ public class OperationSnapshot {
         if (o == null || getClass() != o.getClass())
             return false;
         OperationSnapshot that = (OperationSnapshot) o;
-        return snapshotEndOffset == that.snapshotEndOffset && kvServiceSnapshotVersion == that.kvServiceSnapshotVersion && Objects.equals(checkPoints, that.checkPoints) && Objects.equals(consumerGroupMetadataList, that.consumerGroupMetadataList);
+        return snapshotEndOffset == that.snapshotEndOffset && kvServiceSnapshotVersion == that.kvServiceSnapshotVersion && baseSnapshotOffset == that.baseSnapshotOffset && Objects.equals(checkPoints, that.checkPoints) && Objects.equals(consumerGroupMetadataList, that.consumerGroupMetadataList) && Objects.equals(deletedCheckPoints, that.deletedCheckPoints);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(snapshotEndOffset, checkPoints, kvServiceSnapshotVersion, consumerGroupMetadataList);
+        return Objects.hash(snapshotEndOffset, checkPoints, kvServiceSnapshotVersion, consumerGroupMetadataList, baseSnapshotOffset, deletedCheckPoints);
     }
 
     @Override
     public String toString() {
         return "OperationSnapshot{" +
             "snapshotEndOffset=" + snapshotEndOffset +
+            ", baseSnapshotOffset=" + baseSnapshotOffset +
             '}';
     }
 
+    public record CheckPointId(long consumerGroupId, long operationId) {
+    }
+
     public static class ConsumerGroupMetadataSnapshot extends ConsumerGroupMetadata {
         private final byte[] ackOffsetBitmapBuffer;
         private final byte[] retryAckOffsetBitmapBuffer;
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.model.stream;
+
+import com.automq.rocketmq.common.model.generated.FlatMessage;
+import com.automq.stream.api.RecordBatch;
+import com.automq.stream.api.RecordBatchWithContext;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A record holding multiple flat messages, each message takes one offset of the stream.
+ * <p>
+ * Each message in the payload is prefixed with its size in 4 bytes. A batch of one message is stored as
+ * {@link SingleRecord} without the prefix, so the single-message records written before are still readable.
+ */
+public record BatchRecord(int count, ByteBuffer rawPayload) implements RecordBatch {
+    private static final int SIZE_PREFIX_LENGTH = 4;
+
+    public static RecordBatch of(List<FlatMessage> messages) {
+        if (messages.size() == 1) {
+            return new SingleRecord(messages.get(0).getByteBuffer());
+        }
+        int size = 0;
+        for (FlatMessage message : messages) {
+            size += SIZE_PREFIX_LENGTH + message.getByteBuffer().remaining();
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        for (FlatMessage message : messages) {
+            ByteBuffer buffer = message.getByteBuffer();
+            payload.putInt(buffer.remaining());
+            payload.put(buffer.duplicate());
+        }
+        payload.flip();
+        return new BatchRecord(messages.size(), payload);
+    }
+
+    /**
+     * Split the payload of a record into messages.
+     *
+     * @return the buffers of the messages, the i-th message is at offset {@code baseOffset + i}
+     */
+    public static List<ByteBuffer> split(RecordBatchWithContext recordBatch) {
+        ByteBuffer payload = recordBatch.rawPayload();
+        if (recordBatch.count() == 1) {
+            return List.of(payload);
+        }
+        // duplicate to read the size prefix in big-endian regardless of the order of the payload
+        payload = payload.duplicate();
+        List<ByteBuffer> messages = new ArrayList<>(recordBatch.count());
+        while (payload.hasRemaining()) {
+            int size = payload.getInt();
+            messages.add(payload.slice(payload.position(), size));
+            payload.position(payload.position() + size);
+        }
+        return messages;
+    }
+
+    @Override
+    public long baseTimestamp() {
+        return 0;
+    }
+
+    @Override
+    public Map<String, String> properties() {
+        // We don't store any properties to S3Stream
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.model.stream;
+
+import com.automq.stream.api.RecordBatch;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * A record of the operation log holding exactly one operation, which takes count offsets of the stream.
+ * <p>
+ * A batch pop takes one offset for each popped message, so that each message has its own operation id.
+ */
+public record OperationRecord(int count, ByteBuffer rawPayload) implements RecordBatch {
+    @Override
+    public long baseTimestamp() {
+        return 0;
+    }
+
+    @Override
+    public Map<String, String> properties() {
+        // We don't store any properties to S3Stream
+        return null;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.model.stream;
+
+import com.automq.stream.s3.cache.StreamCacheStats;
+
+/**
+ * Cache statistics of a stream, attributed to the queue which owns the stream.
+ *
+ * @param topicId topic id of the owner queue, {@link #UNKNOWN} if the stream is not owned by an opened queue
+ * @param queueId queue id of the owner queue, {@link #UNKNOWN} if the stream is not owned by an opened queue
+ * @param stats   the cache statistics of the stream
+ */
+public record StreamCacheStat(long topicId, int queueId, StreamCacheStats.Snapshot stats) {
+    public static final int UNKNOWN = -1;
+}
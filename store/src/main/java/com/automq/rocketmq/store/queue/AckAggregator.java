@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.queue;
+
+import com.automq.rocketmq.store.exception.StoreErrorCode;
+import com.automq.rocketmq.store.exception.StoreException;
+import com.automq.rocketmq.store.metrics.StoreMetricsManager;
+import com.automq.rocketmq.store.model.operation.AckOperation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Group commit the acks of a queue into batched records of its operation stream. The acks of a batch are logged as one
+ * record and applied in one KV batch, the future of each ack completes when its batch is durable.
+ */
+class AckAggregator {
+    private final Coalescer<AckOperation, Boolean> coalescer;
+
+    /**
+     * @param logFunction log the acks as one record and return whether each ack is applied
+     */
+    AckAggregator(Function<List<AckOperation>, CompletableFuture<boolean[]>> logFunction, int maxInflight,
+        int maxBatchCount) {
+        this.coalescer = new Coalescer<>(operations -> log0(logFunction, operations), operation -> 1,
+            maxInflight, maxBatchCount, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Log an ack, the future fails with {@link StoreErrorCode#ILLEGAL_ARGUMENT} if the check point is not found.
+     */
+    CompletableFuture<Void> ack(AckOperation operation) {
+        return coalescer.submit(operation).thenCompose(applied -> applied ? CompletableFuture.completedFuture(null)
+            : CompletableFuture.failedFuture(new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "Ack operation failed, check point not found")));
+    }
+
+    private static CompletableFuture<List<Boolean>> log0(Function<List<AckOperation>, CompletableFuture<boolean[]>> logFunction,
+        List<AckOperation> operations) {
+        return logFunction.apply(operations).thenApply(applied -> {
+            StoreMetricsManager.ackRecords.add(1);
+            StoreMetricsManager.ackOperations.add(operations.size());
+            List<Boolean> results = new ArrayList<>(applied.length);
+            for (boolean b : applied) {
+                results.add(b);
+            }
+            return results;
+        });
+    }
+}
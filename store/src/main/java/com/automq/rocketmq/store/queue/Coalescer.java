@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.queue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Coalesce concurrent requests into batches.
+ * <p>
+ * A request is handled on its own while the inflight batches are less than {@code maxInflight}, so the latency is not
+ * affected under light load. Otherwise, it waits until an inflight batch completes, and then all the waiting requests
+ * are handled as one batch, bounded by {@code maxBatchCount} and {@code maxBatchWeight}.
+ *
+ * @param <T> the type of the requests
+ * @param <R> the type of the result of each request
+ */
+class Coalescer<T, R> {
+    private final Function<List<T>, CompletableFuture<List<R>>> batchFunction;
+    private final ToIntFunction<T> weigher;
+    private final int maxInflight;
+    private final int maxBatchCount;
+    private final int maxBatchWeight;
+    private final Queue<Pending<T, R>> waitingRequests = new ArrayDeque<>();
+    private int inflight;
+
+    /**
+     * @param batchFunction handle the requests as one batch and return the result of each request in order
+     * @param weigher       the weight of a request, e.g. its size in bytes
+     */
+    Coalescer(Function<List<T>, CompletableFuture<List<R>>> batchFunction, ToIntFunction<T> weigher,
+        int maxInflight, int maxBatchCount, int maxBatchWeight) {
+        this.batchFunction = batchFunction;
+        this.weigher = weigher;
+        this.maxInflight = Math.max(maxInflight, 1);
+        this.maxBatchCount = Math.max(maxBatchCount, 1);
+        this.maxBatchWeight = maxBatchWeight;
+    }
+
+    CompletableFuture<R> submit(T request) {
+        Pending<T, R> pending = new Pending<>(request, new CompletableFuture<>());
+        synchronized (this) {
+            if (inflight >= maxInflight || !waitingRequests.isEmpty()) {
+                waitingRequests.add(pending);
+                return pending.cf;
+            }
+            inflight++;
+        }
+        handle(List.of(pending));
+        return pending.cf;
+    }
+
+    private void handle(List<Pending<T, R>> batch) {
+        List<T> requests = new ArrayList<>(batch.size());
+        for (Pending<T, R> pending : batch) {
+            requests.add(pending.request);
+        }
+        CompletableFuture<List<R>> batchCf;
+        try {
+            batchCf = batchFunction.apply(requests);
+        } catch (Throwable e) {
+            batchCf = CompletableFuture.failedFuture(e);
+        }
+        batchCf.whenComplete((results, throwable) -> {
+            // Start the next batch before completing the requests, whose callbacks may take a while.
+            List<Pending<T, R>> nextBatch = pollBatch();
+            if (nextBatch != null) {
+                handle(nextBatch);
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (throwable != null) {
+                    batch.get(i).cf.completeExceptionally(throwable);
+                } else {
+                    batch.get(i).cf.complete(results.get(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * Poll the waiting requests as the next batch, or release the inflight slot if there is no waiting request.
+     */
+    private synchronized List<Pending<T, R>> pollBatch() {
+        if (waitingRequests.isEmpty()) {
+            inflight--;
+            return null;
+        }
+        List<Pending<T, R>> batch = new ArrayList<>(Math.min(waitingRequests.size(), maxBatchCount));
+        long batchWeight = 0;
+        while (!waitingRequests.isEmpty() && batch.size() < maxBatchCount) {
+            int weight = weigher.applyAsInt(waitingRequests.peek().request);
+            if (!batch.isEmpty() && batchWeight + weight > maxBatchWeight) {
+                break;
+            }
+            batch.add(waitingRequests.poll());
+            batchWeight += weight;
+        }
+        return batch;
+    }
+
+    private record Pending<T, R>(T request, CompletableFuture<R> cf) {
+    }
+}
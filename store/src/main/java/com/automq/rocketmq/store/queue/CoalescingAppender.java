@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.queue;
+
+import com.automq.rocketmq.common.model.generated.FlatMessage;
+import com.automq.rocketmq.store.model.StoreContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Coalesce the concurrent puts of a queue into batched appends of its data stream, bounded by the max message count
+ * and bytes of a batch.
+ */
+class CoalescingAppender {
+    private final Coalescer<PendingPut, Long> coalescer;
+
+    /**
+     * @param appendFunction append the messages as one record batch and return the base offset
+     */
+    CoalescingAppender(BiFunction<StoreContext, List<FlatMessage>, CompletableFuture<Long>> appendFunction,
+        int maxInflight, int maxBatchCount, int maxBatchBytes) {
+        this.coalescer = new Coalescer<>(puts -> append0(appendFunction, puts),
+            put -> put.message.getByteBuffer().remaining(), maxInflight, maxBatchCount, maxBatchBytes);
+    }
+
+    /**
+     * Append a message.
+     *
+     * @return the offset of the message
+     */
+    CompletableFuture<Long> append(StoreContext context, FlatMessage message) {
+        return coalescer.submit(new PendingPut(context, message));
+    }
+
+    private static CompletableFuture<List<Long>> append0(
+        BiFunction<StoreContext, List<FlatMessage>, CompletableFuture<Long>> appendFunction, List<PendingPut> puts) {
+        List<FlatMessage> messages = new ArrayList<>(puts.size());
+        for (PendingPut put : puts) {
+            messages.add(put.message);
+        }
+        // The context of the first put is used to trace the batched append.
+        return appendFunction.apply(puts.get(0).context, messages).thenApply(baseOffset -> {
+            List<Long> offsets = new ArrayList<>(puts.size());
+            for (int i = 0; i < puts.size(); i++) {
+                offsets.add(baseOffset + i);
+            }
+            return offsets;
+        });
+    }
+
+    record PendingPut(StoreContext context, FlatMessage message) {
+    }
+}
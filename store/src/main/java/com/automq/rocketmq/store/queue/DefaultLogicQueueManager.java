@@ -147,6 +147,20 @@ public class DefaultLogicQueueManager implements LogicQueueManager {
         return CompletableFuture.completedFuture(Optional.empty());
     }
 
+    @Override
+    public Optional<LogicQueue> findByStreamId(long streamId) {
+        for (CompletableFuture<LogicQueue> future : logicQueueMap.values()) {
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                continue;
+            }
+            LogicQueue logicQueue = future.join();
+            if (logicQueue.ownsStream(streamId)) {
+                return Optional.of(logicQueue);
+            }
+        }
+        return Optional.empty();
+    }
+
     @Override
     public CompletableFuture<Void> close(long topicId, int queueId) {
         LOGGER.info("{}: Close logic queue: {} queue: {}", identity, topicId, queueId);
@@ -166,7 +180,7 @@ public class DefaultLogicQueueManager implements LogicQueueManager {
 
         MessageStateMachine stateMachine = new DefaultLogicQueueStateMachine(topicId, queueId, kvService, timerService);
         LogicQueue logicQueue = new StreamLogicQueue(storeConfig, topicId, queueId,
-            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService);
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
 
         LOGGER.info("{}: Create and open logic queue success: topic: {} queue: {}", identity, topicId, queueId);
         return logicQueue.open()
@@ -28,6 +28,8 @@ import com.automq.rocketmq.store.model.kv.BatchRequest;
 import com.automq.rocketmq.store.model.kv.BatchWriteRequest;
 import com.automq.rocketmq.store.model.metadata.ConsumerGroupMetadata;
 import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.rocketmq.store.model.operation.BatchAckOperation;
+import com.automq.rocketmq.store.model.operation.BatchPopOperation;
 import com.automq.rocketmq.store.model.operation.ChangeInvisibleDurationOperation;
 import com.automq.rocketmq.store.model.operation.OperationSnapshot;
 import com.automq.rocketmq.store.model.operation.PopOperation;
@@ -38,7 +40,11 @@ import com.automq.rocketmq.store.util.SerializeUtil;
 import com.automq.stream.utils.FutureUtil;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -78,6 +84,9 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
     private final String identity;
     private final List<OffsetListener> ackOffsetListeners = new ArrayList<>();
     private final List<OffsetListener> retryAckOffsetListeners = new ArrayList<>();
+    // Consumer groups and check point keys changed since the last snapshot, swapped out by a delta snapshot
+    private final Set<Long> dirtyConsumerGroups = ConcurrentHashMap.newKeySet();
+    private final Set<ByteBuffer> dirtyCheckPointKeys = ConcurrentHashMap.newKeySet();
 
     public DefaultLogicQueueStateMachine(long topicId, int queueId, KVService kvService, TimerService timerService) {
         this.consumerGroupMetadataMap = new ConcurrentHashMap<>();
@@ -138,7 +147,7 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
             topicId, queueId, offset, consumerGroupId, operationId, operationTimestamp, nextVisibleTimestamp, operationOffset);
 
         // update consume offset, data or retry stream
-        ConsumerGroupMetadata metadata = this.consumerGroupMetadataMap.computeIfAbsent(consumerGroupId, k -> new ConsumerGroupMetadata(consumerGroupId));
+        ConsumerGroupMetadata metadata = metadataForUpdate(consumerGroupId);
         if (metadata.getConsumeOffset() < offset + 1) {
             metadata.setConsumeOffset(offset + 1);
         }
@@ -170,7 +179,7 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
         int newConsumeTimes = currentConsumeTimes + 1;
         metadata.getConsumeTimes().put(offset, newConsumeTimes);
 
-        kvService.batch(requestList.toArray(new BatchRequest[0]));
+        writeBatch(requestList.toArray(new BatchRequest[0]));
         return ReplayPopResult.of(newConsumeTimes);
     }
 
@@ -189,7 +198,7 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
             topicId, queueId, offset, consumerGroupId, operationId, operationTimestamp, nextVisibleTimestamp, operationOffset);
 
         // update consume offset, data or retry stream
-        ConsumerGroupMetadata metadata = this.consumerGroupMetadataMap.computeIfAbsent(consumerGroupId, k -> new ConsumerGroupMetadata(consumerGroupId));
+        ConsumerGroupMetadata metadata = metadataForUpdate(consumerGroupId);
         if (metadata.getRetryConsumeOffset() < offset + 1) {
             metadata.setRetryConsumeOffset(offset + 1);
         }
@@ -217,7 +226,7 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
             TimerHandlerType.POP_REVIVE, buildReceiptHandle(consumerGroupId, topicId, queueId, operationId));
         requestList.add(timerEnqueueRequest);
 
-        kvService.batch(requestList.toArray(new BatchRequest[0]));
+        writeBatch(requestList.toArray(new BatchRequest[0]));
         return ReplayPopResult.empty();
     }
 
@@ -237,7 +246,7 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
             topicId, queueId, offset, consumerGroupId, operationId, operationTimestamp, nextVisibleTimestamp, operationOffset);
 
         // update consume offset
-        ConsumerGroupMetadata metadata = this.consumerGroupMetadataMap.computeIfAbsent(consumerGroupId, k -> new ConsumerGroupMetadata(consumerGroupId));
+        ConsumerGroupMetadata metadata = metadataForUpdate(consumerGroupId);
         if (metadata.getConsumeOffset() < offset + 1) {
             metadata.setConsumeOffset(offset + 1);
         }
@@ -278,10 +287,105 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
         int newConsumeTimes = currentConsumeTimes + 1;
         metadata.getConsumeTimes().put(offset, newConsumeTimes);
 
-        kvService.batch(requestList.toArray(new BatchRequest[0]));
+        writeBatch(requestList.toArray(new BatchRequest[0]));
         return ReplayPopResult.of(newConsumeTimes);
     }
 
+    @Override
+    public List<ReplayPopResult> replayBatchPopOperation(long operationOffset,
+        BatchPopOperation operation) throws StoreException {
+        long topicId = operation.topicId();
+        int queueId = operation.queueId();
+        long consumerGroupId = operation.consumerGroupId();
+        PopOperation.PopOperationType type = operation.popOperationType();
+        long operationTimestamp = operation.operationTimestamp();
+        long nextVisibleTimestamp = operation.operationTimestamp() + operation.invisibleDuration();
+        long[] offsets = operation.offsets();
+
+        LOGGER.trace("Replay batch pop operation: topicId={}, queueId={}, startOffset={}, endOffset={}, count={}, consumerGroupId={}, type={}, operationTimestamp={}, nextVisibleTimestamp={} at offset: {}",
+            topicId, queueId, operation.startOffset(), operation.endOffset(), offsets.length, consumerGroupId, type, operationTimestamp, nextVisibleTimestamp, operationOffset);
+
+        reentrantLock.lock();
+        try {
+            this.currentOperationOffset = operationOffset + operation.operationCount() - 1;
+
+            // update consume offset, data or retry stream
+            ConsumerGroupMetadata metadata = metadataForUpdate(consumerGroupId);
+            if (type == PopOperation.PopOperationType.POP_RETRY) {
+                if (metadata.getRetryConsumeOffset() < operation.endOffset()) {
+                    metadata.setRetryConsumeOffset(operation.endOffset());
+                }
+            } else if (metadata.getConsumeOffset() < operation.endOffset()) {
+                metadata.setConsumeOffset(operation.endOffset());
+            }
+
+            List<BatchRequest> requestList = new ArrayList<>(offsets.length * 2);
+            List<ReplayPopResult> resultList = new ArrayList<>(offsets.length);
+            long preOffset = operation.startOffset() - 1;
+            for (int i = 0; i < offsets.length; i++) {
+                long offset = offsets[i];
+                // the check point of a message also covers the filtered messages before it
+                int count = (int) (offset - preOffset);
+                preOffset = offset;
+                long operationId = operationOffset + i;
+
+                // write a ck for this offset
+                requestList.add(new BatchWriteRequest(KV_NAMESPACE_CHECK_POINT,
+                    buildCheckPointKey(topicId, queueId, consumerGroupId, operationId),
+                    buildCheckPointValue(topicId, queueId, offset, count,
+                        consumerGroupId, operationId, type, operationTimestamp, nextVisibleTimestamp)));
+
+                requestList.add(timerService.enqueueRequest(
+                    nextVisibleTimestamp, buildReceiptHandleKey(topicId, queueId, operationId),
+                    TimerHandlerType.POP_REVIVE, buildReceiptHandle(consumerGroupId, topicId, queueId, operationId)));
+
+                if (type == PopOperation.PopOperationType.POP_ORDER) {
+                    // if this message is orderly, write order index for each offset covered by the ck
+                    for (long currOffset = offset - count + 1; currOffset <= offset; currOffset++) {
+                        requestList.add(new BatchWriteRequest(KV_NAMESPACE_FIFO_INDEX,
+                            buildOrderIndexKey(consumerGroupId, topicId, queueId, currOffset), buildOrderIndexValue(operationId)));
+                    }
+                }
+
+                if (type == PopOperation.PopOperationType.POP_RETRY) {
+                    resultList.add(ReplayPopResult.empty());
+                } else {
+                    int newConsumeTimes = metadata.getConsumeTimes().getOrDefault(offset, 0) + 1;
+                    metadata.getConsumeTimes().put(offset, newConsumeTimes);
+                    resultList.add(ReplayPopResult.of(newConsumeTimes));
+                }
+            }
+            if (!requestList.isEmpty()) {
+                writeBatch(requestList.toArray(new BatchRequest[0]));
+            }
+
+            // the filtered messages after the last popped one will never be consumed, advance ack offset over them
+            AckCommitter ackCommitter = type == PopOperation.PopOperationType.POP_RETRY ?
+                this.getRetryAckCommitter(consumerGroupId) : this.getAckCommitter(consumerGroupId);
+            for (long currOffset = preOffset + 1; currOffset < operation.endOffset(); currOffset++) {
+                ackCommitter.commitAck(currOffset);
+            }
+            return resultList;
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    private ConsumerGroupMetadata metadataForUpdate(long consumerGroupId) {
+        dirtyConsumerGroups.add(consumerGroupId);
+        return this.consumerGroupMetadataMap.computeIfAbsent(consumerGroupId, k -> new ConsumerGroupMetadata(consumerGroupId));
+    }
+
+    private void writeBatch(BatchRequest... requests) throws StoreException {
+        for (BatchRequest request : requests) {
+            if (KV_NAMESPACE_CHECK_POINT.equals(request.namespace())) {
+                dirtyCheckPointKeys.add(ByteBuffer.wrap(request.key()));
+            }
+        }
+        kvService.batch(requests);
+        timerService.onBatchWritten(requests);
+    }
+
     private AckCommitter getAckCommitter(long consumerGroupId) {
         return getAckCommitter(consumerGroupId, null);
     }
@@ -313,6 +417,68 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
 
     @Override
     public void replayAckOperation(long operationOffset, AckOperation operation) throws StoreException {
+        reentrantLock.lock();
+        try {
+            currentOperationOffset = operationOffset;
+            List<BatchRequest> requestList = ackRequests(operationOffset, operation);
+            if (requestList == null) {
+                throw new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "Ack operation failed, check point not found");
+            }
+            if (!requestList.isEmpty()) {
+                writeBatch(requestList.toArray(new BatchRequest[0]));
+            }
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean[] replayBatchAckOperation(long operationOffset, BatchAckOperation operation) throws StoreException {
+        List<AckOperation> ackOperations = operation.ackOperations();
+        boolean[] applied = new boolean[ackOperations.size()];
+
+        LOGGER.trace("Replay batch ack operation: topicId={}, queueId={}, count={} at offset: {}",
+            operation.topicId(), operation.queueId(), ackOperations.size(), operationOffset);
+
+        reentrantLock.lock();
+        try {
+            currentOperationOffset = operationOffset;
+            List<BatchRequest> requestList = new ArrayList<>();
+            // the check points are deleted after all acks are applied, so an ack repeated in the batch must be skipped here
+            Set<ByteBuffer> ackedCheckPointKeys = new HashSet<>();
+            for (int i = 0; i < ackOperations.size(); i++) {
+                AckOperation ackOperation = ackOperations.get(i);
+                ByteBuffer ckKey = ByteBuffer.wrap(buildCheckPointKey(ackOperation.topicId(), ackOperation.queueId(),
+                    ackOperation.consumerGroupId(), ackOperation.operationId()));
+                if (!ackedCheckPointKeys.add(ckKey)) {
+                    LOGGER.info("{}: Ack operation is repeated in batch, ignore it. operationId={}, type={} at offset: {}",
+                        identity, ackOperation.operationId(), ackOperation.ackOperationType(), operationOffset);
+                    continue;
+                }
+                List<BatchRequest> ackRequestList = ackRequests(operationOffset, ackOperation);
+                if (ackRequestList == null) {
+                    LOGGER.info("{}: Check point of ack operation is not found, ignore it. operationId={}, type={} at offset: {}",
+                        identity, ackOperation.operationId(), ackOperation.ackOperationType(), operationOffset);
+                    continue;
+                }
+                requestList.addAll(ackRequestList);
+                applied[i] = true;
+            }
+            if (!requestList.isEmpty()) {
+                writeBatch(requestList.toArray(new BatchRequest[0]));
+            }
+            return applied;
+        } finally {
+            reentrantLock.unlock();
+        }
+    }
+
+    /**
+     * Commit the acked offsets of an ack operation and build the requests to delete its check point and related states.
+     *
+     * @return the requests, empty if the ack is stale, or null if the check point is not found
+     */
+    private List<BatchRequest> ackRequests(long operationOffset, AckOperation operation) throws StoreException {
         long topicId = operation.topicId();
         int queueId = operation.queueId();
         long operationId = operation.operationId();
@@ -322,39 +488,33 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
         LOGGER.trace("Replay ack operation: topicId={}, queueId={}, operationId={}, type={} at offset: {}",
             topicId, queueId, operationId, type, operationOffset);
 
-        reentrantLock.lock();
-        try {
-            currentOperationOffset = operationOffset;
-            // check if this ack is stale
-            ConsumerGroupMetadata metadata = this.consumerGroupMetadataMap.computeIfAbsent(consumerGroupId, k -> new ConsumerGroupMetadata(consumerGroupId));
-            if (metadata.getVersion() > operationId) {
-                LOGGER.info("{}: Ack operation is stale, ignore it. topicId={}, queueId={}, operationId={}, type={} at offset: {}",
-                    identity, topicId, queueId, operationId, type, operationOffset);
-                return;
+        // check if this ack is stale
+        ConsumerGroupMetadata metadata = metadataForUpdate(consumerGroupId);
+        if (metadata.getVersion() > operationId) {
+            LOGGER.info("{}: Ack operation is stale, ignore it. topicId={}, queueId={}, operationId={}, type={} at offset: {}",
+                identity, topicId, queueId, operationId, type, operationOffset);
+            return Collections.emptyList();
+        }
+        // check if ck exists
+        byte[] ckKey = buildCheckPointKey(topicId, queueId, consumerGroupId, operationId);
+        byte[] ckValue = kvService.get(KV_NAMESPACE_CHECK_POINT, ckKey);
+        if (ckValue == null) {
+            return null;
+        }
+        CheckPoint ck = CheckPoint.getRootAsCheckPoint(ByteBuffer.wrap(ckValue));
+        int count = ck.count();
+        long baseOffset = ck.messageOffset() - count + 1;
+        for (int i = 0; i < count; i++) {
+            long currOffset = baseOffset + i;
+            if (ck.popOperationType() == PopOperation.PopOperationType.POP_NORMAL.ordinal() ||
+                (ck.popOperationType() == PopOperation.PopOperationType.POP_ORDER.ordinal() && type == AckOperation.AckOperationType.ACK_NORMAL)) {
+                this.getAckCommitter(consumerGroupId).commitAck(currOffset);
             }
-            // check if ck exists
-            byte[] ckKey = buildCheckPointKey(topicId, queueId, consumerGroupId, operationId);
-            byte[] ckValue = kvService.get(KV_NAMESPACE_CHECK_POINT, ckKey);
-            if (ckValue == null) {
-                throw new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "Ack operation failed, check point not found");
+            if (ck.popOperationType() == PopOperation.PopOperationType.POP_RETRY.ordinal()) {
+                this.getRetryAckCommitter(consumerGroupId).commitAck(currOffset);
             }
-            CheckPoint ck = CheckPoint.getRootAsCheckPoint(ByteBuffer.wrap(ckValue));
-            int count = ck.count();
-            long baseOffset = ck.messageOffset() - count + 1;
-            for (int i = 0; i < count; i++) {
-                long currOffset = baseOffset + i;
-                if (ck.popOperationType() == PopOperation.PopOperationType.POP_NORMAL.ordinal() ||
-                    (ck.popOperationType() == PopOperation.PopOperationType.POP_ORDER.ordinal() && type == AckOperation.AckOperationType.ACK_NORMAL)) {
-                    this.getAckCommitter(consumerGroupId).commitAck(currOffset);
-                }
-                if (ck.popOperationType() == PopOperation.PopOperationType.POP_RETRY.ordinal()) {
-                    this.getRetryAckCommitter(consumerGroupId).commitAck(currOffset);
-                }
-            }
-            deleteCheckPointAndRelatedStates(ck);
-        } finally {
-            reentrantLock.unlock();
         }
+        return deleteCheckPointAndRelatedStatesReqs(ck);
     }
 
     @Override
@@ -395,7 +555,7 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
             BatchWriteRequest timerEnqueueRequest = timerService.enqueueRequest(
                 nextVisibleTimestamp, buildReceiptHandleKey(checkPoint.topicId(), checkPoint.queueId(), checkPoint.operationId()),
                 TimerHandlerType.POP_REVIVE, buildReceiptHandle(checkPoint.consumerGroupId(), checkPoint.topicId(), checkPoint.queueId(), checkPoint.operationId()));
-            kvService.batch(timerCancelRequest, writeCheckPointRequest, timerEnqueueRequest);
+            writeBatch(timerCancelRequest, writeCheckPointRequest, timerEnqueueRequest);
         } catch (StoreException e) {
             LOGGER.error("{}: Replay change invisible duration operation failed", identity, e);
             CompletableFuture.failedFuture(e);
@@ -420,7 +580,7 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
         try {
             currentOperationOffset = operationOffset;
             // Create a new consumer group with a new version.
-            ConsumerGroupMetadata metadata = this.consumerGroupMetadataMap.computeIfAbsent(consumerGroupId, k -> new ConsumerGroupMetadata(consumerGroupId));
+            ConsumerGroupMetadata metadata = metadataForUpdate(consumerGroupId);
             ConsumerGroupMetadata newMetadata = new ConsumerGroupMetadata(
                 metadata.getConsumerGroupId(), newConsumeOffset, newConsumeOffset, metadata.getRetryConsumeOffset(), metadata.getRetryAckOffset(),
                 new ConcurrentSkipListMap<>(), operationOffset);
@@ -449,14 +609,7 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
     private void deleteCheckPointsAndRelatedStates(List<CheckPoint> checkPointList) throws StoreException {
         List<BatchRequest> batchRequests = checkPointList.stream().map(this::deleteCheckPointAndRelatedStatesReqs).flatMap(List::stream).toList();
         if (!batchRequests.isEmpty()) {
-            kvService.batch(batchRequests.toArray(new BatchRequest[0]));
-        }
-    }
-
-    private void deleteCheckPointAndRelatedStates(CheckPoint checkPoint) throws StoreException {
-        List<BatchRequest> batchRequests = deleteCheckPointAndRelatedStatesReqs(checkPoint);
-        if (!batchRequests.isEmpty()) {
-            kvService.batch(batchRequests.toArray(new BatchRequest[0]));
+            writeBatch(batchRequests.toArray(new BatchRequest[0]));
         }
     }
 
@@ -489,14 +642,14 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
             .flatMap(List::stream)
             .toList();
         if (!batchRequests.isEmpty()) {
-            kvService.batch(batchRequests.toArray(new BatchRequest[0]));
+            writeBatch(batchRequests.toArray(new BatchRequest[0]));
         }
     }
 
     private void writeCheckPointAndRelatedStates(CheckPoint checkPoint) throws StoreException {
         List<BatchRequest> batchRequests = writeCheckPointAndRelatedStatesReqs(checkPoint);
         if (!batchRequests.isEmpty()) {
-            kvService.batch(batchRequests.toArray(new BatchRequest[0]));
+            writeBatch(batchRequests.toArray(new BatchRequest[0]));
         }
     }
 
@@ -532,21 +685,47 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
     public OperationSnapshot takeSnapshot() throws StoreException {
         exclusiveLock.lock();
         try {
-            List<OperationSnapshot.ConsumerGroupMetadataSnapshot> metadataSnapshots = consumerGroupMetadataMap.values().stream().map(metadata -> {
-                return new OperationSnapshot.ConsumerGroupMetadataSnapshot(metadata.getConsumerGroupId(), metadata.getConsumeOffset(), metadata.getAckOffset(),
-                    metadata.getRetryConsumeOffset(), metadata.getRetryAckOffset(),
-                    getAckCommitter(metadata.getConsumerGroupId()).getSerializedBuffer().array(),
-                    getRetryAckCommitter(metadata.getConsumerGroupId()).getSerializedBuffer().array(),
-                    metadata.getConsumeTimes(), metadata.getVersion());
-            }).collect(Collectors.toList());
+            List<OperationSnapshot.ConsumerGroupMetadataSnapshot> metadataSnapshots = consumerGroupMetadataMap.values().stream()
+                .map(this::snapshotConsumerGroup)
+                .collect(Collectors.toList());
             long snapshotVersion = kvService.takeSnapshot();
+            dirtyConsumerGroups.clear();
+            dirtyCheckPointKeys.clear();
+            return new OperationSnapshot(currentOperationOffset, snapshotVersion, metadataSnapshots);
+        } finally {
+            exclusiveLock.unlock();
+        }
+    }
+
+    @Override
+    public OperationSnapshot takeDeltaSnapshot() throws StoreException {
+        exclusiveLock.lock();
+        try {
+            List<OperationSnapshot.ConsumerGroupMetadataSnapshot> metadataSnapshots = dirtyConsumerGroups.stream()
+                .map(consumerGroupMetadataMap::get)
+                .filter(Objects::nonNull)
+                .map(this::snapshotConsumerGroup)
+                .collect(Collectors.toList());
+            List<byte[]> changedCheckPointKeys = dirtyCheckPointKeys.stream().map(ByteBuffer::array).toList();
+            long snapshotVersion = kvService.takeSnapshot();
+            dirtyConsumerGroups.clear();
+            dirtyCheckPointKeys.clear();
             OperationSnapshot snapshot = new OperationSnapshot(currentOperationOffset, snapshotVersion, metadataSnapshots);
+            snapshot.setChangedCheckPointKeys(changedCheckPointKeys);
             return snapshot;
         } finally {
             exclusiveLock.unlock();
         }
     }
 
+    private OperationSnapshot.ConsumerGroupMetadataSnapshot snapshotConsumerGroup(ConsumerGroupMetadata metadata) {
+        return new OperationSnapshot.ConsumerGroupMetadataSnapshot(metadata.getConsumerGroupId(), metadata.getConsumeOffset(), metadata.getAckOffset(),
+            metadata.getRetryConsumeOffset(), metadata.getRetryAckOffset(),
+            getAckCommitter(metadata.getConsumerGroupId()).getSerializedBuffer().array(),
+            getRetryAckCommitter(metadata.getConsumerGroupId()).getSerializedBuffer().array(),
+            metadata.getConsumeTimes(), metadata.getVersion());
+    }
+
     @Override
     public void loadSnapshot(OperationSnapshot snapshot) {
         exclusiveLock.lock();
@@ -587,11 +766,18 @@ public class DefaultLogicQueueStateMachine implements MessageStateMachine {
                 checkPointList.add(checkPoint);
             });
             deleteCheckPointsAndRelatedStates(checkPointList);
+            this.dirtyConsumerGroups.clear();
+            this.dirtyCheckPointKeys.clear();
         } finally {
             exclusiveLock.unlock();
         }
     }
 
+    @Override
+    public Set<Long> consumerGroups() {
+        return Set.copyOf(consumerGroupMetadataMap.keySet());
+    }
+
     @Override
     public long consumeOffset(long consumerGroupId) {
         return consumerGroupMetadataMap.computeIfAbsent(consumerGroupId, k -> new ConsumerGroupMetadata(consumerGroupId))
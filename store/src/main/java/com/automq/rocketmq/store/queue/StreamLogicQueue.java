@@ -17,6 +17,7 @@
 
 package com.automq.rocketmq.store.queue;
 
+import apache.rocketmq.controller.v1.StreamMetadata;
 import com.automq.rocketmq.common.config.StoreConfig;
 import com.automq.rocketmq.common.model.FlatMessageExt;
 import com.automq.rocketmq.common.model.generated.FlatMessage;
@@ -29,6 +30,7 @@ import com.automq.rocketmq.store.exception.StoreErrorCode;
 import com.automq.rocketmq.store.exception.StoreException;
 import com.automq.rocketmq.store.model.StoreContext;
 import com.automq.rocketmq.store.model.generated.ReceiptHandle;
+import com.automq.rocketmq.store.model.generated.TimerMessageRef;
 import com.automq.rocketmq.store.model.message.AckResult;
 import com.automq.rocketmq.store.model.message.ChangeInvisibleDurationResult;
 import com.automq.rocketmq.store.model.message.Filter;
@@ -37,29 +39,38 @@ import com.automq.rocketmq.store.model.message.PullResult;
 import com.automq.rocketmq.store.model.message.PutResult;
 import com.automq.rocketmq.store.model.message.ResetConsumeOffsetResult;
 import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.rocketmq.store.model.operation.BatchAckOperation;
+import com.automq.rocketmq.store.model.operation.BatchPopOperation;
 import com.automq.rocketmq.store.model.operation.ChangeInvisibleDurationOperation;
 import com.automq.rocketmq.store.model.operation.PopOperation;
 import com.automq.rocketmq.store.model.operation.ResetConsumeOffsetOperation;
+import com.automq.rocketmq.store.model.stream.BatchRecord;
 import com.automq.rocketmq.store.model.stream.SingleRecord;
 import com.automq.rocketmq.store.service.InflightService;
 import com.automq.rocketmq.store.service.StreamReclaimService;
+import com.automq.rocketmq.store.service.TimerService;
 import com.automq.rocketmq.store.service.api.OperationLogService;
 import com.automq.rocketmq.store.util.SerializeUtil;
+import com.automq.stream.api.AppendResult;
+import com.automq.stream.api.ReadOptions;
+import com.automq.stream.api.RecordBatchWithContext;
 import com.automq.stream.utils.FutureUtil;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import org.apache.rocketmq.logging.org.slf4j.Logger;
 import org.apache.rocketmq.logging.org.slf4j.LoggerFactory;
 
@@ -79,12 +90,16 @@ public class StreamLogicQueue extends LogicQueue {
     private final OperationLogService operationLogService;
     private final InflightService inflightService;
     private final StreamReclaimService streamReclaimService;
+    private final TimerService timerService;
+    private volatile CompletableFuture<TimerMessageLog> timerMessageLogCf;
     private final AtomicReference<State> state;
+    private final CoalescingAppender dataAppender;
+    private final AckAggregator ackAggregator;
 
     public StreamLogicQueue(StoreConfig config, long topicId, int queueId,
         StoreMetadataService metadataService, MessageStateMachine stateMachine, StreamStore streamStore,
         OperationLogService operationLogService, InflightService inflightService,
-        StreamReclaimService streamReclaimService) {
+        StreamReclaimService streamReclaimService, TimerService timerService) {
         super(topicId, queueId);
         this.config = config;
         this.metadataService = metadataService;
@@ -94,17 +109,41 @@ public class StreamLogicQueue extends LogicQueue {
         this.operationLogService = operationLogService;
         this.inflightService = inflightService;
         this.streamReclaimService = streamReclaimService;
+        this.timerService = timerService;
         this.state = new AtomicReference<>(State.INIT);
+        this.dataAppender = config.putMaxInflightAppends() > 0 ? new CoalescingAppender(this::appendMessages,
+            config.putMaxInflightAppends(), config.putMaxBatchCount(), config.putMaxBatchBytes()) : null;
+        this.ackAggregator = config.ackMaxInflightAppends() > 0 ? new AckAggregator(this::logAckOperations,
+            config.ackMaxInflightAppends(), config.ackMaxBatchCount()) : null;
     }
 
     public long dataStreamId() {
         return dataStreamId;
     }
 
+    public long operationStreamId() {
+        return operationStreamId;
+    }
+
+    public long snapshotStreamId() {
+        return snapshotStreamId;
+    }
+
     public ConcurrentMap<Long, CompletableFuture<Long>> retryStreamIdMap() {
         return retryStreamIdMap;
     }
 
+    /**
+     * @return the timer message log, or null if the queue has no timer stream opened yet
+     */
+    public TimerMessageLog timerMessageLog() {
+        CompletableFuture<TimerMessageLog> timerMessageLogCf = this.timerMessageLogCf;
+        if (timerMessageLogCf == null || !timerMessageLogCf.isDone() || timerMessageLogCf.isCompletedExceptionally()) {
+            return null;
+        }
+        return timerMessageLogCf.join();
+    }
+
     @Override
     public CompletableFuture<Void> open() {
         if (state.compareAndSet(State.INIT, State.OPENING)) {
@@ -124,8 +163,19 @@ public class StreamLogicQueue extends LogicQueue {
                     this.snapshotStreamId = metadata.getStreamId();
                     return streamStore.open(metadata.getStreamId(), metadata.getEpoch());
                 });
+            // The timer stream is created on the first delayed message, so only open the existing one here.
+            CompletableFuture<Void> openTimerStreamFuture = metadataService.existingTimerStreamOf(topicId, queueId)
+                .thenCompose(metadata -> {
+                    if (metadata.isEmpty()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    CompletableFuture<TimerMessageLog> future = openTimerStream(metadata.get());
+                    this.timerMessageLogCf = future;
+                    return CompletableFuture.allOf(future);
+                });
 
-            return CompletableFuture.allOf(openDataStreamFuture, openOperationStreamFuture, openSnapshotStreamFuture)
+            return CompletableFuture.allOf(openDataStreamFuture, openOperationStreamFuture, openSnapshotStreamFuture,
+                    openTimerStreamFuture)
                 .thenAccept(nil -> {
                     try {
                         stateMachine.clear();
@@ -142,11 +192,96 @@ public class StreamLogicQueue extends LogicQueue {
                     this.stateMachine.registerRetryAckOffsetListener(this::onRetryAckOffsetAdvance);
                     state.set(State.OPENED);
                 })
-                .thenAccept(nil -> state.set(State.OPENED));
+                .thenAccept(nil -> state.set(State.OPENED))
+                .thenAccept(nil -> {
+                    // Delayed messages are recovered in background, as they are not due right away.
+                    TimerMessageLog timerMessageLog = timerMessageLog();
+                    if (timerMessageLog != null) {
+                        timerMessageLog.recover();
+                    }
+                    warmUp();
+                });
         }
         return CompletableFuture.completedFuture(null);
     }
 
+    private CompletableFuture<TimerMessageLog> openTimerStream(StreamMetadata metadata) {
+        TimerMessageLog timerMessageLog = new TimerMessageLog(config, topicId, queueId, metadata.getStreamId(),
+            streamStore, timerService, streamReclaimService);
+        return streamStore.open(metadata.getStreamId(), metadata.getEpoch())
+            .thenApply(nil -> timerMessageLog);
+    }
+
+    private CompletableFuture<TimerMessageLog> timerMessageLogCf() {
+        CompletableFuture<TimerMessageLog> timerMessageLogCf = this.timerMessageLogCf;
+        if (timerMessageLogCf != null) {
+            return timerMessageLogCf;
+        }
+        synchronized (this) {
+            if (this.timerMessageLogCf != null) {
+                return this.timerMessageLogCf;
+            }
+            CompletableFuture<TimerMessageLog> future = metadataService.timerStreamOf(topicId, queueId)
+                .thenCompose(this::openTimerStream)
+                .thenApply(timerMessageLog -> {
+                    // Nothing to replay in a new stream, but fetches and reclaims wait for the recovery.
+                    timerMessageLog.recover();
+                    return timerMessageLog;
+                });
+            this.timerMessageLogCf = future;
+            future.exceptionally(ex -> {
+                synchronized (this) {
+                    if (this.timerMessageLogCf == future) {
+                        this.timerMessageLogCf = null;
+                    }
+                }
+                return null;
+            });
+            return future;
+        }
+    }
+
+    /**
+     * Prefetch the data stream from the consume offsets of the consumer groups in background, so that consumers
+     * don't suffer from cold reads after the queue is reassigned. The warm-up is bounded by
+     * {@link StoreConfig#queueWarmUpMaxBytes()}, which is shared evenly by the distinct consume offsets.
+     */
+    private void warmUp() {
+        // Warm-up is best effort, it must not fail the open of the queue.
+        try {
+            int maxBytes = config.queueWarmUpMaxBytes();
+            if (maxBytes <= 0) {
+                return;
+            }
+            long startOffset = streamStore.startOffset(dataStreamId);
+            long confirmOffset = streamStore.confirmOffset(dataStreamId);
+            TreeSet<Long> offsets = stateMachine.consumerGroups()
+                .stream()
+                .map(stateMachine::consumeOffset)
+                .filter(offset -> offset >= startOffset && offset < confirmOffset)
+                .collect(Collectors.toCollection(TreeSet::new));
+            if (offsets.isEmpty()) {
+                return;
+            }
+            int maxBytesPerOffset = maxBytes / offsets.size();
+            long startTimestamp = System.currentTimeMillis();
+            List<CompletableFuture<Void>> warmUpCfs = offsets.stream()
+                .map(offset -> streamStore.warmUp(dataStreamId, offset, maxBytesPerOffset))
+                .toList();
+            CompletableFuture.allOf(warmUpCfs.toArray(new CompletableFuture[0]))
+                .whenComplete((nil, throwable) -> {
+                    if (throwable != null) {
+                        LOGGER.warn("Failed to warm up topic: {}, queue: {}", topicId, queueId, FutureUtil.cause(throwable));
+                    } else {
+                        LOGGER.info("Warm up topic: {}, queue: {} from {} consume offsets, cost {}ms", topicId, queueId,
+                            offsets.size(), System.currentTimeMillis() - startTimestamp);
+                    }
+                });
+        } catch (Throwable t) {
+            LOGGER.warn("Failed to warm up topic: {}, queue: {}", topicId, queueId, t);
+        }
+    }
+
     private void onRetryAckOffsetAdvance(long consumerGroupId, long ackOffset) {
         // TODO: add reclaim policy
         CompletableFuture<Long> retryStreamIdCf = retryStreamIdMap.get(consumerGroupId);
@@ -177,11 +312,18 @@ public class StreamLogicQueue extends LogicQueue {
                 .map(CompletableFuture::join)
                 .toList();
             retryStreamIdMap.clear();
+            CompletableFuture<TimerMessageLog> timerMessageLogCf = this.timerMessageLogCf;
+            this.timerMessageLogCf = null;
 
             List<Long> streamIdList = new ArrayList<>();
             streamIdList.add(dataStreamId);
             streamIdList.add(operationStreamId);
             streamIdList.add(snapshotStreamId);
+            if (timerMessageLogCf != null) {
+                TimerMessageLog timerMessageLog = timerMessageLogCf.join();
+                timerMessageLog.close();
+                streamIdList.add(timerMessageLog.streamId());
+            }
             streamIdList.addAll(retryStreamIdList);
 
             return streamStore.close(streamIdList)
@@ -211,8 +353,55 @@ public class StreamLogicQueue extends LogicQueue {
             context.span().ifPresent(span -> span.setAttribute("messageId", messageId));
         }
 
-        return streamStore.append(context, dataStreamId, new SingleRecord(flatMessage.getByteBuffer()))
-            .thenApply(appendResult -> new PutResult(PutResult.Status.PUT_OK, appendResult.baseOffset()));
+        CompletableFuture<Long> offsetCf = dataAppender != null ? dataAppender.append(context, flatMessage)
+            : appendMessages(context, List.of(flatMessage));
+        return offsetCf.thenApply(offset -> new PutResult(PutResult.Status.PUT_OK, offset));
+    }
+
+    @Override
+    @WithSpan
+    public CompletableFuture<PutResult> putTimer(StoreContext context, FlatMessage flatMessage) {
+        if (state.get() != State.OPENED) {
+            return CompletableFuture.failedFuture(new StoreException(StoreErrorCode.QUEUE_NOT_OPENED, "Topic queue not opened"));
+        }
+        return timerMessageLogCf()
+            .thenCompose(timerMessageLog -> timerMessageLog.append(context, flatMessage))
+            .thenApply(offset -> new PutResult(PutResult.Status.PUT_DELAYED, -1));
+    }
+
+    @Override
+    public CompletableFuture<Optional<FlatMessage>> fetchTimer(TimerMessageRef ref) {
+        if (state.get() != State.OPENED) {
+            return CompletableFuture.failedFuture(new StoreException(StoreErrorCode.QUEUE_NOT_OPENED, "Topic queue not opened"));
+        }
+        // Without a timer stream, the tag can only be left by a previous opening of the queue.
+        CompletableFuture<TimerMessageLog> timerMessageLogCf = this.timerMessageLogCf;
+        if (timerMessageLogCf == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return timerMessageLogCf.thenCompose(timerMessageLog -> timerMessageLog.fetch(ref));
+    }
+
+    @Override
+    public CompletableFuture<Void> commitTimer(TimerMessageRef ref, long deliveryTimestamp) {
+        if (state.get() != State.OPENED) {
+            return CompletableFuture.failedFuture(new StoreException(StoreErrorCode.QUEUE_NOT_OPENED, "Topic queue not opened"));
+        }
+        CompletableFuture<TimerMessageLog> timerMessageLogCf = this.timerMessageLogCf;
+        if (timerMessageLogCf == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return timerMessageLogCf.thenCompose(timerMessageLog -> timerMessageLog.commit(ref, deliveryTimestamp));
+    }
+
+    /**
+     * Append the messages to the data stream in one record batch.
+     *
+     * @return the offset of the first message
+     */
+    private CompletableFuture<Long> appendMessages(StoreContext context, List<FlatMessage> messages) {
+        return streamStore.append(context, dataStreamId, BatchRecord.of(messages))
+            .thenApply(AppendResult::baseOffset);
     }
 
     @Override
@@ -233,6 +422,21 @@ public class StreamLogicQueue extends LogicQueue {
                 .thenApply(appendResult -> new PutResult(PutResult.Status.PUT_OK, appendResult.baseOffset())));
     }
 
+    @Override
+    @WithSpan
+    public CompletableFuture<PutResult> putRetry(StoreContext context, long consumerGroupId,
+        List<FlatMessage> flatMessages) {
+        if (state.get() != State.OPENED) {
+            return CompletableFuture.failedFuture(new StoreException(StoreErrorCode.QUEUE_NOT_OPENED, "Topic queue not opened"));
+        }
+        context.span().ifPresent(span -> span.setAttribute("messageCount", flatMessages.size()));
+
+        CompletableFuture<Long> retryStreamIdCf = retryStreamId(consumerGroupId);
+        return retryStreamIdCf.thenCompose(streamId ->
+            streamStore.append(context, streamId, BatchRecord.of(flatMessages))
+                .thenApply(appendResult -> new PutResult(PutResult.Status.PUT_OK, appendResult.baseOffset())));
+    }
+
     private CompletableFuture<Long> retryStreamId(long consumerGroupId) {
         if (!retryStreamIdMap.containsKey(consumerGroupId)) {
             synchronized (this) {
@@ -297,47 +501,41 @@ public class StreamLogicQueue extends LogicQueue {
         // log op
         AtomicReference<Span> spanRef = new AtomicReference<>();
         CompletableFuture<FilterFetchResult> fetchAndLogOpCf = fetchCf.thenCompose(filterFetchResult -> {
+            List<FlatMessageExt> messageExtList = filterFetchResult.messageList;
+            if (messageExtList.isEmpty() && filterFetchResult.endOffset == filterFetchResult.startOffset) {
+                return CompletableFuture.completedFuture(filterFetchResult);
+            }
             Optional<Span> spanOptional = TraceHelper.createAndStartSpan(context, "logPopOperation", SpanKind.SERVER);
             spanOptional.ifPresent(spanRef::set);
 
-            List<FlatMessageExt> messageExtList = filterFetchResult.messageList;
-            // write pop operation to operation log
-            long preOffset = filterFetchResult.startOffset - 1;
-            List<CompletableFuture<OperationLogService.LogResult>> appendOpCfs = new ArrayList<>(messageExtList.size());
-            // write pop operation for each need consumed message
-            for (FlatMessageExt messageExt : messageExtList) {
-                int count = (int) (messageExt.offset() - preOffset);
-                preOffset = messageExt.offset();
-                PopOperation popOperation = new PopOperation(topicId, queueId, operationStreamId, snapshotStreamId,
-                    stateMachine, consumerGroupId, messageExt.offset(), count, invisibleDuration, operationTimestamp,
-                    false, operationType);
-                appendOpCfs.add(operationLogService.logPopOperation(popOperation)
-                    .thenApply(logResult -> {
+            // write one pop operation for all need consumed messages, the filtered ones are covered by it too
+            long[] offsets = new long[messageExtList.size()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = messageExtList.get(i).offset();
+            }
+            BatchPopOperation popOperation = new BatchPopOperation(topicId, queueId, operationStreamId, snapshotStreamId,
+                stateMachine, consumerGroupId, filterFetchResult.startOffset, filterFetchResult.endOffset, offsets,
+                invisibleDuration, operationTimestamp, operationType);
+            return operationLogService.logBatchPopOperation(popOperation)
+                .thenAccept(logResults -> {
+                    for (int i = 0; i < messageExtList.size(); i++) {
+                        FlatMessageExt messageExt = messageExtList.get(i);
+                        OperationLogService.LogResult logResult = logResults.get(i);
                         long operationId = logResult.getOperationOffset();
                         messageExt.setReceiptHandle(SerializeUtil.encodeReceiptHandle(consumerGroupId, topicId, queueId, operationId));
                         if (!messageExt.isRetryMessage()) {
                             messageExt.setDeliveryAttempts(logResult.getPopTimes());
                         }
-                        return logResult;
-                    }));
-            }
-            // write special pop operation for the last message to update consume offset
-            int count = (int) (fetchResult.endOffset - 1 - preOffset);
-            if (count > 0) {
-                PopOperation popOperation = new PopOperation(topicId, queueId, operationStreamId, snapshotStreamId,
-                    stateMachine, consumerGroupId, fetchResult.endOffset - 1, count, invisibleDuration,
-                    operationTimestamp, true, operationType);
-                appendOpCfs.add(operationLogService.logPopOperation(popOperation));
-            }
-            return CompletableFuture.allOf(appendOpCfs.toArray(new CompletableFuture[0]))
+                    }
+                })
                 .whenComplete((nil, throwable) -> {
                     Span span = spanRef.get();
                     if (span != null) {
-                        span.setAttribute("operationCount", appendOpCfs.size());
+                        span.setAttribute("messageCount", messageExtList.size());
                         TraceHelper.endSpan(context, span, throwable);
                     }
                 })
-                .thenApply(nil -> fetchResult);
+                .thenApply(nil -> filterFetchResult);
         });
 
         return fetchAndLogOpCf.thenApply(filterFetchResult -> {
@@ -385,7 +583,10 @@ public class StreamLogicQueue extends LogicQueue {
         return retryStreamIdFuture.thenCompose(retryStreamId -> pop(context, consumerGroupId, retryStreamId, offset, PopOperation.PopOperationType.POP_RETRY, filter, batchSize, invisibleDuration));
     }
 
-    record FetchResult(List<FlatMessageExt> messageList, long endOffset) {
+    /**
+     * @param streamFetchResult the fetch result of the stream which backs the messages, null if nothing is fetched
+     */
+    record FetchResult(List<FlatMessageExt> messageList, long endOffset, com.automq.stream.api.FetchResult streamFetchResult) {
         public int size() {
             return messageList.size();
         }
@@ -393,7 +594,7 @@ public class StreamLogicQueue extends LogicQueue {
 
     @WithSpan(kind = SpanKind.SERVER)
     private CompletableFuture<FetchResult> fetchMessages(StoreContext context, @SpanAttribute long streamId,
-        @SpanAttribute long offset, @SpanAttribute int batchSize) {
+        @SpanAttribute long offset, @SpanAttribute int batchSize, boolean pooledBuf) {
         long startOffset = streamStore.startOffset(streamId);
         if (offset < startOffset) {
             offset = startOffset;
@@ -401,7 +602,7 @@ public class StreamLogicQueue extends LogicQueue {
 
         long confirmOffset = streamStore.confirmOffset(streamId);
         if (offset >= confirmOffset) {
-            return CompletableFuture.completedFuture(new FetchResult(Collections.emptyList(), confirmOffset));
+            return CompletableFuture.completedFuture(new FetchResult(Collections.emptyList(), confirmOffset, null));
         }
 
         if (offset + batchSize > confirmOffset) {
@@ -409,27 +610,33 @@ public class StreamLogicQueue extends LogicQueue {
         }
 
         long finalOffset = offset;
-        return streamStore.fetch(context, streamId, offset, batchSize)
+        long endOffset = offset + batchSize;
+        ReadOptions readOptions = pooledBuf ? ReadOptions.builder().pooledBuf(true).build() : ReadOptions.DEFAULT;
+        return streamStore.fetch(context, streamId, offset, batchSize, readOptions)
             .thenApply(fetchResult -> {
-                AtomicLong fetchBytes = new AtomicLong();
-
-                // TODO: Assume message count is always 1 in each batch for now.
-                List<FlatMessageExt> resultList = fetchResult.recordBatchList()
-                    .stream()
-                    .map(batch -> {
-                        fetchBytes.addAndGet(batch.rawPayload().remaining());
-                        FlatMessage message = FlatMessage.getRootAsFlatMessage(batch.rawPayload());
-                        long messageOffset = batch.baseOffset();
-                        return FlatMessageExt.Builder.builder()
-                            .message(message)
+                long fetchBytes = 0;
+                List<FlatMessageExt> resultList = new ArrayList<>();
+                for (RecordBatchWithContext batch : fetchResult.recordBatchList()) {
+                    fetchBytes += batch.rawPayload().remaining();
+                    // A batch may hold multiple messages, and the messages out of the fetch range are skipped.
+                    List<ByteBuffer> messages = BatchRecord.split(batch);
+                    for (int i = 0; i < messages.size(); i++) {
+                        long messageOffset = batch.baseOffset() + i;
+                        if (messageOffset < finalOffset || messageOffset >= endOffset) {
+                            continue;
+                        }
+                        resultList.add(FlatMessageExt.Builder.builder()
+                            .message(FlatMessage.getRootAsFlatMessage(messages.get(i)))
                             .offset(messageOffset)
-                            .build();
-                    })
-                    .toList();
+                            .build());
+                    }
+                }
 
-                context.span().ifPresent(span -> span.setAttribute("fetchBytes", fetchBytes.get()));
+                long finalFetchBytes = fetchBytes;
+                context.span().ifPresent(span -> span.setAttribute("fetchBytes", finalFetchBytes));
 
-                return new FetchResult(resultList, finalOffset + resultList.size());
+                long nextOffset = resultList.isEmpty() ? finalOffset : resultList.get(resultList.size() - 1).offset() + 1;
+                return new FetchResult(resultList, nextOffset, fetchResult);
             });
     }
 
@@ -440,8 +647,11 @@ public class StreamLogicQueue extends LogicQueue {
         @SpanAttribute int fetchBatchSize, @SpanAttribute Filter filter, FilterFetchResult result,
         int fetchCount, long fetchBytes, long operationTimestamp) {
         // Fetch more messages.
-        return fetchMessages(context, streamId, offset, fetchBatchSize)
+        return fetchMessages(context, streamId, offset, fetchBatchSize, result.pooledBuf)
             .thenCompose(fetchResult -> {
+                if (result.pooledBuf && fetchResult.streamFetchResult() != null) {
+                    result.addPooledFetchResult(fetchResult.streamFetchResult());
+                }
                 // Add filter result to message list.
                 List<FlatMessageExt> matchedMessageList = filter.doFilter(fetchResult.messageList());
                 // Update end offset
@@ -473,7 +683,7 @@ public class StreamLogicQueue extends LogicQueue {
                 });
 
                 if (needToFetch && hasMoreMessages && notExceedLimit) {
-                    return fetchAndFilterMessages(context, streamId, offset + fetchResult.size(),
+                    return fetchAndFilterMessages(context, streamId, fetchResult.endOffset(),
                         batchSize, fetchBatchSize, filter, result, newFetchCount, newFetchBytes, operationTimestamp);
                 } else {
                     return CompletableFuture.completedFuture(result);
@@ -490,10 +700,26 @@ public class StreamLogicQueue extends LogicQueue {
         private final long startOffset;
         private long endOffset;
         private final List<FlatMessageExt> messageList = new ArrayList<>();
+        // Whether the messages are backed by pooled buffers of the stream instead of copies on heap.
+        private final boolean pooledBuf;
+        private final List<com.automq.stream.api.FetchResult> pooledFetchResults = new ArrayList<>();
 
         public FilterFetchResult(long startOffset) {
+            this(startOffset, false);
+        }
+
+        public FilterFetchResult(long startOffset, boolean pooledBuf) {
             this.startOffset = startOffset;
             this.endOffset = startOffset;
+            this.pooledBuf = pooledBuf;
+        }
+
+        public void addPooledFetchResult(com.automq.stream.api.FetchResult fetchResult) {
+            this.pooledFetchResults.add(fetchResult);
+        }
+
+        public void release() {
+            pooledFetchResults.forEach(com.automq.stream.api.FetchResult::free);
         }
 
         public void setEndOffset(long endOffset) {
@@ -518,7 +744,7 @@ public class StreamLogicQueue extends LogicQueue {
         AckOperation operation = new AckOperation(handle.topicId(), handle.queueId(), operationStreamId,
             snapshotStreamId, stateMachine, handle.consumerGroupId(), handle.operationId(), System.currentTimeMillis(),
             AckOperation.AckOperationType.ACK_NORMAL);
-        return operationLogService.logAckOperation(operation)
+        return logAckOperation(operation)
             .thenApply(nil -> {
                 inflightService.decreaseInflightCount(handle.consumerGroupId(), handle.topicId(), handle.queueId(), 1);
                 return new AckResult(AckResult.Status.SUCCESS);
@@ -534,13 +760,30 @@ public class StreamLogicQueue extends LogicQueue {
         AckOperation operation = new AckOperation(handle.topicId(), handle.queueId(), operationStreamId,
             snapshotStreamId, stateMachine, handle.consumerGroupId(), handle.operationId(), System.currentTimeMillis(),
             AckOperation.AckOperationType.ACK_TIMEOUT);
-        return operationLogService.logAckOperation(operation)
+        return logAckOperation(operation)
             .thenApply(nil -> {
                 inflightService.decreaseInflightCount(handle.consumerGroupId(), handle.topicId(), handle.queueId(), 1);
                 return new AckResult(AckResult.Status.SUCCESS);
             }).exceptionally(throwable -> new AckResult(AckResult.Status.ERROR));
     }
 
+    private CompletableFuture<Void> logAckOperation(AckOperation operation) {
+        if (ackAggregator != null) {
+            return ackAggregator.ack(operation);
+        }
+        return operationLogService.logAckOperation(operation).thenApply(logResult -> null);
+    }
+
+    private CompletableFuture<boolean[]> logAckOperations(List<AckOperation> operations) {
+        if (operations.size() == 1) {
+            // Keep the single ack record, which is cheaper to replay than a batch of one.
+            return operationLogService.logAckOperation(operations.get(0)).thenApply(logResult -> new boolean[] {true});
+        }
+        BatchAckOperation operation = new BatchAckOperation(topicId, queueId, operationStreamId, snapshotStreamId,
+            stateMachine, operations);
+        return operationLogService.logBatchAckOperation(operation);
+    }
+
     @Override
     public CompletableFuture<ChangeInvisibleDurationResult> changeInvisibleDuration(String receiptHandle,
         long invisibleDuration) {
@@ -581,14 +824,20 @@ public class StreamLogicQueue extends LogicQueue {
     @Override
     public CompletableFuture<PullResult> pullNormal(long consumerGroupId, Filter filter, long startOffset,
         int batchSize) {
+        return pullNormal(consumerGroupId, filter, startOffset, batchSize, false);
+    }
+
+    @Override
+    public CompletableFuture<PullResult> pullNormal(long consumerGroupId, Filter filter, long startOffset,
+        int batchSize, boolean pooledBuf) {
         if (state.get() != State.OPENED) {
             return CompletableFuture.failedFuture(new StoreException(StoreErrorCode.QUEUE_NOT_OPENED, "Topic queue not opened"));
         }
-        return pull(dataStreamId, consumerGroupId, filter, startOffset, batchSize);
+        return pull(dataStreamId, consumerGroupId, filter, startOffset, batchSize, pooledBuf);
     }
 
     private CompletableFuture<PullResult> pull(long streamId, long consumerGroupId, Filter filter, long startOffset,
-        int batchSize) {
+        int batchSize, boolean pooledBuf) {
         int fetchBatchSize;
         if (filter.needApply()) {
             // If filter is applied, fetch more messages to apply filter.
@@ -597,7 +846,7 @@ public class StreamLogicQueue extends LogicQueue {
             // If filter is not applied, fetch batchSize messages.
             fetchBatchSize = batchSize;
         }
-        FilterFetchResult fetchResult = new FilterFetchResult(startOffset);
+        FilterFetchResult fetchResult = new FilterFetchResult(startOffset, pooledBuf);
         long operationTimestamp = System.currentTimeMillis();
         CompletableFuture<FilterFetchResult> fetchCf = fetchAndFilterMessages(StoreContext.EMPTY, streamId, startOffset, batchSize,
             fetchBatchSize, filter, fetchResult, 0, 0, operationTimestamp);
@@ -609,19 +858,29 @@ public class StreamLogicQueue extends LogicQueue {
             } else {
                 status = PullResult.Status.FOUND;
             }
-            return new PullResult(status, filterFetchResult.endOffset, filterFetchResult.startOffset, filterFetchResult.endOffset - 1, messageExtList);
-        }).exceptionally(throwable -> new PullResult(PullResult.Status.OFFSET_ILLEGAL, -1, -1, -1, Collections.emptyList()));
+            return new PullResult(status, filterFetchResult.endOffset, filterFetchResult.startOffset, filterFetchResult.endOffset - 1,
+                messageExtList, filterFetchResult.pooledFetchResults);
+        }).exceptionally(throwable -> {
+            fetchResult.release();
+            return new PullResult(PullResult.Status.OFFSET_ILLEGAL, -1, -1, -1, Collections.emptyList());
+        });
 
     }
 
     @Override
     public CompletableFuture<PullResult> pullRetry(long consumerGroupId, Filter filter, long startOffset,
         int batchSize) {
+        return pullRetry(consumerGroupId, filter, startOffset, batchSize, false);
+    }
+
+    @Override
+    public CompletableFuture<PullResult> pullRetry(long consumerGroupId, Filter filter, long startOffset,
+        int batchSize, boolean pooledBuf) {
         if (state.get() != State.OPENED) {
             return CompletableFuture.failedFuture(new StoreException(StoreErrorCode.QUEUE_NOT_OPENED, "Topic queue not opened"));
         }
         CompletableFuture<Long> retryStreamIdCf = retryStreamId(consumerGroupId);
-        return retryStreamIdCf.thenCompose(streamId -> pull(streamId, consumerGroupId, filter, startOffset, batchSize));
+        return retryStreamIdCf.thenCompose(streamId -> pull(streamId, consumerGroupId, filter, startOffset, batchSize, pooledBuf));
     }
 
     @Override
@@ -653,4 +912,21 @@ public class StreamLogicQueue extends LogicQueue {
     public int getConsumeTimes(long consumerGroupId, long offset) {
         return stateMachine.consumeTimes(consumerGroupId, offset);
     }
+
+    @Override
+    public boolean ownsStream(long streamId) {
+        if (streamId == dataStreamId || streamId == operationStreamId || streamId == snapshotStreamId) {
+            return true;
+        }
+        TimerMessageLog timerMessageLog = timerMessageLog();
+        if (timerMessageLog != null && timerMessageLog.streamId() == streamId) {
+            return true;
+        }
+        for (CompletableFuture<Long> retryStreamIdCf : retryStreamIdMap.values()) {
+            if (retryStreamIdCf.isDone() && !retryStreamIdCf.isCompletedExceptionally() && retryStreamIdCf.join() == streamId) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,464 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.automq.rocketmq.store.queue;
+
+import com.automq.rocketmq.common.config.StoreConfig;
+import com.automq.rocketmq.common.model.generated.FlatMessage;
+import com.automq.rocketmq.store.api.StreamStore;
+import com.automq.rocketmq.store.exception.StoreErrorCode;
+import com.automq.rocketmq.store.exception.StoreException;
+import com.automq.rocketmq.store.model.StoreContext;
+import com.automq.rocketmq.store.model.generated.DeliveredTimerMessage;
+import com.automq.rocketmq.store.model.generated.TimerHandlerType;
+import com.automq.rocketmq.store.model.generated.TimerLogRecord;
+import com.automq.rocketmq.store.model.generated.TimerMessageRef;
+import com.automq.rocketmq.store.model.kv.BatchRequest;
+import com.automq.rocketmq.store.model.message.TimerMessageDelivery;
+import com.automq.rocketmq.store.model.stream.SingleRecord;
+import com.automq.rocketmq.store.service.StreamReclaimService;
+import com.automq.rocketmq.store.service.TimerService;
+import com.automq.rocketmq.store.util.SerializeUtil;
+import com.automq.stream.api.FetchResult;
+import com.automq.stream.api.RecordBatchWithContext;
+import com.automq.stream.utils.FutureUtil;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.rocketmq.logging.org.slf4j.Logger;
+import org.apache.rocketmq.logging.org.slf4j.LoggerFactory;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+/**
+ * Delayed messages of a logic queue, persisted in the timer stream of the queue so that they survive restarts and
+ * queue reassignments.
+ * <p>
+ * A delayed message is appended to the timer stream and indexed by a timer tag of {@link TimerService}, which only
+ * refers to the message by its offset, so the local KV store does not hold message bodies. Once a message is delivered,
+ * its offset is logged in a record of delivered messages, which are batched together.
+ * <p>
+ * On open, the timer stream is replayed in background to index the messages not delivered yet, and deliveries wait
+ * for the replay. As delivery proceeds, the stream is trimmed up to the first message not delivered yet. When most of
+ * the records that can not be trimmed are delivered already, the pending messages at the head of the stream are moved
+ * to its tail, so that a message delivered far in the future does not keep the stream, and the replay on open, growing.
+ * <p>
+ * Delivery is at least once: a message delivered right before a crash may be delivered again after recovery.
+ */
+public class TimerMessageLog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerMessageLog.class);
+
+    // Distinguishes the timer tags indexed by different openings of a queue, as the tags are kept in the local KV store.
+    private static final AtomicLong EPOCH_GENERATOR = new AtomicLong();
+
+    private final StoreConfig config;
+    private final long topicId;
+    private final int queueId;
+    private final long streamId;
+    private final long epoch = EPOCH_GENERATOR.incrementAndGet();
+    private final StreamStore streamStore;
+    private final TimerService timerService;
+    private final StreamReclaimService streamReclaimService;
+    private final CompletableFuture<Void> recoverCf = new CompletableFuture<>();
+    private volatile boolean closed;
+
+    // The following fields are guarded by this.
+    private final Roaring64Bitmap pendingOffsets = new Roaring64Bitmap();
+    // Lower bounds of the offsets of the messages being appended, with counts.
+    private final TreeMap<Long, Integer> appendingOffsets = new TreeMap<>();
+    // Offsets of the records of delivered messages, mapping to the largest offset of the messages they contain.
+    private final TreeMap<Long, Long> deliveryRecords = new TreeMap<>();
+    private List<TimerMessageDelivery> bufferedDeliveries = new ArrayList<>();
+    private CompletableFuture<Void> bufferedDeliveriesCf;
+    private boolean logging;
+    private boolean reclaiming;
+    private boolean compacting;
+    // Compaction is paused until then if the last one failed, or moved nothing as the messages at the head are due soon.
+    private long nextCompactTimestamp;
+
+    public TimerMessageLog(StoreConfig config, long topicId, int queueId, long streamId, StreamStore streamStore,
+        TimerService timerService, StreamReclaimService streamReclaimService) {
+        this.config = config;
+        this.topicId = topicId;
+        this.queueId = queueId;
+        this.streamId = streamId;
+        this.streamStore = streamStore;
+        this.timerService = timerService;
+        this.streamReclaimService = streamReclaimService;
+    }
+
+    public long streamId() {
+        return streamId;
+    }
+
+    public synchronized long pendingCount() {
+        return pendingOffsets.getLongCardinality();
+    }
+
+    /**
+     * Replay the timer stream in background.
+     *
+     * @return {@link CompletableFuture} completed when all messages not delivered yet are indexed
+     */
+    public CompletableFuture<Void> recover() {
+        long startTimestamp = System.currentTimeMillis();
+        recoverFrom(streamStore.startOffset(streamId), streamStore.confirmOffset(streamId));
+        recoverCf.whenComplete((nil, e) -> {
+            if (e != null) {
+                LOGGER.error("Failed to recover timer stream {} of topic: {}, queue: {}", streamId, topicId, queueId, FutureUtil.cause(e));
+                return;
+            }
+            LOGGER.info("Recover {} delayed messages from timer stream {} of topic: {}, queue: {}, cost {}ms", pendingCount(),
+                streamId, topicId, queueId, System.currentTimeMillis() - startTimestamp);
+            synchronized (this) {
+                reclaim();
+            }
+        });
+        return recoverCf;
+    }
+
+    // Loop over the pages already fetched instead of chaining callbacks, which may overflow the stack on long streams.
+    private void recoverFrom(long offset, long endOffset) {
+        try {
+            while (offset < endOffset) {
+                if (closed) {
+                    throw new StoreException(StoreErrorCode.QUEUE_NOT_OPENED, "Timer stream " + streamId + " is closed");
+                }
+                CompletableFuture<FetchResult> fetchCf = streamStore.fetch(StoreContext.EMPTY, streamId, offset,
+                    (int) Math.min(config.timerStreamRecoverPageSize(), endOffset - offset));
+                if (!fetchCf.isDone()) {
+                    fetchCf.whenComplete((result, e) -> {
+                        if (e != null) {
+                            recoverCf.completeExceptionally(FutureUtil.cause(e));
+                            return;
+                        }
+                        try {
+                            recoverFrom(replay(result.recordBatchList(), endOffset), endOffset);
+                        } catch (Throwable t) {
+                            recoverCf.completeExceptionally(t);
+                        }
+                    });
+                    return;
+                }
+                offset = replay(fetchCf.join().recordBatchList(), endOffset);
+            }
+            recoverCf.complete(null);
+        } catch (Throwable e) {
+            recoverCf.completeExceptionally(FutureUtil.cause(e));
+        }
+    }
+
+    /**
+     * Index the delayed messages of a page, and cancel the ones delivered.
+     *
+     * @return the offset of the next page
+     */
+    private long replay(List<RecordBatchWithContext> batches, long endOffset) throws StoreException {
+        if (batches.isEmpty()) {
+            throw new StoreException(StoreErrorCode.DATA_CORRUPTED, "Timer stream " + streamId + " ends before " + endOffset);
+        }
+        List<BatchRequest> requests = new ArrayList<>();
+        synchronized (this) {
+            for (RecordBatchWithContext batch : batches) {
+                long offset = batch.baseOffset();
+                TimerLogRecord record = SerializeUtil.decodeTimerLogRecord(batch.rawPayload());
+                if (record.messageLength() > 0) {
+                    FlatMessage message = FlatMessage.getRootAsFlatMessage(record.messageAsByteBuffer());
+                    pendingOffsets.addLong(offset);
+                    requests.add(timerService.enqueueRequest(message.systemProperties().deliveryTimestamp(),
+                        SerializeUtil.buildTimerMessageKey(topicId, queueId, epoch, offset), TimerHandlerType.TIMER_MESSAGE,
+                        SerializeUtil.buildTimerMessageRef(topicId, queueId, epoch, offset)));
+                    continue;
+                }
+
+                long maxDeliveredOffset = -1;
+                for (int i = 0; i < record.deliveredLength(); i++) {
+                    DeliveredTimerMessage delivered = record.delivered(i);
+                    pendingOffsets.removeLong(delivered.offset());
+                    maxDeliveredOffset = Math.max(maxDeliveredOffset, delivered.offset());
+                    requests.add(timerService.cancelRequest(delivered.deliveryTimestamp(),
+                        SerializeUtil.buildTimerMessageKey(topicId, queueId, epoch, delivered.offset())));
+                }
+                deliveryRecords.put(offset, maxDeliveredOffset);
+            }
+        }
+        timerService.batch(requests.toArray(new BatchRequest[0]));
+        RecordBatchWithContext lastBatch = batches.get(batches.size() - 1);
+        return lastBatch.baseOffset() + lastBatch.count();
+    }
+
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Append a delayed message to the timer stream and index it.
+     *
+     * @return {@link CompletableFuture} of the offset of the message in the timer stream
+     */
+    public CompletableFuture<Long> append(StoreContext context, FlatMessage message) {
+        long deliveryTimestamp = message.systemProperties().deliveryTimestamp();
+        byte[] messageBytes = new byte[message.getByteBuffer().remaining()];
+        message.getByteBuffer().duplicate().get(messageBytes);
+        SingleRecord record = new SingleRecord(ByteBuffer.wrap(SerializeUtil.encodeTimerMessage(messageBytes)));
+
+        long lowerBound;
+        synchronized (this) {
+            // The message is appended beyond the confirm offset, keep the stream from being trimmed beyond it.
+            lowerBound = streamStore.confirmOffset(streamId);
+            appendingOffsets.merge(lowerBound, 1, Integer::sum);
+        }
+        return streamStore.append(context, streamId, record)
+            .thenApply(result -> {
+                long offset = result.baseOffset();
+                synchronized (this) {
+                    pendingOffsets.addLong(offset);
+                }
+                try {
+                    timerService.enqueue(deliveryTimestamp, SerializeUtil.buildTimerMessageKey(topicId, queueId, epoch, offset),
+                        TimerHandlerType.TIMER_MESSAGE, SerializeUtil.buildTimerMessageRef(topicId, queueId, epoch, offset));
+                } catch (StoreException e) {
+                    throw new CompletionException(e);
+                }
+                return offset;
+            })
+            .whenComplete((offset, e) -> {
+                synchronized (this) {
+                    appendingOffsets.computeIfPresent(lowerBound, (k, count) -> count > 1 ? count - 1 : null);
+                }
+            });
+    }
+
+    /**
+     * Fetch the delayed message referred to by a timer tag.
+     *
+     * @return {@link CompletableFuture} of the message, or empty if the message has been delivered or the tag was
+     * indexed by a previous opening of the queue
+     */
+    public CompletableFuture<Optional<FlatMessage>> fetch(TimerMessageRef ref) {
+        if (ref.epoch() != epoch) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return recoverCf.thenCompose(nil -> {
+            synchronized (this) {
+                if (!pendingOffsets.contains(ref.offset())) {
+                    return CompletableFuture.completedFuture(Optional.empty());
+                }
+            }
+            return fetchMessage(ref.offset()).thenApply(Optional::of);
+        });
+    }
+
+    private CompletableFuture<FlatMessage> fetchMessage(long offset) {
+        return streamStore.fetch(StoreContext.EMPTY, streamId, offset, 1)
+            .thenApply(result -> {
+                for (RecordBatchWithContext batch : result.recordBatchList()) {
+                    if (batch.baseOffset() == offset) {
+                        TimerLogRecord record = SerializeUtil.decodeTimerLogRecord(batch.rawPayload());
+                        return FlatMessage.getRootAsFlatMessage(record.messageAsByteBuffer());
+                    }
+                }
+                throw new CompletionException(new StoreException(StoreErrorCode.DATA_CORRUPTED,
+                    "Delayed message " + offset + " is not found in timer stream " + streamId));
+            });
+    }
+
+    /**
+     * Log the delivery of a delayed message. Deliveries are logged in batches, one at a time.
+     *
+     * @return {@link CompletableFuture} completed when the delivery is logged
+     */
+    public CompletableFuture<Void> commit(TimerMessageRef ref, long deliveryTimestamp) {
+        if (ref.epoch() != epoch) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return commit(ref.offset(), deliveryTimestamp);
+    }
+
+    private synchronized CompletableFuture<Void> commit(long offset, long deliveryTimestamp) {
+        if (!pendingOffsets.contains(offset)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        bufferedDeliveries.add(new TimerMessageDelivery(offset, deliveryTimestamp));
+        if (bufferedDeliveriesCf == null) {
+            bufferedDeliveriesCf = new CompletableFuture<>();
+        }
+        CompletableFuture<Void> cf = bufferedDeliveriesCf;
+        if (!logging) {
+            logDeliveries();
+        }
+        return cf;
+    }
+
+    // Called with the lock held.
+    private void logDeliveries() {
+        List<TimerMessageDelivery> deliveries = bufferedDeliveries;
+        CompletableFuture<Void> cf = bufferedDeliveriesCf;
+        bufferedDeliveries = new ArrayList<>();
+        bufferedDeliveriesCf = null;
+        logging = true;
+
+        SingleRecord record = new SingleRecord(ByteBuffer.wrap(SerializeUtil.encodeTimerMessageDeliveries(deliveries)));
+        streamStore.append(StoreContext.EMPTY, streamId, record)
+            .whenComplete((result, e) -> {
+                synchronized (this) {
+                    logging = false;
+                    if (e == null) {
+                        long maxDeliveredOffset = -1;
+                        for (TimerMessageDelivery delivery : deliveries) {
+                            pendingOffsets.removeLong(delivery.offset());
+                            maxDeliveredOffset = Math.max(maxDeliveredOffset, delivery.offset());
+                        }
+                        deliveryRecords.put(result.baseOffset(), maxDeliveredOffset);
+                        reclaim();
+                    }
+                    if (!bufferedDeliveries.isEmpty()) {
+                        logDeliveries();
+                    }
+                }
+                if (e != null) {
+                    cf.completeExceptionally(FutureUtil.cause(e));
+                } else {
+                    cf.complete(null);
+                }
+            });
+    }
+
+    /**
+     * The offset the timer stream can be trimmed to: the first message not delivered yet, and no record of delivered
+     * messages below it refers to a message above it, otherwise the message would be delivered again on recovery.
+     */
+    // Called with the lock held.
+    private long reclaimableOffset() {
+        long offset = pendingOffsets.isEmpty() ? streamStore.confirmOffset(streamId) : pendingOffsets.first();
+        if (!appendingOffsets.isEmpty()) {
+            offset = Math.min(offset, appendingOffsets.firstKey());
+        }
+        boolean lowered = true;
+        while (lowered) {
+            lowered = false;
+            for (Map.Entry<Long, Long> entry : deliveryRecords.headMap(offset).entrySet()) {
+                if (entry.getValue() >= offset) {
+                    offset = entry.getKey();
+                    lowered = true;
+                    break;
+                }
+            }
+        }
+        return offset;
+    }
+
+    // Called with the lock held.
+    private void reclaim() {
+        if (closed || reclaiming || !recoverCf.isDone()) {
+            return;
+        }
+        long offset = reclaimableOffset();
+        if (offset > streamStore.startOffset(streamId)) {
+            reclaiming = true;
+            streamReclaimService.addReclaimTask(new StreamReclaimService.StreamReclaimTask(CompletableFuture.completedFuture(streamId), offset))
+                .whenComplete((result, e) -> {
+                    synchronized (this) {
+                        reclaiming = false;
+                        if (e == null && result.success()) {
+                            deliveryRecords.headMap(offset).clear();
+                            // Catch up with the deliveries logged during the reclaim.
+                            reclaim();
+                        }
+                    }
+                    if (e != null) {
+                        LOGGER.warn("Failed to reclaim timer stream {} of topic: {}, queue: {} to offset: {}", streamId, topicId, queueId, offset, FutureUtil.cause(e));
+                    }
+                });
+        }
+        // Compact last, as a compaction may complete in place and call back into this.
+        compact(offset);
+    }
+
+    /**
+     * Move the pending messages at the head of the timer stream to its tail if most of the records that can not be
+     * trimmed are delivered already. A moved message is appended and indexed again, then its previous copy is logged as
+     * delivered, so the stream can be trimmed beyond it. Messages due within the load-ahead window of the timing wheel
+     * are left in place, as they are about to be delivered anyway.
+     */
+    // Called with the lock held.
+    private void compact(long reclaimableOffset) {
+        if (compacting || System.currentTimeMillis() < nextCompactTimestamp) {
+            return;
+        }
+        long unreclaimable = streamStore.confirmOffset(streamId) - reclaimableOffset;
+        if (unreclaimable < config.timerStreamCompactMinRecords() || pendingOffsets.getLongCardinality() * 2 > unreclaimable) {
+            return;
+        }
+
+        // Moves may complete in place and change the pending offsets, so take the offsets to move beforehand.
+        List<Long> offsets = new ArrayList<>();
+        LongIterator iterator = pendingOffsets.getLongIterator();
+        while (iterator.hasNext() && offsets.size() < config.timerStreamRecoverPageSize()) {
+            offsets.add(iterator.next());
+        }
+        compacting = true;
+        long dueTimestamp = System.currentTimeMillis() + config.timerWheelLoadAheadMillis();
+        List<CompletableFuture<Boolean>> moveCfs = new ArrayList<>();
+        for (long offset : offsets) {
+            moveCfs.add(moveToTail(offset, dueTimestamp));
+        }
+        CompletableFuture.allOf(moveCfs.toArray(new CompletableFuture[0]))
+            .whenComplete((nil, e) -> {
+                if (e != null) {
+                    LOGGER.warn("Failed to compact timer stream {} of topic: {}, queue: {}", streamId, topicId, queueId, FutureUtil.cause(e));
+                }
+                synchronized (this) {
+                    compacting = false;
+                    if (e != null || moveCfs.stream().noneMatch(CompletableFuture::join)) {
+                        nextCompactTimestamp = dueTimestamp;
+                    }
+                    reclaim();
+                }
+            });
+    }
+
+    /**
+     * @return {@link CompletableFuture} of whether the message is moved
+     */
+    private CompletableFuture<Boolean> moveToTail(long offset, long dueTimestamp) {
+        return fetchMessage(offset)
+            .thenCompose(message -> {
+                long deliveryTimestamp = message.systemProperties().deliveryTimestamp();
+                if (deliveryTimestamp < dueTimestamp) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                return append(StoreContext.EMPTY, message)
+                    .thenCompose(newOffset -> {
+                        try {
+                            timerService.cancel(deliveryTimestamp, SerializeUtil.buildTimerMessageKey(topicId, queueId, epoch, offset));
+                        } catch (StoreException e) {
+                            throw new CompletionException(e);
+                        }
+                        return commit(offset, deliveryTimestamp);
+                    })
+                    .thenApply(nil -> true);
+            });
+    }
+}
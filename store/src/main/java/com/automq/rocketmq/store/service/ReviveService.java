@@ -17,7 +17,9 @@
 
 package com.automq.rocketmq.store.service;
 
+import com.automq.rocketmq.common.config.StoreConfig;
 import com.automq.rocketmq.common.model.FlatMessageExt;
+import com.automq.rocketmq.common.model.generated.FlatMessage;
 import com.automq.rocketmq.common.trace.TraceHelper;
 import com.automq.rocketmq.metadata.api.StoreMetadataService;
 import com.automq.rocketmq.store.api.DeadLetterSender;
@@ -34,8 +36,10 @@ import com.automq.rocketmq.store.model.generated.TimerTag;
 import com.automq.rocketmq.store.model.message.AckResult;
 import com.automq.rocketmq.store.model.message.Filter;
 import com.automq.rocketmq.store.model.message.PullResult;
+import com.automq.rocketmq.store.model.message.TopicQueueId;
 import com.automq.rocketmq.store.model.operation.PopOperation;
 import com.automq.rocketmq.store.service.api.KVService;
+import com.automq.rocketmq.store.util.FlatMessageUtil;
 import com.automq.rocketmq.store.util.SerializeUtil;
 import com.automq.stream.utils.FutureUtil;
 import com.automq.stream.utils.ThreadUtils;
@@ -43,18 +47,38 @@ import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.trace.Tracer;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
-import org.apache.commons.lang3.tuple.Triple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Revive the expired checkpoints: the messages are appended to the retry streams, or sent to the dead letter topic
+ * once they run out of delivery attempts, then the checkpoints are acked.
+ * <p>
+ * The expired checkpoints are revived in batches grouped by queue. The messages of a batch are pulled by contiguous
+ * offset ranges, the retry messages of a consumer group are appended as one record, and the acks are group committed by
+ * the queue. One batch of a queue is revived at a time to keep the expiry order, while different queues are revived in
+ * parallel by a bounded pool.
+ */
 public class ReviveService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReviveService.class);
     private final String checkPointNamespace;
@@ -65,7 +89,9 @@ public class ReviveService {
     // Indicate the timestamp that the revive service has reached.
     private volatile long reviveTimestamp = 0;
     private final String identity = "[ReviveService]";
-    private final ConcurrentMap<Long/*operationId*/, CompletableFuture<Void>> inflightRevive;
+    private final Set<Long/*operationId*/> inflightRevive;
+    private final ConcurrentMap<TopicQueueId, QueueReviver> queueRevivers;
+    private final int maxBatchCount;
     private final ExecutorService backgroundExecutor;
     private final DeadLetterSender deadLetterSender;
 
@@ -73,180 +99,338 @@ public class ReviveService {
         StoreMetadataService metadataService, MessageArrivalNotificationService messageArrivalNotificationService,
         LogicQueueManager logicQueueManager,
         DeadLetterSender deadLetterSender) throws StoreException {
+        this(checkPointNamespace, kvService, timerService, metadataService, messageArrivalNotificationService,
+            logicQueueManager, deadLetterSender, new StoreConfig());
+    }
+
+    public ReviveService(String checkPointNamespace, KVService kvService, TimerService timerService,
+        StoreMetadataService metadataService, MessageArrivalNotificationService messageArrivalNotificationService,
+        LogicQueueManager logicQueueManager, DeadLetterSender deadLetterSender,
+        StoreConfig config) throws StoreException {
         this.checkPointNamespace = checkPointNamespace;
         this.kvService = kvService;
         this.metadataService = metadataService;
         this.messageArrivalNotificationService = messageArrivalNotificationService;
         this.logicQueueManager = logicQueueManager;
-        this.inflightRevive = new ConcurrentHashMap<>();
+        this.inflightRevive = ConcurrentHashMap.newKeySet();
+        this.queueRevivers = new ConcurrentHashMap<>();
+        this.maxBatchCount = config.reviveMaxBatchCount();
         this.deadLetterSender = deadLetterSender;
-        this.backgroundExecutor = Executors.newSingleThreadExecutor(
-            ThreadUtils.createThreadFactory("revive-service-background", false));
+        this.backgroundExecutor = Executors.newFixedThreadPool(config.reviveThreadPoolNums(),
+            ThreadUtils.createThreadFactory("revive-service-background-%d", false));
 
         timerService.registerHandler(TimerHandlerType.POP_REVIVE, this::tryRevive);
     }
 
-    class ReviveTask implements Runnable {
-        private final long deliveryTimestamp;
-        private final ByteBuffer payload;
+    /**
+     * The expired checkpoints of a queue waiting to be revived. The reviver is dropped once it runs out of checkpoints,
+     * so closed or moved queues do not leave it behind.
+     */
+    class QueueReviver {
+        private final long topicId;
+        private final int queueId;
+        private final Queue<ReceiptHandle> pendingHandles = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
 
-        ReviveTask(long deliveryTimestamp, ByteBuffer payload) {
-            this.deliveryTimestamp = deliveryTimestamp;
-            this.payload = payload;
+        QueueReviver(long topicId, int queueId) {
+            this.topicId = topicId;
+            this.queueId = queueId;
         }
 
-        @Override
-        public void run() {
-            Tracer tracer = TraceHelper.getTracer();
-            StoreContext context = new StoreContext("", "", tracer);
-            Span rootSpan = tracer.spanBuilder("ReviveTask")
-                .setNoParent()
-                .setSpanKind(SpanKind.INTERNAL)
-                .startSpan();
-            context.attachSpan(rootSpan);
-
-            ReceiptHandle receiptHandle = ReceiptHandle.getRootAsReceiptHandle(payload);
-            long consumerGroupId = receiptHandle.consumerGroupId();
-            long topicId = receiptHandle.topicId();
-            int queueId = receiptHandle.queueId();
-            long operationId = receiptHandle.operationId();
-            context.span().ifPresent(s -> {
-                s.setAttribute("topicId", topicId);
-                s.setAttribute("queueId", queueId);
-                s.setAttribute("consumerGroupId", consumerGroupId);
-            });
-
-            CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
-            CompletableFuture<Void> preFuture = inflightRevive.putIfAbsent(operationId, future);
-            if (preFuture != null) {
-                LOGGER.trace("{}: Inflight revive operation: {}", identity, operationId);
-                return;
+        private void schedule() {
+            if (!pendingHandles.isEmpty() && scheduled.compareAndSet(false, true)) {
+                backgroundExecutor.execute(this::reviveNextBatch);
             }
-            reviveTimestamp = deliveryTimestamp;
+        }
 
-            CompletableFuture<Triple<LogicQueue, PullResult, PopOperation.PopOperationType>> fetchMessageFuture =
-                future.thenCompose(nil -> logicQueueManager.getOrCreate(StoreContext.EMPTY, topicId, queueId))
-                    .thenComposeAsync(queue -> {
-                        byte[] ckKey = SerializeUtil.buildCheckPointKey(topicId, queueId, consumerGroupId, operationId);
-                        byte[] ckValue;
-                        try {
-                            ckValue = kvService.get(checkPointNamespace, ckKey);
-                        } catch (StoreException e) {
-                            LOGGER.error("{}: Failed to get check point with topicId: {}, queueId: {}, operationId: {}", identity, topicId, queueId, operationId, e);
-                            throw new CompletionException(e);
-                        }
-                        if (ckValue == null) {
-                            LOGGER.error("{}: Not found check point with topicId: {}, queueId: {}, operationId: {}", identity, topicId, queueId, operationId);
-                            throw new CompletionException(new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "Not found check point"));
-                        }
+        private void reviveNextBatch() {
+            List<ReceiptHandle> handles = new ArrayList<>();
+            ReceiptHandle handle;
+            while (handles.size() < maxBatchCount && (handle = pendingHandles.poll()) != null) {
+                handles.add(handle);
+            }
+            reviveBatch(topicId, queueId, handles)
+                .whenComplete((nil, e) -> {
+                    scheduled.set(false);
+                    // Schedule the checkpoints expired during the batch.
+                    schedule();
+                    // Checkpoints are added under the map lock as well, so none is left in a dropped reviver.
+                    queueRevivers.computeIfPresent(TopicQueueId.of(topicId, queueId),
+                        (id, reviver) -> reviver == this && pendingHandles.isEmpty() ? null : reviver);
+                });
+        }
+    }
 
-                        CheckPoint checkPoint = SerializeUtil.decodeCheckPoint(ByteBuffer.wrap(ckValue));
-                        PopOperation.PopOperationType operationType = PopOperation.PopOperationType.valueOf(checkPoint.popOperationType());
-                        context.span().ifPresent(s -> s.setAttribute("operationType", operationType.name()));
+    /**
+     * An expired checkpoint and the message it refers to.
+     */
+    static class Revive {
+        private final ReceiptHandle handle;
+        private final PopOperation.PopOperationType operationType;
+        private final long messageOffset;
+        private FlatMessageExt messageExt;
+        private boolean deadLetter;
+        private boolean resend;
 
-                        CompletableFuture<PullResult> pullFuture;
-                        if (operationType == PopOperation.PopOperationType.POP_RETRY) {
-                            pullFuture = queue.pullRetry(consumerGroupId, Filter.DEFAULT_FILTER, checkPoint.messageOffset(), 1);
-                        } else {
-                            pullFuture = queue.pullNormal(consumerGroupId, Filter.DEFAULT_FILTER, checkPoint.messageOffset(), 1);
-                        }
-                        return pullFuture.thenApply(result -> {
-                            if (result.messageList().isEmpty()) {
-                                context.span().ifPresent(s -> s.addEvent("message not found"));
-                            }
-                            return Triple.of(queue, result, operationType);
-                        });
-                    }, backgroundExecutor);
+        Revive(ReceiptHandle handle, CheckPoint checkPoint) {
+            this.handle = handle;
+            this.operationType = PopOperation.PopOperationType.valueOf(checkPoint.popOperationType());
+            this.messageOffset = checkPoint.messageOffset();
+        }
 
-            AtomicReference<Integer> maxDeliveryAttemptsRef = new AtomicReference<>();
-            CompletableFuture<Triple<LogicQueue, FlatMessageExt, PopOperation.PopOperationType>> checkFuture =
-                fetchMessageFuture.thenCombineAsync(metadataService.maxDeliveryAttemptsOf(consumerGroupId), (triple, maxDeliveryAttempts) -> {
-                    LogicQueue logicQueue = triple.getLeft();
-                    PullResult pullResult = triple.getMiddle();
-                    PopOperation.PopOperationType operationType = triple.getRight();
-                    if (pullResult.messageList().size() != 1) {
-                        throw new CompletionException(new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "Revive message not found"));
-                    }
-                    // Build the retry message and append it to retry stream or dead letter stream.
-                    FlatMessageExt messageExt = pullResult.messageList().get(0);
-                    maxDeliveryAttemptsRef.set(maxDeliveryAttempts);
-                    context.span().ifPresent(s -> s.setAttribute("maxDeliveryAttempts", maxDeliveryAttempts));
-                    return Triple.of(logicQueue, messageExt, operationType);
-                }, backgroundExecutor);
+        long consumerGroupId() {
+            return handle.consumerGroupId();
+        }
 
-            CompletableFuture<Pair<Boolean, LogicQueue>> resendFuture = checkFuture.thenCompose(triple -> {
-                LogicQueue logicQueue = triple.getLeft();
-                FlatMessageExt messageExt = triple.getMiddle();
-                PopOperation.PopOperationType operationType = triple.getRight();
-                int maxDeliveryAttempts = maxDeliveryAttemptsRef.get();
+        // Messages of the normal and FIFO pops are pulled from the data stream, the others from the retry stream.
+        boolean fromRetryStream() {
+            return operationType == PopOperation.PopOperationType.POP_RETRY;
+        }
+    }
 
-                if (operationType == PopOperation.PopOperationType.POP_ORDER) {
-                    int consumeTimes = logicQueue.getConsumeTimes(consumerGroupId, messageExt.offset());
-                    context.span().ifPresent(s -> s.setAttribute("deliveryAttempts", consumeTimes));
+    private CompletableFuture<Void> reviveBatch(long topicId, int queueId, List<ReceiptHandle> handles) {
+        Tracer tracer = TraceHelper.getTracer();
+        StoreContext context = new StoreContext("", "", tracer);
+        Span rootSpan = tracer.spanBuilder("ReviveBatch")
+            .setNoParent()
+            .setSpanKind(SpanKind.INTERNAL)
+            .startSpan();
+        context.attachSpan(rootSpan);
+        context.span().ifPresent(s -> {
+            s.setAttribute("topicId", topicId);
+            s.setAttribute("queueId", queueId);
+            s.setAttribute("checkPointCount", handles.size());
+        });
 
-                    if (consumeTimes >= maxDeliveryAttempts) {
-                        messageExt.setDeliveryAttempts(consumeTimes);
-                        // Send to dead letter topic specified in consumer group config.
-                        return deadLetterSender.send(context, consumerGroupId, messageExt)
-                            .thenApply(nil -> Pair.of(true, logicQueue));
-                    }
-                    return CompletableFuture.completedFuture(Pair.of(false, logicQueue));
+        return logicQueueManager.getOrCreate(StoreContext.EMPTY, topicId, queueId)
+            .thenComposeAsync(queue -> reviveBatch(context, queue, handles), backgroundExecutor)
+            .handle((nil, e) -> {
+                if (e != null) {
+                    // The whole batch fails, e.g. the queue is not opened.
+                    handles.forEach(handle -> onReviveComplete(handle, e));
                 }
+                TraceHelper.endSpan(context, rootSpan, e);
+                return null;
+            });
+    }
 
-                context.span().ifPresent(s -> s.setAttribute("deliveryAttempts", messageExt.deliveryAttempts()));
+    private CompletableFuture<Void> reviveBatch(StoreContext context, LogicQueue queue, List<ReceiptHandle> handles) {
+        List<Revive> revives = new ArrayList<>(handles.size());
+        List<CompletableFuture<Revive>> prepareCfs = new ArrayList<>(handles.size());
+        Map<Pair<Long, Long>, CheckPoint> checkPoints;
+        try {
+            checkPoints = loadCheckPoints(queue.topicId(), queue.queueId(), handles);
+        } catch (StoreException e) {
+            LOGGER.error("{}: Failed to get check points with topicId: {}, queueId: {}", identity, queue.topicId(), queue.queueId(), e);
+            handles.forEach(handle -> onReviveComplete(handle, e));
+            return CompletableFuture.completedFuture(null);
+        }
+        for (ReceiptHandle handle : handles) {
+            CheckPoint checkPoint = checkPoints.get(Pair.of(handle.consumerGroupId(), handle.operationId()));
+            if (checkPoint == null) {
+                LOGGER.error("{}: Not found check point with topicId: {}, queueId: {}, operationId: {}", identity, handle.topicId(), handle.queueId(), handle.operationId());
+                onReviveComplete(handle, new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "Not found check point"));
+                continue;
+            }
+            revives.add(new Revive(handle, checkPoint));
+        }
 
-                if (messageExt.deliveryAttempts() >= maxDeliveryAttempts) {
-                    // Send to dead letter topic specified in consumer group config.
-                    return deadLetterSender.send(context, consumerGroupId, messageExt)
-                        .thenApply(nil -> Pair.of(true, logicQueue));
+        // 1. Pull the messages and check their delivery attempts.
+        Map<Long, CompletableFuture<Integer>> maxDeliveryAttemptsCfs = new HashMap<>();
+        Map<Revive, CompletableFuture<FlatMessageExt>> messageCfs = pullMessages(queue, revives);
+        for (Revive revive : revives) {
+            CompletableFuture<Integer> maxDeliveryAttemptsCf = maxDeliveryAttemptsCfs.computeIfAbsent(revive.consumerGroupId(),
+                metadataService::maxDeliveryAttemptsOf);
+            prepareCfs.add(messageCfs.get(revive).thenCombineAsync(maxDeliveryAttemptsCf, (messageExt, maxDeliveryAttempts) -> {
+                check(queue, revive, messageExt, maxDeliveryAttempts);
+                return revive;
+            }, backgroundExecutor));
+        }
+
+        // 2. Wait for the checks and append the retry messages of each consumer group as one record.
+        return CompletableFuture.allOf(prepareCfs.stream().map(cf -> cf.handle((r, e) -> null)).toArray(CompletableFuture[]::new))
+            .thenComposeAsync(nil -> {
+                Map<Long, List<Revive>> resendRevives = new LinkedHashMap<>();
+                for (CompletableFuture<Revive> prepareCf : prepareCfs) {
+                    if (!prepareCf.isCompletedExceptionally() && prepareCf.join().resend) {
+                        Revive revive = prepareCf.join();
+                        resendRevives.computeIfAbsent(revive.consumerGroupId(), k -> new ArrayList<>()).add(revive);
+                    }
                 }
-                messageExt.setOriginalQueueOffset(messageExt.originalOffset());
-                messageExt.setDeliveryAttempts(messageExt.deliveryAttempts() + 1);
-                return logicQueue.putRetry(context, consumerGroupId, messageExt.message())
-                    .thenCompose(result -> metadataService.topicOf(topicId)
-                        .thenAccept(topic -> messageArrivalNotificationService.notify(MessageArrivalListener.MessageSource.RETRY_MESSAGE_PUT, topic, queueId, result.offset(), messageExt.message().tag())))
-                    .thenApply(nil -> Pair.of(false, logicQueue));
-            });
+                Map<Long, CompletableFuture<Void>> resendCfs = new HashMap<>();
+                resendRevives.forEach((consumerGroupId, groupRevives) ->
+                    resendCfs.put(consumerGroupId, resend(context, queue, consumerGroupId, groupRevives)));
 
-            CompletableFuture<AckResult> ackFuture = resendFuture.thenComposeAsync(pair -> {
-                boolean sendDeadLetter = pair.getLeft();
-                LogicQueue queue = pair.getRight();
-                if (sendDeadLetter) {
-                    // regard sending to DLQ as ack
-                    return queue.ack(SerializeUtil.encodeReceiptHandle(receiptHandle));
+                // 3. Send to the dead letter topic or wait for the resend, then ack the checkpoints.
+                List<CompletableFuture<AckResult>> ackCfs = new ArrayList<>(prepareCfs.size());
+                for (int i = 0; i < prepareCfs.size(); i++) {
+                    ReceiptHandle handle = revives.get(i).handle;
+                    CompletableFuture<AckResult> ackCf = prepareCfs.get(i).thenCompose(revive -> {
+                        String receiptHandle = SerializeUtil.encodeReceiptHandle(revive.handle);
+                        if (revive.deadLetter) {
+                            // regard sending to DLQ as ack
+                            return deadLetterSender.send(context, revive.consumerGroupId(), revive.messageExt)
+                                .thenCompose(v -> queue.ack(receiptHandle));
+                        }
+                        CompletableFuture<Void> resendCf = revive.resend ? resendCfs.get(revive.consumerGroupId())
+                            : CompletableFuture.completedFuture(null);
+                        // ack timeout
+                        return resendCf.thenCompose(v -> queue.ackTimeout(receiptHandle));
+                    });
+                    ackCf.whenComplete((result, e) -> onReviveComplete(handle, e));
+                    ackCfs.add(ackCf);
                 }
-                // ack timeout
-                return queue.ackTimeout(SerializeUtil.encodeReceiptHandle(receiptHandle));
+                return CompletableFuture.allOf(ackCfs.stream().map(cf -> cf.handle((r, e) -> null)).toArray(CompletableFuture[]::new));
             }, backgroundExecutor);
+    }
 
-            ackFuture.whenComplete((nil, e) -> {
-                inflightRevive.remove(operationId);
-                TraceHelper.endSpan(context, rootSpan, e);
+    /**
+     * Load the checkpoints of a batch, the operation id range of each consumer group is read at once instead of a point
+     * read per checkpoint.
+     */
+    private Map<Pair<Long, Long>, CheckPoint> loadCheckPoints(long topicId, int queueId,
+        List<ReceiptHandle> handles) throws StoreException {
+        Map<Long, LongSummaryStatistics> operationIdRanges = handles.stream()
+            .collect(Collectors.groupingBy(ReceiptHandle::consumerGroupId, Collectors.summarizingLong(ReceiptHandle::operationId)));
+        Map<Pair<Long, Long>, CheckPoint> checkPoints = new HashMap<>();
+        for (Map.Entry<Long, LongSummaryStatistics> entry : operationIdRanges.entrySet()) {
+            long consumerGroupId = entry.getKey();
+            byte[] start = SerializeUtil.buildCheckPointKey(topicId, queueId, consumerGroupId, entry.getValue().getMin());
+            // The upper bound is exclusive.
+            byte[] end = SerializeUtil.buildCheckPointKey(topicId, queueId, consumerGroupId, entry.getValue().getMax() + 1);
+            kvService.iterate(checkPointNamespace, null, start, end, (key, value) -> {
+                CheckPoint checkPoint = SerializeUtil.decodeCheckPoint(ByteBuffer.wrap(value));
+                checkPoints.put(Pair.of(consumerGroupId, checkPoint.operationId()), checkPoint);
+            });
+        }
+        return checkPoints;
+    }
 
-                if (e != null) {
-                    Throwable cause = FutureUtil.cause(e);
-                    if (cause instanceof StoreException storeException) {
-                        switch (storeException.code()) {
-                            case QUEUE_OPENING:
-                                // ignore
-                                break;
-                            case QUEUE_NOT_OPENED:
-                                LOGGER.error("{}: Failed to revive ck with operationId: {}, queue not opened", identity, operationId, storeException);
-                                break;
-                            default:
-                                LOGGER.error("{}: Failed to revive ck with operationId: {}", identity, operationId, storeException);
-                                break;
+    /**
+     * Pull the messages of the checkpoints, the contiguous offsets of a stream are pulled at once.
+     */
+    private Map<Revive, CompletableFuture<FlatMessageExt>> pullMessages(LogicQueue queue, List<Revive> revives) {
+        Map<Revive, CompletableFuture<FlatMessageExt>> messageCfs = new HashMap<>();
+        Map<Pair<Long, Boolean>, List<Revive>> revivesByStream = revives.stream()
+            .collect(Collectors.groupingBy(revive -> Pair.of(revive.consumerGroupId(), revive.fromRetryStream())));
+        revivesByStream.forEach((stream, streamRevives) -> {
+            streamRevives.sort(Comparator.comparingLong(revive -> revive.messageOffset));
+            int start = 0;
+            for (int i = 1; i <= streamRevives.size(); i++) {
+                if (i < streamRevives.size() && streamRevives.get(i).messageOffset - streamRevives.get(i - 1).messageOffset <= 1) {
+                    continue;
+                }
+                List<Revive> range = streamRevives.subList(start, i);
+                long startOffset = range.get(0).messageOffset;
+                int batchSize = (int) (range.get(range.size() - 1).messageOffset - startOffset + 1);
+                CompletableFuture<PullResult> pullCf = stream.getRight()
+                    ? queue.pullRetry(stream.getLeft(), Filter.DEFAULT_FILTER, startOffset, batchSize)
+                    : queue.pullNormal(stream.getLeft(), Filter.DEFAULT_FILTER, startOffset, batchSize);
+                CompletableFuture<Map<Long, FlatMessageExt>> messagesCf = pullCf.thenApply(result -> result.messageList()
+                    .stream()
+                    .collect(Collectors.toMap(FlatMessageExt::offset, Function.identity())));
+                for (int j = 0; j < range.size(); j++) {
+                    Revive revive = range.get(j);
+                    // Checkpoints of the same message get their own copies, as the messages are modified to resend.
+                    boolean duplicated = j > 0 && range.get(j - 1).messageOffset == revive.messageOffset;
+                    messageCfs.put(revive, messagesCf.thenApply(messages -> {
+                        FlatMessageExt messageExt = messages.get(revive.messageOffset);
+                        if (messageExt == null) {
+                            throw new CompletionException(new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "Revive message not found"));
                         }
-                        return;
-                    }
-                    LOGGER.error("{}: Failed to revive ck with operationId: {}", identity, operationId, cause);
+                        if (duplicated) {
+                            FlatMessage message = FlatMessage.getRootAsFlatMessage(ByteBuffer.wrap(FlatMessageUtil.flatBufferToByteArray(messageExt.message())));
+                            return FlatMessageExt.Builder.builder().message(message).offset(messageExt.offset()).build();
+                        }
+                        return messageExt;
+                    }));
                 }
-            });
+                start = i;
+            }
+        });
+        return messageCfs;
+    }
+
+    /**
+     * Decide whether the message of a checkpoint is resent or sent to the dead letter topic.
+     */
+    private void check(LogicQueue queue, Revive revive, FlatMessageExt messageExt, int maxDeliveryAttempts) {
+        revive.messageExt = messageExt;
+        if (revive.operationType == PopOperation.PopOperationType.POP_ORDER) {
+            int consumeTimes = queue.getConsumeTimes(revive.consumerGroupId(), messageExt.offset());
+            if (consumeTimes >= maxDeliveryAttempts) {
+                messageExt.setDeliveryAttempts(consumeTimes);
+                // Send to dead letter topic specified in consumer group config.
+                revive.deadLetter = true;
+            }
+            return;
         }
+
+        if (messageExt.deliveryAttempts() >= maxDeliveryAttempts) {
+            // Send to dead letter topic specified in consumer group config.
+            revive.deadLetter = true;
+            return;
+        }
+        messageExt.setOriginalQueueOffset(messageExt.originalOffset());
+        messageExt.setDeliveryAttempts(messageExt.deliveryAttempts() + 1);
+        revive.resend = true;
+    }
+
+    private CompletableFuture<Void> resend(StoreContext context, LogicQueue queue, long consumerGroupId,
+        List<Revive> revives) {
+        List<FlatMessage> messages = revives.stream()
+            .map(revive -> revive.messageExt.message())
+            .toList();
+        return queue.putRetry(context, consumerGroupId, messages)
+            .thenCompose(result -> metadataService.topicOf(queue.topicId())
+                .thenAccept(topic -> {
+                    for (int i = 0; i < messages.size(); i++) {
+                        messageArrivalNotificationService.notify(MessageArrivalListener.MessageSource.RETRY_MESSAGE_PUT,
+                            topic, queue.queueId(), result.offset() + i, messages.get(i).tag());
+                    }
+                }));
+    }
+
+    private void onReviveComplete(ReceiptHandle handle, Throwable e) {
+        long operationId = handle.operationId();
+        inflightRevive.remove(operationId);
+        if (e == null) {
+            return;
+        }
+        Throwable cause = FutureUtil.cause(e);
+        if (cause instanceof StoreException storeException) {
+            switch (storeException.code()) {
+                case QUEUE_OPENING:
+                    // ignore
+                    break;
+                case QUEUE_NOT_OPENED:
+                    LOGGER.error("{}: Failed to revive ck with operationId: {}, queue not opened", identity, operationId, storeException);
+                    break;
+                default:
+                    LOGGER.error("{}: Failed to revive ck with operationId: {}", identity, operationId, storeException);
+                    break;
+            }
+            return;
+        }
+        LOGGER.error("{}: Failed to revive ck with operationId: {}", identity, operationId, cause);
     }
 
     protected void tryRevive(TimerTag timerTag) {
-        backgroundExecutor.execute(new ReviveTask(timerTag.deliveryTimestamp(), timerTag.payloadAsByteBuffer()));
+        ReceiptHandle handle = ReceiptHandle.getRootAsReceiptHandle(timerTag.payloadAsByteBuffer());
+        if (!inflightRevive.add(handle.operationId())) {
+            LOGGER.trace("{}: Inflight revive operation: {}", identity, handle.operationId());
+            return;
+        }
+        reviveTimestamp = timerTag.deliveryTimestamp();
+        QueueReviver queueReviver = queueRevivers.compute(TopicQueueId.of(handle.topicId(), handle.queueId()),
+            (id, reviver) -> {
+                if (reviver == null) {
+                    reviver = new QueueReviver(id.topicId(), id.queueId());
+                }
+                reviver.pendingHandles.add(handle);
+                return reviver;
+            });
+        queueReviver.schedule();
     }
 
     public long reviveTimestamp() {
@@ -256,4 +440,8 @@ public class ReviveService {
     public int inflightReviveCount() {
         return inflightRevive.size();
     }
+
+    int queueReviverCount() {
+        return queueRevivers.size();
+    }
 }
@@ -17,6 +17,7 @@
 
 package com.automq.rocketmq.store.service;
 
+import com.automq.rocketmq.common.config.StoreConfig;
 import com.automq.rocketmq.common.trace.TraceHelper;
 import com.automq.rocketmq.common.util.Lifecycle;
 import com.automq.rocketmq.store.MessageStoreImpl;
@@ -35,17 +36,23 @@ import com.automq.stream.utils.ThreadUtils;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,26 +61,49 @@ public class SnapshotService implements Lifecycle, Runnable {
     public static final Logger LOGGER = LoggerFactory.getLogger(SnapshotService.class);
     private final StreamStore streamStore;
     private final BlockingQueue<SnapshotTask> snapshotTaskQueue;
+    private final AtomicLong taskSequence = new AtomicLong();
     private Thread snapshotTaker;
+    private final int workerNums;
+    private final Semaphore workerPermits;
+    private ExecutorService snapshotWorkers;
+    // Queues with a snapshot in progress, guarded by itself together with the deferred tasks
+    private final Set<TopicQueueId> runningQueues = new HashSet<>();
+    private final Map<TopicQueueId, List<SnapshotTask>> deferredTasks = new HashMap<>();
     private final KVService kvService;
     private volatile boolean stopped = false;
     private final ConcurrentMap<TopicQueueId, SnapshotStatus> snapshotStatusMap = new ConcurrentHashMap<>();
     private CompletableFuture<Void> runningCf;
     private ExecutorService backgroundExecutor;
+    private final int maxDeltaSnapshotCount;
 
     public SnapshotService(StreamStore streamStore, KVService kvService) {
+        this(streamStore, kvService, new StoreConfig());
+    }
+
+    public SnapshotService(StreamStore streamStore, KVService kvService, StoreConfig storeConfig) {
         this.streamStore = streamStore;
-        this.snapshotTaskQueue = new LinkedBlockingQueue<>(1024);
+        // Snapshot the queue with the longest operation log first, tasks with the same lag are taken in order
+        this.snapshotTaskQueue = new PriorityBlockingQueue<>(1024, Comparator.comparingLong((SnapshotTask task) -> task.lag).reversed()
+            .thenComparingLong(task -> task.sequence));
         this.kvService = kvService;
         this.backgroundExecutor = Executors.newSingleThreadExecutor(
             ThreadUtils.createThreadFactory("snapshot-background-executor", false)
         );
+        this.workerNums = storeConfig.operationSnapshotThreadPoolNums();
+        this.workerPermits = new Semaphore(workerNums);
+        this.snapshotWorkers = Executors.newFixedThreadPool(workerNums,
+            ThreadUtils.createThreadFactory("snapshot-worker-%d", false));
+        this.maxDeltaSnapshotCount = storeConfig.operationSnapshotMaxDeltaCount();
     }
 
     public static class SnapshotStatus {
         private final AtomicLong snapshotEndOffset = new AtomicLong(-1);
         private final AtomicLong operationStartOffset = new AtomicLong(-1);
         private final AtomicBoolean takingSnapshot = new AtomicBoolean(false);
+        // Offset of the latest full snapshot in the snapshot stream, -1 if the next snapshot must be a full one
+        private final AtomicLong baseSnapshotOffset = new AtomicLong(-1);
+        private final AtomicInteger deltaSnapshotCount = new AtomicInteger(0);
+        private final AtomicLong lastOperationOffset = new AtomicLong(-1);
 
         public AtomicLong snapshotEndOffset() {
             return snapshotEndOffset;
@@ -86,6 +116,25 @@ public class SnapshotService implements Lifecycle, Runnable {
         public AtomicBoolean takingSnapshot() {
             return takingSnapshot;
         }
+
+        public AtomicLong baseSnapshotOffset() {
+            return baseSnapshotOffset;
+        }
+
+        public AtomicInteger deltaSnapshotCount() {
+            return deltaSnapshotCount;
+        }
+
+        public AtomicLong lastOperationOffset() {
+            return lastOperationOffset;
+        }
+
+        /**
+         * Number of operations not covered by a snapshot, which have to be replayed on recovery.
+         */
+        public long lag() {
+            return Math.max(0, lastOperationOffset.get() - operationStartOffset.get() + 1);
+        }
     }
 
     public SnapshotStatus getSnapshotStatus(long topicId, int queueId) {
@@ -101,6 +150,10 @@ public class SnapshotService implements Lifecycle, Runnable {
                 ThreadUtils.createThreadFactory("snapshot-background-executor", false)
             );
         }
+        if (this.snapshotWorkers == null || this.snapshotWorkers.isShutdown()) {
+            this.snapshotWorkers = Executors.newFixedThreadPool(workerNums,
+                ThreadUtils.createThreadFactory("snapshot-worker-%d", false));
+        }
         this.snapshotTaker = new Thread(this, "snapshot-taker");
         this.snapshotTaker.setDaemon(true);
         this.snapshotTaker.start();
@@ -109,15 +162,25 @@ public class SnapshotService implements Lifecycle, Runnable {
     @Override
     public void shutdown() throws Exception {
         this.stopped = true;
-        // 1. wait for the current task to complete
+        // 1. wait for the running tasks to complete
         if (runningCf != null) {
             runningCf.join();
         }
+        workerPermits.acquireUninterruptibly(workerNums);
+        workerPermits.release(workerNums);
         // 2. abort all waiting snapshot task
         List<SnapshotTask> snapshotTasks = new ArrayList<>();
         snapshotTaskQueue.drainTo(snapshotTasks);
+        synchronized (runningQueues) {
+            deferredTasks.values().forEach(snapshotTasks::addAll);
+            deferredTasks.clear();
+        }
         snapshotTasks.forEach(SnapshotTask::abort);
-        // 3. shutdown background executor
+        // 3. shutdown snapshot workers and background executor
+        if (this.snapshotWorkers != null) {
+            this.snapshotWorkers.shutdown();
+            this.snapshotWorkers = null;
+        }
         if (this.backgroundExecutor != null) {
             this.backgroundExecutor.shutdown();
             this.backgroundExecutor = null;
@@ -128,17 +191,38 @@ public class SnapshotService implements Lifecycle, Runnable {
     public void run() {
         while (!stopped) {
             try {
+                // Wait for an idle worker before picking a task, so that the queue with the longest operation log is
+                // picked among all tasks added in the meantime.
+                if (!workerPermits.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
                 SnapshotTask task = snapshotTaskQueue.poll(100, TimeUnit.MILLISECONDS);
                 if (task == null) {
+                    workerPermits.release();
                     continue;
                 }
-                CompletableFuture<Void> takeCf = takeSnapshot(new StoreContext("", "", TraceHelper.getTracer()), task)
-                    .exceptionally(e -> {
+                TopicQueueId topicQueueId = TopicQueueId.of(task.topicId, task.queueId);
+                synchronized (runningQueues) {
+                    if (!runningQueues.add(topicQueueId)) {
+                        // Only one snapshot of a queue is taken at a time, retry the task after the running one
+                        deferredTasks.computeIfAbsent(topicQueueId, k -> new ArrayList<>()).add(task);
+                        workerPermits.release();
+                        continue;
+                    }
+                }
+                snapshotWorkers.execute(() -> {
+                    CompletableFuture<Void> takeCf;
+                    try {
+                        takeCf = takeSnapshot(new StoreContext("", "", TraceHelper.getTracer()), task);
+                    } catch (Exception e) {
+                        takeCf = CompletableFuture.failedFuture(e);
+                    }
+                    takeCf.exceptionally(e -> {
                         Throwable cause = FutureUtil.cause(e);
                         task.completeFailure(cause);
                         return null;
-                    });
-                takeCf.join();
+                    }).whenComplete((nil, e) -> completeTask(topicQueueId));
+                });
             } catch (InterruptedException ignore) {
             } catch (Exception e) {
                 Throwable cause = FutureUtil.cause(e);
@@ -148,6 +232,17 @@ public class SnapshotService implements Lifecycle, Runnable {
         runningCf.complete(null);
     }
 
+    private void completeTask(TopicQueueId topicQueueId) {
+        synchronized (runningQueues) {
+            runningQueues.remove(topicQueueId);
+            List<SnapshotTask> tasks = deferredTasks.remove(topicQueueId);
+            if (tasks != null) {
+                snapshotTaskQueue.addAll(tasks);
+            }
+        }
+        workerPermits.release();
+    }
+
     @WithSpan
     CompletableFuture<Void> takeSnapshot(StoreContext context, SnapshotTask task) {
         if (stopped) {
@@ -160,32 +255,57 @@ public class SnapshotService implements Lifecycle, Runnable {
             span.setAttribute("queueId", task.queueId);
         });
 
+        long topicId = task.topicId;
+        int queueId = task.queueId;
+        long operationStreamId = task.operationStreamId;
+        long snapshotStreamId = task.snapshotStreamId;
+
+        // Take a delta snapshot based on the latest full snapshot until there are too many deltas to load on recovery
+        SnapshotStatus snapshotStatus = getSnapshotStatus(topicId, queueId);
+        long baseSnapshotOffset = snapshotStatus.baseSnapshotOffset().get();
+        boolean delta = task.deltaSnapshotSupplier != null && baseSnapshotOffset >= 0
+            && snapshotStatus.deltaSnapshotCount().get() < maxDeltaSnapshotCount;
+        context.span().ifPresent(span -> span.setAttribute("delta", delta));
+
         OperationSnapshot snapshot;
         try {
-            snapshot = task.snapshotSupplier.get();
+            snapshot = delta ? task.deltaSnapshotSupplier.get() : task.snapshotSupplier.get();
         } catch (StoreException e) {
             LOGGER.error("Take snapshot failed: topicId: {}, queueId: {}", task.topicId, task.queueId, e);
+            snapshotStatus.baseSnapshotOffset().set(-1);
             return CompletableFuture.failedFuture(e);
         }
-        long topicId = task.topicId;
-        int queueId = task.queueId;
-        long operationStreamId = task.operationStreamId;
-        long snapshotStreamId = task.snapshotStreamId;
 
         long version = snapshot.getKvServiceSnapshotVersion();
         KVReadOptions readOptions = new KVReadOptions();
         readOptions.setSnapshotVersion(version);
 
-        // get queue related checkpoints from kv service
-        byte[] tqPrefix = SerializeUtil.buildCheckPointQueuePrefix(topicId, queueId);
         List<CheckPoint> checkPointList = new ArrayList<>();
+        List<OperationSnapshot.CheckPointId> deletedCheckPoints = new ArrayList<>();
         try {
-            kvService.iterate(MessageStoreImpl.KV_NAMESPACE_CHECK_POINT, tqPrefix, null, null, (key, value) -> {
-                CheckPoint checkPoint = SerializeUtil.decodeCheckPoint(ByteBuffer.wrap(value));
-                checkPointList.add(checkPoint);
-            }, readOptions);
+            if (delta) {
+                // get the changed checkpoints from kv service, a changed checkpoint absent in the kv snapshot is deleted
+                for (byte[] key : snapshot.getChangedCheckPointKeys()) {
+                    byte[] value = kvService.get(MessageStoreImpl.KV_NAMESPACE_CHECK_POINT, key, readOptions);
+                    if (value != null) {
+                        checkPointList.add(SerializeUtil.decodeCheckPoint(ByteBuffer.wrap(value)));
+                    } else {
+                        // <topicId><queueId><consumerGroupId><operationId>
+                        ByteBuffer keyBuffer = ByteBuffer.wrap(key);
+                        deletedCheckPoints.add(new OperationSnapshot.CheckPointId(keyBuffer.getLong(12), keyBuffer.getLong(20)));
+                    }
+                }
+            } else {
+                // get queue related checkpoints from kv service
+                byte[] tqPrefix = SerializeUtil.buildCheckPointQueuePrefix(topicId, queueId);
+                kvService.iterate(MessageStoreImpl.KV_NAMESPACE_CHECK_POINT, tqPrefix, null, null, (key, value) -> {
+                    CheckPoint checkPoint = SerializeUtil.decodeCheckPoint(ByteBuffer.wrap(value));
+                    checkPointList.add(checkPoint);
+                }, readOptions);
+            }
         } catch (StoreException e) {
-            throw new CompletionException(e);
+            snapshotStatus.baseSnapshotOffset().set(-1);
+            return CompletableFuture.failedFuture(e);
         } finally {
             // release snapshot
             try {
@@ -195,6 +315,10 @@ public class SnapshotService implements Lifecycle, Runnable {
             }
         }
         snapshot.setCheckPoints(checkPointList);
+        if (delta) {
+            snapshot.setBaseSnapshotOffset(baseSnapshotOffset);
+            snapshot.setDeletedCheckPoints(deletedCheckPoints);
+        }
         byte[] snapshotData = SerializeUtil.encodeOperationSnapshot(snapshot);
 
         context.span().ifPresent(span -> span.setAttribute("snapshotSize", snapshotData.length));
@@ -203,18 +327,34 @@ public class SnapshotService implements Lifecycle, Runnable {
         return streamStore.append(context, snapshotStreamId, new SingleRecord(ByteBuffer.wrap(snapshotData)))
             .thenComposeAsync(appendResult -> {
                 context.span().ifPresent(span -> span.setAttribute("snapshotOffset", appendResult.baseOffset()));
-                // trim operation stream
-                return streamStore.trim(operationStreamId, snapshot.getSnapshotEndOffset() + 1);
+                if (delta) {
+                    snapshotStatus.deltaSnapshotCount().incrementAndGet();
+                    // trim operation stream
+                    return streamStore.trim(operationStreamId, snapshot.getSnapshotEndOffset() + 1);
+                }
+                snapshotStatus.baseSnapshotOffset().set(appendResult.baseOffset());
+                snapshotStatus.deltaSnapshotCount().set(0);
+                // a full snapshot supersedes all snapshots before it, trim snapshot stream and then operation stream
+                return streamStore.trim(snapshotStreamId, appendResult.baseOffset())
+                    .thenCompose(nil -> streamStore.trim(operationStreamId, snapshot.getSnapshotEndOffset() + 1));
             }, backgroundExecutor)
             .thenAcceptAsync(nil -> {
                 // complete snapshot task
                 task.completeSuccess(snapshot.getSnapshotEndOffset() + 1);
-            }, backgroundExecutor);
+            }, backgroundExecutor)
+            .whenComplete((nil, e) -> {
+                if (e != null) {
+                    // the base of the following deltas is unknown, start over with a full snapshot
+                    snapshotStatus.baseSnapshotOffset().set(-1);
+                }
+            });
     }
 
     CompletableFuture<TakeSnapshotResult> addSnapshotTask(SnapshotTask task) {
         CompletableFuture<TakeSnapshotResult> cf = new CompletableFuture<>();
         task.setCf(cf);
+        task.lag = getSnapshotStatus(task.topicId, task.queueId).lag();
+        task.sequence = taskSequence.getAndIncrement();
         snapshotTaskQueue.add(task);
         return cf;
     }
@@ -225,6 +365,10 @@ public class SnapshotService implements Lifecycle, Runnable {
         private final long operationStreamId;
         private final long snapshotStreamId;
         private final Supplier<OperationSnapshot> snapshotSupplier;
+        private final Supplier<OperationSnapshot> deltaSnapshotSupplier;
+        // Operations not covered by a snapshot when the task is added, a task with a larger lag is taken first
+        private long lag;
+        private long sequence;
 
         private CompletableFuture<TakeSnapshotResult> cf;
 
@@ -234,11 +378,17 @@ public class SnapshotService implements Lifecycle, Runnable {
 
         public SnapshotTask(long topicId, int queueId, long operationStreamId, long snapshotStreamId,
             Supplier<OperationSnapshot> snapshotSupplier) {
+            this(topicId, queueId, operationStreamId, snapshotStreamId, snapshotSupplier, null);
+        }
+
+        public SnapshotTask(long topicId, int queueId, long operationStreamId, long snapshotStreamId,
+            Supplier<OperationSnapshot> snapshotSupplier, Supplier<OperationSnapshot> deltaSnapshotSupplier) {
             this.topicId = topicId;
             this.queueId = queueId;
             this.operationStreamId = operationStreamId;
             this.snapshotStreamId = snapshotStreamId;
             this.snapshotSupplier = snapshotSupplier;
+            this.deltaSnapshotSupplier = deltaSnapshotSupplier;
         }
 
         public void setCf(CompletableFuture<TakeSnapshotResult> cf) {
@@ -265,6 +415,7 @@ public class SnapshotService implements Lifecycle, Runnable {
                 ", queueId=" + queueId +
                 ", operationStreamId=" + operationStreamId +
                 ", snapshotStreamId=" + snapshotStreamId +
+                ", lag=" + lag +
                 '}';
         }
     }
@@ -25,18 +25,23 @@ import com.automq.rocketmq.store.exception.StoreException;
 import com.automq.rocketmq.store.model.StoreContext;
 import com.automq.rocketmq.store.model.generated.CheckPoint;
 import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.rocketmq.store.model.operation.BatchAckOperation;
+import com.automq.rocketmq.store.model.operation.BatchPopOperation;
 import com.automq.rocketmq.store.model.operation.ChangeInvisibleDurationOperation;
 import com.automq.rocketmq.store.model.operation.Operation;
 import com.automq.rocketmq.store.model.operation.OperationSnapshot;
 import com.automq.rocketmq.store.model.operation.PopOperation;
 import com.automq.rocketmq.store.model.operation.ResetConsumeOffsetOperation;
+import com.automq.rocketmq.store.model.stream.OperationRecord;
 import com.automq.rocketmq.store.model.stream.SingleRecord;
 import com.automq.rocketmq.store.service.api.OperationLogService;
 import com.automq.rocketmq.store.util.SerializeUtil;
 import com.automq.stream.api.AppendResult;
+import com.automq.stream.api.FetchResult;
 import com.automq.stream.api.RecordBatchWithContext;
 import com.automq.stream.utils.FutureUtil;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -68,7 +73,11 @@ public class StreamOperationLogService implements OperationLogService {
         snapshotStatus.snapshotEndOffset().set(streamStore.nextOffset(snapshotStreamId));
         long startOffset = streamStore.startOffset(operationStreamId);
         snapshotStatus.operationStartOffset().set(startOffset);
+        // Acks annihilated during recovery are not tracked by the state machine, so the next snapshot must be a full one
+        snapshotStatus.baseSnapshotOffset().set(-1);
+        snapshotStatus.deltaSnapshotCount().set(0);
         long endOffset = streamStore.nextOffset(operationStreamId);
+        snapshotStatus.lastOperationOffset().set(endOffset - 1);
         CompletableFuture<Long/*op replay start offset*/> snapshotFetch;
         long snapEndOffset = snapshotStatus.snapshotEndOffset().get();
 
@@ -80,6 +89,20 @@ public class StreamOperationLogService implements OperationLogService {
         } else {
             snapshotFetch = streamStore.fetch(StoreContext.EMPTY, snapshotStreamId, snapEndOffset - 1, 1)
                 .thenApply(result -> SerializeUtil.decodeOperationSnapshot(result.recordBatchList().get(0).rawPayload()))
+                .thenCompose(snapshot -> {
+                    if (!snapshot.isDelta()) {
+                        return CompletableFuture.completedFuture(snapshot);
+                    }
+                    // Load the full snapshot the latest delta is based on, then apply all deltas after it in order
+                    long baseSnapshotOffset = snapshot.getBaseSnapshotOffset();
+                    return streamStore.fetch(StoreContext.EMPTY, snapshotStreamId, baseSnapshotOffset, (int) (snapEndOffset - baseSnapshotOffset))
+                        .thenApply(result -> {
+                            List<OperationSnapshot> snapshots = result.recordBatchList().stream()
+                                .map(batch -> SerializeUtil.decodeOperationSnapshot(batch.rawPayload()))
+                                .toList();
+                            return OperationSnapshot.merge(snapshots.get(0), snapshots.subList(1, snapshots.size()));
+                        });
+                })
                 .thenApply(snapshot -> {
                     stateMachine.loadSnapshot(snapshot);
                     operationSnapshot.set(snapshot);
@@ -87,43 +110,54 @@ public class StreamOperationLogService implements OperationLogService {
                 });
         }
 
-        TreeMap<Long, Operation> treeMap = new TreeMap<>();
-        // 2. get all operations
-        // TODO: batch fetch, fetch all at once may cause some problems
-        return snapshotFetch.thenCompose(offset -> streamStore.fetch(StoreContext.EMPTY, operationStreamId, offset, (int) (endOffset - offset))
-                .thenAccept(result -> {
-                    // load operations
-                    for (RecordBatchWithContext batchWithContext : result.recordBatchList()) {
-                        try {
-                            // TODO: assume that a batch only contains one operation
-                            Operation operation = SerializeUtil.decodeOperation(batchWithContext.rawPayload(), stateMachine,
-                                operationStreamId, snapshotStreamId);
-                            annihilate(batchWithContext.baseOffset(), operation, operationSnapshot.get(), treeMap);
-                        } catch (StoreException e) {
-                            LOGGER.error("Topic {}, queue: {}, operation stream id: {}, offset: {}: replay operation failed when recover", stateMachine.topicId(), stateMachine.queueId(), operationStreamId, batchWithContext.baseOffset(), e);
-                            if (e.code() != StoreErrorCode.ILLEGAL_ARGUMENT) {
-                                throw new CompletionException(e);
-                            }
-                        }
-                    }
-                }))
-            .whenComplete((v, throwable) -> {
+        // 2. fetch operations page by page, the next page is fetched while the current one is decoded and annihilated
+        return snapshotFetch.thenCompose(offset -> {
+            OperationReplayer replayer = new OperationReplayer(stateMachine, operationStreamId, snapshotStreamId, offset, operationSnapshot.get());
+            CompletableFuture<Void> cf = new CompletableFuture<>();
+            replayPages(replayer, endOffset, fetchPage(operationStreamId, offset, endOffset), cf);
+            return cf.thenRun(() -> {
                 // Write the remaining checkpoints to the kv service and replay the remaining operations
                 try {
-                    OperationSnapshot snapshot = operationSnapshot.get();
-                    if (null != snapshot) {
-                        List<CheckPoint> checkpoints = snapshot.getCheckPoints();
-                        if (null != operationSnapshot.get() && null != checkpoints && !checkpoints.isEmpty()) {
-                            stateMachine.writeCheckPointsAndRelatedStates(checkpoints);
-                        }
-                    }
-                    for (Map.Entry<Long, Operation> entry : treeMap.entrySet()) {
-                        replay(entry.getKey(), entry.getValue());
-                    }
+                    replayer.replayAll();
                 } catch (StoreException e) {
                     throw new CompletionException(e);
                 }
             });
+        });
+    }
+
+    private CompletableFuture<FetchResult> fetchPage(long operationStreamId, long offset, long endOffset) {
+        if (offset >= endOffset) {
+            return null;
+        }
+        return streamStore.fetch(StoreContext.EMPTY, operationStreamId, offset, (int) Math.min(storeConfig.recoverOperationPageSize(), endOffset - offset));
+    }
+
+    private void replayPages(OperationReplayer replayer, long endOffset, CompletableFuture<FetchResult> fetchCf,
+        CompletableFuture<Void> cf) {
+        // Loop over the pages already fetched instead of chaining callbacks, which may overflow the stack on long logs
+        while (fetchCf != null) {
+            if (!fetchCf.isDone()) {
+                CompletableFuture<FetchResult> pendingCf = fetchCf;
+                pendingCf.whenComplete((result, e) -> replayPages(replayer, endOffset, pendingCf, cf));
+                return;
+            }
+            CompletableFuture<FetchResult> nextCf;
+            try {
+                List<RecordBatchWithContext> batches = fetchCf.join().recordBatchList();
+                if (batches.isEmpty()) {
+                    throw new StoreException(StoreErrorCode.DATA_CORRUPTED, "Operation stream " + replayer.operationStreamId + " ends before " + endOffset);
+                }
+                RecordBatchWithContext lastBatch = batches.get(batches.size() - 1);
+                nextCf = fetchPage(replayer.operationStreamId, lastBatch.baseOffset() + lastBatch.count(), endOffset);
+                replayer.load(batches);
+            } catch (Throwable e) {
+                cf.completeExceptionally(FutureUtil.cause(e));
+                return;
+            }
+            fetchCf = nextCf;
+        }
+        cf.complete(null);
     }
 
     @Override
@@ -140,6 +174,31 @@ public class StreamOperationLogService implements OperationLogService {
             });
     }
 
+    @Override
+    public CompletableFuture<List<LogResult>> logBatchPopOperation(BatchPopOperation operation) {
+        // Take one offset for each popped message, so that each message has its own operation id.
+        int operationCount = operation.operationCount();
+        return streamStore.append(StoreContext.EMPTY, operation.operationStreamId(),
+                new OperationRecord(operationCount, ByteBuffer.wrap(SerializeUtil.encodeBatchPopOperation(operation))))
+            .thenApply(result -> {
+                try {
+                    long operationOffset = result.baseOffset();
+                    List<MessageStateMachine.ReplayPopResult> replayPopResults = operation.stateMachine().replayBatchPopOperation(operationOffset, operation);
+                    List<LogResult> logResults = new ArrayList<>(replayPopResults.size());
+                    for (int i = 0; i < replayPopResults.size(); i++) {
+                        LogResult logResult = new LogResult(operationOffset + i);
+                        logResult.setPopTimes(replayPopResults.get(i).getPopTimes());
+                        logResults.add(logResult);
+                    }
+                    checkSnapshot(operationOffset + operationCount - 1, operation);
+                    return logResults;
+                } catch (StoreException e) {
+                    LOGGER.error("Topic {}, queue: {}: Replay batch pop operation: {} failed", operation.topicId(), operation.queueId(), operation, e);
+                    throw new CompletionException(e);
+                }
+            });
+    }
+
     @Override
     public CompletableFuture<LogResult> logAckOperation(AckOperation operation) {
         return streamStore.append(StoreContext.EMPTY, operation.operationStreamId(),
@@ -154,6 +213,22 @@ public class StreamOperationLogService implements OperationLogService {
             });
     }
 
+    @Override
+    public CompletableFuture<boolean[]> logBatchAckOperation(BatchAckOperation operation) {
+        return streamStore.append(StoreContext.EMPTY, operation.operationStreamId(),
+                new SingleRecord(ByteBuffer.wrap(SerializeUtil.encodeBatchAckOperation(operation))))
+            .thenApply(result -> {
+                try {
+                    boolean[] applied = operation.stateMachine().replayBatchAckOperation(result.baseOffset(), operation);
+                    checkSnapshot(result.baseOffset(), operation);
+                    return applied;
+                } catch (StoreException e) {
+                    LOGGER.error("Topic {}, queue: {}: Replay batch ack operation: {} failed", operation.topicId(), operation.queueId(), operation, e);
+                    throw new CompletionException(e);
+                }
+            });
+    }
+
     @Override
     public CompletableFuture<LogResult> logChangeInvisibleDurationOperation(
         ChangeInvisibleDurationOperation operation) {
@@ -189,7 +264,7 @@ public class StreamOperationLogService implements OperationLogService {
         if (snapshotStatus.takingSnapshot().compareAndSet(false, true)) {
             CompletableFuture<SnapshotService.TakeSnapshotResult> taskCf = snapshotService.addSnapshotTask(new SnapshotService.SnapshotTask(
                 operation.topicId(), operation.queueId(), operation.operationStreamId(), operation.snapshotStreamId(),
-                stateMachine::takeSnapshot));
+                stateMachine::takeSnapshot, stateMachine::takeDeltaSnapshot));
             taskCf.thenAccept(takeSnapshotResult -> {
                 snapshotStatus.takingSnapshot().set(false);
                 if (takeSnapshotResult.success()) {
@@ -209,12 +284,17 @@ public class StreamOperationLogService implements OperationLogService {
     private LogResult doReplay(AppendResult appendResult, Operation operation) throws StoreException {
         long operationOffset = appendResult.baseOffset();
         LogResult logResult = replay(operationOffset, operation);
+        checkSnapshot(operationOffset, operation);
+        return logResult;
+    }
+
+    private void checkSnapshot(long lastOperationOffset, Operation operation) {
         MessageStateMachine stateMachine = operation.stateMachine();
         SnapshotService.SnapshotStatus snapshotStatus = snapshotService.getSnapshotStatus(stateMachine.topicId(), stateMachine.queueId());
-        if (operationOffset - snapshotStatus.operationStartOffset().get() + 1 >= storeConfig.operationSnapshotInterval()) {
+        snapshotStatus.lastOperationOffset().accumulateAndGet(lastOperationOffset, Math::max);
+        if (snapshotStatus.lag() >= storeConfig.operationSnapshotInterval()) {
             notifySnapshot(operation);
         }
-        return logResult;
     }
 
     private LogResult replay(long operationOffset, Operation operation) throws StoreException {
@@ -224,7 +304,9 @@ public class StreamOperationLogService implements OperationLogService {
                 MessageStateMachine.ReplayPopResult replayPopResult = operation.stateMachine().replayPopOperation(operationOffset, (PopOperation) operation);
                 logResult.setPopTimes(replayPopResult.getPopTimes());
             }
+            case BATCH_POP -> operation.stateMachine().replayBatchPopOperation(operationOffset, (BatchPopOperation) operation);
             case ACK -> operation.stateMachine().replayAckOperation(operationOffset, (AckOperation) operation);
+            case BATCH_ACK -> operation.stateMachine().replayBatchAckOperation(operationOffset, (BatchAckOperation) operation);
             case CHANGE_INVISIBLE_DURATION ->
                 operation.stateMachine().replayChangeInvisibleDurationOperation(operationOffset, (ChangeInvisibleDurationOperation) operation);
             case RESET_CONSUME_OFFSET ->
@@ -235,33 +317,115 @@ public class StreamOperationLogService implements OperationLogService {
         return logResult;
     }
 
-    private void annihilate(long operationOffset, Operation operation, OperationSnapshot snapshot,
-        Map<Long, Operation> operationMap) {
-        switch (operation.operationType()) {
-            case POP -> {
-                if (null != operationMap) {
-                    operationMap.put(operationOffset, operation);
+    /**
+     * Replays the operations of a queue on recovery. Operations are buffered so that a pop annihilated by a later ack is
+     * never written to the kv service, and the oldest ones are replayed once too many operations are buffered.
+     */
+    private class OperationReplayer {
+        private final MessageStateMachine stateMachine;
+        private final long operationStreamId;
+        private final long snapshotStreamId;
+        private final long replayStartOffset;
+        private final OperationSnapshot snapshot;
+        private final TreeMap<Long, Operation> pendingOperations = new TreeMap<>();
+        // Once replay starts, an ack may target a check point already written to the kv service
+        private boolean replayStarted;
+
+        OperationReplayer(MessageStateMachine stateMachine, long operationStreamId, long snapshotStreamId,
+            long replayStartOffset, OperationSnapshot snapshot) {
+            this.stateMachine = stateMachine;
+            this.operationStreamId = operationStreamId;
+            this.snapshotStreamId = snapshotStreamId;
+            this.replayStartOffset = replayStartOffset;
+            this.snapshot = snapshot;
+        }
+
+        void load(List<RecordBatchWithContext> batches) throws StoreException {
+            for (RecordBatchWithContext batchWithContext : batches) {
+                if (batchWithContext.lastOffset() < replayStartOffset) {
+                    // a batch pop taking offsets before the snapshot end offset is already in the snapshot
+                    continue;
                 }
-            }
-            case ACK -> {
-                boolean annihilated = false;
-                if (null != operationMap) {
-                    annihilated = operationMap.remove(((AckOperation) operation).operationId()) != null;
+                try {
+                    // Each record holds exactly one operation, a batch pop taking multiple offsets included.
+                    Operation operation = SerializeUtil.decodeOperation(batchWithContext.rawPayload(), stateMachine,
+                        operationStreamId, snapshotStreamId);
+                    annihilate(batchWithContext.baseOffset(), operation);
+                } catch (StoreException e) {
+                    LOGGER.error("Topic {}, queue: {}, operation stream id: {}, offset: {}: replay operation failed when recover", stateMachine.topicId(), stateMachine.queueId(), operationStreamId, batchWithContext.baseOffset(), e);
+                    if (e.code() != StoreErrorCode.ILLEGAL_ARGUMENT) {
+                        throw e;
+                    }
                 }
+            }
+            int maxPendingOperations = storeConfig.recoverMaxPendingOperations();
+            if (pendingOperations.size() > maxPendingOperations) {
+                replay(pendingOperations.size() - maxPendingOperations / 2);
+            }
+        }
 
-                if (!annihilated && null != snapshot) {
-                    List<CheckPoint> checkPoints = snapshot.getCheckPoints();
-                    if (null != checkPoints && !checkPoints.isEmpty()) {
-                        annihilated = checkPoints.removeIf(checkPoint -> checkPoint.operationId() == ((AckOperation) operation).operationId());
+        void replayAll() throws StoreException {
+            replay(pendingOperations.size());
+        }
+
+        private void replay(int count) throws StoreException {
+            if (!replayStarted) {
+                replayStarted = true;
+                if (null != snapshot) {
+                    List<CheckPoint> checkpoints = snapshot.getCheckPoints();
+                    if (null != checkpoints && !checkpoints.isEmpty()) {
+                        stateMachine.writeCheckPointsAndRelatedStates(checkpoints);
                     }
                 }
+            }
+            for (int i = 0; i < count; i++) {
+                Map.Entry<Long, Operation> entry = pendingOperations.pollFirstEntry();
+                try {
+                    StreamOperationLogService.this.replay(entry.getKey(), entry.getValue());
+                } catch (StoreException e) {
+                    // e.g. an ack without a corresponding pop, whose check point is not found
+                    LOGGER.error("Topic {}, queue: {}, operation stream id: {}, offset: {}: replay operation failed when recover", stateMachine.topicId(), stateMachine.queueId(), operationStreamId, entry.getKey(), e);
+                    if (e.code() != StoreErrorCode.ILLEGAL_ARGUMENT) {
+                        throw e;
+                    }
+                }
+            }
+        }
 
-                if (!annihilated) {
-                    // Something is wrong, we should not have an ack operation without a corresponding pop operation
-                    LOGGER.warn("Topic {}, queue: {}: Ack operation: {} is not annihilated", operation.topicId(), operation.queueId(), operation);
+        private void annihilate(long operationOffset, Operation operation) {
+            switch (operation.operationType()) {
+                case POP -> pendingOperations.put(operationOffset, operation);
+                case ACK -> {
+                    long operationId = ((AckOperation) operation).operationId();
+                    Map.Entry<Long, Operation> entry = pendingOperations.floorEntry(operationId);
+                    if (null != entry && entry.getValue() instanceof BatchPopOperation batchPopOperation
+                        && operationId < entry.getKey() + batchPopOperation.operationCount()) {
+                        // The check points of a batch pop are written together, replay the ack after it.
+                        pendingOperations.put(operationOffset, operation);
+                        return;
+                    }
+
+                    boolean annihilated = pendingOperations.remove(operationId) != null;
+                    if (!annihilated && replayStarted) {
+                        // The pop may have been replayed already, replay the ack to delete its check point.
+                        pendingOperations.put(operationOffset, operation);
+                        return;
+                    }
+
+                    if (!annihilated && null != snapshot) {
+                        List<CheckPoint> checkPoints = snapshot.getCheckPoints();
+                        if (null != checkPoints && !checkPoints.isEmpty()) {
+                            annihilated = checkPoints.removeIf(checkPoint -> checkPoint.operationId() == operationId);
+                        }
+                    }
+
+                    if (!annihilated) {
+                        // Something is wrong, we should not have an ack operation without a corresponding pop operation
+                        LOGGER.warn("Topic {}, queue: {}: Ack operation: {} is not annihilated", operation.topicId(), operation.queueId(), operation);
+                    }
                 }
+                default -> pendingOperations.put(operationOffset, operation);
             }
-            default -> operationMap.put(operationOffset, operation);
         }
     }
 }
@@ -18,34 +18,63 @@
 package com.automq.rocketmq.store.service;
 
 import com.automq.rocketmq.common.ServiceThread;
+import com.automq.rocketmq.common.config.StoreConfig;
 import com.automq.rocketmq.store.exception.StoreErrorCode;
 import com.automq.rocketmq.store.exception.StoreException;
 import com.automq.rocketmq.store.model.generated.TimerHandlerType;
 import com.automq.rocketmq.store.model.generated.TimerTag;
 import com.automq.rocketmq.store.model.kv.BatchDeleteRequest;
+import com.automq.rocketmq.store.model.kv.BatchRequest;
+import com.automq.rocketmq.store.model.kv.BatchRequestType;
 import com.automq.rocketmq.store.model.kv.BatchWriteRequest;
 import com.automq.rocketmq.store.service.api.KVService;
 import com.google.flatbuffers.FlatBufferBuilder;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import org.apache.rocketmq.logging.org.slf4j.Logger;
 import org.apache.rocketmq.logging.org.slf4j.LoggerFactory;
 
+/**
+ * Timer tags are persisted in the KV store, ordered by delivery timestamp. Tags due within
+ * {@link StoreConfig#timerWheelLoadAheadMillis()} are also indexed by an in-memory {@link TimingWheel}, which is filled
+ * from the KV store one chunk of {@link StoreConfig#timerWheelLoadChunkMillis()} ahead of time. Tags written after their
+ * time range has been loaded are added to the wheel directly, see {@link #onBatchWritten(BatchRequest...)}.
+ */
 public class TimerService extends ServiceThread {
     private static final Logger log = LoggerFactory.getLogger(TimerService.class);
 
+    private static final long MAX_WAIT_MILLIS = 100;
+
     private final String timerTagNamespace;
     private final KVService kvService;
+    private final long loadAheadMillis;
+    private final long loadChunkMillis;
+
+    private final Lock wheelLock = new ReentrantLock();
+    private final TimingWheel<ByteBuffer> timingWheel = new TimingWheel<>(System.currentTimeMillis());
+    // Timer tags delivered before this timestamp have been loaded into the timing wheel.
+    private long loadedTimestamp = 0;
 
     private final ConcurrentMap<Short /*TimerHandlerType*/, Consumer<TimerTag>> timerHandlerMap = new ConcurrentHashMap<>();
 
     private static final Consumer<TimerTag> DEFAULT_HANDLER = (receiptHandle) -> log.warn("No handler for timer tag: {}", receiptHandle);
 
     public TimerService(String timerTagNamespace, KVService kvService) {
+        this(timerTagNamespace, kvService, new StoreConfig());
+    }
+
+    public TimerService(String timerTagNamespace, KVService kvService, StoreConfig storeConfig) {
         this.timerTagNamespace = timerTagNamespace;
         this.kvService = kvService;
+        this.loadAheadMillis = storeConfig.timerWheelLoadAheadMillis();
+        this.loadChunkMillis = Math.min(storeConfig.timerWheelLoadChunkMillis(), loadAheadMillis);
     }
 
     @Override
@@ -54,7 +83,14 @@ public class TimerService extends ServiceThread {
     }
 
     public void clear() throws StoreException {
-        kvService.clear(timerTagNamespace);
+        wheelLock.lock();
+        try {
+            kvService.clear(timerTagNamespace);
+            timingWheel.clear();
+            loadedTimestamp = 0;
+        } finally {
+            wheelLock.unlock();
+        }
     }
 
     // All handler should not do any blocking operation.
@@ -112,6 +148,7 @@ public class TimerService extends ServiceThread {
         byte[] value = buildTimerTagValue(deliveryTimestamp, handlerType, payload);
 
         kvService.put(timerTagNamespace, key, value);
+        onWritten(key);
     }
 
     public BatchWriteRequest enqueueRequest(long deliveryTimestamp, byte[] identity, short handlerType,
@@ -122,12 +159,65 @@ public class TimerService extends ServiceThread {
     public void cancel(long deliveryTimestamp, byte[] identity) throws StoreException {
         byte[] key = buildTimerTagKey(deliveryTimestamp, identity);
         kvService.delete(timerTagNamespace, key);
+        onDeleted(key);
     }
 
     public BatchDeleteRequest cancelRequest(long deliveryTimestamp, byte[] identity) {
         return new BatchDeleteRequest(timerTagNamespace, buildTimerTagKey(deliveryTimestamp, identity));
     }
 
+    /**
+     * Write timer tag requests built by {@link #enqueueRequest} and {@link #cancelRequest} in one batch.
+     */
+    public void batch(BatchRequest... requests) throws StoreException {
+        kvService.batch(requests);
+        onBatchWritten(requests);
+    }
+
+    /**
+     * Must be called after timer tag requests built by {@link #enqueueRequest} and {@link #cancelRequest} are written
+     * to the KV store, so that the timing wheel catches tags whose time range has already been loaded.
+     */
+    public void onBatchWritten(BatchRequest... requests) {
+        for (BatchRequest request : requests) {
+            if (!timerTagNamespace.equals(request.namespace())) {
+                continue;
+            }
+            if (request.type() == BatchRequestType.WRITE) {
+                onWritten(request.key());
+            } else {
+                onDeleted(request.key());
+            }
+        }
+    }
+
+    private void onWritten(byte[] key) {
+        long deliveryTimestamp = ByteBuffer.wrap(key).getLong();
+        wheelLock.lock();
+        try {
+            // Tags beyond the loaded range are loaded with their chunk later.
+            if (deliveryTimestamp >= loadedTimestamp) {
+                return;
+            }
+            timingWheel.add(ByteBuffer.wrap(key), deliveryTimestamp);
+        } finally {
+            wheelLock.unlock();
+        }
+
+        if (deliveryTimestamp - System.currentTimeMillis() < MAX_WAIT_MILLIS) {
+            wakeup();
+        }
+    }
+
+    private void onDeleted(byte[] key) {
+        wheelLock.lock();
+        try {
+            timingWheel.remove(ByteBuffer.wrap(key));
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
     @Override
     public void run() {
         while (!this.isStopped()) {
@@ -136,30 +226,87 @@ public class TimerService extends ServiceThread {
             } catch (StoreException e) {
                 log.error("Failed to dequeue timer tag", e);
             }
-            waitForRunning(100);
+
+            long waitMillis;
+            wheelLock.lock();
+            try {
+                waitMillis = timingWheel.currentTime() - System.currentTimeMillis() + timingWheel.timeToNextTick(MAX_WAIT_MILLIS);
+            } finally {
+                wheelLock.unlock();
+            }
+            if (waitMillis > 0) {
+                waitForRunning(Math.min(waitMillis, MAX_WAIT_MILLIS));
+            }
         }
     }
 
     protected void dequeue() throws StoreException {
-        byte[] start = ByteBuffer.allocate(8).putLong(0).array();
-        long endTimestamp = System.currentTimeMillis() - 1;
-        byte[] end = ByteBuffer.allocate(8).putLong(endTimestamp).array();
+        long now = System.currentTimeMillis();
+        List<ByteBuffer> expiredKeys = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            load(now);
+            timingWheel.advance(now, expiredKeys::add);
+        } finally {
+            wheelLock.unlock();
+        }
+
+        if (expiredKeys.isEmpty()) {
+            return;
+        }
+        // Handle tags in the same order as they are stored in the KV store.
+        expiredKeys.sort((a, b) -> Arrays.compareUnsigned(a.array(), b.array()));
+
+        List<BatchRequest> deleteRequests = new ArrayList<>(expiredKeys.size());
+        for (ByteBuffer key : expiredKeys) {
+            // Only the key is kept in memory, and the tag is absent if it has been canceled concurrently.
+            byte[] value = kvService.get(timerTagNamespace, key.array());
+            if (value == null) {
+                continue;
+            }
 
-        // Iterate timer tag until now to find messages need to reconsume.
-        kvService.iterate(timerTagNamespace, null, start, end, (key, value) -> {
-            // Fetch the origin message from stream store.
             TimerTag timerTag = TimerTag.getRootAsTimerTag(ByteBuffer.wrap(value));
             try {
                 timerHandlerMap.getOrDefault(timerTag.handlerType(), DEFAULT_HANDLER).accept(timerTag);
             } catch (Exception e) {
                 log.error("Failed to handle timer tag: {}", timerTag, e);
             }
+            deleteRequests.add(new BatchDeleteRequest(timerTagNamespace, key.array()));
+        }
 
+        if (!deleteRequests.isEmpty()) {
             try {
-                kvService.delete(timerTagNamespace, key);
+                kvService.batch(deleteRequests.toArray(new BatchRequest[0]));
             } catch (StoreException e) {
-                log.error("Failed to delete timer tag: {}", timerTag, e);
+                log.error("Failed to delete {} timer tags", deleteRequests.size(), e);
             }
+        }
+    }
+
+    /**
+     * Load timer tags from the KV store into the timing wheel, one chunk at a time once the loaded range falls behind
+     * the load-ahead window by a whole chunk. The first load, or the one after falling behind the current time, covers
+     * every overdue tag and the whole window.
+     * <p>
+     * Called with the wheel lock held, so that tags written concurrently are either iterated or added by
+     * {@link #onWritten(byte[])}.
+     */
+    private void load(long now) throws StoreException {
+        long endTimestamp;
+        if (loadedTimestamp <= now) {
+            endTimestamp = now + loadAheadMillis;
+        } else if (loadedTimestamp + loadChunkMillis <= now + loadAheadMillis) {
+            endTimestamp = loadedTimestamp + loadChunkMillis;
+        } else {
+            return;
+        }
+
+        byte[] start = ByteBuffer.allocate(8).putLong(loadedTimestamp).array();
+        byte[] end = ByteBuffer.allocate(8).putLong(endTimestamp).array();
+        kvService.iterate(timerTagNamespace, null, start, end, (key, value) -> {
+            long deliveryTimestamp = ByteBuffer.wrap(key).getLong();
+            timingWheel.add(ByteBuffer.wrap(key), deliveryTimestamp);
         });
+        loadedTimestamp = endTimestamp;
     }
 }
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.automq.rocketmq.store.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel with a tick of one millisecond.
+ * <p>
+ * Each level has {@code 2^8} buckets and a bucket of level {@code n} spans {@code 2^(8n)} ticks. A key is put into the
+ * lowest level that covers its remaining delay, and is moved down to a finer level when the wheel below finishes a
+ * round. Keys can be removed before they expire.
+ * <p>
+ * This class is not thread safe.
+ */
+public class TimingWheel<K> {
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final List<List<Set<K>>> levels = new ArrayList<>(LEVELS);
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    // All ticks before the current time are expired.
+    private long currentTime;
+
+    public TimingWheel(long startTime) {
+        for (int i = 0; i < LEVELS; i++) {
+            List<Set<K>> buckets = new ArrayList<>(WHEEL_SIZE);
+            for (int j = 0; j < WHEEL_SIZE; j++) {
+                buckets.add(new HashSet<>());
+            }
+            levels.add(buckets);
+        }
+        this.currentTime = startTime;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long currentTime() {
+        return currentTime;
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Add a key expiring at the given time, replacing the previous expire time of the same key.
+     * A key that has already expired expires at the next tick.
+     */
+    public void add(K key, long expireTime) {
+        remove(key);
+        Entry<K> entry = new Entry<>(expireTime);
+        entries.put(key, entry);
+        place(key, entry);
+    }
+
+    public boolean remove(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.bucket.remove(key);
+        return true;
+    }
+
+    public void clear() {
+        entries.clear();
+        levels.forEach(buckets -> buckets.forEach(Set::clear));
+    }
+
+    /**
+     * Advance the wheel to the given time, and pass every key expiring no later than it to the consumer
+     * in the order of expire time.
+     */
+    public void advance(long time, Consumer<K> expiredConsumer) {
+        while (currentTime <= time) {
+            if (entries.isEmpty()) {
+                currentTime = time + 1;
+                return;
+            }
+
+            int index = (int) (currentTime & WHEEL_MASK);
+            if (index == 0) {
+                cascade();
+            }
+
+            Set<K> bucket = levels.get(0).get(index);
+            if (!bucket.isEmpty()) {
+                List<K> expired = new ArrayList<>(bucket);
+                bucket.clear();
+                for (K key : expired) {
+                    entries.remove(key);
+                    expiredConsumer.accept(key);
+                }
+            }
+            currentTime++;
+        }
+    }
+
+    /**
+     * Return the number of milliseconds from the current time to the next tick that expires keys or moves keys
+     * between levels, at most the given limit.
+     */
+    public long timeToNextTick(long limit) {
+        if (entries.isEmpty()) {
+            return limit;
+        }
+        for (long i = 0; i < limit; i++) {
+            int index = (int) ((currentTime + i) & WHEEL_MASK);
+            if (index == 0 || !levels.get(0).get(index).isEmpty()) {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int index = (int) ((currentTime >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            Set<K> bucket = levels.get(level).get(index);
+            if (!bucket.isEmpty()) {
+                List<K> keys = new ArrayList<>(bucket);
+                bucket.clear();
+                for (K key : keys) {
+                    place(key, entries.get(key));
+                }
+            }
+            if (index != 0) {
+                break;
+            }
+        }
+    }
+
+    private void place(K key, Entry<K> entry) {
+        long delay = Math.min(Math.max(entry.expireTime - currentTime, 0), MAX_DELAY);
+        int level = 0;
+        while (delay >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        long tick = currentTime + delay;
+        int index = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        Set<K> bucket = levels.get(level).get(index);
+        bucket.add(key);
+        entry.bucket = bucket;
+    }
+
+    private static class Entry<K> {
+        final long expireTime;
+        Set<K> bucket;
+
+        Entry(long expireTime) {
+            this.expireTime = expireTime;
+        }
+    }
+}
@@ -19,9 +19,12 @@ package com.automq.rocketmq.store.service.api;
 
 import com.automq.rocketmq.store.api.MessageStateMachine;
 import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.rocketmq.store.model.operation.BatchAckOperation;
+import com.automq.rocketmq.store.model.operation.BatchPopOperation;
 import com.automq.rocketmq.store.model.operation.ChangeInvisibleDurationOperation;
 import com.automq.rocketmq.store.model.operation.PopOperation;
 import com.automq.rocketmq.store.model.operation.ResetConsumeOffsetOperation;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public interface OperationLogService {
@@ -31,12 +34,28 @@ public interface OperationLogService {
      */
     CompletableFuture<LogResult> logPopOperation(PopOperation operation);
 
+    /**
+     * Log pop operation of a batch of messages to WAL as one record.
+     * Each queue has its own operation log.
+     *
+     * @return the log result of each popped message, in the order of {@link BatchPopOperation#offsets()}
+     */
+    CompletableFuture<List<LogResult>> logBatchPopOperation(BatchPopOperation operation);
+
     /**
      * Log ack operation to WAL.
      * Each queue has its own operation log.
      */
     CompletableFuture<LogResult> logAckOperation(AckOperation operation);
 
+    /**
+     * Log acks committed together to WAL as one record.
+     * Each queue has its own operation log.
+     *
+     * @return whether each ack is applied, in the order of {@link BatchAckOperation#ackOperations()}
+     */
+    CompletableFuture<boolean[]> logBatchAckOperation(BatchAckOperation operation);
+
     /**
      * Log change invisible time operation to WAL.
      * Each queue has its own operation log.
@@ -21,9 +21,15 @@ import com.automq.rocketmq.store.api.MessageStateMachine;
 import com.automq.rocketmq.store.exception.StoreErrorCode;
 import com.automq.rocketmq.store.exception.StoreException;
 import com.automq.rocketmq.store.model.generated.CheckPoint;
+import com.automq.rocketmq.store.model.generated.DeliveredTimerMessage;
 import com.automq.rocketmq.store.model.generated.OperationLogItem;
 import com.automq.rocketmq.store.model.generated.ReceiptHandle;
+import com.automq.rocketmq.store.model.generated.TimerLogRecord;
+import com.automq.rocketmq.store.model.generated.TimerMessageRef;
+import com.automq.rocketmq.store.model.message.TimerMessageDelivery;
 import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.rocketmq.store.model.operation.BatchAckOperation;
+import com.automq.rocketmq.store.model.operation.BatchPopOperation;
 import com.automq.rocketmq.store.model.operation.ChangeInvisibleDurationOperation;
 import com.automq.rocketmq.store.model.operation.Operation;
 import com.automq.rocketmq.store.model.operation.OperationSnapshot;
@@ -106,6 +112,53 @@ public class SerializeUtil {
         return buffer.array();
     }
 
+    // <topicId><queueId><epoch><offset>
+    public static byte[] buildTimerMessageKey(long topicId, int queueId, long epoch, long offset) {
+        ByteBuffer buffer = ByteBuffer.allocate(28);
+        buffer.putLong(topicId);
+        buffer.putInt(queueId);
+        buffer.putLong(epoch);
+        buffer.putLong(offset);
+        return buffer.array();
+    }
+
+    public static byte[] buildTimerMessageRef(long topicId, int queueId, long epoch, long offset) {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int root = TimerMessageRef.createTimerMessageRef(builder, topicId, queueId, epoch, offset);
+        builder.finish(root);
+        return builder.sizedByteArray();
+    }
+
+    public static TimerMessageRef decodeTimerMessageRef(ByteBuffer buffer) {
+        return TimerMessageRef.getRootAsTimerMessageRef(buffer);
+    }
+
+    public static byte[] encodeTimerMessage(byte[] message) {
+        FlatBufferBuilder builder = new FlatBufferBuilder(message.length + 64);
+        int messageOffset = builder.createByteVector(message);
+        int root = TimerLogRecord.createTimerLogRecord(builder, messageOffset, 0);
+        builder.finish(root);
+        return builder.sizedByteArray();
+    }
+
+    public static byte[] encodeTimerMessageDeliveries(List<TimerMessageDelivery> deliveries) {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        TimerLogRecord.startDeliveredVector(builder, deliveries.size());
+        for (int i = deliveries.size() - 1; i >= 0; i--) {
+            TimerMessageDelivery delivery = deliveries.get(i);
+            DeliveredTimerMessage.createDeliveredTimerMessage(builder,
+                delivery.offset(), delivery.deliveryTimestamp());
+        }
+        int deliveredOffset = builder.endVector();
+        int root = TimerLogRecord.createTimerLogRecord(builder, 0, deliveredOffset);
+        builder.finish(root);
+        return builder.sizedByteArray();
+    }
+
+    public static TimerLogRecord decodeTimerLogRecord(ByteBuffer buffer) {
+        return TimerLogRecord.getRootAsTimerLogRecord(buffer);
+    }
+
     public static CheckPoint decodeCheckPoint(ByteBuffer buffer) {
         return CheckPoint.getRootAsCheckPoint(buffer);
     }
@@ -143,6 +196,19 @@ public class SerializeUtil {
         return prependChecksum(builder.sizedByteArray());
     }
 
+    public static byte[] encodeBatchPopOperation(BatchPopOperation batchPopOperation) {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int offsets = com.automq.rocketmq.store.model.generated.BatchPopOperation.createOffsetsVector(builder, batchPopOperation.offsets());
+        int operation = com.automq.rocketmq.store.model.generated.BatchPopOperation.createBatchPopOperation(builder,
+            batchPopOperation.consumerGroupId(), batchPopOperation.topicId(), batchPopOperation.queueId(),
+            batchPopOperation.startOffset(), batchPopOperation.endOffset(), offsets, batchPopOperation.invisibleDuration(),
+            batchPopOperation.operationTimestamp(), batchPopOperation.popOperationType().value()
+        );
+        int root = OperationLogItem.createOperationLogItem(builder, com.automq.rocketmq.store.model.generated.Operation.BatchPopOperation, operation);
+        builder.finish(root);
+        return prependChecksum(builder.sizedByteArray());
+    }
+
     public static Operation decodeOperation(ByteBuffer buffer, MessageStateMachine stateMachine, long operationStreamId,
         long snapshotStreamId) throws StoreException {
         if (!verifyAndStripChecksum(buffer)) {
@@ -159,12 +225,33 @@ public class SerializeUtil {
                     popOperation.consumerGroupId(), popOperation.offset(), popOperation.count(), popOperation.invisibleDuration(),
                     popOperation.operationTimestamp(), popOperation.endMark(), PopOperation.PopOperationType.values()[popOperation.type()]);
             }
+            case com.automq.rocketmq.store.model.generated.Operation.BatchPopOperation -> {
+                com.automq.rocketmq.store.model.generated.BatchPopOperation batchPopOperation = (com.automq.rocketmq.store.model.generated.BatchPopOperation) operationLogItem.operation(new com.automq.rocketmq.store.model.generated.BatchPopOperation());
+                long[] offsets = new long[batchPopOperation.offsetsLength()];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = batchPopOperation.offsets(i);
+                }
+                return new BatchPopOperation(
+                    batchPopOperation.topicId(), batchPopOperation.queueId(), operationStreamId, snapshotStreamId, stateMachine,
+                    batchPopOperation.consumerGroupId(), batchPopOperation.startOffset(), batchPopOperation.endOffset(), offsets,
+                    batchPopOperation.invisibleDuration(), batchPopOperation.operationTimestamp(), PopOperation.PopOperationType.values()[batchPopOperation.type()]);
+            }
             case com.automq.rocketmq.store.model.generated.Operation.AckOperation -> {
                 com.automq.rocketmq.store.model.generated.AckOperation ackOperation = (com.automq.rocketmq.store.model.generated.AckOperation) operationLogItem.operation(new com.automq.rocketmq.store.model.generated.AckOperation());
-                return new AckOperation(ackOperation.receiptHandle().topicId(), ackOperation.receiptHandle().queueId(),
-                    operationStreamId, snapshotStreamId, stateMachine, ackOperation.receiptHandle().consumerGroupId(),
-                    ackOperation.receiptHandle().operationId(), ackOperation.operationTimestamp(),
-                    AckOperation.AckOperationType.values()[ackOperation.type()]);
+                return decodeAckOperation(ackOperation, stateMachine, operationStreamId, snapshotStreamId);
+            }
+            case com.automq.rocketmq.store.model.generated.Operation.BatchAckOperation -> {
+                com.automq.rocketmq.store.model.generated.BatchAckOperation batchAckOperation = (com.automq.rocketmq.store.model.generated.BatchAckOperation) operationLogItem.operation(new com.automq.rocketmq.store.model.generated.BatchAckOperation());
+                List<AckOperation> ackOperations = new ArrayList<>(batchAckOperation.acksLength());
+                com.automq.rocketmq.store.model.generated.AckOperation ackOperation = new com.automq.rocketmq.store.model.generated.AckOperation();
+                for (int i = 0; i < batchAckOperation.acksLength(); i++) {
+                    ackOperations.add(decodeAckOperation(batchAckOperation.acks(ackOperation, i), stateMachine, operationStreamId, snapshotStreamId));
+                }
+                if (ackOperations.isEmpty()) {
+                    throw new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "Batch ack operation is empty");
+                }
+                return new BatchAckOperation(ackOperations.get(0).topicId(), ackOperations.get(0).queueId(),
+                    operationStreamId, snapshotStreamId, stateMachine, ackOperations);
             }
             case com.automq.rocketmq.store.model.generated.Operation.ChangeInvisibleDurationOperation -> {
                 com.automq.rocketmq.store.model.generated.ChangeInvisibleDurationOperation changeInvisibleDurationOperation = (com.automq.rocketmq.store.model.generated.ChangeInvisibleDurationOperation) operationLogItem.operation(new com.automq.rocketmq.store.model.generated.ChangeInvisibleDurationOperation());
@@ -184,6 +271,14 @@ public class SerializeUtil {
         }
     }
 
+    private static AckOperation decodeAckOperation(com.automq.rocketmq.store.model.generated.AckOperation ackOperation,
+        MessageStateMachine stateMachine, long operationStreamId, long snapshotStreamId) {
+        return new AckOperation(ackOperation.receiptHandle().topicId(), ackOperation.receiptHandle().queueId(),
+            operationStreamId, snapshotStreamId, stateMachine, ackOperation.receiptHandle().consumerGroupId(),
+            ackOperation.receiptHandle().operationId(), ackOperation.operationTimestamp(),
+            AckOperation.AckOperationType.values()[ackOperation.type()]);
+    }
+
     public static byte[] encodeOperationSnapshot(OperationSnapshot snapshot) {
         FlatBufferBuilder builder = new FlatBufferBuilder();
         int[] consumerGroupMetadataOffsets = new int[snapshot.getConsumerGroupMetadataList().size()];
@@ -214,7 +309,14 @@ public class SerializeUtil {
             checkPointOffsets[i] = checkPointOffset;
         }
         int checkPointVectorOffset = com.automq.rocketmq.store.model.generated.OperationSnapshot.createCheckPointsVector(builder, checkPointOffsets);
-        int root = com.automq.rocketmq.store.model.generated.OperationSnapshot.createOperationSnapshot(builder, snapshot.getSnapshotEndOffset(), checkPointVectorOffset, consumerGroupMetadataVectorOffset);
+        int[] deletedCheckPointOffsets = new int[snapshot.getDeletedCheckPoints().size()];
+        for (int i = 0; i < snapshot.getDeletedCheckPoints().size(); i++) {
+            OperationSnapshot.CheckPointId checkPointId = snapshot.getDeletedCheckPoints().get(i);
+            deletedCheckPointOffsets[i] = com.automq.rocketmq.store.model.generated.CheckPointId.createCheckPointId(builder, checkPointId.consumerGroupId(), checkPointId.operationId());
+        }
+        int deletedCheckPointVectorOffset = com.automq.rocketmq.store.model.generated.OperationSnapshot.createDeletedCheckPointsVector(builder, deletedCheckPointOffsets);
+        int root = com.automq.rocketmq.store.model.generated.OperationSnapshot.createOperationSnapshot(builder, snapshot.getSnapshotEndOffset(), checkPointVectorOffset, consumerGroupMetadataVectorOffset,
+            snapshot.getBaseSnapshotOffset(), deletedCheckPointVectorOffset);
         builder.finish(root);
         return prependChecksum(builder.sizedByteArray());
     }
@@ -246,21 +348,48 @@ public class SerializeUtil {
         for (int i = 0; i < snapshot.checkPointsLength(); i++) {
             checkPointList.add(snapshot.checkPoints(i));
         }
-        return new OperationSnapshot(snapshot.snapshotEndOffset(), consumerGroupMetadataList, checkPointList);
+        OperationSnapshot operationSnapshot = new OperationSnapshot(snapshot.snapshotEndOffset(), consumerGroupMetadataList, checkPointList);
+        operationSnapshot.setBaseSnapshotOffset(snapshot.baseSnapshotOffset());
+        if (snapshot.deletedCheckPointsLength() > 0) {
+            List<OperationSnapshot.CheckPointId> deletedCheckPoints = new ArrayList<>(snapshot.deletedCheckPointsLength());
+            for (int i = 0; i < snapshot.deletedCheckPointsLength(); i++) {
+                com.automq.rocketmq.store.model.generated.CheckPointId checkPointId = snapshot.deletedCheckPoints(i);
+                deletedCheckPoints.add(new OperationSnapshot.CheckPointId(checkPointId.consumerGroupId(), checkPointId.operationId()));
+            }
+            operationSnapshot.setDeletedCheckPoints(deletedCheckPoints);
+        }
+        return operationSnapshot;
     }
 
     public static byte[] encodeAckOperation(AckOperation ackOperation) {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int operation = createAckOperation(builder, ackOperation);
+        int root = OperationLogItem.createOperationLogItem(builder, com.automq.rocketmq.store.model.generated.Operation.AckOperation, operation);
+        builder.finish(root);
+        return prependChecksum(builder.sizedByteArray());
+    }
+
+    public static byte[] encodeBatchAckOperation(BatchAckOperation batchAckOperation) {
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        int[] ackOffsets = new int[batchAckOperation.ackOperations().size()];
+        for (int i = 0; i < ackOffsets.length; i++) {
+            ackOffsets[i] = createAckOperation(builder, batchAckOperation.ackOperations().get(i));
+        }
+        int acks = com.automq.rocketmq.store.model.generated.BatchAckOperation.createAcksVector(builder, ackOffsets);
+        int operation = com.automq.rocketmq.store.model.generated.BatchAckOperation.createBatchAckOperation(builder, acks);
+        int root = OperationLogItem.createOperationLogItem(builder, com.automq.rocketmq.store.model.generated.Operation.BatchAckOperation, operation);
+        builder.finish(root);
+        return prependChecksum(builder.sizedByteArray());
+    }
+
+    private static int createAckOperation(FlatBufferBuilder builder, AckOperation ackOperation) {
         long topicId = ackOperation.topicId();
         int queueId = ackOperation.queueId();
         long operationId = ackOperation.operationId();
         long operationTimestamp = ackOperation.operationTimestamp();
         long consumerGroupId = ackOperation.consumerGroupId();
-        FlatBufferBuilder builder = new FlatBufferBuilder();
         int receiptHandleId = ReceiptHandle.createReceiptHandle(builder, consumerGroupId, topicId, queueId, operationId);
-        int operation = com.automq.rocketmq.store.model.generated.AckOperation.createAckOperation(builder, receiptHandleId, operationTimestamp, (short) ackOperation.ackOperationType().ordinal());
-        int root = OperationLogItem.createOperationLogItem(builder, com.automq.rocketmq.store.model.generated.Operation.AckOperation, operation);
-        builder.finish(root);
-        return prependChecksum(builder.sizedByteArray());
+        return com.automq.rocketmq.store.model.generated.AckOperation.createAckOperation(builder, receiptHandleId, operationTimestamp, (short) ackOperation.ackOperationType().ordinal());
     }
 
     public static byte[] encodeChangeInvisibleDurationOperation(ChangeInvisibleDurationOperation durationOperation) {
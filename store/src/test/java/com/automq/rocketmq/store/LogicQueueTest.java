@@ -21,6 +21,7 @@ import apache.rocketmq.controller.v1.StreamMetadata;
 import com.automq.rocketmq.common.config.StoreConfig;
 import com.automq.rocketmq.common.model.FlatMessageExt;
 import com.automq.rocketmq.common.model.generated.FlatMessage;
+import com.automq.rocketmq.common.model.generated.FlatMessageT;
 import com.automq.rocketmq.metadata.api.StoreMetadataService;
 import com.automq.rocketmq.store.api.LogicQueue;
 import com.automq.rocketmq.store.api.MessageStateMachine;
@@ -31,13 +32,23 @@ import com.automq.rocketmq.store.mock.MockStreamStore;
 import com.automq.rocketmq.store.model.StoreContext;
 import com.automq.rocketmq.store.model.generated.CheckPoint;
 import com.automq.rocketmq.store.model.generated.ReceiptHandle;
+import com.automq.rocketmq.store.model.generated.TimerHandlerType;
+import com.automq.rocketmq.store.model.generated.TimerMessageRef;
+import com.automq.rocketmq.store.model.generated.TimerTag;
 import com.automq.rocketmq.store.model.message.AckResult;
 import com.automq.rocketmq.store.model.message.Filter;
 import com.automq.rocketmq.store.model.message.PopResult;
+import com.automq.rocketmq.store.model.message.PullResult;
+import com.automq.rocketmq.store.model.message.PutResult;
 import com.automq.rocketmq.store.model.message.ResetConsumeOffsetResult;
 import com.automq.rocketmq.store.model.message.TagFilter;
+import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.rocketmq.store.model.operation.BatchAckOperation;
+import com.automq.rocketmq.store.model.operation.OperationSnapshot;
+import com.automq.rocketmq.store.model.stream.BatchRecord;
 import com.automq.rocketmq.store.queue.DefaultLogicQueueStateMachine;
 import com.automq.rocketmq.store.queue.StreamLogicQueue;
+import com.automq.rocketmq.store.queue.TimerMessageLog;
 import com.automq.rocketmq.store.service.InflightService;
 import com.automq.rocketmq.store.service.RocksDBKVService;
 import com.automq.rocketmq.store.service.SnapshotService;
@@ -47,10 +58,14 @@ import com.automq.rocketmq.store.service.TimerService;
 import com.automq.rocketmq.store.service.api.KVService;
 import com.automq.rocketmq.store.service.api.OperationLogService;
 import com.automq.rocketmq.store.util.SerializeUtil;
+import com.google.flatbuffers.FlatBufferBuilder;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -63,6 +78,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LogicQueueTest {
@@ -79,6 +95,7 @@ public class LogicQueueTest {
     private StoreMetadataService metadataService;
     private StreamStore streamStore;
     private MessageStateMachine stateMachine;
+    private TimerService timerService;
     private InflightService inflightService;
     private OperationLogService operationLogService;
     private StreamReclaimService streamReclaimService;
@@ -89,14 +106,14 @@ public class LogicQueueTest {
         kvService = new RocksDBKVService(PATH);
         metadataService = new MockStoreMetadataService();
         streamStore = new MockStreamStore();
-        TimerService timerService = new TimerService(MessageStoreTest.KV_NAMESPACE_TIMER_TAG, kvService);
+        timerService = new TimerService(MessageStoreTest.KV_NAMESPACE_TIMER_TAG, kvService);
         stateMachine = Mockito.spy(new DefaultLogicQueueStateMachine(TOPIC_ID, QUEUE_ID, kvService, timerService));
         inflightService = new InflightService();
         SnapshotService snapshotService = new SnapshotService(streamStore, kvService);
         operationLogService = new StreamOperationLogService(streamStore, snapshotService, new StoreConfig());
         streamReclaimService = new StreamReclaimService(streamStore);
         logicQueue = new StreamLogicQueue(new StoreConfig(), TOPIC_ID, QUEUE_ID,
-            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService);
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
         streamReclaimService.start();
         logicQueue.open().join();
     }
@@ -123,6 +140,53 @@ public class LogicQueueTest {
         assertEquals(message.payloadAsByteBuffer(), messageExt.message().payloadAsByteBuffer());
     }
 
+    @Test
+    void pullAndPopBatchRecord() {
+        List<FlatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            messages.add(FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, i % 2 == 0 ? "TagA" : "TagB")));
+        }
+        long dataStreamId = ((StreamLogicQueue) logicQueue).dataStreamId();
+        streamStore.append(StoreContext.EMPTY, dataStreamId, BatchRecord.of(messages)).join();
+        FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+        assertEquals(4, logicQueue.put(StoreContext.EMPTY, message).join().offset());
+
+        // Pull from the middle of the batch
+        PullResult pullResult = logicQueue.pullNormal(CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 1, 2).join();
+        assertEquals(PullResult.Status.FOUND, pullResult.status());
+        assertEquals(2, pullResult.messageList().size());
+        assertEquals(1, pullResult.messageList().get(0).offset());
+        assertEquals("TagB", pullResult.messageList().get(0).message().tag());
+        assertEquals(2, pullResult.messageList().get(1).offset());
+
+        // Filter the messages inside the batch
+        PopResult popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, new TagFilter("TagA"), 3, 100).join();
+        assertEquals(PopResult.Status.FOUND, popResult.status());
+        assertEquals(List.of(0L, 2L, 4L), popResult.messageList().stream().map(FlatMessageExt::offset).toList());
+        assertEquals(5, logicQueue.getConsumeOffset(CONSUMER_GROUP_ID));
+    }
+
+    @Test
+    void putWithPull_pooledBuf() {
+        for (int i = 0; i < 3; i++) {
+            FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+            logicQueue.put(StoreContext.EMPTY, message);
+        }
+
+        PullResult pullResult = logicQueue.pullNormal(CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 0, 2, false).join();
+        assertEquals(PullResult.Status.FOUND, pullResult.status());
+        assertEquals(2, pullResult.messageList().size());
+        assertTrue(pullResult.pooledFetchResults().isEmpty());
+
+        pullResult = logicQueue.pullNormal(CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 0, 2, true).join();
+        assertEquals(PullResult.Status.FOUND, pullResult.status());
+        assertEquals(2, pullResult.messageList().size());
+        assertEquals(2, pullResult.nextBeginOffset());
+        assertEquals(1, pullResult.pooledFetchResults().size());
+        assertEquals(TOPIC_ID, pullResult.messageList().get(0).message().topicId());
+        pullResult.release();
+    }
+
     @Test
     void pop_normal() throws StoreException {
 
@@ -680,7 +744,7 @@ public class LogicQueueTest {
 
         // 6. open again
         logicQueue = new StreamLogicQueue(new StoreConfig(), TOPIC_ID, QUEUE_ID,
-            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService);
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
         logicQueue.open().join();
 
         // 7. check ck exist
@@ -691,6 +755,160 @@ public class LogicQueueTest {
         assertEquals(0, stateMachine.ackOffset(CONSUMER_GROUP_ID));
     }
 
+    @Test
+    void open_warmUp() {
+        for (int i = 0; i < 5; i++) {
+            FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+            logicQueue.put(StoreContext.EMPTY, message);
+        }
+        PopResult popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 2, 100).join();
+        assertEquals(2, popResult.messageList().size());
+        logicQueue.close().join();
+
+        // warm up the data stream from the consume offset after the queue is opened again
+        StreamStore spyStreamStore = Mockito.spy(streamStore);
+        StoreConfig config = new StoreConfig();
+        config.setQueueWarmUpMaxBytes(1024);
+        StreamLogicQueue queue = new StreamLogicQueue(config, TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, spyStreamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        queue.open().join();
+        Mockito.verify(spyStreamStore, Mockito.timeout(1000)).warmUp(queue.dataStreamId(), 2, 1024);
+        queue.close().join();
+
+        config.setQueueWarmUpMaxBytes(0);
+        queue = new StreamLogicQueue(config, TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, spyStreamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        queue.open().join();
+        Mockito.verify(spyStreamStore, Mockito.times(1)).warmUp(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt());
+        queue.close().join();
+
+        // a failed warm-up does not fail the open
+        config.setQueueWarmUpMaxBytes(1024);
+        Mockito.doThrow(new IllegalStateException("Stream is not opened"))
+            .when(spyStreamStore).warmUp(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt());
+        queue = new StreamLogicQueue(config, TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, spyStreamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        queue.open().join();
+        assertEquals(LogicQueue.State.OPENED, queue.getState());
+    }
+
+    @Test
+    void ownsStream() {
+        StreamMetadata dataStream = metadataService.dataStreamOf(TOPIC_ID, QUEUE_ID).join();
+        StreamMetadata operationStream = metadataService.operationStreamOf(TOPIC_ID, QUEUE_ID).join();
+        StreamMetadata retryStream = metadataService.retryStreamOf(CONSUMER_GROUP_ID, TOPIC_ID, QUEUE_ID).join();
+        assertTrue(logicQueue.ownsStream(dataStream.getStreamId()));
+        assertTrue(logicQueue.ownsStream(operationStream.getStreamId()));
+        assertFalse(logicQueue.ownsStream(retryStream.getStreamId()));
+
+        FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+        logicQueue.putRetry(StoreContext.EMPTY, CONSUMER_GROUP_ID, message).join();
+        assertTrue(logicQueue.ownsStream(retryStream.getStreamId()));
+        assertFalse(logicQueue.ownsStream(Long.MAX_VALUE));
+    }
+
+    @Test
+    void putTimer_recover() throws StoreException {
+        timerService.registerHandler(TimerHandlerType.TIMER_MESSAGE, timerTag -> {
+        });
+        // The timer stream is not created until the first delayed message
+        assertNull(((StreamLogicQueue) logicQueue).timerMessageLog());
+        assertTrue(metadataService.existingTimerStreamOf(TOPIC_ID, QUEUE_ID).join().isEmpty());
+
+        long deliveryTimestamp = System.currentTimeMillis() + 3600 * 1000;
+        for (int i = 0; i < 3; i++) {
+            PutResult putResult = logicQueue.putTimer(StoreContext.EMPTY, buildDelayedMessage(deliveryTimestamp + i)).join();
+            assertEquals(PutResult.Status.PUT_DELAYED, putResult.status());
+        }
+        TimerMessageLog timerMessageLog = ((StreamLogicQueue) logicQueue).timerMessageLog();
+        long timerStreamId = timerMessageLog.streamId();
+        List<TimerMessageRef> refs = scanTimerMessageRefs();
+        assertEquals(3, refs.size());
+        assertEquals(3, timerMessageLog.pendingCount());
+
+        // 1. deliver the first message, and the stream is trimmed to the second one
+        Optional<FlatMessage> message = logicQueue.fetchTimer(refs.get(0)).join();
+        assertTrue(message.isPresent());
+        assertEquals(deliveryTimestamp, message.get().systemProperties().deliveryTimestamp());
+        logicQueue.commitTimer(refs.get(0), deliveryTimestamp).join();
+        assertTrue(logicQueue.fetchTimer(refs.get(0)).join().isEmpty());
+        assertEquals(2, timerMessageLog.pendingCount());
+        await().until(() -> streamStore.startOffset(timerStreamId) == 1);
+
+        // 2. open again, only the messages not delivered yet are recovered
+        logicQueue.close().join();
+        logicQueue = new StreamLogicQueue(new StoreConfig(), TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        logicQueue.open().join();
+        TimerMessageLog recoveredTimerMessageLog = ((StreamLogicQueue) logicQueue).timerMessageLog();
+        await().until(() -> recoveredTimerMessageLog.pendingCount() == 2);
+
+        // Tags of the previous opening are ignored
+        assertTrue(logicQueue.fetchTimer(refs.get(1)).join().isEmpty());
+        long epoch = refs.get(0).epoch();
+        List<TimerMessageRef> recoveredRefs = scanTimerMessageRefs().stream()
+            .filter(ref -> ref.epoch() != epoch)
+            .toList();
+        assertEquals(2, recoveredRefs.size());
+        for (int i = 0; i < recoveredRefs.size(); i++) {
+            TimerMessageRef ref = recoveredRefs.get(i);
+            message = logicQueue.fetchTimer(ref).join();
+            assertTrue(message.isPresent());
+            assertEquals(deliveryTimestamp + i + 1, message.get().systemProperties().deliveryTimestamp());
+            logicQueue.commitTimer(ref, deliveryTimestamp + i + 1).join();
+        }
+
+        // 3. all messages are delivered, and the stream is trimmed to the end
+        assertEquals(0, recoveredTimerMessageLog.pendingCount());
+        await().until(() -> streamStore.startOffset(timerStreamId) == streamStore.confirmOffset(timerStreamId));
+    }
+
+    @Test
+    void putTimer_compact() throws StoreException {
+        timerService.registerHandler(TimerHandlerType.TIMER_MESSAGE, timerTag -> {
+        });
+        StoreConfig config = new StoreConfig();
+        // 5 delayed messages and 4 records of delivered messages
+        config.setTimerStreamCompactMinRecords(9);
+        logicQueue.close().join();
+        logicQueue = new StreamLogicQueue(config, TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        logicQueue.open().join();
+
+        // 1. the first message is delivered far after the others
+        long deliveryTimestamp = System.currentTimeMillis() + 3600 * 1000;
+        logicQueue.putTimer(StoreContext.EMPTY, buildDelayedMessage(deliveryTimestamp + 3600 * 1000)).join();
+        for (int i = 0; i < 4; i++) {
+            logicQueue.putTimer(StoreContext.EMPTY, buildDelayedMessage(deliveryTimestamp + i)).join();
+        }
+        TimerMessageLog timerMessageLog = ((StreamLogicQueue) logicQueue).timerMessageLog();
+        long timerStreamId = timerMessageLog.streamId();
+        List<TimerMessageRef> refs = scanTimerMessageRefs();
+        assertEquals(5, refs.size());
+
+        // 2. deliver the others, and the first message is moved to the tail so that the stream is trimmed beyond it
+        for (int i = 1; i < refs.size(); i++) {
+            logicQueue.commitTimer(refs.get(i), deliveryTimestamp + i - 1).join();
+        }
+        await().until(() -> streamStore.startOffset(timerStreamId) == 9);
+        assertEquals(1, timerMessageLog.pendingCount());
+        // The tag of the first message is replaced, the tags of the delivered ones are left to the timer service
+        List<TimerMessageRef> movedRefs = scanTimerMessageRefs();
+        assertEquals(List.of(1L, 2L, 3L, 4L, 9L), movedRefs.stream().map(TimerMessageRef::offset).toList());
+        assertTrue(logicQueue.fetchTimer(refs.get(0)).join().isEmpty());
+        Optional<FlatMessage> message = logicQueue.fetchTimer(movedRefs.get(4)).join();
+        assertTrue(message.isPresent());
+        assertEquals(deliveryTimestamp + 3600 * 1000, message.get().systemProperties().deliveryTimestamp());
+
+        // 3. open again, only the moved message is replayed
+        logicQueue.close().join();
+        logicQueue = new StreamLogicQueue(config, TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        logicQueue.open().join();
+        TimerMessageLog recoveredTimerMessageLog = ((StreamLogicQueue) logicQueue).timerMessageLog();
+        await().until(() -> recoveredTimerMessageLog.pendingCount() == 1);
+    }
+
     @Test
     void open_close_ungracefully() throws StoreException {
         // 1. append 5 messages
@@ -733,7 +951,7 @@ public class LogicQueueTest {
             return CompletableFuture.completedFuture(null);
         }).when(stateMachine).clear();
         logicQueue = new StreamLogicQueue(new StoreConfig(), TOPIC_ID, QUEUE_ID,
-            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService);
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
         logicQueue.open().join();
 
         // 5. check ck exist
@@ -744,6 +962,230 @@ public class LogicQueueTest {
         assertEquals(0, stateMachine.ackOffset(CONSUMER_GROUP_ID));
     }
 
+    @Test
+    void pop_batch_recover() throws StoreException {
+        // 1. append 5 messages
+        for (int i = 0; i < 5; i++) {
+            FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+            logicQueue.put(StoreContext.EMPTY, message);
+        }
+
+        // 2. pop 3 messages with one operation
+        PopResult popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 3, 100).join();
+        assertEquals(PopResult.Status.FOUND, popResult.status());
+        assertEquals(3, popResult.messageList().size());
+        Mockito.verify(stateMachine, Mockito.times(1)).replayBatchPopOperation(Mockito.anyLong(), Mockito.any());
+        List<String> receiptHandles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            FlatMessageExt messageExt = popResult.messageList().get(i);
+            assertEquals(1, messageExt.deliveryAttempts());
+            receiptHandles.add(messageExt.receiptHandle().get());
+        }
+        long baseOperationId = SerializeUtil.decodeReceiptHandle(receiptHandles.get(0)).operationId();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(baseOperationId + i, SerializeUtil.decodeReceiptHandle(receiptHandles.get(i)).operationId());
+            checkCkExist(receiptHandles.get(i), true);
+        }
+        assertEquals(3, scanAllTimerTag().size());
+
+        // 3. ack the first two messages
+        assertEquals(AckResult.Status.SUCCESS, logicQueue.ack(receiptHandles.get(0)).join().status());
+        assertEquals(AckResult.Status.SUCCESS, logicQueue.ack(receiptHandles.get(1)).join().status());
+        assertEquals(2, stateMachine.ackOffset(CONSUMER_GROUP_ID));
+
+        // 4. close and recover from the operation log
+        logicQueue.close().join();
+        logicQueue = new StreamLogicQueue(new StoreConfig(), TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        logicQueue.open().join();
+
+        checkCkExist(receiptHandles.get(0), false);
+        checkCkExist(receiptHandles.get(1), false);
+        checkCkExist(receiptHandles.get(2), true);
+        assertEquals(1, scanAllTimerTag().size());
+        assertEquals(3, stateMachine.consumeOffset(CONSUMER_GROUP_ID));
+        assertEquals(2, stateMachine.ackOffset(CONSUMER_GROUP_ID));
+
+        // 5. pop the remaining messages after recovery
+        popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 3, 100).join();
+        assertEquals(PopResult.Status.FOUND, popResult.status());
+        assertEquals(2, popResult.messageList().size());
+        assertEquals(baseOperationId + 5, SerializeUtil.decodeReceiptHandle(popResult.messageList().get(0).receiptHandle().get()).operationId());
+        assertEquals(5, stateMachine.consumeOffset(CONSUMER_GROUP_ID));
+    }
+
+    @Test
+    void pop_batch_ack() throws StoreException {
+        // 1. append 5 messages
+        for (int i = 0; i < 5; i++) {
+            FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+            logicQueue.put(StoreContext.EMPTY, message);
+        }
+
+        // 2. pop 3 messages
+        PopResult popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 3, 100).join();
+        assertEquals(3, popResult.messageList().size());
+        List<AckOperation> acks = new ArrayList<>();
+        for (FlatMessageExt messageExt : popResult.messageList()) {
+            ReceiptHandle handle = SerializeUtil.decodeReceiptHandle(messageExt.receiptHandle().get());
+            acks.add(new AckOperation(TOPIC_ID, QUEUE_ID, handle.operationId(), 0, stateMachine, CONSUMER_GROUP_ID,
+                handle.operationId(), System.currentTimeMillis(), AckOperation.AckOperationType.ACK_NORMAL));
+        }
+        // a repeated ack and an ack without check point
+        acks.add(acks.get(0));
+        acks.add(new AckOperation(TOPIC_ID, QUEUE_ID, 0, 0, stateMachine, CONSUMER_GROUP_ID,
+            Long.MAX_VALUE, System.currentTimeMillis(), AckOperation.AckOperationType.ACK_NORMAL));
+
+        // 3. commit the acks together
+        long operationStreamId = ((StreamLogicQueue) logicQueue).operationStreamId();
+        long snapshotStreamId = ((StreamLogicQueue) logicQueue).snapshotStreamId();
+        BatchAckOperation batchAckOperation = new BatchAckOperation(TOPIC_ID, QUEUE_ID, operationStreamId, snapshotStreamId,
+            stateMachine, acks);
+        boolean[] applied = operationLogService.logBatchAckOperation(batchAckOperation).join();
+        Assertions.assertArrayEquals(new boolean[] {true, true, true, false, false}, applied);
+        for (FlatMessageExt messageExt : popResult.messageList()) {
+            checkCkExist(messageExt.receiptHandle().get(), false);
+        }
+        assertEquals(0, scanAllTimerTag().size());
+        assertEquals(3, stateMachine.ackOffset(CONSUMER_GROUP_ID));
+
+        // 4. close and recover from the operation log
+        logicQueue.close().join();
+        logicQueue = new StreamLogicQueue(new StoreConfig(), TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        logicQueue.open().join();
+        for (FlatMessageExt messageExt : popResult.messageList()) {
+            checkCkExist(messageExt.receiptHandle().get(), false);
+        }
+        assertEquals(0, scanAllTimerTag().size());
+        assertEquals(3, stateMachine.consumeOffset(CONSUMER_GROUP_ID));
+        assertEquals(3, stateMachine.ackOffset(CONSUMER_GROUP_ID));
+    }
+
+    @Test
+    void recover_in_pages() throws StoreException {
+        for (int i = 0; i < 5; i++) {
+            FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+            logicQueue.put(StoreContext.EMPTY, message);
+        }
+
+        // 1. pop 3 messages one by one, ack the first and the third one
+        List<String> receiptHandles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PopResult popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 1, 100).join();
+            receiptHandles.add(popResult.messageList().get(0).receiptHandle().get());
+        }
+        assertEquals(AckResult.Status.SUCCESS, logicQueue.ack(receiptHandles.get(0)).join().status());
+        assertEquals(AckResult.Status.SUCCESS, logicQueue.ack(receiptHandles.get(2)).join().status());
+
+        // 2. recover with tiny pages, the oldest operations are replayed before their acks are fetched
+        StoreConfig config = new StoreConfig();
+        config.setRecoverOperationPageSize(2);
+        config.setRecoverMaxPendingOperations(1);
+        operationLogService = new StreamOperationLogService(streamStore, new SnapshotService(streamStore, kvService), config);
+        logicQueue.close().join();
+        logicQueue = new StreamLogicQueue(config, TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        logicQueue.open().join();
+
+        checkCkExist(receiptHandles.get(0), false);
+        checkCkExist(receiptHandles.get(1), true);
+        checkCkExist(receiptHandles.get(2), false);
+        assertEquals(1, scanAllTimerTag().size());
+        assertEquals(3, stateMachine.consumeOffset(CONSUMER_GROUP_ID));
+        assertEquals(1, stateMachine.ackOffset(CONSUMER_GROUP_ID));
+    }
+
+    @Test
+    void recover_in_pages_with_orphan_ack() throws StoreException {
+        for (int i = 0; i < 3; i++) {
+            FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+            logicQueue.put(StoreContext.EMPTY, message);
+        }
+
+        // 1. pop 2 messages one by one, log an ack without a corresponding pop, then ack the first message
+        List<String> receiptHandles = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            PopResult popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 1, 100).join();
+            receiptHandles.add(popResult.messageList().get(0).receiptHandle().get());
+        }
+        long operationStreamId = ((StreamLogicQueue) logicQueue).operationStreamId();
+        long snapshotStreamId = ((StreamLogicQueue) logicQueue).snapshotStreamId();
+        AckOperation orphanAck = new AckOperation(TOPIC_ID, QUEUE_ID, operationStreamId, snapshotStreamId, stateMachine,
+            CONSUMER_GROUP_ID, Long.MAX_VALUE, System.currentTimeMillis(), AckOperation.AckOperationType.ACK_NORMAL);
+        assertThrows(CompletionException.class, () -> operationLogService.logAckOperation(orphanAck).join());
+        assertEquals(AckResult.Status.SUCCESS, logicQueue.ack(receiptHandles.get(0)).join().status());
+
+        // 2. recover with tiny pages, the orphan ack is replayed after the pops and fails to find its check point
+        StoreConfig config = new StoreConfig();
+        config.setRecoverOperationPageSize(2);
+        config.setRecoverMaxPendingOperations(1);
+        operationLogService = new StreamOperationLogService(streamStore, new SnapshotService(streamStore, kvService), config);
+        logicQueue.close().join();
+        logicQueue = new StreamLogicQueue(config, TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        logicQueue.open().join();
+
+        checkCkExist(receiptHandles.get(0), false);
+        checkCkExist(receiptHandles.get(1), true);
+        assertEquals(2, stateMachine.consumeOffset(CONSUMER_GROUP_ID));
+        assertEquals(1, stateMachine.ackOffset(CONSUMER_GROUP_ID));
+    }
+
+    @Test
+    void recover_from_delta_snapshots() throws Exception {
+        StoreConfig config = new StoreConfig();
+        config.setOperationSnapshotInterval(1);
+        SnapshotService snapshotService = new SnapshotService(streamStore, kvService, config);
+        snapshotService.start();
+        operationLogService = new StreamOperationLogService(streamStore, snapshotService, config);
+        logicQueue.close().join();
+        logicQueue = new StreamLogicQueue(config, TOPIC_ID, QUEUE_ID,
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
+        logicQueue.open().join();
+        long snapshotStreamId = ((StreamLogicQueue) logicQueue).snapshotStreamId();
+        try {
+            for (int i = 0; i < 5; i++) {
+                FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+                logicQueue.put(StoreContext.EMPTY, message);
+            }
+
+            // 1. each operation takes a snapshot, a full one followed by deltas
+            PopResult popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 1, 100).join();
+            String receiptHandle0 = popResult.messageList().get(0).receiptHandle().get();
+            await().until(() -> streamStore.nextOffset(snapshotStreamId) == 1);
+            popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 1, 100).join();
+            String receiptHandle1 = popResult.messageList().get(0).receiptHandle().get();
+            await().until(() -> streamStore.nextOffset(snapshotStreamId) == 2);
+            assertEquals(AckResult.Status.SUCCESS, logicQueue.ack(receiptHandle0).join().status());
+            await().until(() -> streamStore.nextOffset(snapshotStreamId) == 3);
+            assertEquals(0, streamStore.startOffset(snapshotStreamId));
+            await().until(() -> snapshotService.getSnapshotStatus(TOPIC_ID, QUEUE_ID).deltaSnapshotCount().get() == 2);
+            OperationSnapshot lastSnapshot = SerializeUtil.decodeOperationSnapshot(streamStore.fetch(StoreContext.EMPTY, snapshotStreamId, 2, 1)
+                .join().recordBatchList().get(0).rawPayload());
+            assertTrue(lastSnapshot.isDelta());
+            assertTrue(lastSnapshot.getCheckPoints().isEmpty());
+            assertEquals(1, lastSnapshot.getDeletedCheckPoints().size());
+
+            // 2. recover from the full snapshot and the deltas only
+            logicQueue.close().join();
+            logicQueue = new StreamLogicQueue(config, TOPIC_ID, QUEUE_ID,
+                metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
+            logicQueue.open().join();
+            checkCkExist(receiptHandle0, false);
+            checkCkExist(receiptHandle1, true);
+            assertEquals(2, stateMachine.consumeOffset(CONSUMER_GROUP_ID));
+            assertEquals(1, stateMachine.ackOffset(CONSUMER_GROUP_ID));
+
+            // 3. the first snapshot after recovery is a full one, which trims the previous snapshots
+            logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 1, 100).join();
+            await().until(() -> streamStore.startOffset(snapshotStreamId) == 3);
+            assertEquals(4, streamStore.nextOffset(snapshotStreamId));
+        } finally {
+            snapshotService.shutdown();
+        }
+    }
+
     @Test
     void reset_consume_offset() {
         // 1. append 5 messages
@@ -820,6 +1262,26 @@ public class LogicQueueTest {
         }
     }
 
+    private FlatMessage buildDelayedMessage(long deliveryTimestamp) {
+        FlatMessageT messageT = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA")).unpack();
+        messageT.getSystemProperties().setDeliveryTimestamp(deliveryTimestamp);
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        builder.finish(FlatMessage.pack(builder, messageT));
+        return FlatMessage.getRootAsFlatMessage(builder.dataBuffer());
+    }
+
+    private List<TimerMessageRef> scanTimerMessageRefs() throws StoreException {
+        List<TimerMessageRef> refs = new ArrayList<>();
+        kvService.iterate(MessageStoreTest.KV_NAMESPACE_TIMER_TAG, (key, value) -> {
+            TimerTag timerTag = TimerTag.getRootAsTimerTag(ByteBuffer.wrap(value));
+            if (timerTag.handlerType() == TimerHandlerType.TIMER_MESSAGE) {
+                refs.add(SerializeUtil.decodeTimerMessageRef(timerTag.payloadAsByteBuffer()));
+            }
+        });
+        refs.sort(Comparator.comparingLong(TimerMessageRef::offset));
+        return refs;
+    }
+
     private List<ReceiptHandle> scanAllTimerTag() {
         List<ReceiptHandle> receiptHandleList = new ArrayList<>();
         try {
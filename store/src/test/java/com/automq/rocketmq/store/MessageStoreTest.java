@@ -21,6 +21,7 @@ import apache.rocketmq.controller.v1.StreamMetadata;
 import com.automq.rocketmq.common.config.StoreConfig;
 import com.automq.rocketmq.common.model.FlatMessageExt;
 import com.automq.rocketmq.common.model.generated.FlatMessage;
+import com.automq.rocketmq.common.model.generated.FlatMessageT;
 import com.automq.rocketmq.metadata.api.StoreMetadataService;
 import com.automq.rocketmq.store.api.DeadLetterSender;
 import com.automq.rocketmq.store.api.LogicQueue;
@@ -36,6 +37,7 @@ import com.automq.rocketmq.store.model.message.AckResult;
 import com.automq.rocketmq.store.model.message.ChangeInvisibleDurationResult;
 import com.automq.rocketmq.store.model.message.Filter;
 import com.automq.rocketmq.store.model.message.PopResult;
+import com.automq.rocketmq.store.model.message.PutResult;
 import com.automq.rocketmq.store.model.message.ResetConsumeOffsetResult;
 import com.automq.rocketmq.store.queue.DefaultLogicQueueManager;
 import com.automq.rocketmq.store.service.InflightService;
@@ -49,6 +51,7 @@ import com.automq.rocketmq.store.service.TimerService;
 import com.automq.rocketmq.store.service.api.KVService;
 import com.automq.rocketmq.store.service.api.OperationLogService;
 import com.automq.stream.s3.operator.MemoryS3Operator;
+import com.google.flatbuffers.FlatBufferBuilder;
 import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -86,6 +89,7 @@ public class MessageStoreTest {
     private MessageStore messageStore;
     private StoreConfig config;
     private LogicQueueManager logicQueueManager;
+    private TimerService timerService;
     private ReviveService reviveService;
 
     @BeforeEach
@@ -99,7 +103,7 @@ public class MessageStoreTest {
         SnapshotService snapshotService = new SnapshotService(streamStore, kvService);
         OperationLogService operationLogService = new StreamOperationLogService(streamStore, snapshotService, config);
         StreamReclaimService streamReclaimService = new StreamReclaimService(streamStore);
-        TimerService timerService = new TimerService(KV_NAMESPACE_TIMER_TAG, kvService);
+        timerService = new TimerService(KV_NAMESPACE_TIMER_TAG, kvService);
         logicQueueManager = new DefaultLogicQueueManager(config, streamStore, kvService, timerService, metadataService, operationLogService, inflightService, streamReclaimService);
         DeadLetterSender deadLetterSender = Mockito.mock(DeadLetterSender.class);
         Mockito.doReturn(CompletableFuture.completedFuture(null))
@@ -261,6 +265,25 @@ public class MessageStoreTest {
         assertEquals(2, popResult.messageList().get(1).deliveryAttempts());
     }
 
+    @Test
+    public void put_delayed() {
+        FlatMessageT messageT = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA")).unpack();
+        messageT.getSystemProperties().setDeliveryTimestamp(System.currentTimeMillis() + 1500);
+        FlatBufferBuilder builder = new FlatBufferBuilder();
+        builder.finish(FlatMessage.pack(builder, messageT));
+        PutResult putResult = messageStore.put(StoreContext.EMPTY, FlatMessage.getRootAsFlatMessage(builder.dataBuffer())).join();
+        assertEquals(PutResult.Status.PUT_DELAYED, putResult.status());
+
+        // The message is invisible until it is due
+        PopResult popResult = messageStore.pop(StoreContext.EMPTY, CONSUMER_GROUP_ID, TOPIC_ID, QUEUE_ID, Filter.DEFAULT_FILTER, 1, false, false, 100).join();
+        assertEquals(0, popResult.messageList().size());
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            PopResult result = messageStore.pop(StoreContext.EMPTY, CONSUMER_GROUP_ID, TOPIC_ID, QUEUE_ID, Filter.DEFAULT_FILTER, 1, false, false, 100_000).join();
+            return result.messageList().size() == 1;
+        });
+    }
+
     @Test
     public void pop_snapshot() {
         // set snapshot interval to 7
@@ -355,6 +378,8 @@ public class MessageStoreTest {
             FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
             messageStore.put(StoreContext.EMPTY, message).join();
         }
+        // Pause the timer service, so no checkpoint is revived before the queue is reopened.
+        timerService.shutdown();
         List<String> receiptHandles = new ArrayList<>();
         // 2. pop 3 message
         PopResult popResult = messageStore.pop(StoreContext.EMPTY, CONSUMER_GROUP_ID, TOPIC_ID, QUEUE_ID, Filter.DEFAULT_FILTER, 3, false, false, 800).join();
@@ -410,8 +435,16 @@ public class MessageStoreTest {
             assertEquals(3, ckNum.get());
         }
 
-        // 8. after 1100ms, pop again
-        Thread.sleep(1100);
+        // 8. resume the timer service and wait for the checkpoints to be revived, then pop again
+        timerService.start();
+        await().until(() -> {
+            AtomicInteger ckNum = new AtomicInteger();
+            kvService.iterate(MessageStoreImpl.KV_NAMESPACE_CHECK_POINT, tqPrefix, null, null,
+                (key, value) -> ckNum.getAndIncrement());
+            return ckNum.get() == 0;
+        });
+        // Keep the checkpoints of the following pops in place until they are acked.
+        timerService.shutdown();
         popResult = messageStore.pop(StoreContext.EMPTY, CONSUMER_GROUP_ID, TOPIC_ID, QUEUE_ID, Filter.DEFAULT_FILTER, 3, false, false, 800).join();
         assertEquals(PopResult.Status.END_OF_QUEUE, popResult.status());
         popResult = messageStore.pop(StoreContext.EMPTY, CONSUMER_GROUP_ID, TOPIC_ID, QUEUE_ID, Filter.DEFAULT_FILTER, 3, false, true, 800).join();
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.benchmark;
+
+import com.automq.rocketmq.common.config.StoreConfig;
+import com.automq.rocketmq.store.api.MessageStateMachine;
+import com.automq.rocketmq.store.api.StreamStore;
+import com.automq.rocketmq.store.mock.MockStreamStore;
+import com.automq.rocketmq.store.model.StoreContext;
+import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.rocketmq.store.model.operation.PopOperation;
+import com.automq.rocketmq.store.model.stream.SingleRecord;
+import com.automq.rocketmq.store.queue.DefaultLogicQueueStateMachine;
+import com.automq.rocketmq.store.service.RocksDBKVService;
+import com.automq.rocketmq.store.service.SnapshotService;
+import com.automq.rocketmq.store.service.StreamOperationLogService;
+import com.automq.rocketmq.store.service.TimerService;
+import com.automq.rocketmq.store.service.api.KVService;
+import com.automq.rocketmq.store.util.SerializeUtil;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.helper.HelpScreenException;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+import org.apache.rocketmq.common.UtilAll;
+
+/**
+ * OperationLogRecoverBench measures the time to recover a queue from its operation log, without a snapshot, against
+ * the length of the log. The log is made of pops of one message, a part of which are acked right after the pop.
+ */
+public class OperationLogRecoverBench {
+    private static final String PATH = "/tmp/ros/operation_log_recover_bench/";
+    private static final long TOPIC_ID = 1;
+    private static final int QUEUE_ID = 1;
+    private static final long CONSUMER_GROUP_ID = 1;
+    private static final long OP_STREAM_ID = 1;
+    private static final long SNAPSHOT_STREAM_ID = 2;
+
+    public static void main(String[] args) throws Exception {
+        Namespace ns = null;
+        ArgumentParser parser = BenchConfig.parser();
+        try {
+            ns = parser.parseArgs(args);
+        } catch (HelpScreenException e) {
+            System.exit(0);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+        BenchConfig config = new BenchConfig(ns);
+
+        for (int operations : config.operations) {
+            long elapsedNanos = run(config, operations);
+            System.out.printf("Recover %d operations | page size %d | max pending %d | %d ms | %.0f operations per second\n",
+                operations, config.pageSize, config.maxPending, elapsedNanos / 1_000_000, operations * 1e9 / elapsedNanos);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Append the operations to a new operation stream and recover a state machine from it.
+     *
+     * @return the nanoseconds taken by the recovery
+     */
+    static long run(BenchConfig config, int operations) throws Exception {
+        UtilAll.deleteFile(new File(PATH));
+        KVService kvService = new RocksDBKVService(PATH);
+        StreamStore streamStore = new MockStreamStore();
+        try {
+            streamStore.start();
+            streamStore.open(OP_STREAM_ID, 0).join();
+            streamStore.open(SNAPSHOT_STREAM_ID, 0).join();
+            MessageStateMachine stateMachine = new DefaultLogicQueueStateMachine(TOPIC_ID, QUEUE_ID, kvService,
+                new TimerService("timer_tag_0", kvService));
+
+            CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+            long messageOffset = 0;
+            for (long offset = 0; offset < operations; offset++) {
+                byte[] payload;
+                if (offset > 0 && offset % 100 < config.ackPercent * 2 && offset % 2 == 1) {
+                    // ack the pop right before
+                    payload = SerializeUtil.encodeAckOperation(new AckOperation(TOPIC_ID, QUEUE_ID, OP_STREAM_ID, SNAPSHOT_STREAM_ID,
+                        stateMachine, CONSUMER_GROUP_ID, offset - 1, System.currentTimeMillis(), AckOperation.AckOperationType.ACK_NORMAL));
+                } else {
+                    payload = SerializeUtil.encodePopOperation(new PopOperation(TOPIC_ID, QUEUE_ID, OP_STREAM_ID, SNAPSHOT_STREAM_ID,
+                        stateMachine, CONSUMER_GROUP_ID, messageOffset++, 1, 30_000, System.currentTimeMillis(), false,
+                        PopOperation.PopOperationType.POP_NORMAL));
+                }
+                last = streamStore.append(StoreContext.EMPTY, OP_STREAM_ID, new SingleRecord(ByteBuffer.wrap(payload)));
+            }
+            last.join();
+
+            StoreConfig storeConfig = new StoreConfig();
+            storeConfig.setRecoverOperationPageSize(config.pageSize);
+            storeConfig.setRecoverMaxPendingOperations(config.maxPending);
+            StreamOperationLogService operationLogService = new StreamOperationLogService(streamStore,
+                new SnapshotService(streamStore, kvService, storeConfig), storeConfig);
+            long start = System.nanoTime();
+            operationLogService.recover(stateMachine, OP_STREAM_ID, SNAPSHOT_STREAM_ID).join();
+            return System.nanoTime() - start;
+        } finally {
+            streamStore.shutdown();
+            kvService.destroy();
+        }
+    }
+
+    static class BenchConfig {
+        final List<Integer> operations;
+        final int pageSize;
+        final int maxPending;
+        final int ackPercent;
+
+        BenchConfig(Namespace ns) {
+            this.operations = ns.getList("operations");
+            this.pageSize = ns.getInt("pageSize");
+            this.maxPending = ns.getInt("maxPending");
+            this.ackPercent = ns.getInt("ackPercent");
+        }
+
+        static ArgumentParser parser() {
+            ArgumentParser parser = ArgumentParsers
+                .newFor("OperationLogRecoverBench")
+                .build()
+                .defaultHelp(true)
+                .description("Benchmark queue recovery time against operation log length");
+            parser.addArgument("--operations")
+                .type(Integer.class)
+                .nargs("+")
+                .setDefault(List.of(10_000, 100_000, 1_000_000))
+                .help("Lengths of the operation log to recover");
+            parser.addArgument("--page-size")
+                .dest("pageSize")
+                .type(Integer.class)
+                .setDefault(1024)
+                .help("Number of operation records fetched at a time");
+            parser.addArgument("--max-pending")
+                .dest("maxPending")
+                .type(Integer.class)
+                .setDefault(64 * 1024)
+                .help("Number of operations buffered for annihilation");
+            parser.addArgument("--ack-percent")
+                .dest("ackPercent")
+                .type(Integer.class)
+                .choices(Arguments.range(0, 50))
+                .setDefault(40)
+                .help("Percent of operations which ack the pop right before them");
+            return parser;
+        }
+    }
+}
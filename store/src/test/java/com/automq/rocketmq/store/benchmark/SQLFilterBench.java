@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.benchmark;
+
+import com.automq.rocketmq.common.model.FlatMessageExt;
+import com.automq.rocketmq.common.model.generated.FlatMessage;
+import com.automq.rocketmq.store.mock.MockMessageUtil;
+import com.automq.rocketmq.store.model.message.SQLFilter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.helper.HelpScreenException;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+/**
+ * SQLFilterBench measures the throughput of SQL92 filters over batches of flat messages, along with the share of
+ * messages they let through. Each message carries a few user properties, one of which is matched by the expressions.
+ */
+public class SQLFilterBench {
+    private static final String[] REGIONS = {"us", "eu", "ap", "sa", "af"};
+
+    public static void main(String[] args) {
+        Namespace ns = null;
+        ArgumentParser parser = BenchConfig.parser();
+        try {
+            ns = parser.parseArgs(args);
+        } catch (HelpScreenException e) {
+            System.exit(0);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+        BenchConfig config = new BenchConfig(ns);
+
+        List<FlatMessageExt> messageList = buildMessages(config.batchSize, config.properties);
+        for (String expression : config.expressions) {
+            SQLFilter filter = new SQLFilter(expression);
+            // Warm up the evaluation before measuring.
+            run(filter, messageList, config.batches / 10);
+
+            long start = System.nanoTime();
+            long matched = run(filter, messageList, config.batches);
+            long elapsedNanos = System.nanoTime() - start;
+            long messages = (long) config.batches * config.batchSize;
+            System.out.printf("%s | %d messages | %.1f%% matched | %d ms | %.0f messages per second\n",
+                expression, messages, matched * 100.0 / messages, elapsedNanos / 1_000_000, messages * 1e9 / elapsedNanos);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Filter the batch of messages for the given times.
+     *
+     * @return the number of messages matched
+     */
+    static long run(SQLFilter filter, List<FlatMessageExt> messageList, int batches) {
+        long matched = 0;
+        for (int i = 0; i < batches; i++) {
+            matched += filter.doFilter(messageList).size();
+        }
+        return matched;
+    }
+
+    static List<FlatMessageExt> buildMessages(int count, int properties) {
+        List<FlatMessageExt> messageList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, String> userProperties = new HashMap<>();
+            for (int j = 0; j < properties - 2; j++) {
+                userProperties.put("property" + j, "value" + j);
+            }
+            userProperties.put("region", REGIONS[i % REGIONS.length]);
+            userProperties.put("price", String.valueOf(i % 100));
+            FlatMessage message = FlatMessage.getRootAsFlatMessage(MockMessageUtil.buildMessage(1, 0, "Tag" + i % 4, userProperties));
+            messageList.add(FlatMessageExt.Builder.builder().message(message).offset(i).build());
+        }
+        return messageList;
+    }
+
+    static class BenchConfig {
+        final List<String> expressions;
+        final int batchSize;
+        final int batches;
+        final int properties;
+
+        BenchConfig(Namespace ns) {
+            this.expressions = ns.getList("expressions");
+            this.batchSize = ns.getInt("batchSize");
+            this.batches = ns.getInt("batches");
+            this.properties = ns.getInt("properties");
+        }
+
+        static ArgumentParser parser() {
+            ArgumentParser parser = ArgumentParsers
+                .newFor("SQLFilterBench")
+                .build()
+                .defaultHelp(true)
+                .description("Benchmark the throughput of SQL92 filters over flat messages");
+            parser.addArgument("--expressions")
+                .nargs("+")
+                .setDefault(List.of("region = 'us'", "TAGS = 'Tag1' AND price > 20", "region IN ('eu', 'ap') OR price BETWEEN 10 AND 20"))
+                .help("SQL92 expressions to filter with");
+            parser.addArgument("--batch-size")
+                .dest("batchSize")
+                .type(Integer.class)
+                .setDefault(32)
+                .help("Number of messages filtered at a time, as in one fetch");
+            parser.addArgument("--batches")
+                .type(Integer.class)
+                .setDefault(100_000)
+                .help("Number of batches filtered for each expression");
+            parser.addArgument("--properties")
+                .type(Integer.class)
+                .setDefault(8)
+                .help("Number of user properties of each message, at least 2");
+            return parser;
+        }
+    }
+}
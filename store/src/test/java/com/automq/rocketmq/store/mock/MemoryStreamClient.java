@@ -107,7 +107,12 @@ public class MemoryStreamClient implements StreamClient {
 
         @Override
         public CompletableFuture<FetchResult> fetch(long startOffset, long endOffset, int maxBytesHint, ReadOptions readOptions) {
-            List<RecordBatchWithContext> records = new ArrayList<>(recordMap.subMap(startOffset, endOffset).values());
+            // Like S3Stream, the batch which contains the start offset is returned as well.
+            Long fromOffset = recordMap.floorKey(startOffset);
+            if (fromOffset == null || recordMap.get(fromOffset).lastOffset() < startOffset) {
+                fromOffset = startOffset;
+            }
+            List<RecordBatchWithContext> records = new ArrayList<>(recordMap.subMap(fromOffset, endOffset).values());
             return CompletableFuture.completedFuture(() -> records);
         }
 
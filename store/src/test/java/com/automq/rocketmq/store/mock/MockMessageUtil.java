@@ -26,6 +26,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class MockMessageUtil {
     public static ByteBuffer buildMessage() {
@@ -33,6 +34,10 @@ public class MockMessageUtil {
     }
 
     public static ByteBuffer buildMessage(long topicId, int queueId, String tag) {
+        return buildMessage(topicId, queueId, tag, Map.of("key", "value"));
+    }
+
+    public static ByteBuffer buildMessage(long topicId, int queueId, String tag, Map<String, String> properties) {
         FlatMessageT flatMessageT = new FlatMessageT();
         flatMessageT.setTopicId(topicId);
         flatMessageT.setQueueId(queueId);
@@ -42,10 +47,12 @@ public class MockMessageUtil {
         flatMessageT.setTag(tag);
 
         List<KeyValueT> userProperties = new ArrayList<>();
-        KeyValueT keyValueT = new KeyValueT();
-        keyValueT.setKey("key");
-        keyValueT.setValue("value");
-        userProperties.add(keyValueT);
+        properties.forEach((key, value) -> {
+            KeyValueT keyValueT = new KeyValueT();
+            keyValueT.setKey(key);
+            keyValueT.setValue(value);
+            userProperties.add(keyValueT);
+        });
         flatMessageT.setUserProperties(userProperties.toArray(new KeyValueT[0]));
 
         SystemPropertiesT systemPropertiesT = new SystemPropertiesT();
@@ -19,10 +19,13 @@ package com.automq.rocketmq.store.mock;
 
 import com.automq.rocketmq.store.api.MessageStateMachine;
 import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.rocketmq.store.model.operation.BatchAckOperation;
+import com.automq.rocketmq.store.model.operation.BatchPopOperation;
 import com.automq.rocketmq.store.model.operation.ChangeInvisibleDurationOperation;
 import com.automq.rocketmq.store.model.operation.PopOperation;
 import com.automq.rocketmq.store.model.operation.ResetConsumeOffsetOperation;
 import com.automq.rocketmq.store.service.api.OperationLogService;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -37,11 +40,21 @@ public class MockOperationLogService implements OperationLogService {
         return null;
     }
 
+    @Override
+    public CompletableFuture<List<LogResult>> logBatchPopOperation(BatchPopOperation operation) {
+        return null;
+    }
+
     @Override
     public CompletableFuture<LogResult> logAckOperation(AckOperation operation) {
         return null;
     }
 
+    @Override
+    public CompletableFuture<boolean[]> logBatchAckOperation(BatchAckOperation operation) {
+        return null;
+    }
+
     @Override
     public CompletableFuture<LogResult> logChangeInvisibleDurationOperation(ChangeInvisibleDurationOperation operation) {
         return null;
@@ -28,10 +28,14 @@ import com.automq.rocketmq.metadata.api.StoreMetadataService;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang3.tuple.Pair;
 
 public class MockStoreMetadataService implements StoreMetadataService {
+    private final Set<Long> timerStreamIds = ConcurrentHashMap.newKeySet();
+
     @Override
     public CompletableFuture<StreamMetadata> dataStreamOf(long topicId, int queueId) {
         ByteBuffer buffer = ByteBuffer.allocate(8);
@@ -65,6 +69,31 @@ public class MockStoreMetadataService implements StoreMetadataService {
         return CompletableFuture.completedFuture(StreamMetadata.newBuilder().setStreamId(id).build());
     }
 
+    @Override
+    public CompletableFuture<StreamMetadata> timerStreamOf(long topicId, int queueId) {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        // Mark the stream type as timer.
+        buffer.putShort(0, (short) 5);
+        buffer.putShort(2, (short) topicId);
+        buffer.putShort(4, (short) queueId);
+        long id = buffer.getLong(0);
+        timerStreamIds.add(id);
+        return CompletableFuture.completedFuture(StreamMetadata.newBuilder().setStreamId(id).build());
+    }
+
+    @Override
+    public CompletableFuture<Optional<StreamMetadata>> existingTimerStreamOf(long topicId, int queueId) {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putShort(0, (short) 5);
+        buffer.putShort(2, (short) topicId);
+        buffer.putShort(4, (short) queueId);
+        long id = buffer.getLong(0);
+        if (!timerStreamIds.contains(id)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return CompletableFuture.completedFuture(Optional.of(StreamMetadata.newBuilder().setStreamId(id).build()));
+    }
+
     @Override
     public CompletableFuture<StreamMetadata> retryStreamOf(long consumerGroupId, long topicId, int queueId) {
         ByteBuffer buffer = ByteBuffer.allocate(8);
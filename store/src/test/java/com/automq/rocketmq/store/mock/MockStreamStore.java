@@ -21,6 +21,7 @@ import com.automq.rocketmq.store.api.StreamStore;
 import com.automq.rocketmq.store.model.StoreContext;
 import com.automq.stream.api.AppendResult;
 import com.automq.stream.api.FetchResult;
+import com.automq.stream.api.ReadOptions;
 import com.automq.stream.api.RecordBatch;
 import com.automq.stream.api.Stream;
 import com.automq.stream.api.StreamClient;
@@ -47,6 +48,16 @@ public class MockStreamStore implements StreamStore {
         return stream.fetch(startOffset, startOffset + maxCount, Integer.MAX_VALUE);
     }
 
+    @Override
+    public CompletableFuture<FetchResult> fetch(StoreContext context, long streamId, long startOffset, int maxCount,
+        ReadOptions readOptions) {
+        if (!openedStreams.containsKey(streamId)) {
+            throw new IllegalStateException("Stream " + streamId + " is not opened.");
+        }
+        Stream stream = openedStreams.get(streamId);
+        return stream.fetch(startOffset, startOffset + maxCount, Integer.MAX_VALUE, readOptions);
+    }
+
     @Override
     public CompletableFuture<AppendResult> append(StoreContext context, long streamId, RecordBatch recordBatch) {
         if (!openedStreams.containsKey(streamId)) {
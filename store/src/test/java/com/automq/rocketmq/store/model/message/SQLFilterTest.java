@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.automq.rocketmq.store.model.message;
+
+import com.automq.rocketmq.common.model.FlatMessageExt;
+import com.automq.rocketmq.common.model.generated.FlatMessage;
+import com.automq.rocketmq.store.mock.MockMessageUtil;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SQLFilterTest {
+
+    private static FlatMessageExt buildMessage(long offset, String tag, Map<String, String> properties) {
+        FlatMessage message = FlatMessage.getRootAsFlatMessage(MockMessageUtil.buildMessage(1, 0, tag, properties));
+        return FlatMessageExt.Builder.builder().message(message).offset(offset).build();
+    }
+
+    @Test
+    void doFilter() {
+        List<FlatMessageExt> messageList = List.of(
+            buildMessage(0, "TagA", Map.of("region", "eu", "price", "10")),
+            buildMessage(1, "TagB", Map.of("region", "us", "price", "20")),
+            buildMessage(2, "TagA", Map.of("region", "us", "price", "30")),
+            buildMessage(3, "TagA", Map.of()));
+
+        List<FlatMessageExt> result = new SQLFilter("region = 'us'").doFilter(messageList);
+        assertEquals(List.of(1L, 2L), result.stream().map(FlatMessageExt::offset).toList());
+
+        result = new SQLFilter("TAGS = 'TagA' AND price > 15").doFilter(messageList);
+        assertEquals(List.of(2L), result.stream().map(FlatMessageExt::offset).toList());
+
+        result = new SQLFilter("region IS NULL OR region IN ('eu')").doFilter(messageList);
+        assertEquals(List.of(0L, 3L), result.stream().map(FlatMessageExt::offset).toList());
+
+        result = new SQLFilter("KEYS = 'keys' AND price BETWEEN 10 AND 20").doFilter(messageList);
+        assertEquals(List.of(0L, 1L), result.stream().map(FlatMessageExt::offset).toList());
+    }
+
+    @Test
+    void doFilter_tag() {
+        // The expression can not be evaluated on the tag alone.
+        assertTrue(new SQLFilter("TAGS = 'TagA'").doFilter("TagB"));
+    }
+
+    @Test
+    void invalidExpression() {
+        assertThrows(IllegalArgumentException.class, () -> new SQLFilter(""));
+        assertThrows(IllegalArgumentException.class, () -> new SQLFilter("region = "));
+        assertThrows(IllegalArgumentException.class, () -> new SQLFilter("region = 'us' AND"));
+    }
+}
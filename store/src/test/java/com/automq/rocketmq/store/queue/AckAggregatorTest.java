@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.queue;
+
+import com.automq.rocketmq.store.exception.StoreErrorCode;
+import com.automq.rocketmq.store.exception.StoreException;
+import com.automq.rocketmq.store.model.operation.AckOperation;
+import com.automq.stream.utils.FutureUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AckAggregatorTest {
+
+    @Test
+    public void testGroupCommitWaitingAcks() {
+        List<List<AckOperation>> loggedBatches = new ArrayList<>();
+        List<CompletableFuture<boolean[]>> logCfs = new ArrayList<>();
+        AckAggregator aggregator = new AckAggregator(operations -> {
+            loggedBatches.add(operations);
+            CompletableFuture<boolean[]> cf = new CompletableFuture<>();
+            logCfs.add(cf);
+            return cf;
+        }, 1, 2);
+
+        List<CompletableFuture<Void>> ackCfs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ackCfs.add(aggregator.ack(ackOperation(i)));
+        }
+        // The first ack is logged directly, the others wait for it.
+        assertEquals(1, loggedBatches.size());
+        assertEquals(1, loggedBatches.get(0).size());
+
+        logCfs.get(0).complete(new boolean[] {true});
+        ackCfs.get(0).join();
+        // The waiting acks are committed together, bounded by the max batch count.
+        assertEquals(2, loggedBatches.size());
+        assertEquals(List.of(ackOperation(1), ackOperation(2)), loggedBatches.get(1));
+        assertFalse(ackCfs.get(1).isDone());
+
+        // The ack whose check point is not found fails alone.
+        logCfs.get(1).complete(new boolean[] {true, false});
+        ackCfs.get(1).join();
+        CompletionException e = assertThrows(CompletionException.class, () -> ackCfs.get(2).join());
+        assertInstanceOf(StoreException.class, FutureUtil.cause(e));
+        assertEquals(StoreErrorCode.ILLEGAL_ARGUMENT, ((StoreException) FutureUtil.cause(e)).code());
+        assertEquals(3, loggedBatches.size());
+
+        logCfs.get(2).completeExceptionally(new RuntimeException("mock append failure"));
+        assertTrue(ackCfs.get(3).isCompletedExceptionally());
+
+        // The inflight slot is released after the failure.
+        aggregator.ack(ackOperation(4));
+        assertEquals(4, loggedBatches.size());
+    }
+
+    private static AckOperation ackOperation(long operationId) {
+        return new AckOperation(1, 2, 3, 4, null, 5, operationId, 0, AckOperation.AckOperationType.ACK_NORMAL);
+    }
+}
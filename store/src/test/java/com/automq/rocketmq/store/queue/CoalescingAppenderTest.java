@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.automq.rocketmq.store.queue;
+
+import com.automq.rocketmq.common.model.generated.FlatMessage;
+import com.automq.rocketmq.store.model.StoreContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+import static com.automq.rocketmq.store.mock.MockMessageUtil.buildMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CoalescingAppenderTest {
+
+    @Test
+    public void testCoalesceWaitingPuts() {
+        List<List<FlatMessage>> appendedBatches = new ArrayList<>();
+        List<CompletableFuture<Long>> appendCfs = new ArrayList<>();
+        CoalescingAppender appender = new CoalescingAppender((context, messages) -> {
+            appendedBatches.add(messages);
+            CompletableFuture<Long> cf = new CompletableFuture<>();
+            appendCfs.add(cf);
+            return cf;
+        }, 1, 2, Integer.MAX_VALUE);
+
+        List<CompletableFuture<Long>> putCfs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            putCfs.add(appender.append(StoreContext.EMPTY, FlatMessage.getRootAsFlatMessage(buildMessage(1, 1, "TagA"))));
+        }
+        // The first put is appended directly, the others wait for it.
+        assertEquals(1, appendedBatches.size());
+        assertEquals(1, appendedBatches.get(0).size());
+
+        appendCfs.get(0).complete(0L);
+        assertEquals(0L, putCfs.get(0).join());
+        // The waiting puts are coalesced, bounded by the max batch count.
+        assertEquals(2, appendedBatches.size());
+        assertEquals(2, appendedBatches.get(1).size());
+        assertFalse(putCfs.get(1).isDone());
+
+        appendCfs.get(1).complete(1L);
+        assertEquals(1L, putCfs.get(1).join());
+        assertEquals(2L, putCfs.get(2).join());
+        assertEquals(3, appendedBatches.size());
+        assertEquals(1, appendedBatches.get(2).size());
+
+        appendCfs.get(2).completeExceptionally(new RuntimeException("mock append failure"));
+        assertTrue(putCfs.get(3).isCompletedExceptionally());
+
+        // The inflight slot is released after the failure.
+        appender.append(StoreContext.EMPTY, FlatMessage.getRootAsFlatMessage(buildMessage(1, 1, "TagA")));
+        assertEquals(4, appendedBatches.size());
+    }
+}
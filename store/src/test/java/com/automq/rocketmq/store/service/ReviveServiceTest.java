@@ -79,7 +79,7 @@ class ReviveServiceTest {
         OperationLogService operationLogService = new StreamOperationLogService(streamStore, snapshotService, new StoreConfig());
         StreamReclaimService streamReclaimService = new StreamReclaimService(streamStore);
         logicQueue = new StreamLogicQueue(new StoreConfig(), TOPIC_ID, QUEUE_ID,
-            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService);
+            metadataService, stateMachine, streamStore, operationLogService, inflightService, streamReclaimService, timerService);
         LogicQueueManager manager = Mockito.mock(LogicQueueManager.class);
         Mockito.doAnswer(ink -> CompletableFuture.completedFuture(logicQueue)).when(manager).getOrCreate(Mockito.any(), Mockito.eq(TOPIC_ID), Mockito.eq(QUEUE_ID));
         deadLetterSender = Mockito.mock(DeadLetterSender.class);
@@ -154,6 +154,50 @@ class ReviveServiceTest {
         assertEquals(0, popResult1.messageList().size());
     }
 
+    @Test
+    void revive_batch() throws StoreException {
+        // mock max delivery attempts
+        Mockito.doReturn(CompletableFuture.completedFuture(16))
+            .when(metadataService).maxDeliveryAttemptsOf(Mockito.anyLong());
+        // Append mock message.
+        int count = 10;
+        for (int i = 0; i < count; i++) {
+            FlatMessage message = FlatMessage.getRootAsFlatMessage(buildMessage(TOPIC_ID, QUEUE_ID, "TagA"));
+            logicQueue.put(StoreContext.EMPTY, message).join();
+        }
+        // pop messages, which expire at the same time
+        int invisibleDuration = 100;
+        long reviveTimestamp = System.currentTimeMillis() + invisibleDuration;
+        PopResult popResult = logicQueue.popNormal(StoreContext.EMPTY, CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, count, invisibleDuration).join();
+        assertEquals(count, popResult.messageList().size());
+
+        await().until(() -> {
+            timerService.dequeue();
+            return reviveService.reviveTimestamp() >= reviveTimestamp && reviveService.inflightReviveCount() == 0;
+        });
+        // the idle queue reviver is dropped
+        await().until(() -> reviveService.queueReviverCount() == 0);
+
+        // check all cks are acked
+        for (FlatMessageExt messageExt : popResult.messageList()) {
+            assertTrue(messageExt.receiptHandle().isPresent());
+            ReceiptHandle handle = SerializeUtil.decodeReceiptHandle(messageExt.receiptHandle().get());
+            byte[] ckValue = kvService.get(KV_NAMESPACE_CHECK_POINT, SerializeUtil.buildCheckPointKey(TOPIC_ID, QUEUE_ID, handle.consumerGroupId(), handle.operationId()));
+            assertNull(ckValue);
+        }
+
+        // check the messages are appended to retry stream in order
+        PullResult retryPullResult = logicQueue.pullRetry(CONSUMER_GROUP_ID, Filter.DEFAULT_FILTER, 0, 32).join();
+        assertEquals(count, retryPullResult.messageList().size());
+        for (int i = 0; i < count; i++) {
+            FlatMessageExt messageExt = retryPullResult.messageList().get(i);
+            assertEquals(i, messageExt.offset());
+            assertEquals(i, messageExt.originalOffset());
+            assertEquals(2, messageExt.deliveryAttempts());
+        }
+        Mockito.verify(deadLetterSender, Mockito.never()).send(Mockito.any(), Mockito.anyLong(), Mockito.any(FlatMessageExt.class));
+    }
+
     @Test
     void revive_fifo() throws StoreException {
         Mockito.doAnswer(ink -> {
@@ -17,20 +17,30 @@
 
 package com.automq.rocketmq.store.service;
 
+import com.automq.rocketmq.common.config.StoreConfig;
+import com.automq.rocketmq.store.MessageStoreImpl;
 import com.automq.rocketmq.store.api.StreamStore;
 import com.automq.rocketmq.store.exception.StoreErrorCode;
 import com.automq.rocketmq.store.exception.StoreException;
 import com.automq.rocketmq.store.mock.MockStreamStore;
 import com.automq.rocketmq.store.model.StoreContext;
+import com.automq.rocketmq.store.model.generated.CheckPoint;
+import com.automq.rocketmq.store.model.kv.BatchDeleteRequest;
+import com.automq.rocketmq.store.model.kv.BatchWriteRequest;
 import com.automq.rocketmq.store.model.operation.OperationSnapshot;
+import com.automq.rocketmq.store.model.operation.PopOperation;
 import com.automq.rocketmq.store.model.stream.SingleRecord;
 import com.automq.rocketmq.store.service.api.KVService;
+import com.automq.rocketmq.store.util.SerializeUtil;
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.apache.rocketmq.common.UtilAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -41,6 +51,7 @@ import org.mockito.Mockito;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class SnapshotServiceTest {
@@ -96,6 +107,145 @@ public class SnapshotServiceTest {
         assertEquals(1, streamStore.nextOffset(SNAPSHOT_STREAM_ID));
     }
 
+    @Test
+    public void test_take_delta_snapshot() throws StoreException {
+        for (int i = 0; i < 100; i++) {
+            streamStore.append(StoreContext.EMPTY, OP_STREAM_ID, buildRecord());
+        }
+        kvService.batch(writeCheckPointRequest(1), writeCheckPointRequest(2));
+        SnapshotService.SnapshotTask.Supplier<OperationSnapshot> fullSnapshotSupplier = () -> new OperationSnapshot(9, kvService.takeSnapshot(), Collections.emptyList());
+
+        // 1. the first snapshot is a full one
+        snapshotService.addSnapshotTask(new SnapshotService.SnapshotTask(TOPIC_ID, QUEUE_ID, OP_STREAM_ID, SNAPSHOT_STREAM_ID,
+            fullSnapshotSupplier, () -> {
+                throw new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "a delta snapshot without base");
+            })).join();
+        assertEquals(0, snapshotService.getSnapshotStatus(TOPIC_ID, QUEUE_ID).baseSnapshotOffset().get());
+
+        // 2. delete check point 1, add check point 3 and take a delta snapshot
+        kvService.batch(new BatchDeleteRequest(MessageStoreImpl.KV_NAMESPACE_CHECK_POINT, SerializeUtil.buildCheckPointKey(TOPIC_ID, QUEUE_ID, 0, 1)),
+            writeCheckPointRequest(3));
+        SnapshotService.TakeSnapshotResult result = snapshotService.addSnapshotTask(new SnapshotService.SnapshotTask(TOPIC_ID, QUEUE_ID, OP_STREAM_ID, SNAPSHOT_STREAM_ID,
+            () -> {
+                throw new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "a full snapshot is not expected");
+            }, () -> {
+                OperationSnapshot snapshot = new OperationSnapshot(19, kvService.takeSnapshot(), Collections.emptyList());
+                snapshot.setChangedCheckPointKeys(List.of(SerializeUtil.buildCheckPointKey(TOPIC_ID, QUEUE_ID, 0, 1),
+                    SerializeUtil.buildCheckPointKey(TOPIC_ID, QUEUE_ID, 0, 3)));
+                return snapshot;
+            })).join();
+        assertTrue(result.success());
+        assertEquals(20, result.newOpStartOffset());
+        assertEquals(20, streamStore.startOffset(OP_STREAM_ID));
+        assertEquals(0, streamStore.startOffset(SNAPSHOT_STREAM_ID));
+        assertEquals(2, streamStore.nextOffset(SNAPSHOT_STREAM_ID));
+
+        List<OperationSnapshot> snapshots = streamStore.fetch(StoreContext.EMPTY, SNAPSHOT_STREAM_ID, 0, 2).join().recordBatchList().stream()
+            .map(batch -> SerializeUtil.decodeOperationSnapshot(batch.rawPayload()))
+            .toList();
+        assertFalse(snapshots.get(0).isDelta());
+        assertEquals(2, snapshots.get(0).getCheckPoints().size());
+        OperationSnapshot delta = snapshots.get(1);
+        assertTrue(delta.isDelta());
+        assertEquals(0, delta.getBaseSnapshotOffset());
+        assertEquals(1, delta.getCheckPoints().size());
+        assertEquals(3, delta.getCheckPoints().get(0).operationId());
+        assertEquals(List.of(new OperationSnapshot.CheckPointId(0, 1)), delta.getDeletedCheckPoints());
+
+        OperationSnapshot merged = OperationSnapshot.merge(snapshots.get(0), snapshots.subList(1, 2));
+        assertEquals(19, merged.getSnapshotEndOffset());
+        assertEquals(List.of(2L, 3L), merged.getCheckPoints().stream().map(CheckPoint::operationId).toList());
+
+        // 3. a failed snapshot makes the next one full, which trims the snapshots before it
+        assertThrows(CompletionException.class, () -> snapshotService.addSnapshotTask(new SnapshotService.SnapshotTask(TOPIC_ID, QUEUE_ID, OP_STREAM_ID, SNAPSHOT_STREAM_ID,
+            fullSnapshotSupplier, () -> {
+                throw new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "test");
+            })).join());
+        snapshotService.addSnapshotTask(new SnapshotService.SnapshotTask(TOPIC_ID, QUEUE_ID, OP_STREAM_ID, SNAPSHOT_STREAM_ID,
+            () -> new OperationSnapshot(29, kvService.takeSnapshot(), Collections.emptyList()), () -> {
+                throw new StoreException(StoreErrorCode.ILLEGAL_ARGUMENT, "a full snapshot is expected");
+            })).join();
+        assertEquals(30, streamStore.startOffset(OP_STREAM_ID));
+        assertEquals(2, streamStore.startOffset(SNAPSHOT_STREAM_ID));
+        assertEquals(3, streamStore.nextOffset(SNAPSHOT_STREAM_ID));
+    }
+
+    private BatchWriteRequest writeCheckPointRequest(long operationId) {
+        return new BatchWriteRequest(MessageStoreImpl.KV_NAMESPACE_CHECK_POINT, SerializeUtil.buildCheckPointKey(TOPIC_ID, QUEUE_ID, 0, operationId),
+            SerializeUtil.buildCheckPointValue(TOPIC_ID, QUEUE_ID, operationId, 1, 0, operationId, PopOperation.PopOperationType.POP_NORMAL, 0, 0));
+    }
+
+    @Test
+    public void test_take_snapshots_of_queues_concurrently() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        List<CompletableFuture<SnapshotService.TakeSnapshotResult>> taskCfs = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            int queueId = QUEUE_ID + 1 + i;
+            streamStore.open(OP_STREAM_ID + queueId, 0).join();
+            streamStore.open(SNAPSHOT_STREAM_ID + queueId, 0).join();
+            // each snapshot waits for the other one, which would dead lock if they were taken one by one
+            taskCfs.add(snapshotService.addSnapshotTask(new SnapshotService.SnapshotTask(TOPIC_ID, queueId, OP_STREAM_ID + queueId, SNAPSHOT_STREAM_ID + queueId,
+                () -> {
+                    latch.countDown();
+                    try {
+                        assertTrue(latch.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Assertions.fail(e);
+                    }
+                    return new OperationSnapshot(-1, 0, Collections.emptyList());
+                })));
+        }
+        taskCfs.forEach(cf -> assertTrue(cf.join().success()));
+    }
+
+    @Test
+    public void test_take_snapshot_of_longest_operation_log_first() throws Exception {
+        snapshotService.shutdown();
+        StoreConfig config = new StoreConfig();
+        config.setOperationSnapshotThreadPoolNums(1);
+        snapshotService = new SnapshotService(streamStore, kvService, config);
+        snapshotService.start();
+
+        // 1. block the only worker
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        CompletableFuture<SnapshotService.TakeSnapshotResult> blockingCf = snapshotService.addSnapshotTask(new SnapshotService.SnapshotTask(TOPIC_ID, QUEUE_ID, OP_STREAM_ID, SNAPSHOT_STREAM_ID,
+            () -> {
+                running.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Assertions.fail(e);
+                }
+                return new OperationSnapshot(-1, 0, Collections.emptyList());
+            }));
+        running.await();
+
+        // 2. add snapshot tasks of queues with different operation log lengths
+        List<Integer> takenQueues = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<SnapshotService.TakeSnapshotResult>> taskCfs = new ArrayList<>();
+        for (int lag : new int[] {10, 1000, 100}) {
+            int queueId = QUEUE_ID + lag;
+            streamStore.open(OP_STREAM_ID + queueId, 0).join();
+            streamStore.open(SNAPSHOT_STREAM_ID + queueId, 0).join();
+            SnapshotService.SnapshotStatus status = snapshotService.getSnapshotStatus(TOPIC_ID, queueId);
+            status.operationStartOffset().set(0);
+            status.lastOperationOffset().set(lag - 1);
+            assertEquals(lag, status.lag());
+            taskCfs.add(snapshotService.addSnapshotTask(new SnapshotService.SnapshotTask(TOPIC_ID, queueId, OP_STREAM_ID + queueId, SNAPSHOT_STREAM_ID + queueId,
+                () -> {
+                    takenQueues.add(queueId);
+                    return new OperationSnapshot(-1, 0, Collections.emptyList());
+                })));
+        }
+
+        // 3. release the worker
+        latch.countDown();
+        assertTrue(blockingCf.join().success());
+        taskCfs.forEach(cf -> assertTrue(cf.join().success()));
+        assertEquals(List.of(QUEUE_ID + 1000, QUEUE_ID + 100, QUEUE_ID + 10), takenQueues);
+    }
+
     @Test
     public void test_take_snapshot_fail() {
         // 1. append 100 operation records
@@ -17,6 +17,7 @@
 
 package com.automq.rocketmq.store.service;
 
+import com.automq.rocketmq.common.config.StoreConfig;
 import com.automq.rocketmq.store.MessageStoreTest;
 import com.automq.rocketmq.store.exception.StoreException;
 import com.automq.rocketmq.store.model.generated.TimerHandlerType;
@@ -119,4 +120,69 @@ class TimerServiceTest {
         timerService.dequeue();
         assertEquals(0, counter.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void enqueue_after_loaded() throws StoreException {
+        AtomicInteger counter = new AtomicInteger(0);
+        timerService.registerHandler(TimerHandlerType.TIMER_MESSAGE, (timerTag) -> {
+            assertTrue(timerTag.deliveryTimestamp() <= System.currentTimeMillis());
+            counter.incrementAndGet();
+        });
+
+        // Load the time range of the tags below into the timing wheel.
+        timerService.dequeue();
+
+        long deliveryTimestamp = System.currentTimeMillis() + 20;
+        kvService.batch(
+            timerService.enqueueRequest(deliveryTimestamp, "identity0".getBytes(), TimerHandlerType.TIMER_MESSAGE, "payload".getBytes()),
+            timerService.enqueueRequest(deliveryTimestamp, "identity1".getBytes(), TimerHandlerType.TIMER_MESSAGE, "payload".getBytes()));
+        timerService.onBatchWritten(
+            timerService.enqueueRequest(deliveryTimestamp, "identity0".getBytes(), TimerHandlerType.TIMER_MESSAGE, "payload".getBytes()),
+            timerService.enqueueRequest(deliveryTimestamp, "identity1".getBytes(), TimerHandlerType.TIMER_MESSAGE, "payload".getBytes()));
+
+        kvService.batch(timerService.cancelRequest(deliveryTimestamp, "identity1".getBytes()));
+        timerService.onBatchWritten(timerService.cancelRequest(deliveryTimestamp, "identity1".getBytes()));
+
+        await().atMost(1, TimeUnit.SECONDS)
+            .until(() -> {
+                timerService.dequeue();
+                return counter.get() == 1;
+            });
+
+        // Fired tags are deleted from the KV store.
+        AtomicInteger remaining = new AtomicInteger(0);
+        kvService.iterate(MessageStoreTest.KV_NAMESPACE_TIMER_TAG, (key, value) -> remaining.incrementAndGet());
+        assertEquals(0, remaining.get());
+    }
+
+    @Test
+    void load_in_chunks() throws StoreException, InterruptedException {
+        kvService.destroy();
+        kvService = new RocksDBKVService(PATH);
+        StoreConfig config = new StoreConfig();
+        config.setTimerWheelLoadAheadMillis(200);
+        config.setTimerWheelLoadChunkMillis(50);
+        timerService = new TimerService(MessageStoreTest.KV_NAMESPACE_TIMER_TAG, kvService, config);
+
+        AtomicInteger counter = new AtomicInteger(0);
+        timerService.registerHandler(TimerHandlerType.TIMER_MESSAGE, (timerTag) -> {
+            assertTrue(timerTag.deliveryTimestamp() <= System.currentTimeMillis());
+            counter.incrementAndGet();
+        });
+
+        long now = System.currentTimeMillis();
+        timerService.enqueue(now - 1000, "overdue".getBytes(), TimerHandlerType.TIMER_MESSAGE, "payload".getBytes());
+        timerService.dequeue();
+        assertEquals(1, counter.get());
+
+        // Tags beyond the loaded range are loaded from the KV store once the range catches up with them.
+        for (int i = 0; i < 10; i++) {
+            timerService.enqueue(now + 300 + i * 20, ("identity" + i).getBytes(), TimerHandlerType.TIMER_MESSAGE, "payload".getBytes());
+        }
+        await().atMost(2, TimeUnit.SECONDS)
+            .until(() -> {
+                timerService.dequeue();
+                return counter.get() == 11;
+            });
+    }
+}
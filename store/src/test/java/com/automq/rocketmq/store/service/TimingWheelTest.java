@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.automq.rocketmq.store.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void advance() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1000);
+        // Delays covering the boundaries of every level.
+        long[] delays = {1, 255, 256, 257, 65535, 65536, 70000, 16777216, 20000000};
+        for (long delay : delays) {
+            wheel.add(1000 + delay, 1000 + delay);
+        }
+        // Keys due now or already expired expire at the next tick.
+        wheel.add(1000L, 1000);
+        wheel.add(10L, 10);
+        assertEquals(delays.length + 2, wheel.size());
+
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(1000, expired::add);
+        expired.sort(Long::compare);
+        assertEquals(List.of(10L, 1000L), expired);
+
+        for (long delay : delays) {
+            long time = 1000 + delay;
+            expired.clear();
+            wheel.advance(time - 1, expired::add);
+            assertTrue(expired.isEmpty(), "key " + time + " expired early: " + expired);
+            wheel.advance(time, expired::add);
+            assertEquals(List.of(time), expired);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_random() {
+        Random random = new Random(0);
+        long startTime = random.nextInt(1 << 20);
+        TimingWheel<Integer> wheel = new TimingWheel<>(startTime);
+        long[] expireTimes = new long[10000];
+        for (int i = 0; i < expireTimes.length; i++) {
+            expireTimes[i] = startTime + random.nextInt(1 << 18);
+            wheel.add(i, expireTimes[i]);
+        }
+
+        long time = startTime;
+        int count = 0;
+        while (wheel.size() > 0) {
+            time += random.nextInt(1000);
+            long now = time;
+            List<Integer> expired = new ArrayList<>();
+            wheel.advance(now, expired::add);
+            for (int key : expired) {
+                assertTrue(expireTimes[key] <= now);
+                assertTrue(expireTimes[key] > now - 1000);
+            }
+            count += expired.size();
+        }
+        assertEquals(expireTimes.length, count);
+    }
+
+    @Test
+    void remove() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.add("a", 100);
+        wheel.add("b", 100_000);
+        wheel.add("c", 100);
+        // Adding a key again replaces its expire time.
+        wheel.add("c", 300);
+        assertTrue(wheel.remove("a"));
+        assertFalse(wheel.remove("a"));
+        assertTrue(wheel.remove("b"));
+        assertFalse(wheel.contains("b"));
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(200, expired::add);
+        assertTrue(expired.isEmpty());
+        wheel.advance(300, expired::add);
+        assertEquals(List.of("c"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void time_to_next_tick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10);
+        assertEquals(100, wheel.timeToNextTick(100));
+
+        wheel.add("a", 30);
+        assertEquals(20, wheel.timeToNextTick(100));
+
+        // Keys on higher levels wake the wheel up at the end of the lowest level's round.
+        wheel.remove("a");
+        wheel.add("b", 10_000);
+        assertEquals(246, wheel.timeToNextTick(1000));
+    }
+}
@@ -22,6 +22,8 @@ import com.automq.rocketmq.store.model.generated.CheckPoint;
 import com.automq.rocketmq.store.model.generated.ReceiptHandle;
 import com.automq.rocketmq.store.model.operation.AckOperation;
 import com.automq.rocketmq.store.model.operation.AckOperation.AckOperationType;
+import com.automq.rocketmq.store.model.operation.BatchAckOperation;
+import com.automq.rocketmq.store.model.operation.BatchPopOperation;
 import com.automq.rocketmq.store.model.operation.ChangeInvisibleDurationOperation;
 import com.automq.rocketmq.store.model.operation.Operation;
 import com.automq.rocketmq.store.model.operation.OperationSnapshot;
@@ -269,6 +271,38 @@ public class SerializeUtilTest {
         Assertions.assertEquals(PopOperationType.POP_ORDER, pOps.popOperationType());
     }
 
+    @Test
+    public void testBatchAckOperationCodec() throws StoreException {
+        List<AckOperation> acks = List.of(
+            new AckOperation(1, 2, 3, 4, null, 5, 6, 7, AckOperationType.ACK_NORMAL),
+            new AckOperation(1, 2, 3, 4, null, 8, 9, 10, AckOperationType.ACK_TIMEOUT));
+        BatchAckOperation op = new BatchAckOperation(1, 2, 3, 4, null, acks);
+        byte[] data = SerializeUtil.encodeBatchAckOperation(op);
+        Operation ops = SerializeUtil.decodeOperation(ByteBuffer.wrap(data), null, 3, 4);
+        Assertions.assertTrue(ops instanceof BatchAckOperation);
+        BatchAckOperation bOps = (BatchAckOperation) ops;
+        Assertions.assertEquals(1, bOps.topicId());
+        Assertions.assertEquals(2, bOps.queueId());
+        Assertions.assertEquals(3, bOps.operationStreamId());
+        Assertions.assertEquals(4, bOps.snapshotStreamId());
+        Assertions.assertEquals(acks, bOps.ackOperations());
+        Assertions.assertEquals(op, bOps);
+    }
+
+    @Test
+    public void testBatchPopOperationCodec() throws StoreException {
+        BatchPopOperation op = new BatchPopOperation(1, 2, 3, 4, null, 5, 6,
+            12, new long[] {6, 8, 9}, 9, 7, PopOperationType.POP_RETRY);
+        byte[] data = SerializeUtil.encodeBatchPopOperation(op);
+        Operation ops = SerializeUtil.decodeOperation(ByteBuffer.wrap(data), null, 3, 4);
+        assertBasicOps(ops);
+        Assertions.assertTrue(ops instanceof BatchPopOperation);
+        BatchPopOperation bOps = (BatchPopOperation) ops;
+        Assertions.assertEquals(op, bOps);
+        Assertions.assertArrayEquals(new long[] {6, 8, 9}, bOps.offsets());
+        Assertions.assertEquals(3, bOps.operationCount());
+    }
+
     @Test
     public void testResetConsumeOffsetOperationCodec() throws StoreException {
         ResetConsumeOffsetOperation op = new ResetConsumeOffsetOperation(1, 2, 3,